@@ -5,16 +5,30 @@ import net.bertag.operators.api.Dividable;
 import net.bertag.operators.api.Multipliable;
 import net.bertag.operators.api.Scalable;
 import net.bertag.operators.api.Subtractable;
+import net.bertag.operators.sum.ExactSum;
+import net.bertag.operators.types.BigCount;
+import net.bertag.operators.types.Decimal64;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
  * Utility class defining null-safe transformation operations.
  */
 public class Ops {
 
+    private static final int COMPACT_DIGITS = 18;
+    private static final int DOUBLE_MANTISSA_BITS = 53;
+    private static final double LONG_SAFE_BOUND = 0x1p62;
+    private static final BigDecimal HALF = BigDecimal.valueOf(5, 1);
+
     /**
      * Adds the two numbers together (`a + b`) if at least one input is non-null (substituting 0 for the other input if
      * it is null), or returning null if both inputs are null.
@@ -75,6 +89,81 @@ public class Ops {
         return allNull(a, b) ? null : defaultIfNull(a, 0d) + defaultIfNull(b, 0d);
     }
 
+    /**
+     * Adds the two numbers together ({@code a + b}) if at least one input is non-null (substituting 0 for the other
+     * input if it is null), or returning null if both inputs are null.  If one input is null, the other input is
+     * returned as-is since substituting 0 could not change it.
+     *
+     * @param a some nullable number
+     * @param b another nullable number
+     * @return the exact sum as described, or null if both inputs are null
+     */
+    public static BigDecimal plus(BigDecimal a, BigDecimal b) {
+        if (a == null) return b;
+        else if (b == null) return a;
+        else return a.add(b);
+    }
+
+    /**
+     * Adds the two numbers together ({@code a + b}) if at least one input is non-null (substituting 0 for the other
+     * input if it is null), or returning null if both inputs are null.  The result is rounded according to the given
+     * context.
+     *
+     * @param a some nullable number
+     * @param b another nullable number
+     * @param mc the context used to round the result
+     * @return the sum as described, or null if both inputs are null
+     */
+    public static BigDecimal plus(BigDecimal a, BigDecimal b, MathContext mc) {
+        if (a == null) return b != null ? b.round(mc) : null;
+        else if (b == null) return a.round(mc);
+        else return compact(a, b) ? a.add(b).round(mc) : a.add(b, mc);
+    }
+
+    /**
+     * Adds the two numbers together ({@code a + b}) if at least one input is non-null (substituting 0 for the other
+     * input if it is null), or returning null if both inputs are null.
+     *
+     * @param a some nullable number
+     * @param b another nullable number
+     * @return the sum as described, or null if both inputs are null
+     */
+    public static BigInteger plus(BigInteger a, BigInteger b) {
+        if (a == null) return b;
+        else if (b == null) return a;
+        else return fitsInLong(a, b) ? BigInteger.valueOf(a.longValue() + b.longValue()) : a.add(b);
+    }
+
+    /**
+     * Adds the two counts together ({@code a + b}) if at least one input is non-null (substituting 0 for the other
+     * input if it is null), or returning null if both inputs are null.  Unlike {@link #plus(Long, Long)}, the result
+     * never overflows.
+     *
+     * @param a some nullable count
+     * @param b another nullable count
+     * @return the sum as described, or null if both inputs are null
+     */
+    public static BigCount plus(BigCount a, BigCount b) {
+        if (a == null) return b;
+        else if (b == null) return a;
+        else return a.plus(b);
+    }
+
+    /**
+     * Adds the two decimals together ({@code a + b}) if at least one input is non-null (substituting 0 for the other
+     * input if it is null), or returning null if both inputs are null.
+     *
+     * @param a some nullable decimal
+     * @param b another nullable decimal
+     * @return the sum as described, or null if both inputs are null
+     * @throws ArithmeticException if the sum overflows
+     */
+    public static Decimal64 plus(Decimal64 a, Decimal64 b) {
+        if (a == null) return b;
+        else if (b == null) return a;
+        else return a.plus(b);
+    }
+
     /**
      * Adds the two objects together ({@code a + b}) using {@link Addable#plus(Object)} if both inputs are non-null; if
      * either input is null, the other input is returned.
@@ -148,6 +237,80 @@ public class Ops {
         return allNull(a, b) ? null : defaultIfNull(a, 0d) - defaultIfNull(b, 0d);
     }
 
+    /**
+     * Subtracts the second number from the first ({@code a - b}) if at least one input is non-null (substituting 0 for
+     * the other input if it is null), or null if both inputs are null.
+     *
+     * @param a some nullable number
+     * @param b another nullable number
+     * @return the exact difference as described, or null if both inputs are null
+     */
+    public static BigDecimal minus(BigDecimal a, BigDecimal b) {
+        if (a == null) return b != null ? b.negate() : null;
+        else if (b == null) return a;
+        else return a.subtract(b);
+    }
+
+    /**
+     * Subtracts the second number from the first ({@code a - b}) if at least one input is non-null (substituting 0 for
+     * the other input if it is null), or null if both inputs are null.  The result is rounded according to the given
+     * context.
+     *
+     * @param a some nullable number
+     * @param b another nullable number
+     * @param mc the context used to round the result
+     * @return the difference as described, or null if both inputs are null
+     */
+    public static BigDecimal minus(BigDecimal a, BigDecimal b, MathContext mc) {
+        if (a == null) return b != null ? b.negate(mc) : null;
+        else if (b == null) return a.round(mc);
+        else return compact(a, b) ? a.subtract(b).round(mc) : a.subtract(b, mc);
+    }
+
+    /**
+     * Subtracts the second number from the first ({@code a - b}) if at least one input is non-null (substituting 0 for
+     * the other input if it is null), or null if both inputs are null.
+     *
+     * @param a some nullable number
+     * @param b another nullable number
+     * @return the difference as described, or null if both inputs are null
+     */
+    public static BigInteger minus(BigInteger a, BigInteger b) {
+        if (a == null) return b != null ? b.negate() : null;
+        else if (b == null) return a;
+        else return fitsInLong(a, b) ? BigInteger.valueOf(a.longValue() - b.longValue()) : a.subtract(b);
+    }
+
+    /**
+     * Subtracts the second count from the first ({@code a - b}) if at least one input is non-null (substituting 0 for
+     * the other input if it is null), or null if both inputs are null.  Unlike {@link #minus(Long, Long)}, the result
+     * never overflows.
+     *
+     * @param a some nullable count
+     * @param b another nullable count
+     * @return the difference as described, or null if both inputs are null
+     */
+    public static BigCount minus(BigCount a, BigCount b) {
+        if (a == null) return b != null ? b.negate() : null;
+        else if (b == null) return a;
+        else return a.minus(b);
+    }
+
+    /**
+     * Subtracts the second decimal from the first ({@code a - b}) if at least one input is non-null (substituting 0
+     * for the other input if it is null), or null if both inputs are null.
+     *
+     * @param a some nullable decimal
+     * @param b another nullable decimal
+     * @return the difference as described, or null if both inputs are null
+     * @throws ArithmeticException if the difference overflows
+     */
+    public static Decimal64 minus(Decimal64 a, Decimal64 b) {
+        if (a == null) return b != null ? b.negate() : null;
+        else if (b == null) return a;
+        else return a.minus(b);
+    }
+
     /**
      * Subtracts the second object from the first ({@code a - b}) using {@link Subtractable#minus(Object)} if both
      * inputs are non-null; if either input is null, the other input is returned.
@@ -221,6 +384,83 @@ public class Ops {
         return allNull(a, b) ? null : defaultIfNull(a, 1d) * defaultIfNull(b, 1d);
     }
 
+    /**
+     * Multiplies the two numbers together ({@code a * b}) if at least one input is non-null (substituting 1 for the
+     * other input if it is null), or null if both inputs are null.  If one input is null, the other input is returned
+     * as-is since substituting 1 could not change it.
+     *
+     * @param a some nullable number
+     * @param b another nullable number
+     * @return the exact product as described, or null if both inputs are null
+     */
+    public static BigDecimal times(BigDecimal a, BigDecimal b) {
+        if (a == null) return b;
+        else if (b == null) return a;
+        else return a.multiply(b);
+    }
+
+    /**
+     * Multiplies the two numbers together ({@code a * b}) if at least one input is non-null (substituting 1 for the
+     * other input if it is null), or null if both inputs are null.  The result is rounded according to the given
+     * context.
+     *
+     * @param a some nullable number
+     * @param b another nullable number
+     * @param mc the context used to round the result
+     * @return the product as described, or null if both inputs are null
+     */
+    public static BigDecimal times(BigDecimal a, BigDecimal b, MathContext mc) {
+        if (a == null) return b != null ? b.round(mc) : null;
+        else if (b == null) return a.round(mc);
+        else return a.multiply(b, mc);
+    }
+
+    /**
+     * Multiplies the two numbers together ({@code a * b}) if at least one input is non-null (substituting 1 for the
+     * other input if it is null), or null if both inputs are null.
+     *
+     * @param a some nullable number
+     * @param b another nullable number
+     * @return the product as described, or null if both inputs are null
+     */
+    public static BigInteger times(BigInteger a, BigInteger b) {
+        if (a == null) return b;
+        else if (b == null) return a;
+        else if (a.bitLength() + b.bitLength() < Long.SIZE - 1)
+            return BigInteger.valueOf(a.longValue() * b.longValue());
+        else return a.multiply(b);
+    }
+
+    /**
+     * Multiplies the two counts together ({@code a * b}) if at least one input is non-null (substituting 1 for the
+     * other input if it is null), or null if both inputs are null.  Unlike {@link #times(Long, Long)}, the result
+     * never overflows.
+     *
+     * @param a some nullable count
+     * @param b another nullable count
+     * @return the product as described, or null if both inputs are null
+     */
+    public static BigCount times(BigCount a, BigCount b) {
+        if (a == null) return b;
+        else if (b == null) return a;
+        else return a.times(b);
+    }
+
+    /**
+     * Multiplies the two decimals together ({@code a * b}) if at least one input is non-null (substituting 1 for the
+     * other input if it is null), or null if both inputs are null.
+     *
+     * @param a some nullable decimal
+     * @param b another nullable decimal
+     * @return the product rounded half-even to the larger scale, or null if both inputs are null
+     * @throws ArithmeticException if the product overflows
+     */
+    public static Decimal64 times(Decimal64 a, Decimal64 b) {
+        if (a == null) return b;
+        else if (b == null) return a;
+        else return a.times(b);
+    }
+
     /**
      * Multiplies the two objects together ({@code a * b}) using {@link Multipliable#times(Object)} if both inputs are
      * non-null; if either input is null, the other input is returned.
@@ -294,6 +534,78 @@ public class Ops {
         return allNull(a, b) ? null : defaultIfNull(a, 1d) / defaultIfNull(b, 1d);
     }
 
+    /**
+     * Divides the second number from the first ({@code a / b}) if at least one input is non-null (substituting 1 for
+     * the other input if it is null), or null if both inputs are null.  Since most quotients have no terminating
+     * decimal expansion, the result is rounded to {@link MathContext#DECIMAL128}.
+     *
+     * @param a some nullable number
+     * @param b another nullable number
+     * @return the quotient as described, or null if both inputs are null
+     */
+    public static BigDecimal div(BigDecimal a, BigDecimal b) {
+        return div(a, b, MathContext.DECIMAL128);
+    }
+
+    /**
+     * Divides the second number from the first ({@code a / b}) if at least one input is non-null (substituting 1 for
+     * the other input if it is null), or null if both inputs are null.  The result is rounded according to the given
+     * context.
+     *
+     * @param a some nullable number
+     * @param b another nullable number
+     * @param mc the context used to round the result
+     * @return the quotient as described, or null if both inputs are null
+     */
+    public static BigDecimal div(BigDecimal a, BigDecimal b, MathContext mc) {
+        if (a == null) return b != null ? BigDecimal.ONE.divide(b, mc) : null;
+        else if (b == null) return a.round(mc);
+        else return a.divide(b, mc);
+    }
+
+    /**
+     * Divides the second number from the first ({@code a / b}) if at least one input is non-null (substituting 1 for
+     * the other input if it is null), or null if both inputs are null.
+     *
+     * @param a some nullable number
+     * @param b another nullable number
+     * @return the (truncated) quotient as described, or null if both inputs are null
+     */
+    public static BigInteger div(BigInteger a, BigInteger b) {
+        if (a == null) return b != null ? BigInteger.ONE.divide(b) : null;
+        else if (b == null) return a;
+        else return fitsInLong(a, b) ? BigInteger.valueOf(a.longValue() / b.longValue()) : a.divide(b);
+    }
+
+    /**
+     * Divides the second count from the first ({@code a / b}) if at least one input is non-null (substituting 1 for
+     * the other input if it is null), or null if both inputs are null.
+     *
+     * @param a some nullable count
+     * @param b another nullable count
+     * @return the (truncated) quotient as described, or null if both inputs are null
+     */
+    public static BigCount div(BigCount a, BigCount b) {
+        if (a == null) return b != null ? BigCount.ONE.div(b) : null;
+        else if (b == null) return a;
+        else return a.div(b);
+    }
+
+    /**
+     * Divides the second decimal from the first ({@code a / b}) if at least one input is non-null (substituting 1 for
+     * the other input if it is null), or null if both inputs are null.
+     *
+     * @param a some nullable decimal
+     * @param b another nullable decimal
+     * @return the quotient rounded half-even to the larger scale, or null if both inputs are null
+     * @throws ArithmeticException if {@code b} is zero or the quotient overflows
+     */
+    public static Decimal64 div(Decimal64 a, Decimal64 b) {
+        if (a == null) return b != null ? Decimal64.ONE.div(b) : null;
+        else if (b == null) return a;
+        else return a.div(b);
+    }
+
     /**
      * Divides the second object from the first ({@code a / b}) using {@link Dividable#div(Object)} if both inputs are
      * non-null; if either input is null, the other input is returned.
@@ -367,6 +679,81 @@ public class Ops {
         return value != null ? value * defaultIfNull(factor, 1d) : null;
     }
 
+    /**
+     * Scales a number by a given factor if both are non-null.  If the {@code value} is null, null is returned; if the
+     * {@code factor} is null, no scaling will be applied.  The factor is converted using its canonical decimal
+     * representation (so {@code 0.1} scales by exactly one tenth).
+     *
+     * @param value some nullable number
+     * @param factor a nullable factor
+     * @return the exact scaled result as described, or null if {@code value} is null
+     */
+    public static BigDecimal scale(BigDecimal value, Double factor) {
+        if (value == null) return null;
+        else if (factor == null || factor == 1d) return value;
+        else return value.multiply(decimalFactor(factor));
+    }
+
+    /**
+     * Scales a number by a given factor if both are non-null.  If the {@code value} is null, null is returned; if the
+     * {@code factor} is null, no scaling will be applied.  The result is rounded according to the given context.
+     *
+     * @param value some nullable number
+     * @param factor a nullable factor
+     * @param mc the context used to round the result
+     * @return the scaled result as described, or null if {@code value} is null
+     */
+    public static BigDecimal scale(BigDecimal value, Double factor, MathContext mc) {
+        if (value == null) return null;
+        else if (factor == null || factor == 1d) return value.round(mc);
+        else return value.multiply(decimalFactor(factor), mc);
+    }
+
+    /**
+     * Scales a number by a given factor if both are non-null.  If the {@code value} is null, null is returned; if the
+     * {@code factor} is null, no scaling will be applied.
+     *
+     * @param value some nullable number
+     * @param factor a nullable factor
+     * @return the scaled result rounded to the nearest integer (ties toward positive infinity, as with
+     * {@link Math#round(double)}) as described, or null if {@code value} is null
+     */
+    public static BigInteger scale(BigInteger value, Double factor) {
+        if (value == null) return null;
+        else if (factor == null || factor == 1d) return value;
+        else if (value.bitLength() <= DOUBLE_MANTISSA_BITS && Math.abs(value.longValue() * factor) < LONG_SAFE_BOUND) {
+            return BigInteger.valueOf(Math.round(value.longValue() * factor));
+        }
+        else {
+            return new BigDecimal(value).multiply(decimalFactor(factor)).add(HALF)
+                    .setScale(0, RoundingMode.FLOOR).toBigInteger();
+        }
+    }
+
+    /**
+     * Scales a count by a given factor if both are non-null.  If the {@code value} is null, null is returned; if the
+     * {@code factor} is null, no scaling will be applied.
+     *
+     * @param value some nullable count
+     * @param factor a nullable factor
+     * @return the scaled result rounded to the nearest integer as described, or null if {@code value} is null
+     */
+    public static BigCount scale(BigCount value, Double factor) {
+        return apply(value, factor, BigCount::scale);
+    }
+
+    /**
+     * Scales a decimal by a given factor if both are non-null.  If the {@code value} is null, null is returned; if the
+     * {@code factor} is null, no scaling will be applied.
+     *
+     * @param value some nullable decimal
+     * @param factor a nullable factor
+     * @return the scaled result at the value's scale as described, or null if {@code value} is null
+     */
+    public static Decimal64 scale(Decimal64 value, Double factor) {
+        return apply(value, factor, Decimal64::scale);
+    }
+
     /**
      * Scales a {@link Scalable} object by a given factor if both are non-null.  If the first argument is null, null is
      * returned; if the factor is null, no scaling will be applied.
@@ -379,6 +766,117 @@ public class Ops {
         return apply(value, factor, Scalable::scale);
     }
 
+    /**
+     * Computes the weighted sum {@code w[0] * v[0] + w[1] * v[1] + ...}, skipping null values.  Each product is split
+     * exactly into its rounded value and rounding error, and both are summed with {@link ExactSum}, so the result is
+     * the exact weighted sum rounded once (barring underflow of the rounding errors), independent of order.
+     *
+     * @param values some nullable numbers
+     * @param weights a weight for each value
+     * @return the weighted sum as described, or null if every value is null
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    public static Double linearCombination(Double[] values, double[] weights) {
+        checkWeights(values.length, weights);
+        ExactSum acc = new ExactSum();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) addProduct(acc, weights[i], values[i]);
+        }
+        return acc.toDouble();
+    }
+
+    /**
+     * Computes the weighted mean of the non-null values: {@link #linearCombination(Double[], double[])} divided by the
+     * total weight of the non-null values only.
+     *
+     * @param values some nullable numbers
+     * @param weights a weight for each value
+     * @return the weighted mean as described, or null if every value is null
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    public static Double weightedMean(Double[] values, double[] weights) {
+        checkWeights(values.length, weights);
+        ExactSum acc = new ExactSum();
+        ExactSum totalWeight = new ExactSum();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) continue;
+            addProduct(acc, weights[i], values[i]);
+            totalWeight.add(weights[i]);
+        }
+        return totalWeight.count() > 0 ? acc.sum() / totalWeight.sum() : null;
+    }
+
+    /**
+     * Computes the weighted sum {@code w[0] * v[0] + w[1] * v[1] + ...} of {@link Addable} and {@link Scalable}
+     * objects, skipping null values.  The first non-null value becomes the accumulator and every other value is scaled
+     * and added into it, so as with {@link #plus(Addable, Addable)}, implementations whose operations modify
+     * {@code this} may modify the values passed in; use {@link #linearCombination(List, double[], UnaryOperator)} to
+     * avoid that.
+     *
+     * @param values some nullable objects
+     * @param weights a weight for each value
+     * @return the weighted sum as described, or null if every value is null
+     * @param <T> the type of objects being combined
+     * @throws IllegalArgumentException if the sizes differ
+     */
+    public static <T extends Addable<T> & Scalable<T>> T linearCombination(List<T> values, double[] weights) {
+        return combine(values, weights, 1d, UnaryOperator.identity());
+    }
+
+    /**
+     * Computes the weighted sum {@code w[0] * v[0] + w[1] * v[1] + ...} of {@link Addable} and {@link Scalable}
+     * objects, skipping null values, without modifying them: the first non-null value is copied into a single
+     * accumulator, and every other value is added into it, copied first only if it needs scaling (its weight is not 1).
+     *
+     * @param values some nullable objects
+     * @param weights a weight for each value
+     * @param copy returns a copy of a value that can be modified independently
+     * @return the weighted sum as described, or null if every value is null
+     * @param <T> the type of objects being combined
+     * @throws IllegalArgumentException if the sizes differ
+     */
+    public static <T extends Addable<T> & Scalable<T>> T linearCombination(List<T> values, double[] weights,
+                                                                           UnaryOperator<T> copy) {
+        return combine(values, weights, 1d, copy);
+    }
+
+    /**
+     * Computes the weighted mean of the non-null values: {@link #linearCombination(List, double[])} divided by the
+     * total weight of the non-null values only.  The division is folded into the scale factors, so it costs no extra
+     * operations.
+     *
+     * @param values some nullable objects
+     * @param weights a weight for each value
+     * @return the weighted mean as described, or null if every value is null
+     * @param <T> the type of objects being combined
+     * @throws IllegalArgumentException if the sizes differ
+     */
+    public static <T extends Addable<T> & Scalable<T>> T weightedMean(List<T> values, double[] weights) {
+        return weightedMean(values, weights, UnaryOperator.identity());
+    }
+
+    /**
+     * Computes the weighted mean of the non-null values without modifying them: the same as
+     * {@link #weightedMean(List, double[])}, but accumulating as
+     * {@link #linearCombination(List, double[], UnaryOperator)} does.
+     *
+     * @param values some nullable objects
+     * @param weights a weight for each value
+     * @param copy returns a copy of a value that can be modified independently
+     * @return the weighted mean as described, or null if every value is null
+     * @param <T> the type of objects being combined
+     * @throws IllegalArgumentException if the sizes differ
+     */
+    public static <T extends Addable<T> & Scalable<T>> T weightedMean(List<T> values, double[] weights,
+                                                                      UnaryOperator<T> copy) {
+        checkWeights(values.size(), weights);
+        ExactSum totalWeight = new ExactSum();
+        for (int i = 0; i < weights.length; i++) {
+            if (values.get(i) != null) totalWeight.add(weights[i]);
+        }
+        return combine(values, weights, 1d / totalWeight.sum(), copy);
+    }
+
     /**
      * Applies the given transformation to an object if it is not null.  If the value is null, then null is returned.
      *
@@ -424,6 +922,77 @@ public class Ops {
         else return opFunction.apply(receiver, other);
     }
 
+    /**
+     * Determines if two decimals share a scale and have unscaled values short enough (at most 18 digits) that the JDK
+     * holds them in its compact {@code long} form.  Exact arithmetic on such operands never inflates to a
+     * {@link BigInteger}, so it is cheaper to compute the exact result and round afterwards (usually a no-op) than to
+     * go through the general {@link MathContext} path.
+     *
+     * @param a some decimal
+     * @param b another decimal
+     * @return true if both decimals are compact and aligned
+     */
+    private static boolean compact(BigDecimal a, BigDecimal b) {
+        return a.scale() == b.scale() && a.precision() <= COMPACT_DIGITS && b.precision() <= COMPACT_DIGITS;
+    }
+
+    /**
+     * Determines if both integers are small enough that their sum, difference, or quotient fits in a {@code long}.
+     *
+     * @param a some integer
+     * @param b another integer
+     * @return true if both integers have at most 62 significant bits
+     */
+    private static boolean fitsInLong(BigInteger a, BigInteger b) {
+        return a.bitLength() < Long.SIZE - 1 && b.bitLength() < Long.SIZE - 1;
+    }
+
+    /**
+     * Converts a scale factor into a decimal, avoiding the string round-trip of {@link BigDecimal#valueOf(double)}
+     * when the factor is integral.
+     *
+     * @param factor some factor
+     * @return the factor as a decimal
+     */
+    private static BigDecimal decimalFactor(double factor) {
+        return factor == (long) factor ? BigDecimal.valueOf((long) factor) : BigDecimal.valueOf(factor);
+    }
+
+    /**
+     * Copies the first non-null value, then adds every other value into it, each scaled by its weight times
+     * {@code normalizer}.  Values whose factor is exactly 1 are added without being scaled (or copied).
+     */
+    private static <T extends Addable<T> & Scalable<T>> T combine(List<T> values, double[] weights, double normalizer,
+                                                                   UnaryOperator<T> copy) {
+        checkWeights(values.size(), weights);
+        T result = null;
+        for (int i = 0; i < weights.length; i++) {
+            T value = values.get(i);
+            if (value == null) continue;
+            double factor = weights[i] * normalizer;
+            if (result == null) result = factor == 1d ? copy.apply(value) : copy.apply(value).scale(factor);
+            else result = result.plus(factor == 1d ? value : copy.apply(value).scale(factor));
+        }
+        return result;
+    }
+
+    /**
+     * Adds the exact product {@code a * b} to an accumulator, as the rounded product plus its rounding error (see
+     * {@link ExactSum#productError(double, double)}).  The error is lost, and only the rounded product is added, once
+     * either operand exceeds about {@code 1e300} in magnitude, since Dekker's split then overflows.
+     */
+    private static void addProduct(ExactSum acc, double a, double b) {
+        acc.add(a * b);
+        double error = ExactSum.productError(a, b);
+        if (error != 0d) acc.add(error);
+    }
+
+    private static void checkWeights(int count, double[] weights) {
+        if (weights.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " weights but got " + weights.length);
+        }
+    }
+
     /**
      * Determines if both objects are null.
      *
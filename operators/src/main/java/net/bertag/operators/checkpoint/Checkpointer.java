@@ -0,0 +1,382 @@
+package net.bertag.operators.checkpoint;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps long-running aggregation state in a form that survives restarts by periodically writing it to a local
+ * directory.
+ * <p>
+ * State is divided into epochs.  Producers {@linkplain #update(UnaryOperator) update} the state of the current epoch,
+ * which is spread over a slot per processor (chosen by thread), so producers on different threads rarely contend.
+ * Each {@link #checkpoint()} swaps in a fresh epoch and waits only for updates already in progress on the old one, so
+ * producers are never blocked for longer than a single update.  The old epoch's slots are merged into its state (the
+ * delta since the previous checkpoint), which is then written to disk, off the producers' path, and merged into the
+ * total.
+ * Every {@code fullInterval} checkpoints the merged total is written instead, and older files are deleted.  Restoring
+ * maps the latest full checkpoint and the deltas after it and merges them back together.
+ * <p>
+ * Each checkpoint is written to a temporary file and renamed into place once complete, so a crash while writing never
+ * leaves a partial checkpoint behind; the directory is then forced to disk as well, so that the rename itself survives
+ * a crash.  The file format is a little-endian header (magic "OPCK", version, kind,
+ * sequence number, payload length) followed by the state as encoded by a {@link StateCodec}.
+ * <p>
+ * Merging uses the supplied operator, which is expected to follow the {@link Ops} null semantics: merging with null
+ * yields the other input.
+ *
+ * @param <T> the type of state
+ */
+public final class Checkpointer<T> {
+
+    /** The number of incremental checkpoints written between full checkpoints, unless otherwise specified. */
+    public static final int DEFAULT_FULL_INTERVAL = 16;
+
+    private static final int MAGIC = 0x4B43504F;
+    private static final byte VERSION = 1;
+    private static final byte FULL = 0;
+    private static final byte DELTA = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + 2 + Long.BYTES + Integer.BYTES;
+    private static final Pattern FILE_NAME = Pattern.compile("checkpoint-(\\d{19})\\.bin");
+
+    private final Path directory;
+    private final StateCodec<T> codec;
+    private final Supplier<T> empty;
+    private final BinaryOperator<T> merge;
+    private final int fullInterval;
+    private final int slotCount;
+    private final AtomicReference<Epoch<T>> current;
+    private final Object checkpointLock = new Object();
+
+    // Guarded by checkpointLock.
+    private T total;
+    private long sequence;
+    private int deltasSinceFull;
+    private boolean totalUnwritten;
+
+    private Checkpointer(Path directory, StateCodec<T> codec, Supplier<T> empty, BinaryOperator<T> merge,
+            int fullInterval) {
+        if (fullInterval < 0) {
+            throw new IllegalArgumentException("Full interval must not be negative: " + fullInterval);
+        }
+        this.directory = directory;
+        this.codec = codec;
+        this.empty = empty;
+        this.merge = merge;
+        this.fullInterval = fullInterval;
+        this.slotCount = powerOfTwoAtLeast(Runtime.getRuntime().availableProcessors());
+        this.current = new AtomicReference<>(new Epoch<>(slotCount));
+        this.total = empty.get();
+    }
+
+    /**
+     * Opens a checkpoint directory for {@link Addable} state, restoring the state of the last checkpoint if there is
+     * one.  Deltas are merged using {@link Ops#plus(Addable, Addable)}.
+     *
+     * @param directory the directory holding the checkpoints; created if it does not exist
+     * @param codec the codec for the state
+     * @param empty a supplier of empty state, used at the start of each epoch
+     * @param <T> the type of state
+     * @return the checkpointer
+     * @throws IOException if the directory cannot be created or a checkpoint cannot be read
+     */
+    public static <T extends Addable<T>> Checkpointer<T> open(Path directory, StateCodec<T> codec, Supplier<T> empty)
+            throws IOException {
+        return open(directory, codec, empty, Ops::plus, DEFAULT_FULL_INTERVAL);
+    }
+
+    /**
+     * Opens a checkpoint directory, restoring the state of the last checkpoint if there is one.
+     *
+     * @param directory the directory holding the checkpoints; created if it does not exist
+     * @param codec the codec for the state
+     * @param empty a supplier of empty (possibly null) state, used at the start of each epoch
+     * @param merge the operator used to merge deltas into the total
+     * @param fullInterval the number of incremental checkpoints to write between full checkpoints
+     * @param <T> the type of state
+     * @return the checkpointer
+     * @throws IOException if the directory cannot be created or a checkpoint cannot be read
+     */
+    public static <T> Checkpointer<T> open(Path directory, StateCodec<T> codec, Supplier<T> empty,
+            BinaryOperator<T> merge, int fullInterval) throws IOException {
+        Files.createDirectories(directory);
+        Checkpointer<T> checkpointer = new Checkpointer<>(directory, codec, empty, merge, fullInterval);
+        checkpointer.restore();
+        return checkpointer;
+    }
+
+    /**
+     * Applies an update to the current thread's slot of the current epoch, which starts out empty.  Updates to the same
+     * slot are serialized, so the update function need not be thread-safe; it may modify the state in place or return
+     * new state.  Since the slots are merged at each checkpoint, the update must commute with the merge operator (as
+     * adding to a sum does).
+     *
+     * @param update a function from the slot's current (possibly null) state to its new state
+     */
+    public void update(UnaryOperator<T> update) {
+        while (true) {
+            Slot<T> slot = current.get().slot(probe());
+            synchronized (slot) {
+                if (!slot.sealed) {
+                    slot.state = update.apply(slot.started ? slot.state : empty.get());
+                    slot.started = true;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends the current epoch and writes a checkpoint: the delta since the previous checkpoint, or the full state if
+     * {@code fullInterval} deltas have been written since the last full checkpoint.
+     *
+     * @return the sequence number of the checkpoint
+     * @throws IOException if the checkpoint cannot be written; the state is kept and the next checkpoint will be full
+     */
+    public long checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            T delta = seal();
+            long next = sequence + 1;
+            if (!totalUnwritten && deltasSinceFull < fullInterval) {
+                try {
+                    write(next, DELTA, delta);
+                } catch (IOException | RuntimeException e) {
+                    totalUnwritten = true;
+                    throw e;
+                } finally {
+                    total = merge.apply(total, delta);
+                }
+                deltasSinceFull++;
+            } else {
+                total = merge.apply(total, delta);
+                totalUnwritten = true;
+                write(next, FULL, total);
+                totalUnwritten = false;
+                deltasSinceFull = 0;
+                sequence = next;
+                deleteBefore(next);
+            }
+            sequence = next;
+            return next;
+        }
+    }
+
+    /**
+     * Ends the current epoch and reads the total state, without writing a checkpoint.  Because the total then includes
+     * state that no delta covers, the next checkpoint will be full.
+     *
+     * @param reader a function that reads (but does not modify) the total state
+     * @param <R> the type of result
+     * @return the result of the reader
+     */
+    public <R> R query(Function<? super T, ? extends R> reader) {
+        synchronized (checkpointLock) {
+            total = merge.apply(total, seal());
+            totalUnwritten = true;
+            return reader.apply(total);
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last checkpoint written or restored.
+     *
+     * @return the sequence number, or 0 if there are no checkpoints
+     */
+    public long sequence() {
+        synchronized (checkpointLock) {
+            return sequence;
+        }
+    }
+
+    private T seal() {
+        Epoch<T> epoch = current.getAndSet(new Epoch<>(slotCount));
+        T state = null;
+        boolean started = false;
+        for (Slot<T> slot : epoch.slots) {
+            // Wait for an update in progress on the slot; later updates will see it is sealed and move on.
+            synchronized (slot) {
+                slot.sealed = true;
+                if (!slot.started) continue;
+                state = started ? merge.apply(state, slot.state) : slot.state;
+                started = true;
+            }
+        }
+        return started ? state : empty.get();
+    }
+
+    private void restore() throws IOException {
+        List<Long> sequences = listSequences();
+        // Files before the latest full checkpoint are left over from an interrupted clean-up and are ignored.
+        int start = 0;
+        for (int i = sequences.size() - 1; i > 0; i--) {
+            if (map(sequences.get(i)).get(Integer.BYTES + 1) == FULL) {
+                start = i;
+                break;
+            }
+        }
+        for (int i = start; i < sequences.size(); i++) {
+            ByteBuffer buffer = map(sequences.get(i));
+            boolean full = buffer.get(Integer.BYTES + 1) == FULL;
+            long expected = i > start ? sequence + 1 : full ? sequences.get(i) : 1;
+            if (sequences.get(i) != expected) throw new IOException("Missing checkpoint " + expected);
+
+            ((Buffer) buffer).position(HEADER_BYTES);
+            T state = codec.read(buffer);
+            if (full) {
+                total = state;
+            } else {
+                total = merge.apply(total, state);
+                deltasSinceFull++;
+            }
+            sequence = expected;
+        }
+    }
+
+    private ByteBuffer map(long sequence) throws IOException {
+        Path file = file(sequence);
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) throw new IOException("Corrupt checkpoint " + file);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.get(Integer.BYTES) != VERSION
+                || buffer.getLong(Integer.BYTES + 2) != sequence
+                || buffer.getInt(Integer.BYTES + 2 + Long.BYTES) != buffer.capacity() - HEADER_BYTES) {
+            throw new IOException("Corrupt checkpoint " + file);
+        }
+        return buffer;
+    }
+
+    private void write(long sequence, byte kind, T state) throws IOException {
+        int length = codec.size(state);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).put(VERSION).put(kind).putLong(sequence).putInt(length);
+        codec.write(state, buffer);
+        if (buffer.hasRemaining()) throw new IllegalStateException("Codec wrote fewer bytes than its reported size");
+        ((Buffer) buffer).flip();
+
+        Path target = file(sequence);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+    }
+
+    /**
+     * Forces the directory entries to disk, so that a rename is durable.  Some platforms (notably Windows) cannot open
+     * a directory as a channel; there the rename is left to the file system's own journaling.
+     */
+    private void syncDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // The directory cannot be opened for syncing on this platform.
+        }
+    }
+
+    /**
+     * Deletes the files before a full checkpoint.  This is best-effort: restoring ignores anything before the latest
+     * full checkpoint, so a file that cannot be deleted now is left for a later full checkpoint to retry.
+     */
+    private void deleteBefore(long sequence) {
+        List<Long> sequences;
+        try {
+            sequences = listSequences();
+        } catch (IOException e) {
+            return;
+        }
+        for (long older : sequences) {
+            if (older >= sequence) continue;
+            try {
+                Files.deleteIfExists(file(older));
+            } catch (IOException e) {
+                // Leave the file for the next full checkpoint.
+            }
+        }
+    }
+
+    private List<Long> listSequences() throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) sequences.add(Long.parseLong(matcher.group(1)));
+            }
+        }
+        Collections.sort(sequences);
+        return sequences;
+    }
+
+    private Path file(long sequence) {
+        return directory.resolve(String.format("checkpoint-%019d.bin", sequence));
+    }
+
+    private static int probe() {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32);
+    }
+
+    private static int powerOfTwoAtLeast(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    /**
+     * The state accumulated by producers between two checkpoints, as one slot per processor.
+     */
+    private static final class Epoch<T> {
+
+        private final Slot<T>[] slots;
+
+        @SuppressWarnings("unchecked")
+        Epoch(int slotCount) {
+            this.slots = (Slot<T>[]) new Slot<?>[slotCount];
+            for (int i = 0; i < slotCount; i++) {
+                slots[i] = new Slot<>();
+            }
+        }
+
+        Slot<T> slot(int probe) {
+            return slots[probe & (slots.length - 1)];
+        }
+    }
+
+    /**
+     * The share of an epoch's state updated by some of the producer threads; guarded by its own monitor.
+     */
+    private static final class Slot<T> {
+
+        private T state;
+        private boolean started;
+        private boolean sealed;
+    }
+}
@@ -0,0 +1,193 @@
+package net.bertag.operators.checkpoint;
+
+import net.bertag.operators.column.NullableDoubleColumn;
+import net.bertag.operators.sum.CompensatedSum;
+import net.bertag.operators.sum.ExactSum;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts aggregation state to and from a compact binary form for {@link Checkpointer}.  Implementations must be able
+ * to encode null state.
+ *
+ * @param <T> the type of state
+ */
+public interface StateCodec<T> {
+
+    /**
+     * Returns the number of bytes {@link #write(Object, ByteBuffer)} will write for the given state.
+     *
+     * @param state some nullable state
+     * @return the encoded size
+     */
+    int size(T state);
+
+    /**
+     * Writes the state at the buffer's position, advancing it by exactly {@link #size(Object)} bytes.
+     *
+     * @param state some nullable state
+     * @param buffer a buffer with enough room
+     */
+    void write(T state, ByteBuffer buffer);
+
+    /**
+     * Reads state written by {@link #write(Object, ByteBuffer)} from the buffer's position.
+     *
+     * @param buffer a buffer positioned at the encoded state
+     * @return the (possibly null) state
+     */
+    T read(ByteBuffer buffer);
+
+    /**
+     * Returns a codec for nullable {@link Long} values: a presence byte followed by the value if present.
+     *
+     * @return the codec
+     */
+    static StateCodec<Long> nullableLong() {
+        return new StateCodec<Long>() {
+            @Override
+            public int size(Long state) {
+                return state == null ? 1 : 1 + Long.BYTES;
+            }
+
+            @Override
+            public void write(Long state, ByteBuffer buffer) {
+                if (state == null) buffer.put((byte) 0);
+                else buffer.put((byte) 1).putLong(state);
+            }
+
+            @Override
+            public Long read(ByteBuffer buffer) {
+                return buffer.get() == 0 ? null : buffer.getLong();
+            }
+        };
+    }
+
+    /**
+     * Returns a codec for nullable {@link Double} values: a presence byte followed by the value if present.
+     *
+     * @return the codec
+     */
+    static StateCodec<Double> nullableDouble() {
+        return new StateCodec<Double>() {
+            @Override
+            public int size(Double state) {
+                return state == null ? 1 : 1 + Double.BYTES;
+            }
+
+            @Override
+            public void write(Double state, ByteBuffer buffer) {
+                if (state == null) buffer.put((byte) 0);
+                else buffer.put((byte) 1).putDouble(state);
+            }
+
+            @Override
+            public Double read(ByteBuffer buffer) {
+                return buffer.get() == 0 ? null : buffer.getDouble();
+            }
+        };
+    }
+
+    /**
+     * Returns a codec for {@link CompensatedSum} accumulators.
+     *
+     * @return the codec
+     */
+    static StateCodec<CompensatedSum> compensatedSum() {
+        return nullable(new StateCodec<CompensatedSum>() {
+            @Override
+            public int size(CompensatedSum state) {
+                return state.serializedSize();
+            }
+
+            @Override
+            public void write(CompensatedSum state, ByteBuffer buffer) {
+                state.writeTo(buffer);
+            }
+
+            @Override
+            public CompensatedSum read(ByteBuffer buffer) {
+                return CompensatedSum.readFrom(buffer);
+            }
+        });
+    }
+
+    /**
+     * Returns a codec for {@link ExactSum} accumulators.  Only the part of the accumulator that is in use is written.
+     *
+     * @return the codec
+     */
+    static StateCodec<ExactSum> exactSum() {
+        return nullable(new StateCodec<ExactSum>() {
+            @Override
+            public int size(ExactSum state) {
+                return state.serializedSize();
+            }
+
+            @Override
+            public void write(ExactSum state, ByteBuffer buffer) {
+                state.writeTo(buffer);
+            }
+
+            @Override
+            public ExactSum read(ByteBuffer buffer) {
+                return ExactSum.readFrom(buffer);
+            }
+        });
+    }
+
+    /**
+     * Returns a codec for {@link NullableDoubleColumn}s.  Null slots cost one bit each.
+     *
+     * @return the codec
+     */
+    static StateCodec<NullableDoubleColumn> nullableDoubleColumn() {
+        return nullable(new StateCodec<NullableDoubleColumn>() {
+            @Override
+            public int size(NullableDoubleColumn state) {
+                return state.serializedSize();
+            }
+
+            @Override
+            public void write(NullableDoubleColumn state, ByteBuffer buffer) {
+                state.writeTo(buffer);
+            }
+
+            @Override
+            public NullableDoubleColumn read(ByteBuffer buffer) {
+                return NullableDoubleColumn.readFrom(buffer);
+            }
+        });
+    }
+
+    /**
+     * Wraps a codec that cannot encode null so that null state is written as a single presence byte.
+     *
+     * @param codec a codec for non-null state
+     * @param <T> the type of state
+     * @return the null-aware codec
+     */
+    static <T> StateCodec<T> nullable(StateCodec<T> codec) {
+        return new StateCodec<T>() {
+            @Override
+            public int size(T state) {
+                return state == null ? 1 : 1 + codec.size(state);
+            }
+
+            @Override
+            public void write(T state, ByteBuffer buffer) {
+                if (state == null) {
+                    buffer.put((byte) 0);
+                } else {
+                    buffer.put((byte) 1);
+                    codec.write(state, buffer);
+                }
+            }
+
+            @Override
+            public T read(ByteBuffer buffer) {
+                return buffer.get() == 0 ? null : codec.read(buffer);
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package net.bertag.operators.column;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Helpers for validity bitmaps packed into {@code long} words (either a {@code long[]} or an off-heap
+ * {@link LongBuffer}), where a set bit marks a non-null slot.
+ */
+final class Bitmaps {
+
+    private Bitmaps() {
+    }
+
+    /**
+     * Allocates a bitmap large enough to hold the given number of bits, all cleared.
+     *
+     * @param size the number of bits
+     * @return the bitmap
+     */
+    static long[] create(int size) {
+        return new long[(size + Long.SIZE - 1) >>> 6];
+    }
+
+    static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    static void clear(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Counts the set bits in a bitmap.
+     *
+     * @param bits the bitmap
+     * @return the number of non-null slots
+     */
+    static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Determines if the lowest {@code bits} bits of a bitmap word are all set, as for a block of slots with no nulls.
+     *
+     * @param word a bitmap word
+     * @param bits the number of bits to check, from 1 to 64
+     * @return true if every bit is set
+     */
+    static boolean allSet(long word, int bits) {
+        return bits == Long.SIZE ? word == -1L : word == (1L << bits) - 1;
+    }
+
+    /**
+     * Allocates an off-heap bitmap large enough to hold the given number of bits, all cleared.
+     *
+     * @param size the number of bits
+     * @return the bitmap
+     */
+    static LongBuffer allocateDirect(int size) {
+        int words = (size + Long.SIZE - 1) >>> 6;
+        return ByteBuffer.allocateDirect(words * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    static boolean get(LongBuffer bits, int index) {
+        return (bits.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    static void set(LongBuffer bits, int index) {
+        bits.put(index >>> 6, bits.get(index >>> 6) | (1L << index));
+    }
+
+    static void clear(LongBuffer bits, int index) {
+        bits.put(index >>> 6, bits.get(index >>> 6) & ~(1L << index));
+    }
+
+    static int cardinality(LongBuffer bits) {
+        int count = 0;
+        for (int w = 0; w < bits.limit(); w++) {
+            count += Long.bitCount(bits.get(w));
+        }
+        return count;
+    }
+}
@@ -0,0 +1,45 @@
+package net.bertag.operators.column;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Helpers for sizing and slicing {@link ByteBuffer}s in a way that works on Java 8 as well as later releases.
+ */
+final class Buffers {
+
+    private Buffers() {
+    }
+
+    /**
+     * Computes the number of bytes needed for the given number of fixed-width slots, which must fit in a single buffer
+     * (whose capacity is an {@code int}).
+     *
+     * @param size the number of slots
+     * @param slotBytes the width of each slot
+     * @return the number of bytes
+     * @throws IllegalArgumentException if the size is negative or the byte count would overflow an {@code int}
+     */
+    static int byteCount(int size, int slotBytes) {
+        if (size < 0) throw new IllegalArgumentException("Size must not be negative: " + size);
+        if (size > Integer.MAX_VALUE / slotBytes) {
+            throw new IllegalArgumentException("A buffer cannot hold " + size + " slots of " + slotBytes + " bytes");
+        }
+        return size * slotBytes;
+    }
+
+    /**
+     * Returns a view of the next {@code length} bytes of a buffer, starting at its current position and keeping its
+     * byte order (which {@link ByteBuffer#slice()} alone would reset to big-endian).
+     *
+     * @param buffer some buffer
+     * @param length the number of bytes to include
+     * @return the view
+     */
+    static ByteBuffer region(ByteBuffer buffer, int length) {
+        ByteBuffer region = buffer.slice().order(buffer.order());
+        // Cast for Java 8, where Buffer.limit(int) is not overridden to return a ByteBuffer.
+        ((Buffer) region).limit(length);
+        return region;
+    }
+}
@@ -0,0 +1,110 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.io.FieldType;
+
+/**
+ * Mutable, fixed-length column of nullable {@code int}, {@code long} or {@code short} values, stored as a
+ * {@code long[]} plus a validity bitmap.  Every result is narrowed to the width of the field, so overflow wraps exactly
+ * as it does for the corresponding {@link Ops} overload.
+ */
+final class IntegralColumn {
+
+    private final FieldType type;
+    private final int size;
+    private final long[] values;
+    private final long[] validity;
+
+    IntegralColumn(FieldType type, int size) {
+        if (type == FieldType.FLOAT || type == FieldType.DOUBLE) {
+            throw new IllegalArgumentException("Not an integral type: " + type);
+        }
+        this.type = type;
+        this.size = size;
+        this.values = new long[size];
+        this.validity = Bitmaps.create(size);
+    }
+
+    boolean isNull(int index) {
+        return !Bitmaps.get(validity, index);
+    }
+
+    Number get(int index) {
+        if (isNull(index)) return null;
+        switch (type) {
+            case INT:
+                return (int) values[index];
+            case SHORT:
+                return (short) values[index];
+            default:
+                return values[index];
+        }
+    }
+
+    long getLong(int index) {
+        return values[index];
+    }
+
+    void set(int index, Number value) {
+        if (value == null) {
+            values[index] = 0L;
+            Bitmaps.clear(validity, index);
+        } else {
+            values[index] = narrow(value.longValue());
+            Bitmaps.set(validity, index);
+        }
+    }
+
+    void plus(IntegralColumn other) {
+        for (int i = 0; i < size; i++) {
+            values[i] = narrow(values[i] + other.values[i]);
+        }
+        mergeValidity(other);
+    }
+
+    void minus(IntegralColumn other) {
+        for (int i = 0; i < size; i++) {
+            values[i] = narrow(values[i] - other.values[i]);
+        }
+        mergeValidity(other);
+    }
+
+    void times(IntegralColumn other) {
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values[i] = isNull(i) ? other.values[i] : narrow(values[i] * other.values[i]);
+        }
+        mergeValidity(other);
+    }
+
+    void div(IntegralColumn other) {
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values[i] = narrow((isNull(i) ? 1L : values[i]) / other.values[i]);
+        }
+        mergeValidity(other);
+    }
+
+    void scale(double factor) {
+        for (int i = 0; i < size; i++) {
+            values[i] = narrow(Math.round(values[i] * factor));
+        }
+    }
+
+    private long narrow(long value) {
+        switch (type) {
+            case INT:
+                return (int) value;
+            case SHORT:
+                return (short) value;
+            default:
+                return value;
+        }
+    }
+
+    private void mergeValidity(IntegralColumn other) {
+        for (int w = 0; w < validity.length; w++) {
+            validity[w] |= other.validity[w];
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+import net.bertag.operators.sum.CompensatedSum;
+import net.bertag.operators.sum.ExactSum;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Mutable, fixed-length column of nullable {@code double} values, stored as a {@code double[]} plus a validity bitmap
+ * rather than as boxed {@link Double} instances.
+ * <p>
+ * The element-wise operations follow the {@linkplain net.bertag.operators.column null semantics of this package}.
+ * Operations modify this column in place and return it.
+ */
+public final class NullableDoubleColumn implements Addable<NullableDoubleColumn> {
+
+    private final int size;
+    private final double[] values;
+    private final long[] validity;
+
+    /**
+     * Creates a column of the given size with every slot null.
+     *
+     * @param size the number of slots
+     */
+    public NullableDoubleColumn(int size) {
+        this.size = size;
+        this.values = new double[size];
+        this.validity = Bitmaps.create(size);
+    }
+
+    /**
+     * Creates a column holding the given values.
+     *
+     * @param values some nullable values
+     * @return the column
+     */
+    public static NullableDoubleColumn of(Double... values) {
+        NullableDoubleColumn column = new NullableDoubleColumn(values.length);
+        for (int i = 0; i < values.length; i++) {
+            column.set(i, values[i]);
+        }
+        return column;
+    }
+
+    /**
+     * Returns the number of slots in the column.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determines if a slot is null.
+     *
+     * @param index the slot
+     * @return true if the slot is null
+     */
+    public boolean isNull(int index) {
+        return !Bitmaps.get(validity, index);
+    }
+
+    /**
+     * Counts the null slots in the column.
+     *
+     * @return the number of null slots
+     */
+    public int nullCount() {
+        return size - Bitmaps.cardinality(validity);
+    }
+
+    /**
+     * Returns the value in a slot.
+     *
+     * @param index the slot
+     * @return the value, or null if the slot is null
+     */
+    public Double get(int index) {
+        return isNull(index) ? null : values[index];
+    }
+
+    /**
+     * Returns the value in a slot without boxing.
+     *
+     * @param index the slot
+     * @return the value, or 0 if the slot is null
+     */
+    public double getDouble(int index) {
+        return values[index];
+    }
+
+    /**
+     * Stores a value in a slot.
+     *
+     * @param index the slot
+     * @param value a nullable value
+     */
+    public void set(int index, Double value) {
+        if (value == null) setNull(index);
+        else setDouble(index, value);
+    }
+
+    /**
+     * Stores a value in a slot without boxing.
+     *
+     * @param index the slot
+     * @param value the value
+     */
+    public void setDouble(int index, double value) {
+        values[index] = value;
+        Bitmaps.set(validity, index);
+    }
+
+    /**
+     * Marks a slot as null.
+     *
+     * @param index the slot
+     */
+    public void setNull(int index) {
+        // Null slots always hold 0 (see the package documentation).
+        values[index] = 0d;
+        Bitmaps.clear(validity, index);
+    }
+
+    /**
+     * Adds the other column to this one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    @Override
+    public NullableDoubleColumn plus(NullableDoubleColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            values[i] += other.values[i];
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Subtracts the other column from this one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public NullableDoubleColumn minus(NullableDoubleColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            values[i] -= other.values[i];
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Multiplies this column by the other one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public NullableDoubleColumn times(NullableDoubleColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values[i] = isNull(i) ? other.values[i] : values[i] * other.values[i];
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Divides this column by the other one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public NullableDoubleColumn div(NullableDoubleColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values[i] = (isNull(i) ? 1d : values[i]) / other.values[i];
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Scales every non-null slot by the given factor.
+     *
+     * @param factor the scale factor
+     * @return this column
+     */
+    public NullableDoubleColumn scale(double factor) {
+        for (int i = 0; i < size; i++) {
+            // Null slots are skipped so that they keep holding +0 even for a negative, infinite or NaN factor.
+            if (!isNull(i)) values[i] *= factor;
+        }
+        return this;
+    }
+
+    /**
+     * Sums every non-null slot using compensated summation (see {@link CompensatedSum}).
+     *
+     * @return the total, or null if every slot is null
+     */
+    public Double sum() {
+        CompensatedSum acc = new CompensatedSum();
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) acc.add(values[i]);
+        }
+        return acc.toDouble();
+    }
+
+    /**
+     * Sums every non-null slot exactly, rounding once at the end (see {@link ExactSum}).  Unlike {@link #sum()}, the
+     * result does not depend on the order of the slots, so partial sums of a split column always combine to the same
+     * answer.
+     *
+     * @return the total, or null if every slot is null
+     */
+    public Double exactSum() {
+        ExactSum acc = new ExactSum();
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) acc.add(values[i]);
+        }
+        return acc.toDouble();
+    }
+
+    /**
+     * Computes the weighted sum of some columns, slot by slot: slot {@code i} of the result is
+     * {@code w[0] * c[0][i] + w[1] * c[1][i] + ...} over the columns that are non-null in that slot, or null if every
+     * column is null there (see {@link Ops#linearCombination(Double[], double[])}).  The columns are processed one at a
+     * time in a single pass each, rather than one slot at a time.
+     * <p>
+     * Rather than an {@link ExactSum} per slot, each slot keeps a running sum and a running correction: the rounding
+     * error of every product (see {@link ExactSum#productError(double, double)}) and of every addition is accumulated
+     * in the correction, which is added back at the end.  The result is as accurate as if it were computed with twice
+     * the precision of a {@code double} and then rounded, so it matches the exactly rounded scalar result unless the
+     * sum is badly ill-conditioned.
+     *
+     * @param columns some columns of the same size
+     * @param weights a weight for each column
+     * @return a new column holding the weighted sums
+     * @throws IllegalArgumentException if there are no columns, the sizes differ, or there is not one weight per column
+     */
+    public static NullableDoubleColumn linearCombination(List<NullableDoubleColumn> columns, double[] weights) {
+        NullableDoubleColumn result = newResult(columns, weights);
+        double[] corrections = new double[result.size];
+        for (int c = 0; c < weights.length; c++) {
+            NullableDoubleColumn column = columns.get(c);
+            double weight = weights[c];
+            for (int i = 0; i < result.size; i++) {
+                // Skip null slots, so that an infinite weight never turns their 0 into NaN.
+                if (column.isNull(i)) continue;
+                double product = weight * column.values[i];
+                double sum = result.values[i] + product;
+                double partial = sum - result.values[i];
+                double error = (result.values[i] - (sum - partial)) + (product - partial);
+                result.values[i] = sum;
+                corrections[i] += error + ExactSum.productError(weight, column.values[i]);
+            }
+            result.mergeValidity(column);
+        }
+        for (int i = 0; i < result.size; i++) {
+            // The correction is meaningless (NaN) once the sum is non-finite.
+            if (Double.isFinite(result.values[i])) result.values[i] += corrections[i];
+        }
+        return result;
+    }
+
+    /**
+     * Computes the weighted mean of some columns, slot by slot: slot {@code i} of the result is the weighted sum of the
+     * columns that are non-null in that slot divided by the total weight of those columns only, or null if every column
+     * is null there (see {@link Ops#weightedMean(Double[], double[])}).
+     *
+     * @param columns some columns of the same size
+     * @param weights a weight for each column
+     * @return a new column holding the weighted means
+     * @throws IllegalArgumentException if there are no columns, the sizes differ, or there is not one weight per column
+     */
+    public static NullableDoubleColumn weightedMean(List<NullableDoubleColumn> columns, double[] weights) {
+        NullableDoubleColumn result = linearCombination(columns, weights);
+        double[] totalWeights = new double[result.size];
+        for (int c = 0; c < weights.length; c++) {
+            NullableDoubleColumn column = columns.get(c);
+            for (int i = 0; i < result.size; i++) {
+                if (!column.isNull(i)) totalWeights[i] += weights[c];
+            }
+        }
+        for (int i = 0; i < result.size; i++) {
+            if (!result.isNull(i)) result.values[i] /= totalWeights[i];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeTo(ByteBuffer)} writes: the size, the validity bitmap, and the values of
+     * the non-null slots only.
+     *
+     * @return the serialized size
+     */
+    public int serializedSize() {
+        return Integer.BYTES + validity.length * Long.BYTES + (size - nullCount()) * Double.BYTES;
+    }
+
+    /**
+     * Writes the contents of this column at the buffer's position (see {@link #readFrom(ByteBuffer)}).
+     *
+     * @param buffer a buffer with at least {@link #serializedSize()} bytes remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(size);
+        for (long word : validity) {
+            buffer.putLong(word);
+        }
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) buffer.putDouble(values[i]);
+        }
+    }
+
+    /**
+     * Reads a column written by {@link #writeTo(ByteBuffer)} from the buffer's position.
+     *
+     * @param buffer a buffer with the same byte order as the one written to
+     * @return a new column with the same contents
+     */
+    public static NullableDoubleColumn readFrom(ByteBuffer buffer) {
+        NullableDoubleColumn column = new NullableDoubleColumn(buffer.getInt());
+        for (int w = 0; w < column.validity.length; w++) {
+            column.validity[w] = buffer.getLong();
+        }
+        for (int i = 0; i < column.size; i++) {
+            if (!column.isNull(i)) column.values[i] = buffer.getDouble();
+        }
+        return column;
+    }
+
+    private static NullableDoubleColumn newResult(List<NullableDoubleColumn> columns, double[] weights) {
+        if (columns.isEmpty()) throw new IllegalArgumentException("At least one column is required");
+        if (weights.length != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " weights but got " + weights.length);
+        }
+        NullableDoubleColumn result = new NullableDoubleColumn(columns.get(0).size);
+        for (NullableDoubleColumn column : columns) {
+            result.checkSize(column);
+        }
+        return result;
+    }
+
+    private void mergeValidity(NullableDoubleColumn other) {
+        for (int w = 0; w < validity.length; w++) {
+            validity[w] |= other.validity[w];
+        }
+    }
+
+    private void checkSize(NullableDoubleColumn other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException("Column sizes differ: " + size + " vs " + other.size);
+        }
+    }
+}
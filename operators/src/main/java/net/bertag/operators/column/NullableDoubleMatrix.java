@@ -0,0 +1,382 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.api.Addable;
+import net.bertag.operators.api.Dividable;
+import net.bertag.operators.api.Multipliable;
+import net.bertag.operators.api.Scalable;
+import net.bertag.operators.api.Subtractable;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable matrix of nullable {@code double} values, stored row by row as a {@link NullableDoubleVector} (a
+ * {@code double[]} plus a validity bitmap) rather than as boxed values.
+ * <p>
+ * The element-wise operations ({@code plus}, {@code minus}, {@code times}, {@code div} and {@code scale}) follow the
+ * {@linkplain net.bertag.operators.column null semantics of this package}, cell by cell.
+ * <p>
+ * The matrix product ({@link #product(NullableDoubleMatrix)}) instead treats null as missing: cell {@code (i, j)} of
+ * the result is the sum of {@code a[i][k] * b[k][j]} over the {@code k} for which both cells are non-null, or null if
+ * there is no such {@code k}.  Substituting 1 for a missing factor, as {@code Ops.times} would, would let an unknown
+ * quantity pass the known one through unchanged.  The product is computed in cache-sized blocks of
+ * {@value #BLOCK} rows and columns, and {@link #parallelProduct(NullableDoubleMatrix)} splits the rows of the result
+ * across the common fork-join pool; both add the terms of each cell in the same order, so they return identical
+ * results.
+ */
+public final class NullableDoubleMatrix implements Addable<NullableDoubleMatrix>, Subtractable<NullableDoubleMatrix>,
+        Multipliable<NullableDoubleMatrix>, Dividable<NullableDoubleMatrix>, Scalable<NullableDoubleMatrix> {
+
+    /**
+     * The side of each block of the product; three 64 x 64 blocks of doubles fit in a typical 256 KB L2 cache.  Since
+     * it is a multiple of 64, each block of rows also starts on a word of the validity bitmap.
+     */
+    private static final int BLOCK = 64;
+
+    private final int rows;
+    private final int columns;
+    private final NullableDoubleVector cells;
+
+    private NullableDoubleMatrix(int rows, int columns, NullableDoubleVector cells) {
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = cells;
+    }
+
+    /**
+     * Creates a matrix of the given shape with every cell null.
+     *
+     * @param rows the number of rows
+     * @param columns the number of columns
+     */
+    public NullableDoubleMatrix(int rows, int columns) {
+        this(rows, columns, new NullableDoubleVector(rows * columns));
+    }
+
+    /**
+     * Creates a matrix holding the given rows.
+     *
+     * @param rows some rows of nullable values, all of the same length
+     * @return the matrix
+     * @throws IllegalArgumentException if the rows differ in length
+     */
+    public static NullableDoubleMatrix of(Double[]... rows) {
+        int columns = rows.length > 0 ? rows[0].length : 0;
+        Double[] cells = new Double[rows.length * columns];
+        for (int r = 0; r < rows.length; r++) {
+            if (rows[r].length != columns) {
+                throw new IllegalArgumentException("Row " + r + " has " + rows[r].length + " columns, not " + columns);
+            }
+            System.arraycopy(rows[r], 0, cells, r * columns, columns);
+        }
+        return new NullableDoubleMatrix(rows.length, columns, NullableDoubleVector.of(cells));
+    }
+
+    /**
+     * Returns the number of rows in the matrix.
+     *
+     * @return the number of rows
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns in the matrix.
+     *
+     * @return the number of columns
+     */
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * Determines if a cell is null.
+     *
+     * @param row the row
+     * @param column the column
+     * @return true if the cell is null
+     */
+    public boolean isNull(int row, int column) {
+        return cells.isNull(index(row, column));
+    }
+
+    /**
+     * Counts the null cells in the matrix.
+     *
+     * @return the number of null cells
+     */
+    public int nullCount() {
+        return cells.nullCount();
+    }
+
+    /**
+     * Returns the value in a cell.
+     *
+     * @param row the row
+     * @param column the column
+     * @return the value, or null if the cell is null
+     */
+    public Double get(int row, int column) {
+        return cells.get(index(row, column));
+    }
+
+    /**
+     * Returns the value in a cell without boxing.
+     *
+     * @param row the row
+     * @param column the column
+     * @return the value, or 0 if the cell is null
+     */
+    public double getDouble(int row, int column) {
+        return cells.getDouble(index(row, column));
+    }
+
+    /**
+     * Returns a copy of this matrix with one cell replaced.
+     *
+     * @param row the row
+     * @param column the column
+     * @param value a nullable value
+     * @return the new matrix
+     */
+    public NullableDoubleMatrix with(int row, int column, Double value) {
+        return new NullableDoubleMatrix(rows, columns, cells.with(index(row, column), value));
+    }
+
+    /**
+     * Adds the other matrix to this one, cell by cell.
+     *
+     * @param other a matrix of the same shape
+     * @return the sum
+     */
+    @Override
+    public NullableDoubleMatrix plus(NullableDoubleMatrix other) {
+        checkShape(other);
+        return new NullableDoubleMatrix(rows, columns, cells.plus(other.cells));
+    }
+
+    /**
+     * Subtracts the other matrix from this one, cell by cell.
+     *
+     * @param other a matrix of the same shape
+     * @return the difference
+     */
+    @Override
+    public NullableDoubleMatrix minus(NullableDoubleMatrix other) {
+        checkShape(other);
+        return new NullableDoubleMatrix(rows, columns, cells.minus(other.cells));
+    }
+
+    /**
+     * Multiplies this matrix by the other one, cell by cell (see {@link #product(NullableDoubleMatrix)} for the matrix
+     * product).
+     *
+     * @param other a matrix of the same shape
+     * @return the element-wise product
+     */
+    @Override
+    public NullableDoubleMatrix times(NullableDoubleMatrix other) {
+        checkShape(other);
+        return new NullableDoubleMatrix(rows, columns, cells.times(other.cells));
+    }
+
+    /**
+     * Divides this matrix by the other one, cell by cell.
+     *
+     * @param other a matrix of the same shape
+     * @return the element-wise quotient
+     */
+    @Override
+    public NullableDoubleMatrix div(NullableDoubleMatrix other) {
+        checkShape(other);
+        return new NullableDoubleMatrix(rows, columns, cells.div(other.cells));
+    }
+
+    /**
+     * Scales every non-null cell by the given factor.
+     *
+     * @param factor the scale factor
+     * @return the scaled matrix
+     */
+    @Override
+    public NullableDoubleMatrix scale(double factor) {
+        return new NullableDoubleMatrix(rows, columns, cells.scale(factor));
+    }
+
+    /**
+     * Computes the matrix product of this matrix and the other one, treating null cells as missing (see the class
+     * documentation).
+     *
+     * @param other a matrix with as many rows as this one has columns
+     * @return the product, with as many rows as this matrix and as many columns as the other one
+     * @throws IllegalArgumentException if the shapes are incompatible
+     */
+    public NullableDoubleMatrix product(NullableDoubleMatrix other) {
+        Product product = new Product(this, other);
+        for (int block = 0; block < product.blocks(); block++) {
+            product.computeRows(block);
+        }
+        return product.result();
+    }
+
+    /**
+     * Computes the same matrix product as {@link #product(NullableDoubleMatrix)}, splitting blocks of rows across the
+     * common fork-join pool.  The result is identical.
+     *
+     * @param other a matrix with as many rows as this one has columns
+     * @return the product, with as many rows as this matrix and as many columns as the other one
+     * @throws IllegalArgumentException if the shapes are incompatible
+     */
+    public NullableDoubleMatrix parallelProduct(NullableDoubleMatrix other) {
+        Product product = new Product(this, other);
+        IntStream.range(0, product.blocks()).parallel().forEach(product::computeRows);
+        return product.result();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NullableDoubleMatrix)) return false;
+        NullableDoubleMatrix other = (NullableDoubleMatrix) o;
+        return rows == other.rows && columns == other.columns && cells.equals(other.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * rows + columns) + cells.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) builder.append(", ");
+            builder.append('[');
+            for (int c = 0; c < columns; c++) {
+                if (c > 0) builder.append(", ");
+                builder.append(get(r, c));
+            }
+            builder.append(']');
+        }
+        return builder.append(']').toString();
+    }
+
+    private int index(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            throw new IndexOutOfBoundsException("Cell (" + row + ", " + column + ") of " + rows + " x " + columns);
+        }
+        return row * columns + column;
+    }
+
+    private void checkShape(NullableDoubleMatrix other) {
+        if (other.rows != rows || other.columns != columns) {
+            throw new IllegalArgumentException("Matrix shapes differ: " + rows + " x " + columns + " vs " + other.rows
+                    + " x " + other.columns);
+        }
+    }
+
+    /**
+     * The state of one matrix product {@code a * b = c}, computed one block of {@link #BLOCK} rows of {@code c} at a
+     * time.  Each block writes a disjoint range of {@code c}'s values and validity words, so blocks can run
+     * concurrently.
+     */
+    private static final class Product {
+
+        private final int n;
+        private final int m;
+        private final int p;
+        private final double[] a;
+        private final long[] aValidity;
+        private final double[] b;
+        private final long[][] bRowValidity;
+        private final double[] c;
+        private final long[] cValidity;
+
+        Product(NullableDoubleMatrix left, NullableDoubleMatrix right) {
+            if (left.columns != right.rows) {
+                throw new IllegalArgumentException("Cannot multiply " + left.rows + " x " + left.columns + " by "
+                        + right.rows + " x " + right.columns);
+            }
+            n = left.rows;
+            m = left.columns;
+            p = right.columns;
+            a = left.cells.values();
+            aValidity = left.cells.validity();
+            b = right.cells.values();
+            c = new double[n * p];
+            cValidity = Bitmaps.create(n * p);
+
+            // Re-pack the validity of each row of b so that it starts on a word boundary and can be OR-ed in bulk.
+            long[] validity = right.cells.validity();
+            bRowValidity = new long[m][];
+            for (int k = 0; k < m; k++) {
+                bRowValidity[k] = Bitmaps.create(p);
+                for (int j = 0; j < p; j++) {
+                    if (Bitmaps.get(validity, k * p + j)) Bitmaps.set(bRowValidity[k], j);
+                }
+            }
+        }
+
+        int blocks() {
+            return (n + BLOCK - 1) / BLOCK;
+        }
+
+        void computeRows(int block) {
+            int rowFrom = block * BLOCK;
+            int rowTo = Math.min(rowFrom + BLOCK, n);
+            for (int kk = 0; kk < m; kk += BLOCK) {
+                int kTo = Math.min(kk + BLOCK, m);
+                for (int jj = 0; jj < p; jj += BLOCK) {
+                    int jTo = Math.min(jj + BLOCK, p);
+                    for (int i = rowFrom; i < rowTo; i++) {
+                        for (int k = kk; k < kTo; k++) {
+                            if (!Bitmaps.get(aValidity, i * m + k)) continue;
+                            multiplyAdd(a[i * m + k], i, k, jj, jTo);
+                        }
+                    }
+                }
+            }
+
+            long[] rowValidity = Bitmaps.create(p);
+            for (int i = rowFrom; i < rowTo; i++) {
+                Arrays.fill(rowValidity, 0L);
+                for (int k = 0; k < m; k++) {
+                    if (!Bitmaps.get(aValidity, i * m + k)) continue;
+                    long[] bits = bRowValidity[k];
+                    for (int w = 0; w < bits.length; w++) {
+                        rowValidity[w] |= bits[w];
+                    }
+                }
+                for (int j = 0; j < p; j++) {
+                    if (Bitmaps.get(rowValidity, j)) Bitmaps.set(cValidity, i * p + j);
+                }
+            }
+        }
+
+        /**
+         * Adds {@code aik} times a segment of row {@code k} of {@code b} to the same segment of row {@code i} of
+         * {@code c}.
+         */
+        private void multiplyAdd(double aik, int i, int k, int from, int to) {
+            int cRow = i * p;
+            int bRow = k * p;
+            if (Double.isFinite(aik)) {
+                // Null cells of b hold 0, so they add nothing and the loop needs no validity checks.
+                for (int j = from; j < to; j++) {
+                    c[cRow + j] += aik * b[bRow + j];
+                }
+            } else {
+                // An infinite or NaN factor times the 0 held by a null cell would be NaN, so those cells are skipped.
+                long[] bits = bRowValidity[k];
+                for (int j = from; j < to; j++) {
+                    if (Bitmaps.get(bits, j)) c[cRow + j] += aik * b[bRow + j];
+                }
+            }
+        }
+
+        NullableDoubleMatrix result() {
+            return new NullableDoubleMatrix(n, p, new NullableDoubleVector(c, cValidity));
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+import net.bertag.operators.api.Dividable;
+import net.bertag.operators.api.Multipliable;
+import net.bertag.operators.api.Scalable;
+import net.bertag.operators.api.Subtractable;
+import net.bertag.operators.sum.CompensatedSum;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, fixed-length vector of nullable {@code double} values, stored as a {@code double[]} plus a validity
+ * bitmap rather than as boxed fields; for example, a 24-slot vector can hold an hourly profile.  Unlike
+ * {@link NullableDoubleColumn}, which is modified in place, every operation returns a new vector, so vectors are
+ * values that plug into {@link Ops#plus(Addable, Addable)} and the other generic operators (and the Kotlin operators)
+ * like any other record.
+ * <p>
+ * The element-wise operations follow the {@linkplain net.bertag.operators.column null semantics of this package},
+ * and run branch-free over the slots as described there.
+ */
+public final class NullableDoubleVector implements Addable<NullableDoubleVector>, Subtractable<NullableDoubleVector>,
+        Multipliable<NullableDoubleVector>, Dividable<NullableDoubleVector>, Scalable<NullableDoubleVector> {
+
+    private final double[] values;
+    private final long[] validity;
+
+    NullableDoubleVector(double[] values, long[] validity) {
+        this.values = values;
+        this.validity = validity;
+    }
+
+    /**
+     * Creates a vector of the given size with every slot null.
+     *
+     * @param size the number of slots
+     */
+    public NullableDoubleVector(int size) {
+        this(new double[size], Bitmaps.create(size));
+    }
+
+    /**
+     * Creates a vector holding the given values.
+     *
+     * @param values some nullable values
+     * @return the vector
+     */
+    public static NullableDoubleVector of(Double... values) {
+        NullableDoubleVector vector = new NullableDoubleVector(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) vector.put(i, values[i]);
+        }
+        return vector;
+    }
+
+    /**
+     * Creates a vector holding the given values, none of them null.
+     *
+     * @param values some values, which are copied
+     * @return the vector
+     */
+    public static NullableDoubleVector of(double[] values) {
+        NullableDoubleVector vector = new NullableDoubleVector(values.length);
+        for (int i = 0; i < values.length; i++) {
+            vector.put(i, values[i]);
+        }
+        return vector;
+    }
+
+    /**
+     * Returns the number of slots in the vector.
+     *
+     * @return the size
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Determines if a slot is null.
+     *
+     * @param index the slot
+     * @return true if the slot is null
+     */
+    public boolean isNull(int index) {
+        return !Bitmaps.get(validity, index);
+    }
+
+    /**
+     * Counts the null slots in the vector.
+     *
+     * @return the number of null slots
+     */
+    public int nullCount() {
+        return values.length - Bitmaps.cardinality(validity);
+    }
+
+    /**
+     * Returns the value in a slot.
+     *
+     * @param index the slot
+     * @return the value, or null if the slot is null
+     */
+    public Double get(int index) {
+        return isNull(index) ? null : values[index];
+    }
+
+    /**
+     * Returns the value in a slot without boxing.
+     *
+     * @param index the slot
+     * @return the value, or 0 if the slot is null
+     */
+    public double getDouble(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns a copy of this vector with one slot replaced.
+     *
+     * @param index the slot
+     * @param value a nullable value
+     * @return the new vector
+     */
+    public NullableDoubleVector with(int index, Double value) {
+        NullableDoubleVector result = new NullableDoubleVector(values.clone(), validity.clone());
+        if (value != null) {
+            result.put(index, value);
+        } else {
+            result.values[index] = 0d;
+            Bitmaps.clear(result.validity, index);
+        }
+        return result;
+    }
+
+    /**
+     * Adds the other vector to this one, slot by slot.
+     *
+     * @param other a vector of the same size
+     * @return the sum
+     */
+    @Override
+    public NullableDoubleVector plus(NullableDoubleVector other) {
+        checkSize(other);
+        double[] result = new double[values.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values[i] + other.values[i];
+        }
+        return new NullableDoubleVector(result, mergeValidity(other));
+    }
+
+    /**
+     * Subtracts the other vector from this one, slot by slot.
+     *
+     * @param other a vector of the same size
+     * @return the difference
+     */
+    @Override
+    public NullableDoubleVector minus(NullableDoubleVector other) {
+        checkSize(other);
+        double[] result = new double[values.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values[i] - other.values[i];
+        }
+        return new NullableDoubleVector(result, mergeValidity(other));
+    }
+
+    /**
+     * Multiplies this vector by the other one, slot by slot.
+     *
+     * @param other a vector of the same size
+     * @return the product
+     */
+    @Override
+    public NullableDoubleVector times(NullableDoubleVector other) {
+        checkSize(other);
+        double[] result = new double[values.length];
+        for (int w = 0; w < validity.length; w++) {
+            int from = w << 6;
+            int to = Math.min(from + Long.SIZE, result.length);
+            if (Bitmaps.allSet(validity[w], to - from) && Bitmaps.allSet(other.validity[w], to - from)) {
+                for (int i = from; i < to; i++) {
+                    result[i] = values[i] * other.values[i];
+                }
+            } else {
+                for (int i = from; i < to; i++) {
+                    if (isNull(i)) result[i] = other.values[i];
+                    else result[i] = other.isNull(i) ? values[i] : values[i] * other.values[i];
+                }
+            }
+        }
+        return new NullableDoubleVector(result, mergeValidity(other));
+    }
+
+    /**
+     * Divides this vector by the other one, slot by slot.
+     *
+     * @param other a vector of the same size
+     * @return the quotient
+     */
+    @Override
+    public NullableDoubleVector div(NullableDoubleVector other) {
+        checkSize(other);
+        double[] result = new double[values.length];
+        for (int w = 0; w < validity.length; w++) {
+            int from = w << 6;
+            int to = Math.min(from + Long.SIZE, result.length);
+            if (Bitmaps.allSet(validity[w], to - from) && Bitmaps.allSet(other.validity[w], to - from)) {
+                for (int i = from; i < to; i++) {
+                    result[i] = values[i] / other.values[i];
+                }
+            } else {
+                for (int i = from; i < to; i++) {
+                    if (other.isNull(i)) result[i] = values[i];
+                    else result[i] = (isNull(i) ? 1d : values[i]) / other.values[i];
+                }
+            }
+        }
+        return new NullableDoubleVector(result, mergeValidity(other));
+    }
+
+    /**
+     * Scales every non-null slot by the given factor.
+     *
+     * @param factor the scale factor
+     * @return the scaled vector
+     */
+    @Override
+    public NullableDoubleVector scale(double factor) {
+        double[] result = new double[values.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values[i] * factor;
+        }
+        if (!Double.isFinite(factor) || Math.copySign(1d, factor) < 0) {
+            // 0 times a negative factor is -0 and times an infinite or NaN factor is NaN, so restore the zeros held by
+            // null slots.
+            for (int i = 0; i < result.length; i++) {
+                if (isNull(i)) result[i] = 0d;
+            }
+        }
+        return new NullableDoubleVector(result, validity.clone());
+    }
+
+    /**
+     * Sums every non-null slot using compensated summation (see {@link CompensatedSum}).
+     *
+     * @return the total, or null if every slot is null
+     */
+    public Double sum() {
+        CompensatedSum acc = new CompensatedSum();
+        for (int i = 0; i < values.length; i++) {
+            if (!isNull(i)) acc.add(values[i]);
+        }
+        return acc.toDouble();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NullableDoubleVector)) return false;
+        NullableDoubleVector other = (NullableDoubleVector) o;
+        return Arrays.equals(validity, other.validity) && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(validity) + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(get(i));
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Returns the backing values, with 0 in every null slot; callers must not modify the array.
+     */
+    double[] values() {
+        return values;
+    }
+
+    /**
+     * Returns the backing validity bitmap; callers must not modify the array.
+     */
+    long[] validity() {
+        return validity;
+    }
+
+    private void put(int index, double value) {
+        values[index] = value;
+        Bitmaps.set(validity, index);
+    }
+
+    private long[] mergeValidity(NullableDoubleVector other) {
+        long[] result = new long[validity.length];
+        for (int w = 0; w < result.length; w++) {
+            result[w] = validity[w] | other.validity[w];
+        }
+        return result;
+    }
+
+    private void checkSize(NullableDoubleVector other) {
+        if (other.values.length != values.length) {
+            throw new IllegalArgumentException("Vector sizes differ: " + values.length + " vs " + other.values.length);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.sum.CompensatedSum;
+import net.bertag.operators.sum.ExactSum;
+
+/**
+ * Mutable, fixed-length column of nullable {@code float} values, stored as a {@code float[]} plus a validity bitmap
+ * rather than as boxed {@link Float} instances.
+ * <p>
+ * The element-wise operations follow the {@linkplain net.bertag.operators.column null semantics of this package}.
+ * Operations modify this column in place and return it.
+ */
+public final class NullableFloatColumn {
+
+    private final int size;
+    private final float[] values;
+    private final long[] validity;
+
+    /**
+     * Creates a column of the given size with every slot null.
+     *
+     * @param size the number of slots
+     */
+    public NullableFloatColumn(int size) {
+        this.size = size;
+        this.values = new float[size];
+        this.validity = Bitmaps.create(size);
+    }
+
+    /**
+     * Creates a column holding the given values.
+     *
+     * @param values some nullable values
+     * @return the column
+     */
+    public static NullableFloatColumn of(Float... values) {
+        NullableFloatColumn column = new NullableFloatColumn(values.length);
+        for (int i = 0; i < values.length; i++) {
+            column.set(i, values[i]);
+        }
+        return column;
+    }
+
+    /**
+     * Returns the number of slots in the column.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determines if a slot is null.
+     *
+     * @param index the slot
+     * @return true if the slot is null
+     */
+    public boolean isNull(int index) {
+        return !Bitmaps.get(validity, index);
+    }
+
+    /**
+     * Counts the null slots in the column.
+     *
+     * @return the number of null slots
+     */
+    public int nullCount() {
+        return size - Bitmaps.cardinality(validity);
+    }
+
+    /**
+     * Returns the value in a slot.
+     *
+     * @param index the slot
+     * @return the value, or null if the slot is null
+     */
+    public Float get(int index) {
+        return isNull(index) ? null : values[index];
+    }
+
+    /**
+     * Returns the value in a slot without boxing.
+     *
+     * @param index the slot
+     * @return the value, or 0 if the slot is null
+     */
+    public float getFloat(int index) {
+        return values[index];
+    }
+
+    /**
+     * Stores a value in a slot.
+     *
+     * @param index the slot
+     * @param value a nullable value
+     */
+    public void set(int index, Float value) {
+        if (value == null) setNull(index);
+        else setFloat(index, value);
+    }
+
+    /**
+     * Stores a value in a slot without boxing.
+     *
+     * @param index the slot
+     * @param value the value
+     */
+    public void setFloat(int index, float value) {
+        values[index] = value;
+        Bitmaps.set(validity, index);
+    }
+
+    /**
+     * Marks a slot as null.
+     *
+     * @param index the slot
+     */
+    public void setNull(int index) {
+        // Null slots always hold 0 (see the package documentation).
+        values[index] = 0f;
+        Bitmaps.clear(validity, index);
+    }
+
+    /**
+     * Adds the other column to this one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public NullableFloatColumn plus(NullableFloatColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            values[i] += other.values[i];
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Subtracts the other column from this one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public NullableFloatColumn minus(NullableFloatColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            values[i] -= other.values[i];
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Multiplies this column by the other one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public NullableFloatColumn times(NullableFloatColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values[i] = isNull(i) ? other.values[i] : values[i] * other.values[i];
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Divides this column by the other one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public NullableFloatColumn div(NullableFloatColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values[i] = (isNull(i) ? 1f : values[i]) / other.values[i];
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Scales every non-null slot by the given factor.
+     *
+     * @param factor the scale factor
+     * @return this column
+     */
+    public NullableFloatColumn scale(double factor) {
+        for (int i = 0; i < size; i++) {
+            // Null slots are skipped so that they keep holding +0 even for a negative, infinite or NaN factor.
+            if (!isNull(i)) values[i] = (float) (values[i] * factor);
+        }
+        return this;
+    }
+
+    /**
+     * Sums every non-null slot using compensated summation in {@code double} precision (see
+     * {@link CompensatedSum}).
+     *
+     * @return the total, or null if every slot is null
+     */
+    public Float sum() {
+        CompensatedSum acc = new CompensatedSum();
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) acc.add(values[i]);
+        }
+        return acc.toFloat();
+    }
+
+    /**
+     * Sums every non-null slot exactly, rounding once at the end (see {@link ExactSum}).  Unlike {@link #sum()}, the
+     * result does not depend on the order of the slots, so partial sums of a split column always combine to the same
+     * answer.
+     *
+     * @return the total, or null if every slot is null
+     */
+    public Float exactSum() {
+        ExactSum acc = new ExactSum();
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) acc.add(values[i]);
+        }
+        return acc.toFloat();
+    }
+
+    private void mergeValidity(NullableFloatColumn other) {
+        for (int w = 0; w < validity.length; w++) {
+            validity[w] |= other.validity[w];
+        }
+    }
+
+    private void checkSize(NullableFloatColumn other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException("Column sizes differ: " + size + " vs " + other.size);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+import net.bertag.operators.api.Dividable;
+import net.bertag.operators.api.Multipliable;
+import net.bertag.operators.api.Scalable;
+import net.bertag.operators.api.Subtractable;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, fixed-length vector of nullable {@code long} values, stored as a {@code long[]} plus a validity bitmap;
+ * the {@code long} counterpart of {@link NullableDoubleVector}.  Results wrap on overflow and division truncates,
+ * exactly as the {@code Long} overloads of {@link Ops} do; dividing a non-null slot by a non-null zero throws an
+ * {@link ArithmeticException}.
+ * <p>
+ * The element-wise operations follow the {@linkplain net.bertag.operators.column null semantics of this package},
+ * and run branch-free over the slots as described there.
+ */
+public final class NullableLongVector implements Addable<NullableLongVector>, Subtractable<NullableLongVector>,
+        Multipliable<NullableLongVector>, Dividable<NullableLongVector>, Scalable<NullableLongVector> {
+
+    private final long[] values;
+    private final long[] validity;
+
+    private NullableLongVector(long[] values, long[] validity) {
+        this.values = values;
+        this.validity = validity;
+    }
+
+    /**
+     * Creates a vector of the given size with every slot null.
+     *
+     * @param size the number of slots
+     */
+    public NullableLongVector(int size) {
+        this(new long[size], Bitmaps.create(size));
+    }
+
+    /**
+     * Creates a vector holding the given values.
+     *
+     * @param values some nullable values
+     * @return the vector
+     */
+    public static NullableLongVector of(Long... values) {
+        NullableLongVector vector = new NullableLongVector(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) vector.put(i, values[i]);
+        }
+        return vector;
+    }
+
+    /**
+     * Creates a vector holding the given values, none of them null.
+     *
+     * @param values some values, which are copied
+     * @return the vector
+     */
+    public static NullableLongVector of(long[] values) {
+        NullableLongVector vector = new NullableLongVector(values.length);
+        for (int i = 0; i < values.length; i++) {
+            vector.put(i, values[i]);
+        }
+        return vector;
+    }
+
+    /**
+     * Returns the number of slots in the vector.
+     *
+     * @return the size
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Determines if a slot is null.
+     *
+     * @param index the slot
+     * @return true if the slot is null
+     */
+    public boolean isNull(int index) {
+        return !Bitmaps.get(validity, index);
+    }
+
+    /**
+     * Counts the null slots in the vector.
+     *
+     * @return the number of null slots
+     */
+    public int nullCount() {
+        return values.length - Bitmaps.cardinality(validity);
+    }
+
+    /**
+     * Returns the value in a slot.
+     *
+     * @param index the slot
+     * @return the value, or null if the slot is null
+     */
+    public Long get(int index) {
+        return isNull(index) ? null : values[index];
+    }
+
+    /**
+     * Returns the value in a slot without boxing.
+     *
+     * @param index the slot
+     * @return the value, or 0 if the slot is null
+     */
+    public long getLong(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns a copy of this vector with one slot replaced.
+     *
+     * @param index the slot
+     * @param value a nullable value
+     * @return the new vector
+     */
+    public NullableLongVector with(int index, Long value) {
+        NullableLongVector result = new NullableLongVector(values.clone(), validity.clone());
+        if (value != null) {
+            result.put(index, value);
+        } else {
+            result.values[index] = 0L;
+            Bitmaps.clear(result.validity, index);
+        }
+        return result;
+    }
+
+    /**
+     * Adds the other vector to this one, slot by slot.
+     *
+     * @param other a vector of the same size
+     * @return the sum
+     */
+    @Override
+    public NullableLongVector plus(NullableLongVector other) {
+        checkSize(other);
+        long[] result = new long[values.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values[i] + other.values[i];
+        }
+        return new NullableLongVector(result, mergeValidity(other));
+    }
+
+    /**
+     * Subtracts the other vector from this one, slot by slot.
+     *
+     * @param other a vector of the same size
+     * @return the difference
+     */
+    @Override
+    public NullableLongVector minus(NullableLongVector other) {
+        checkSize(other);
+        long[] result = new long[values.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values[i] - other.values[i];
+        }
+        return new NullableLongVector(result, mergeValidity(other));
+    }
+
+    /**
+     * Multiplies this vector by the other one, slot by slot.
+     *
+     * @param other a vector of the same size
+     * @return the product
+     */
+    @Override
+    public NullableLongVector times(NullableLongVector other) {
+        checkSize(other);
+        long[] result = new long[values.length];
+        for (int w = 0; w < validity.length; w++) {
+            int from = w << 6;
+            int to = Math.min(from + Long.SIZE, result.length);
+            if (Bitmaps.allSet(validity[w], to - from) && Bitmaps.allSet(other.validity[w], to - from)) {
+                for (int i = from; i < to; i++) {
+                    result[i] = values[i] * other.values[i];
+                }
+            } else {
+                for (int i = from; i < to; i++) {
+                    if (isNull(i)) result[i] = other.values[i];
+                    else result[i] = other.isNull(i) ? values[i] : values[i] * other.values[i];
+                }
+            }
+        }
+        return new NullableLongVector(result, mergeValidity(other));
+    }
+
+    /**
+     * Divides this vector by the other one, slot by slot.
+     *
+     * @param other a vector of the same size
+     * @return the quotient
+     */
+    @Override
+    public NullableLongVector div(NullableLongVector other) {
+        checkSize(other);
+        long[] result = new long[values.length];
+        for (int w = 0; w < validity.length; w++) {
+            int from = w << 6;
+            int to = Math.min(from + Long.SIZE, result.length);
+            if (Bitmaps.allSet(validity[w], to - from) && Bitmaps.allSet(other.validity[w], to - from)) {
+                for (int i = from; i < to; i++) {
+                    result[i] = values[i] / other.values[i];
+                }
+            } else {
+                for (int i = from; i < to; i++) {
+                    if (other.isNull(i)) result[i] = values[i];
+                    else result[i] = (isNull(i) ? 1L : values[i]) / other.values[i];
+                }
+            }
+        }
+        return new NullableLongVector(result, mergeValidity(other));
+    }
+
+    /**
+     * Scales every non-null slot by the given factor, rounding to the nearest integer as
+     * {@link Ops#scale(Long, Double)} does.
+     *
+     * @param factor the scale factor
+     * @return the scaled vector
+     */
+    @Override
+    public NullableLongVector scale(double factor) {
+        long[] result = new long[values.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Math.round(values[i] * factor);
+        }
+        return new NullableLongVector(result, validity.clone());
+    }
+
+    /**
+     * Sums every non-null slot, wrapping on overflow.
+     *
+     * @return the total, or null if every slot is null
+     */
+    public Long sum() {
+        if (nullCount() == values.length) return null;
+        long total = 0L;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NullableLongVector)) return false;
+        NullableLongVector other = (NullableLongVector) o;
+        return Arrays.equals(validity, other.validity) && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(validity) + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(get(i));
+        }
+        return builder.append(']').toString();
+    }
+
+    private void put(int index, long value) {
+        values[index] = value;
+        Bitmaps.set(validity, index);
+    }
+
+    private long[] mergeValidity(NullableLongVector other) {
+        long[] result = new long[validity.length];
+        for (int w = 0; w < result.length; w++) {
+            result[w] = validity[w] | other.validity[w];
+        }
+        return result;
+    }
+
+    private void checkSize(NullableLongVector other) {
+        if (other.values.length != values.length) {
+            throw new IllegalArgumentException("Vector sizes differ: " + values.length + " vs " + other.values.length);
+        }
+    }
+}
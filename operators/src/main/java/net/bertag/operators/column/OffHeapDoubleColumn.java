@@ -0,0 +1,290 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.sum.CompensatedSum;
+import net.bertag.operators.sum.ExactSum;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Mutable, fixed-length column of nullable {@code double} values held outside the Java heap: a data region of 8 bytes
+ * per slot plus a validity bitmap, each in a direct {@link ByteBuffer}.  This is the off-heap counterpart of
+ * {@link NullableDoubleColumn}; it keeps large aggregation state out of reach of the garbage collector and allows it to
+ * be sized by {@code -XX:MaxDirectMemorySize} rather than the heap.  A single column is limited to
+ * {@code Integer.MAX_VALUE / 8} slots, and its memory is released when the column becomes unreachable.
+ * <p>
+ * Columns may also {@linkplain #wrap(ByteBuffer, ByteBuffer, int) wrap} existing buffers, such as regions of a
+ * memory-mapped file.
+ * <p>
+ * The element-wise operations follow the {@linkplain net.bertag.operators.column null semantics of this package}.
+ * Operations modify this column in place and return it.
+ */
+public final class OffHeapDoubleColumn {
+
+    private final int size;
+    private final DoubleBuffer values;
+    private final LongBuffer validity;
+
+    /**
+     * Allocates an off-heap column of the given size with every slot null.
+     *
+     * @param size the number of slots
+     * @throws IllegalArgumentException if the size is negative or above {@code Integer.MAX_VALUE / 8}
+     */
+    public OffHeapDoubleColumn(int size) {
+        this(size, ByteBuffer.allocateDirect(Buffers.byteCount(size, Double.BYTES)).order(ByteOrder.nativeOrder())
+                .asDoubleBuffer(), Bitmaps.allocateDirect(size));
+    }
+
+    private OffHeapDoubleColumn(int size, DoubleBuffer values, LongBuffer validity) {
+        this.size = size;
+        this.values = values;
+        this.validity = validity;
+    }
+
+    /**
+     * Creates an off-heap column holding the given values.
+     *
+     * @param values some nullable values
+     * @return the column
+     */
+    public static OffHeapDoubleColumn of(Double... values) {
+        OffHeapDoubleColumn column = new OffHeapDoubleColumn(values.length);
+        for (int i = 0; i < values.length; i++) {
+            column.set(i, values[i]);
+        }
+        return column;
+    }
+
+    /**
+     * Creates a column backed by existing buffers, starting at each buffer's current position and using each buffer's
+     * byte order.  Changes to the column are visible in the buffers and vice versa.
+     *
+     * @param data a buffer holding at least {@code 8 * size} bytes of values
+     * @param validity a buffer holding at least {@code 8 * ceil(size / 64)} bytes of validity bits
+     * @param size the number of slots
+     * @return the column
+     * @throws IllegalArgumentException if the size is negative or above {@code Integer.MAX_VALUE / 8}, or either
+     *                                  buffer is too small
+     */
+    public static OffHeapDoubleColumn wrap(ByteBuffer data, ByteBuffer validity, int size) {
+        int bytes = Buffers.byteCount(size, Double.BYTES);
+        int words = (size + Long.SIZE - 1) >>> 6;
+        if (data.remaining() < bytes || validity.remaining() < words * Long.BYTES) {
+            throw new IllegalArgumentException("Buffers are too small for " + size + " slots");
+        }
+        return new OffHeapDoubleColumn(size, Buffers.region(data, bytes).asDoubleBuffer(),
+                Buffers.region(validity, words * Long.BYTES).asLongBuffer());
+    }
+
+    /**
+     * Copies a heap column into a new off-heap column.
+     *
+     * @param source some heap column
+     * @return the off-heap copy
+     */
+    public static OffHeapDoubleColumn copyOf(NullableDoubleColumn source) {
+        OffHeapDoubleColumn column = new OffHeapDoubleColumn(source.size());
+        for (int i = 0; i < source.size(); i++) {
+            if (!source.isNull(i)) column.setDouble(i, source.getDouble(i));
+        }
+        return column;
+    }
+
+    /**
+     * Returns the number of slots in the column.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determines if a slot is null.
+     *
+     * @param index the slot
+     * @return true if the slot is null
+     */
+    public boolean isNull(int index) {
+        return !Bitmaps.get(validity, index);
+    }
+
+    /**
+     * Counts the null slots in the column.
+     *
+     * @return the number of null slots
+     */
+    public int nullCount() {
+        return size - Bitmaps.cardinality(validity);
+    }
+
+    /**
+     * Returns the value in a slot.
+     *
+     * @param index the slot
+     * @return the value, or null if the slot is null
+     */
+    public Double get(int index) {
+        return isNull(index) ? null : values.get(index);
+    }
+
+    /**
+     * Returns the value in a slot without boxing.
+     *
+     * @param index the slot
+     * @return the value; undefined if the slot is null
+     */
+    public double getDouble(int index) {
+        return values.get(index);
+    }
+
+    /**
+     * Stores a value in a slot.
+     *
+     * @param index the slot
+     * @param value a nullable value
+     */
+    public void set(int index, Double value) {
+        if (value == null) setNull(index);
+        else setDouble(index, value);
+    }
+
+    /**
+     * Stores a value in a slot without boxing.
+     *
+     * @param index the slot
+     * @param value the value
+     */
+    public void setDouble(int index, double value) {
+        values.put(index, value);
+        Bitmaps.set(validity, index);
+    }
+
+    /**
+     * Marks a slot as null.
+     *
+     * @param index the slot
+     */
+    public void setNull(int index) {
+        values.put(index, 0d);
+        Bitmaps.clear(validity, index);
+    }
+
+    /**
+     * Adds the other column to this one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public OffHeapDoubleColumn plus(OffHeapDoubleColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values.put(i, (isNull(i) ? 0d : values.get(i)) + other.values.get(i));
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Subtracts the other column from this one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public OffHeapDoubleColumn minus(OffHeapDoubleColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values.put(i, (isNull(i) ? 0d : values.get(i)) - other.values.get(i));
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Multiplies this column by the other one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public OffHeapDoubleColumn times(OffHeapDoubleColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values.put(i, (isNull(i) ? 1d : values.get(i)) * other.values.get(i));
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Divides this column by the other one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public OffHeapDoubleColumn div(OffHeapDoubleColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values.put(i, (isNull(i) ? 1d : values.get(i)) / other.values.get(i));
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Scales every non-null slot by the given factor.
+     *
+     * @param factor the scale factor
+     * @return this column
+     */
+    public OffHeapDoubleColumn scale(double factor) {
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) values.put(i, values.get(i) * factor);
+        }
+        return this;
+    }
+
+    /**
+     * Sums every non-null slot using compensated summation (see {@link CompensatedSum}).
+     *
+     * @return the total, or null if every slot is null
+     */
+    public Double sum() {
+        CompensatedSum acc = new CompensatedSum();
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) acc.add(values.get(i));
+        }
+        return acc.toDouble();
+    }
+
+    /**
+     * Sums every non-null slot exactly, rounding once at the end (see {@link ExactSum}).
+     *
+     * @return the total, or null if every slot is null
+     */
+    public Double exactSum() {
+        ExactSum acc = new ExactSum();
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) acc.add(values.get(i));
+        }
+        return acc.toDouble();
+    }
+
+    private void mergeValidity(OffHeapDoubleColumn other) {
+        for (int w = 0; w < validity.limit(); w++) {
+            validity.put(w, validity.get(w) | other.validity.get(w));
+        }
+    }
+
+    private void checkSize(OffHeapDoubleColumn other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException("Column sizes differ: " + size + " vs " + other.size);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Mutable, fixed-length column of nullable {@code long} values held outside the Java heap: a data region of 8 bytes
+ * per slot plus a validity bitmap, each in a direct {@link ByteBuffer}.  It keeps large aggregation state out of reach
+ * of the garbage collector and allows it to be sized by {@code -XX:MaxDirectMemorySize} rather than the heap.  A
+ * single column is limited to {@code Integer.MAX_VALUE / 8} slots, and its memory is released when the column becomes
+ * unreachable.
+ * <p>
+ * Columns may also {@linkplain #wrap(ByteBuffer, ByteBuffer, int) wrap} existing buffers, such as regions of a
+ * memory-mapped file.
+ * <p>
+ * The element-wise operations follow the {@linkplain net.bertag.operators.column null semantics of this package}.
+ * Operations modify this column in place and return it.
+ */
+public final class OffHeapLongColumn {
+
+    private final int size;
+    private final LongBuffer values;
+    private final LongBuffer validity;
+
+    /**
+     * Allocates an off-heap column of the given size with every slot null.
+     *
+     * @param size the number of slots
+     * @throws IllegalArgumentException if the size is negative or above {@code Integer.MAX_VALUE / 8}
+     */
+    public OffHeapLongColumn(int size) {
+        this(size, ByteBuffer.allocateDirect(Buffers.byteCount(size, Long.BYTES)).order(ByteOrder.nativeOrder())
+                .asLongBuffer(), Bitmaps.allocateDirect(size));
+    }
+
+    private OffHeapLongColumn(int size, LongBuffer values, LongBuffer validity) {
+        this.size = size;
+        this.values = values;
+        this.validity = validity;
+    }
+
+    /**
+     * Creates an off-heap column holding the given values.
+     *
+     * @param values some nullable values
+     * @return the column
+     */
+    public static OffHeapLongColumn of(Long... values) {
+        OffHeapLongColumn column = new OffHeapLongColumn(values.length);
+        for (int i = 0; i < values.length; i++) {
+            column.set(i, values[i]);
+        }
+        return column;
+    }
+
+    /**
+     * Creates a column backed by existing buffers, starting at each buffer's current position and using each buffer's
+     * byte order.  Changes to the column are visible in the buffers and vice versa.
+     *
+     * @param data a buffer holding at least {@code 8 * size} bytes of values
+     * @param validity a buffer holding at least {@code 8 * ceil(size / 64)} bytes of validity bits
+     * @param size the number of slots
+     * @return the column
+     * @throws IllegalArgumentException if the size is negative or above {@code Integer.MAX_VALUE / 8}, or either
+     *                                  buffer is too small
+     */
+    public static OffHeapLongColumn wrap(ByteBuffer data, ByteBuffer validity, int size) {
+        int bytes = Buffers.byteCount(size, Long.BYTES);
+        int words = (size + Long.SIZE - 1) >>> 6;
+        if (data.remaining() < bytes || validity.remaining() < words * Long.BYTES) {
+            throw new IllegalArgumentException("Buffers are too small for " + size + " slots");
+        }
+        return new OffHeapLongColumn(size, Buffers.region(data, bytes).asLongBuffer(),
+                Buffers.region(validity, words * Long.BYTES).asLongBuffer());
+    }
+
+    /**
+     * Returns the number of slots in the column.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determines if a slot is null.
+     *
+     * @param index the slot
+     * @return true if the slot is null
+     */
+    public boolean isNull(int index) {
+        return !Bitmaps.get(validity, index);
+    }
+
+    /**
+     * Counts the null slots in the column.
+     *
+     * @return the number of null slots
+     */
+    public int nullCount() {
+        return size - Bitmaps.cardinality(validity);
+    }
+
+    /**
+     * Returns the value in a slot.
+     *
+     * @param index the slot
+     * @return the value, or null if the slot is null
+     */
+    public Long get(int index) {
+        return isNull(index) ? null : values.get(index);
+    }
+
+    /**
+     * Returns the value in a slot without boxing.
+     *
+     * @param index the slot
+     * @return the value; undefined if the slot is null
+     */
+    public long getLong(int index) {
+        return values.get(index);
+    }
+
+    /**
+     * Stores a value in a slot.
+     *
+     * @param index the slot
+     * @param value a nullable value
+     */
+    public void set(int index, Long value) {
+        if (value == null) setNull(index);
+        else setLong(index, value);
+    }
+
+    /**
+     * Stores a value in a slot without boxing.
+     *
+     * @param index the slot
+     * @param value the value
+     */
+    public void setLong(int index, long value) {
+        values.put(index, value);
+        Bitmaps.set(validity, index);
+    }
+
+    /**
+     * Marks a slot as null.
+     *
+     * @param index the slot
+     */
+    public void setNull(int index) {
+        values.put(index, 0L);
+        Bitmaps.clear(validity, index);
+    }
+
+    /**
+     * Adds the other column to this one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public OffHeapLongColumn plus(OffHeapLongColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values.put(i, (isNull(i) ? 0L : values.get(i)) + other.values.get(i));
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Subtracts the other column from this one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public OffHeapLongColumn minus(OffHeapLongColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values.put(i, (isNull(i) ? 0L : values.get(i)) - other.values.get(i));
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Multiplies this column by the other one, slot by slot.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public OffHeapLongColumn times(OffHeapLongColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values.put(i, (isNull(i) ? 1L : values.get(i)) * other.values.get(i));
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Divides this column by the other one, slot by slot, truncating as with {@link Ops#div(Long, Long)}.
+     *
+     * @param other a column of the same size
+     * @return this column
+     */
+    public OffHeapLongColumn div(OffHeapLongColumn other) {
+        checkSize(other);
+        for (int i = 0; i < size; i++) {
+            if (other.isNull(i)) continue;
+            values.put(i, (isNull(i) ? 1L : values.get(i)) / other.values.get(i));
+        }
+        mergeValidity(other);
+        return this;
+    }
+
+    /**
+     * Scales every non-null slot by the given factor, rounding to the nearest integer as with
+     * {@link Ops#scale(Long, Double)}.
+     *
+     * @param factor the scale factor
+     * @return this column
+     */
+    public OffHeapLongColumn scale(double factor) {
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) values.put(i, Math.round(values.get(i) * factor));
+        }
+        return this;
+    }
+
+    /**
+     * Sums every non-null slot, wrapping on overflow as with {@link Ops#plus(Long, Long)}.
+     *
+     * @return the total, or null if every slot is null
+     */
+    public Long sum() {
+        long total = 0L;
+        for (int i = 0; i < size; i++) {
+            if (!isNull(i)) total += values.get(i);
+        }
+        return nullCount() == size ? null : total;
+    }
+
+    private void mergeValidity(OffHeapLongColumn other) {
+        for (int w = 0; w < validity.limit(); w++) {
+            validity.put(w, validity.get(w) | other.validity.get(w));
+        }
+    }
+
+    private void checkSize(OffHeapLongColumn other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException("Column sizes differ: " + size + " vs " + other.size);
+        }
+    }
+}
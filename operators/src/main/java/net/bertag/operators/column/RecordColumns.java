@@ -0,0 +1,438 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.io.FieldType;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columnar (structure-of-arrays) copy of a list of records: each numeric field of the {@link RecordSchema} is
+ * transposed into its own nullable primitive column, so that bulk arithmetic runs as one tight loop per field rather
+ * than allocating a record per operation.  Records are only rebuilt on demand, by {@link #get(int)} or
+ * {@link #toList()}, using the original records as templates for any fields outside the schema.
+ * <p>
+ * The operations follow the null semantics of {@link Ops} field by field: {@code Ops.plus(a, b)} on each
+ * {@code Integer} field of two records gives the same result as {@link #plus(RecordColumns)} on their columns, and so
+ * on for the other operators and field types.  Operations modify these columns in place and return them.
+ *
+ * @param <R> the type of record
+ */
+public final class RecordColumns<R> {
+
+    private final RecordSchema<R> schema;
+    private final List<R> templates;
+    private final FieldColumn[] columns;
+
+    private RecordColumns(RecordSchema<R> schema, List<R> templates) {
+        this.schema = schema;
+        this.templates = templates;
+        this.columns = new FieldColumn[schema.fieldCount()];
+        int size = templates.size();
+        for (int f = 0; f < columns.length; f++) {
+            FieldType type = schema.type(f);
+            columns[f] = type == FieldType.DOUBLE ? new DoubleField(new NullableDoubleColumn(size))
+                    : type == FieldType.FLOAT ? new FloatField(new NullableFloatColumn(size))
+                    : new IntegralField(new IntegralColumn(type, size));
+        }
+    }
+
+    /**
+     * Transposes records into columns.
+     *
+     * @param schema the fields to transpose
+     * @param records some records
+     * @param <R> the type of record
+     * @return the columns
+     */
+    public static <R> RecordColumns<R> of(RecordSchema<R> schema, List<? extends R> records) {
+        RecordColumns<R> result = new RecordColumns<>(schema, new ArrayList<>(records));
+        for (int f = 0; f < result.columns.length; f++) {
+            for (int i = 0; i < records.size(); i++) {
+                result.columns[f].set(i, schema.read(records.get(i), f));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the schema of the columns.
+     *
+     * @return the schema
+     */
+    public RecordSchema<R> schema() {
+        return schema;
+    }
+
+    /**
+     * Returns the number of records.
+     *
+     * @return the size
+     */
+    public int size() {
+        return templates.size();
+    }
+
+    /**
+     * Determines if a field of a record is null.
+     *
+     * @param index the record
+     * @param field the field index
+     * @return true if the value is null
+     */
+    public boolean isNull(int index, int field) {
+        return columns[field].isNull(index);
+    }
+
+    /**
+     * Returns a field of a record, boxed as the field's {@link FieldType#javaType()}.
+     *
+     * @param index the record
+     * @param field the field index
+     * @return the value, or null if it is null
+     */
+    public Number get(int index, int field) {
+        return columns[field].get(index);
+    }
+
+    /**
+     * Returns a field of a record without boxing.
+     *
+     * @param index the record
+     * @param field the field index
+     * @return the value widened to a {@code double}, or 0 if it is null
+     */
+    public double getDouble(int index, int field) {
+        return columns[field].getDouble(index);
+    }
+
+    /**
+     * Returns the column of a {@link FieldType#DOUBLE} field, which is live: changes to it are reflected here.
+     *
+     * @param field the field index
+     * @return the column
+     * @throws IllegalArgumentException if the field is of another type
+     */
+    public NullableDoubleColumn doubleColumn(int field) {
+        if (!(columns[field] instanceof DoubleField)) {
+            throw new IllegalArgumentException("Field " + schema.name(field) + " is " + schema.type(field));
+        }
+        return ((DoubleField) columns[field]).column;
+    }
+
+    /**
+     * Returns the column of a {@link FieldType#FLOAT} field, which is live: changes to it are reflected here.
+     *
+     * @param field the field index
+     * @return the column
+     * @throws IllegalArgumentException if the field is of another type
+     */
+    public NullableFloatColumn floatColumn(int field) {
+        if (!(columns[field] instanceof FloatField)) {
+            throw new IllegalArgumentException("Field " + schema.name(field) + " is " + schema.type(field));
+        }
+        return ((FloatField) columns[field]).column;
+    }
+
+    /**
+     * Adds the other columns to these, record by record and field by field.
+     *
+     * @param other columns of the same schema and size
+     * @return these columns
+     */
+    public RecordColumns<R> plus(RecordColumns<R> other) {
+        checkShape(other);
+        for (int f = 0; f < columns.length; f++) {
+            columns[f].plus(other.columns[f]);
+        }
+        return this;
+    }
+
+    /**
+     * Subtracts the other columns from these, record by record and field by field.
+     *
+     * @param other columns of the same schema and size
+     * @return these columns
+     */
+    public RecordColumns<R> minus(RecordColumns<R> other) {
+        checkShape(other);
+        for (int f = 0; f < columns.length; f++) {
+            columns[f].minus(other.columns[f]);
+        }
+        return this;
+    }
+
+    /**
+     * Multiplies these columns by the other ones, record by record and field by field.
+     *
+     * @param other columns of the same schema and size
+     * @return these columns
+     */
+    public RecordColumns<R> times(RecordColumns<R> other) {
+        checkShape(other);
+        for (int f = 0; f < columns.length; f++) {
+            columns[f].times(other.columns[f]);
+        }
+        return this;
+    }
+
+    /**
+     * Divides these columns by the other ones, record by record and field by field.  Integral fields use integer
+     * division, as {@link Ops#div(Integer, Integer)} does.
+     *
+     * @param other columns of the same schema and size
+     * @return these columns
+     * @throws ArithmeticException if an integral field is divided by zero
+     */
+    public RecordColumns<R> div(RecordColumns<R> other) {
+        checkShape(other);
+        for (int f = 0; f < columns.length; f++) {
+            columns[f].div(other.columns[f]);
+        }
+        return this;
+    }
+
+    /**
+     * Scales every non-null field by the given factor.  Integral fields are rounded to the nearest integer, as
+     * {@link Ops#scale(Integer, Double)} does.
+     *
+     * @param factor the scale factor
+     * @return these columns
+     */
+    public RecordColumns<R> scale(double factor) {
+        for (FieldColumn column : columns) {
+            column.scale(factor);
+        }
+        return this;
+    }
+
+    /**
+     * Rebuilds a record from its current field values.
+     *
+     * @param index the record
+     * @return a new record
+     */
+    public R get(int index) {
+        Number[] values = new Number[columns.length];
+        for (int f = 0; f < columns.length; f++) {
+            values[f] = get(index, f);
+        }
+        return schema.create(templates.get(index), values);
+    }
+
+    /**
+     * Returns a view of the records, each rebuilt from the current field values when it is read.
+     *
+     * @return the records
+     */
+    public List<R> toList() {
+        return new AbstractList<R>() {
+            @Override
+            public R get(int index) {
+                return RecordColumns.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return RecordColumns.this.size();
+            }
+        };
+    }
+
+    private void checkShape(RecordColumns<R> other) {
+        if (other.schema != schema) {
+            throw new IllegalArgumentException("Columns have different schemas");
+        }
+        if (other.size() != size()) {
+            throw new IllegalArgumentException("Column sizes differ: " + size() + " vs " + other.size());
+        }
+    }
+
+    /**
+     * Adapts the column of one field to a common interface, so that each operation dispatches on the field's column
+     * type in one place.  Binary operations are only ever given a column of the same field (hence the same type).
+     */
+    private abstract static class FieldColumn {
+
+        abstract boolean isNull(int index);
+
+        abstract Number get(int index);
+
+        abstract double getDouble(int index);
+
+        abstract void set(int index, Number value);
+
+        abstract void plus(FieldColumn other);
+
+        abstract void minus(FieldColumn other);
+
+        abstract void times(FieldColumn other);
+
+        abstract void div(FieldColumn other);
+
+        abstract void scale(double factor);
+    }
+
+    private static final class DoubleField extends FieldColumn {
+
+        private final NullableDoubleColumn column;
+
+        DoubleField(NullableDoubleColumn column) {
+            this.column = column;
+        }
+
+        @Override
+        boolean isNull(int index) {
+            return column.isNull(index);
+        }
+
+        @Override
+        Number get(int index) {
+            return column.get(index);
+        }
+
+        @Override
+        double getDouble(int index) {
+            return column.getDouble(index);
+        }
+
+        @Override
+        void set(int index, Number value) {
+            column.set(index, (Double) value);
+        }
+
+        @Override
+        void plus(FieldColumn other) {
+            column.plus(((DoubleField) other).column);
+        }
+
+        @Override
+        void minus(FieldColumn other) {
+            column.minus(((DoubleField) other).column);
+        }
+
+        @Override
+        void times(FieldColumn other) {
+            column.times(((DoubleField) other).column);
+        }
+
+        @Override
+        void div(FieldColumn other) {
+            column.div(((DoubleField) other).column);
+        }
+
+        @Override
+        void scale(double factor) {
+            column.scale(factor);
+        }
+    }
+
+    private static final class FloatField extends FieldColumn {
+
+        private final NullableFloatColumn column;
+
+        FloatField(NullableFloatColumn column) {
+            this.column = column;
+        }
+
+        @Override
+        boolean isNull(int index) {
+            return column.isNull(index);
+        }
+
+        @Override
+        Number get(int index) {
+            return column.get(index);
+        }
+
+        @Override
+        double getDouble(int index) {
+            return column.getFloat(index);
+        }
+
+        @Override
+        void set(int index, Number value) {
+            column.set(index, (Float) value);
+        }
+
+        @Override
+        void plus(FieldColumn other) {
+            column.plus(((FloatField) other).column);
+        }
+
+        @Override
+        void minus(FieldColumn other) {
+            column.minus(((FloatField) other).column);
+        }
+
+        @Override
+        void times(FieldColumn other) {
+            column.times(((FloatField) other).column);
+        }
+
+        @Override
+        void div(FieldColumn other) {
+            column.div(((FloatField) other).column);
+        }
+
+        @Override
+        void scale(double factor) {
+            column.scale(factor);
+        }
+    }
+
+    private static final class IntegralField extends FieldColumn {
+
+        private final IntegralColumn column;
+
+        IntegralField(IntegralColumn column) {
+            this.column = column;
+        }
+
+        @Override
+        boolean isNull(int index) {
+            return column.isNull(index);
+        }
+
+        @Override
+        Number get(int index) {
+            return column.get(index);
+        }
+
+        @Override
+        double getDouble(int index) {
+            return column.getLong(index);
+        }
+
+        @Override
+        void set(int index, Number value) {
+            column.set(index, value);
+        }
+
+        @Override
+        void plus(FieldColumn other) {
+            column.plus(((IntegralField) other).column);
+        }
+
+        @Override
+        void minus(FieldColumn other) {
+            column.minus(((IntegralField) other).column);
+        }
+
+        @Override
+        void times(FieldColumn other) {
+            column.times(((IntegralField) other).column);
+        }
+
+        @Override
+        void div(FieldColumn other) {
+            column.div(((IntegralField) other).column);
+        }
+
+        @Override
+        void scale(double factor) {
+            column.scale(factor);
+        }
+    }
+}
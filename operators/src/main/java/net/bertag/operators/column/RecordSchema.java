@@ -0,0 +1,283 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.io.FieldType;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Describes the numeric fields of a record type so that a list of records can be transposed into columns (see
+ * {@link RecordColumns}) and records rebuilt from them.  Each field has a name, a {@link FieldType}, and a getter
+ * returning its nullable value; a {@link Factory} rebuilds a record from a template (the original record, which
+ * supplies any non-numeric fields) and the new field values.
+ * <p>
+ * A schema is either declared with {@link #builder()} or {@linkplain #derive(Class) derived} by reflection.
+ *
+ * @param <R> the type of record
+ */
+public final class RecordSchema<R> {
+
+    private static final Map<Class<?>, FieldType> NUMERIC_TYPES = new HashMap<>();
+
+    static {
+        NUMERIC_TYPES.put(Integer.class, FieldType.INT);
+        NUMERIC_TYPES.put(int.class, FieldType.INT);
+        NUMERIC_TYPES.put(Long.class, FieldType.LONG);
+        NUMERIC_TYPES.put(long.class, FieldType.LONG);
+        NUMERIC_TYPES.put(Short.class, FieldType.SHORT);
+        NUMERIC_TYPES.put(short.class, FieldType.SHORT);
+        NUMERIC_TYPES.put(Float.class, FieldType.FLOAT);
+        NUMERIC_TYPES.put(float.class, FieldType.FLOAT);
+        NUMERIC_TYPES.put(Double.class, FieldType.DOUBLE);
+        NUMERIC_TYPES.put(double.class, FieldType.DOUBLE);
+    }
+
+    private final List<String> names;
+    private final List<FieldType> types;
+    private final List<Function<? super R, ? extends Number>> getters;
+    private final Factory<R> factory;
+
+    private RecordSchema(List<String> names, List<FieldType> types,
+            List<Function<? super R, ? extends Number>> getters, Factory<R> factory) {
+        this.names = Collections.unmodifiableList(new ArrayList<>(names));
+        this.types = Collections.unmodifiableList(new ArrayList<>(types));
+        this.getters = new ArrayList<>(getters);
+        this.factory = factory;
+    }
+
+    /**
+     * Starts declaring a schema.
+     *
+     * @param <R> the type of record
+     * @return a builder with no fields
+     */
+    public static <R> Builder<R> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Derives a schema from a record class.  Its fields are the public getters ({@code getX()}) returning a boxed or
+     * primitive {@code int}, {@code long}, {@code short}, {@code float} or {@code double}, in name order.  Records are
+     * rebuilt with the public constructor taking the most parameters whose types each match exactly one getter: numeric
+     * parameters receive the new field values, and any others are copied from the template.  That constructor must take
+     * every numeric field, since a field it did not receive would silently be lost.
+     *
+     * @param type the record class
+     * @param <R> the type of record
+     * @return the schema
+     * @throws IllegalArgumentException if the class has no numeric getters or no constructor taking every numeric
+     *         field, in which case the schema must be declared instead
+     */
+    public static <R> RecordSchema<R> derive(Class<R> type) {
+        List<Method> getters = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (isGetter(method)) getters.add(method);
+        }
+        getters.sort(Comparator.comparing(Method::getName));
+
+        Builder<R> builder = builder();
+        List<Method> numeric = new ArrayList<>();
+        for (Method getter : getters) {
+            FieldType fieldType = NUMERIC_TYPES.get(getter.getReturnType());
+            if (fieldType == null) continue;
+            numeric.add(getter);
+            builder.field(propertyName(getter), fieldType, record -> (Number) invoke(getter, record));
+        }
+        if (numeric.isEmpty()) throw new IllegalArgumentException("No numeric getters on " + type.getName());
+        return builder.build(constructorFactory(type, getters, numeric));
+    }
+
+    /**
+     * Returns the number of fields.
+     *
+     * @return the field count
+     */
+    public int fieldCount() {
+        return names.size();
+    }
+
+    /**
+     * Returns the name of a field.
+     *
+     * @param field the field index
+     * @return the name
+     */
+    public String name(int field) {
+        return names.get(field);
+    }
+
+    /**
+     * Returns the type of a field.
+     *
+     * @param field the field index
+     * @return the type
+     */
+    public FieldType type(int field) {
+        return types.get(field);
+    }
+
+    /**
+     * Finds a field by name.
+     *
+     * @param name some field name
+     * @return the field index
+     * @throws IllegalArgumentException if there is no such field
+     */
+    public int indexOf(String name) {
+        int index = names.indexOf(name);
+        if (index < 0) throw new IllegalArgumentException("Unknown field: " + name);
+        return index;
+    }
+
+    Number read(R record, int field) {
+        return getters.get(field).apply(record);
+    }
+
+    R create(R template, Number[] values) {
+        return factory.create(template, values);
+    }
+
+    /**
+     * Rebuilds a record from new field values.
+     *
+     * @param <R> the type of record
+     */
+    @FunctionalInterface
+    public interface Factory<R> {
+
+        /**
+         * Creates a record.
+         *
+         * @param template the original record, supplying any fields not in the schema
+         * @param values the nullable field values, in schema order and of each field's {@link FieldType#javaType()}
+         * @return the new record
+         */
+        R create(R template, Number[] values);
+    }
+
+    /**
+     * Declares the fields of a schema one at a time.
+     *
+     * @param <R> the type of record
+     */
+    public static final class Builder<R> {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<FieldType> types = new ArrayList<>();
+        private final List<Function<? super R, ? extends Number>> getters = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a field.
+         *
+         * @param name the field name
+         * @param type the field type
+         * @param getter returns the nullable value of the field, of the type's {@link FieldType#javaType()}
+         * @return this builder
+         * @throws IllegalArgumentException if a field with the same name was already added
+         */
+        public Builder<R> field(String name, FieldType type, Function<? super R, ? extends Number> getter) {
+            if (names.contains(name)) throw new IllegalArgumentException("Duplicate field: " + name);
+            names.add(name);
+            types.add(type);
+            getters.add(getter);
+            return this;
+        }
+
+        /**
+         * Finishes the schema.
+         *
+         * @param factory rebuilds a record from its template and new field values
+         * @return the schema
+         */
+        public RecordSchema<R> build(Factory<R> factory) {
+            return new RecordSchema<>(names, types, getters, factory);
+        }
+    }
+
+    private static boolean isGetter(Method method) {
+        return !Modifier.isStatic(method.getModifiers()) && method.getParameterCount() == 0
+                && method.getName().startsWith("get") && method.getName().length() > 3
+                && method.getReturnType() != void.class && method.getDeclaringClass() != Object.class;
+    }
+
+    private static String propertyName(Method getter) {
+        String name = getter.getName().substring(3);
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static <R> Factory<R> constructorFactory(Class<R> type, List<Method> getters, List<Method> numeric) {
+        Constructor<?> best = null;
+        Method[] bestSources = null;
+        for (Constructor<?> constructor : type.getConstructors()) {
+            Method[] sources = match(constructor, getters);
+            if (sources == null || !Arrays.asList(sources).containsAll(numeric)) continue;
+            if (best == null || sources.length > bestSources.length) {
+                best = constructor;
+                bestSources = sources;
+            }
+        }
+        if (best == null) {
+            throw new IllegalArgumentException("No constructor of " + type.getName()
+                    + " takes every numeric field; declare the schema with RecordSchema.builder() instead");
+        }
+        Constructor<?> constructor = best;
+        Method[] sources = bestSources;
+        int[] fields = new int[sources.length];
+        for (int p = 0; p < sources.length; p++) {
+            fields[p] = numeric.indexOf(sources[p]);
+        }
+        return (template, values) -> {
+            Object[] arguments = new Object[sources.length];
+            for (int p = 0; p < sources.length; p++) {
+                arguments[p] = fields[p] >= 0 ? values[fields[p]] : invoke(sources[p], template);
+            }
+            try {
+                return type.cast(constructor.newInstance(arguments));
+            } catch (InstantiationException | IllegalAccessException | IllegalArgumentException
+                     | InvocationTargetException e) {
+                // A null value passed to a primitive parameter surfaces as an IllegalArgumentException.
+                throw new IllegalStateException("Cannot create " + type.getName(), e);
+            }
+        };
+    }
+
+    /**
+     * Maps each parameter of a constructor to the only getter returning exactly its type, or returns null if any
+     * parameter has no such getter or two parameters would share one.
+     */
+    private static Method[] match(Constructor<?> constructor, List<Method> getters) {
+        if (constructor.isSynthetic()) return null;
+        Class<?>[] parameters = constructor.getParameterTypes();
+        Method[] sources = new Method[parameters.length];
+        for (int p = 0; p < parameters.length; p++) {
+            for (Method getter : getters) {
+                if (getter.getReturnType() != parameters[p]) continue;
+                if (sources[p] != null) return null;
+                sources[p] = getter;
+            }
+            if (sources[p] == null) return null;
+        }
+        return Arrays.stream(sources).distinct().count() == sources.length ? sources : null;
+    }
+
+    private static Object invoke(Method getter, Object record) {
+        try {
+            return getter.invoke(record);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + getter.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Columns, vectors and matrices of nullable primitive values, each stored as a primitive array (or an off-heap
+ * buffer) plus a validity bitmap rather than as boxed values.
+ * <p>
+ * <b>Null semantics.</b>  Unless a class says otherwise, the element-wise operations follow the same null semantics
+ * as {@link net.bertag.operators.Ops}: if both slots are null the result is null, and if one slot is null it is
+ * substituted by 0 (for {@code plus} and {@code minus}) or 1 (for {@code times} and {@code div}).
+ * <p>
+ * <b>Layout.</b>  Null slots always hold 0 (+0 for floating-point types), so addition and subtraction run as a single
+ * branch-free loop over every slot, and multiplication and division can do the same for each block of 64 slots that
+ * has no nulls; the JIT compiler can unroll and vectorize these loops.  Operations that could leave anything else in a
+ * null slot, such as scaling by a negative, infinite or NaN factor, skip or restore the null slots.
+ */
+package net.bertag.operators.column;
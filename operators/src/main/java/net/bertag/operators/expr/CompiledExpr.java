@@ -0,0 +1,121 @@
+package net.bertag.operators.expr;
+
+import net.bertag.operators.column.NullableDoubleColumn;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * An {@link Expr} compiled for repeated evaluation, either one row of nullable inputs at a time or in bulk over
+ * columns.  Instances are immutable and safe to share between threads.
+ * <p>
+ * The method handle tree is held in an instance field, so the JIT cannot treat it as a constant and inline it into
+ * the caller, as it would a {@code static final} handle or an {@code invokedynamic} call site (which Java 8 offers no
+ * way to create per expression short of generating a class).  Each evaluation is therefore an out-of-line call into
+ * the tree's own compiled form.  What compiling saves over nesting {@code Ops} calls is the boxing of every
+ * intermediate result and the null checks at every level, not the call itself.
+ */
+public final class CompiledExpr {
+
+    private final Expr expr;
+    private final MethodHandle body;
+    private final boolean nullable;
+    private final long variables;
+    private final int arity;
+
+    CompiledExpr(Expr expr, MethodHandle body, boolean nullable) {
+        this.expr = expr;
+        this.body = body;
+        this.nullable = nullable;
+        this.variables = expr.variables();
+        this.arity = expr.arity();
+    }
+
+    /**
+     * Returns the number of inputs the expression reads.
+     *
+     * @return the arity
+     */
+    public int arity() {
+        return arity;
+    }
+
+    /**
+     * Evaluates the expression.
+     *
+     * @param values the nullable inputs, indexed by variable; at least {@link #arity()} of them
+     * @return the result, or null if it is null
+     * @throws IllegalArgumentException if too few inputs are given
+     */
+    public Double evaluate(Double... values) {
+        checkArity(values.length);
+        double[] unboxed = new double[arity];
+        long nulls = 0L;
+        for (int i = 0; i < arity; i++) {
+            if (values[i] == null) nulls |= 1L << i;
+            else unboxed[i] = values[i];
+        }
+        return evaluate(unboxed, nulls);
+    }
+
+    /**
+     * Evaluates the expression on unboxed inputs.
+     *
+     * @param values the inputs, indexed by variable; at least {@link #arity()} of them
+     * @param nulls a bit mask with bit {@code i} set if input {@code i} is null (its value is then ignored)
+     * @return the result, or null if it is null
+     */
+    public Double evaluate(double[] values, long nulls) {
+        if (nullable && (nulls & variables) == variables) return null;
+        return invoke(values, nulls);
+    }
+
+    /**
+     * Evaluates the expression for every slot of some columns.
+     *
+     * @param columns the input columns, indexed by variable; at least {@link #arity()} of them (and at least one),
+     *         all of the same size
+     * @return a new column holding the results
+     * @throws IllegalArgumentException if too few columns are given or their sizes differ
+     */
+    public NullableDoubleColumn evaluateColumns(NullableDoubleColumn... columns) {
+        if (columns.length == 0) throw new IllegalArgumentException("At least one column is required");
+        checkArity(columns.length);
+        int size = columns[0].size();
+        for (int v = 0; v < arity; v++) {
+            if (columns[v].size() != size) {
+                throw new IllegalArgumentException("Column sizes differ: " + size + " vs " + columns[v].size());
+            }
+        }
+        NullableDoubleColumn result = new NullableDoubleColumn(size);
+        double[] values = new double[arity];
+        for (int i = 0; i < size; i++) {
+            long nulls = 0L;
+            for (int v = 0; v < arity; v++) {
+                if (columns[v].isNull(i)) nulls |= 1L << v;
+                values[v] = columns[v].getDouble(i);
+            }
+            if (nullable && (nulls & variables) == variables) continue;
+            result.setDouble(i, invoke(values, nulls));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return expr.toString();
+    }
+
+    private double invoke(double[] values, long nulls) {
+        try {
+            return (double) body.invokeExact(values, nulls);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private void checkArity(int count) {
+        if (count < arity) throw new IllegalArgumentException("Expected " + arity + " inputs but got " + count);
+    }
+}
@@ -0,0 +1,300 @@
+package net.bertag.operators.expr;
+
+import net.bertag.operators.Ops;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Immutable arithmetic expression over nullable {@code double} variables, with the null semantics of the
+ * {@code Double} overloads in {@link Ops}: {@code Expr.plus(Expr.times(x, y), z)} evaluates exactly as
+ * {@code Ops.plus(Ops.times(x, y), z)} would.
+ * <p>
+ * Evaluating the nested {@code Ops} calls directly boxes every intermediate result and checks for nulls at every level.
+ * An expression is instead {@linkplain #compile() compiled} once into a tree of {@link MethodHandle}s that works on
+ * primitive {@code double}s: whether a subexpression is null depends only on which variables it uses, so it is
+ * decided with a single mask test against the null bits of the inputs, and only the final result is boxed.
+ * <p>
+ * Variables are identified by their position in the inputs, from 0 to 63.
+ */
+public abstract class Expr {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType BODY = MethodType.methodType(double.class, double[].class, long.class);
+    private static final MethodHandle READ = find("read", int.class, double[].class, long.class);
+    private static final MethodHandle COVERS = findStatic("covers", MethodType.methodType(boolean.class, long.class,
+            double[].class, long.class));
+    private static final MethodHandle PLUS = find("plus", double.class, double.class);
+    private static final MethodHandle MINUS = find("minus", double.class, double.class);
+    private static final MethodHandle TIMES = find("times", double.class, double.class);
+    private static final MethodHandle DIV = find("div", double.class, double.class);
+
+    private final long variables;
+    private final boolean nullable;
+
+    private Expr(long variables, boolean nullable) {
+        this.variables = variables;
+        this.nullable = nullable;
+    }
+
+    /**
+     * Returns a variable.
+     *
+     * @param index the position of the variable in the inputs, from 0 to 63
+     * @return the expression
+     * @throws IllegalArgumentException if the index is out of range
+     */
+    public static Expr var(int index) {
+        if (index < 0 || index >= Long.SIZE) {
+            throw new IllegalArgumentException("Variable index out of range: " + index);
+        }
+        return new Variable(index);
+    }
+
+    /**
+     * Returns a constant, which is never null.
+     *
+     * @param value the value
+     * @return the expression
+     */
+    public static Expr constant(double value) {
+        return new Constant(value);
+    }
+
+    /**
+     * Adds two expressions, as {@link Ops#plus(Double, Double)} does.
+     *
+     * @param a some expression
+     * @param b another expression
+     * @return the sum
+     */
+    public static Expr plus(Expr a, Expr b) {
+        return new Binary("+", PLUS, 0d, a, b);
+    }
+
+    /**
+     * Subtracts the second expression from the first, as {@link Ops#minus(Double, Double)} does.
+     *
+     * @param a some expression
+     * @param b another expression
+     * @return the difference
+     */
+    public static Expr minus(Expr a, Expr b) {
+        return new Binary("-", MINUS, 0d, a, b);
+    }
+
+    /**
+     * Multiplies two expressions, as {@link Ops#times(Double, Double)} does.
+     *
+     * @param a some expression
+     * @param b another expression
+     * @return the product
+     */
+    public static Expr times(Expr a, Expr b) {
+        return new Binary("*", TIMES, 1d, a, b);
+    }
+
+    /**
+     * Divides the first expression by the second, as {@link Ops#div(Double, Double)} does.
+     *
+     * @param a some expression
+     * @param b another expression
+     * @return the quotient
+     */
+    public static Expr div(Expr a, Expr b) {
+        return new Binary("/", DIV, 1d, a, b);
+    }
+
+    /**
+     * Scales an expression by a factor, as {@link Ops#scale(Double, Double)} does: the result is null if the expression
+     * is.
+     *
+     * @param value some expression
+     * @param factor the scale factor
+     * @return the scaled expression
+     */
+    public static Expr scale(Expr value, double factor) {
+        return new Scale(value, factor);
+    }
+
+    /**
+     * Compiles the expression for repeated evaluation.
+     *
+     * @return the compiled expression
+     */
+    public CompiledExpr compile() {
+        return new CompiledExpr(this, body(), nullable);
+    }
+
+    /**
+     * Returns the number of inputs the expression reads: one more than the highest variable index used.
+     *
+     * @return the arity
+     */
+    public int arity() {
+        return Long.SIZE - Long.numberOfLeadingZeros(variables);
+    }
+
+    /**
+     * Returns the variables used, as a bit mask.
+     *
+     * @return the mask
+     */
+    long variables() {
+        return variables;
+    }
+
+    /**
+     * Returns a handle of type {@code (double[] values, long nulls) -> double} computing the expression, assuming it is
+     * not null.
+     *
+     * @return the handle
+     */
+    abstract MethodHandle body();
+
+    /**
+     * Returns a handle like {@link #body()} that yields {@code identity} instead when the expression is null, which is
+     * how the enclosing operation substitutes for a null operand.
+     *
+     * @param identity the substitute for null
+     * @return the handle
+     */
+    MethodHandle handle(double identity) {
+        if (!nullable) return body();
+        MethodHandle substitute = MethodHandles.dropArguments(MethodHandles.constant(double.class, identity), 0,
+                double[].class, long.class);
+        return MethodHandles.guardWithTest(MethodHandles.insertArguments(COVERS, 0, variables), substitute, body());
+    }
+
+    private static final class Variable extends Expr {
+
+        private final int index;
+
+        Variable(int index) {
+            super(1L << index, true);
+            this.index = index;
+        }
+
+        @Override
+        MethodHandle body() {
+            return MethodHandles.insertArguments(READ, 0, index);
+        }
+
+        @Override
+        public String toString() {
+            return "x" + index;
+        }
+    }
+
+    private static final class Constant extends Expr {
+
+        private final double value;
+
+        Constant(double value) {
+            super(0L, false);
+            this.value = value;
+        }
+
+        @Override
+        MethodHandle body() {
+            return MethodHandles.dropArguments(MethodHandles.constant(double.class, value), 0, double[].class,
+                    long.class);
+        }
+
+        @Override
+        public String toString() {
+            return Double.toString(value);
+        }
+    }
+
+    private static final class Binary extends Expr {
+
+        private final String symbol;
+        private final MethodHandle op;
+        private final double identity;
+        private final Expr a;
+        private final Expr b;
+
+        Binary(String symbol, MethodHandle op, double identity, Expr a, Expr b) {
+            // As with Ops, the result is null only if both operands are; a null operand is replaced by the identity.
+            super(a.variables | b.variables, a.nullable && b.nullable);
+            this.symbol = symbol;
+            this.op = op;
+            this.identity = identity;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        MethodHandle body() {
+            MethodHandle left = MethodHandles.collectArguments(op, 0, a.handle(identity));
+            MethodHandle operands = MethodHandles.collectArguments(left, 2, b.handle(identity));
+            return MethodHandles.permuteArguments(operands, BODY, 0, 1, 0, 1);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + a + " " + symbol + " " + b + ")";
+        }
+    }
+
+    private static final class Scale extends Expr {
+
+        private final Expr value;
+        private final double factor;
+
+        Scale(Expr value, double factor) {
+            super(value.variables, value.nullable);
+            this.value = value;
+            this.factor = factor;
+        }
+
+        @Override
+        MethodHandle body() {
+            MethodHandle scaled = MethodHandles.insertArguments(TIMES, 1, factor);
+            return MethodHandles.filterReturnValue(value.body(), scaled);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + value + " * " + factor + ")";
+        }
+    }
+
+    private static double read(int index, double[] values, long nulls) {
+        return values[index];
+    }
+
+    private static boolean covers(long variables, double[] values, long nulls) {
+        return (nulls & variables) == variables;
+    }
+
+    private static double plus(double a, double b) {
+        return a + b;
+    }
+
+    private static double minus(double a, double b) {
+        return a - b;
+    }
+
+    private static double times(double a, double b) {
+        return a * b;
+    }
+
+    private static double div(double a, double b) {
+        return a / b;
+    }
+
+    private static MethodHandle find(String name, Class<?>... parameters) {
+        return findStatic(name, MethodType.methodType(double.class, parameters));
+    }
+
+    private static MethodHandle findStatic(String name, MethodType type) {
+        try {
+            return LOOKUP.findStatic(Expr.class, name, type);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package net.bertag.operators.group;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * Thread-safe keyed aggregator for many threads feeding the same totals.  It replaces
+ * {@code ConcurrentHashMap.merge(key, value, Ops::plus)}, which retries (and re-allocates) under contention and
+ * serializes every update to a hot key.
+ * <p>
+ * Keys are spread over a fixed set of lock stripes, each guarding a plain {@link HashMap}, so threads updating keys in
+ * different stripes never contend.  When an update finds its stripe's lock held, the contention is charged to the key
+ * being updated; once a key has been contended often enough it is split into one cell per processor, each with its own
+ * lock, and each thread updates the cell chosen by its thread ID.  Split keys are also published in a
+ * {@link ConcurrentHashMap}, so updates to them find their cells without taking the stripe lock at all.  The cells of a
+ * split key are folded back together when the key is read.
+ * <p>
+ * Values are merged with {@link Ops#op(Object, Object, BinaryOperator)}, so whatever the merge function, a null input
+ * yields the other input and a key whose values were all null totals null.  Mutable values (such as accumulators whose
+ * {@code plus} modifies and returns {@code this}) are adopted by the aggregator and must not be modified afterwards,
+ * and need a copy function: reads return a copy taken while the total is locked, since other threads may keep updating
+ * the total itself.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value
+ */
+public final class ConcurrentGroupBy<K, V> {
+
+    private static final int DEFAULT_HOT_THRESHOLD = 8;
+    private static final Object NULL_KEY = new Object();
+
+    private final BinaryOperator<V> merge;
+    private final UnaryOperator<V> copy;
+    private final Stripe<K, V>[] stripes;
+    private final ConcurrentHashMap<Object, Cell<V>[]> hotCells = new ConcurrentHashMap<>();
+    private final int cellCount;
+    private final int hotThreshold;
+
+    @SuppressWarnings("unchecked")
+    ConcurrentGroupBy(BinaryOperator<V> merge, UnaryOperator<V> copy, int stripeCount, int cellCount,
+            int hotThreshold) {
+        this.merge = merge;
+        this.copy = copy;
+        this.stripes = (Stripe<K, V>[]) new Stripe<?, ?>[powerOfTwoAtLeast(stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        this.cellCount = powerOfTwoAtLeast(cellCount);
+        this.hotThreshold = hotThreshold;
+    }
+
+    /**
+     * Creates an aggregator that merges immutable values with the given function (e.g. {@code Ops::plus} for nullable
+     * numbers).
+     *
+     * @param merge the function used to merge two non-null values, which must not modify them
+     * @param <K> the type of key
+     * @param <V> the type of value
+     * @return the aggregator
+     */
+    public static <K, V> ConcurrentGroupBy<K, V> of(BinaryOperator<V> merge) {
+        return of(merge, UnaryOperator.identity());
+    }
+
+    /**
+     * Creates an aggregator that merges values with the given function, copying totals as they are read.
+     *
+     * @param merge the function used to merge two non-null values
+     * @param copy copies a non-null value; may be the identity if {@code merge} never modifies its inputs
+     * @param <K> the type of key
+     * @param <V> the type of value
+     * @return the aggregator
+     */
+    public static <K, V> ConcurrentGroupBy<K, V> of(BinaryOperator<V> merge, UnaryOperator<V> copy) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return new ConcurrentGroupBy<>(merge, copy, 4 * processors, processors, DEFAULT_HOT_THRESHOLD);
+    }
+
+    /**
+     * Creates an aggregator that adds immutable {@link Addable} values (whose {@code plus} returns a new instance)
+     * together.
+     *
+     * @param <K> the type of key
+     * @param <V> the type of value
+     * @return the aggregator
+     */
+    public static <K, V extends Addable<V>> ConcurrentGroupBy<K, V> ofAddable() {
+        return of(Addable::plus);
+    }
+
+    /**
+     * Creates an aggregator that adds {@link Addable} values together, copying totals as they are read.
+     *
+     * @param copy copies a non-null value
+     * @param <K> the type of key
+     * @param <V> the type of value
+     * @return the aggregator
+     */
+    public static <K, V extends Addable<V>> ConcurrentGroupBy<K, V> ofAddable(UnaryOperator<V> copy) {
+        return of(Addable::plus, copy);
+    }
+
+    /**
+     * Merges a value into the total for a key.
+     *
+     * @param key some key
+     * @param value a nullable value
+     */
+    public void add(K key, V value) {
+        Cell<V>[] cells = hotCells.get(hotKey(key));
+        if (cells == null) {
+            Stripe<K, V> stripe = stripe(key);
+            boolean contended = !stripe.lock.tryLock();
+            if (contended) stripe.lock.lock();
+            try {
+                Entry<V> entry = stripe.entries.get(key);
+                if (entry == null) {
+                    stripe.entries.put(key, new Entry<>(value));
+                    return;
+                }
+                cells = entry.cells;
+                if (cells == null) {
+                    entry.value = Ops.op(entry.value, value, merge);
+                    if (contended && ++entry.contention >= hotThreshold) split(key, entry);
+                    return;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        // The key is hot: update this thread's cell without holding the stripe lock.
+        Cell<V> cell = cells[probe() & (cells.length - 1)];
+        synchronized (cell) {
+            cell.value = Ops.op(cell.value, value, merge);
+        }
+    }
+
+    /**
+     * Returns the total for a key.
+     *
+     * @param key some key
+     * @return the total, or null if the key has not been seen or all of its values were null
+     */
+    public V get(K key) {
+        Cell<V>[] cells = hotCells.get(hotKey(key));
+        if (cells != null) return collapse(cells);
+
+        Stripe<K, V> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry<V> entry = stripe.entries.get(key);
+            if (entry == null) return null;
+            if (entry.cells == null) return copyOf(entry.value);
+            cells = entry.cells;
+        } finally {
+            stripe.lock.unlock();
+        }
+        return collapse(cells);
+    }
+
+    /**
+     * Determines if any value (even null) has been added for a key.
+     *
+     * @param key some key
+     * @return true if the key has been seen
+     */
+    public boolean containsKey(K key) {
+        Stripe<K, V> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            return stripe.entries.containsKey(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of keys seen.
+     *
+     * @return the key count
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Passes each key and its total to the given action.  Each stripe is locked only while its entries are copied, so
+     * concurrent updates may or may not be reflected.
+     *
+     * @param action the action to perform
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Stripe<K, V> stripe : stripes) {
+            List<Map.Entry<K, Entry<V>>> entries;
+            stripe.lock.lock();
+            try {
+                entries = new ArrayList<>(stripe.entries.entrySet());
+            } finally {
+                stripe.lock.unlock();
+            }
+            for (Map.Entry<K, Entry<V>> e : entries) {
+                action.accept(e.getKey(), read(stripe, e.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Copies every key and its total into a new map.
+     *
+     * @return the map
+     */
+    public Map<K, V> toMap() {
+        Map<K, V> map = new LinkedHashMap<>();
+        forEach(map::put);
+        return map;
+    }
+
+    /**
+     * Splits a key into cells regardless of contention.
+     *
+     * @param key some key that has been seen
+     */
+    void splitKey(K key) {
+        Stripe<K, V> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry<V> entry = stripe.entries.get(key);
+            if (entry.cells == null) split(key, entry);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Determines if a key has been split into cells.
+     *
+     * @param key some key
+     * @return true if the key is hot
+     */
+    boolean isSplit(K key) {
+        Stripe<K, V> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry<V> entry = stripe.entries.get(key);
+            return entry != null && entry.cells != null;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private V read(Stripe<K, V> stripe, Entry<V> entry) {
+        Cell<V>[] cells;
+        stripe.lock.lock();
+        try {
+            cells = entry.cells;
+            if (cells == null) return copyOf(entry.value);
+        } finally {
+            stripe.lock.unlock();
+        }
+        return collapse(cells);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void split(K key, Entry<V> entry) {
+        Cell<V>[] cells = (Cell<V>[]) new Cell<?>[cellCount];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new Cell<>();
+        }
+        cells[0].value = entry.value;
+        entry.value = null;
+        entry.cells = cells;
+        hotCells.put(hotKey(key), cells);
+    }
+
+    /**
+     * Folds every cell of a split key into the first one, leaving the others null (the identity under
+     * {@link Ops#op(Object, Object, BinaryOperator)}), and returns a copy of the total.  Cells are always locked in
+     * index order, and updates lock only one cell, so this cannot deadlock.
+     */
+    private V collapse(Cell<V>[] cells) {
+        return lockCells(cells, 0);
+    }
+
+    private V lockCells(Cell<V>[] cells, int index) {
+        synchronized (cells[index]) {
+            if (index + 1 < cells.length) lockCells(cells, index + 1);
+            if (index > 0) {
+                cells[0].value = Ops.op(cells[0].value, cells[index].value, merge);
+                cells[index].value = null;
+                return null;
+            }
+            return copyOf(cells[0].value);
+        }
+    }
+
+    private V copyOf(V value) {
+        return value == null ? null : copy.apply(value);
+    }
+
+    private static Object hotKey(Object key) {
+        // ConcurrentHashMap does not allow null keys.
+        return key == null ? NULL_KEY : key;
+    }
+
+    private Stripe<K, V> stripe(K key) {
+        int h = key == null ? 0 : key.hashCode() * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static int probe() {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32);
+    }
+
+    private static int powerOfTwoAtLeast(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    /**
+     * A lock guarding a portion of the keys.
+     */
+    private static final class Stripe<K, V> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final HashMap<K, Entry<V>> entries = new HashMap<>();
+    }
+
+    /**
+     * The total for one key: either a single value or, once the key is hot, a set of cells.  Guarded by the stripe's
+     * lock, except for the contents of the cells.
+     */
+    private static final class Entry<V> {
+
+        private V value;
+        private int contention;
+        private Cell<V>[] cells;
+
+        Entry(V value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * One part of the total for a hot key, guarded by its own monitor.
+     */
+    private static final class Cell<V> {
+
+        private V value;
+    }
+}
@@ -0,0 +1,219 @@
+package net.bertag.operators.group;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.io.FieldType;
+
+import java.util.Arrays;
+
+/**
+ * Columnar storage for the per-group totals of a group-by: one growable primitive array per field plus a validity
+ * bitmap, indexed by a dense group slot.  Totals are updated in place, so adding a value to a group allocates nothing.
+ * <p>
+ * Totals follow the same null semantics as folding values with {@link Ops#plus(Integer, Integer) Ops.plus}: null
+ * values are skipped, and a field stays null until a non-null value is added to it.  Integer fields wrap on overflow
+ * at their own width, and {@code FLOAT} fields are rounded to {@code float} after every addition, so every total is
+ * identical to the corresponding {@code Ops.plus} fold.
+ */
+public final class GroupColumns {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final FieldType[] fields;
+    private final long[][] integers;
+    private final double[][] reals;
+    private final long[][] validity;
+    private int size;
+    private int capacity;
+
+    GroupColumns(FieldType... fields) {
+        this.fields = fields.clone();
+        this.integers = new long[fields.length][];
+        this.reals = new double[fields.length][];
+        this.validity = new long[fields.length][];
+        this.capacity = INITIAL_CAPACITY;
+        for (int i = 0; i < fields.length; i++) {
+            if (isReal(fields[i])) reals[i] = new double[capacity];
+            else integers[i] = new long[capacity];
+            validity[i] = new long[words(capacity)];
+        }
+    }
+
+    /**
+     * Returns the number of fields totalled for each group.
+     *
+     * @return the field count
+     */
+    public int fieldCount() {
+        return fields.length;
+    }
+
+    /**
+     * Returns the type of a field.
+     *
+     * @param field the field index
+     * @return the type
+     */
+    public FieldType field(int field) {
+        return fields[field];
+    }
+
+    /**
+     * Returns the number of groups.
+     *
+     * @return the number of slots in use
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a nullable value to a group's total for a field.  Null values are skipped.
+     *
+     * @param slot the group slot
+     * @param field the field index
+     * @param value a nullable value, converted to the field's type
+     */
+    public void add(int slot, int field, Number value) {
+        if (value == null) return;
+        if (reals[field] != null) addDouble(slot, field, value.doubleValue());
+        else addLong(slot, field, value.longValue());
+    }
+
+    /**
+     * Adds a nullable value to a group's total for each field.
+     *
+     * @param slot the group slot
+     * @param values one nullable value per field
+     * @throws IllegalArgumentException if the number of values does not match the number of fields
+     */
+    public void add(int slot, Number... values) {
+        if (values.length != fields.length) {
+            throw new IllegalArgumentException("Expected " + fields.length + " fields but got " + values.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            add(slot, i, values[i]);
+        }
+    }
+
+    /**
+     * Adds a value to a group's total for an integer field without boxing.
+     *
+     * @param slot the group slot
+     * @param field the index of an {@code INT}, {@code LONG} or {@code SHORT} field
+     * @param value the value
+     */
+    public void addLong(int slot, int field, long value) {
+        integers[field][slot] += value;
+        validity[field][slot >>> 6] |= 1L << slot;
+    }
+
+    /**
+     * Adds a value to a group's total for a floating-point field without boxing.
+     *
+     * @param slot the group slot
+     * @param field the index of a {@code FLOAT} or {@code DOUBLE} field
+     * @param value the value
+     */
+    public void addDouble(int slot, int field, double value) {
+        double[] totals = reals[field];
+        totals[slot] = fields[field] == FieldType.FLOAT ? (float) (totals[slot] + value) : totals[slot] + value;
+        validity[field][slot >>> 6] |= 1L << slot;
+    }
+
+    /**
+     * Determines if a group's total for a field is null (no non-null value was ever added).
+     *
+     * @param slot the group slot
+     * @param field the field index
+     * @return true if the total is null
+     */
+    public boolean isNull(int slot, int field) {
+        return (validity[field][slot >>> 6] & (1L << slot)) == 0;
+    }
+
+    /**
+     * Returns a group's total for a field, typed as the field is.
+     *
+     * @param slot the group slot
+     * @param field the field index
+     * @return the total, or null if no non-null value was added
+     */
+    public Number get(int slot, int field) {
+        if (isNull(slot, field)) return null;
+        switch (fields[field]) {
+            case INT:
+                return (int) integers[field][slot];
+            case LONG:
+                return integers[field][slot];
+            case SHORT:
+                return (short) integers[field][slot];
+            case FLOAT:
+                return (float) reals[field][slot];
+            default:
+                return reals[field][slot];
+        }
+    }
+
+    /**
+     * Returns a group's totals for every field.
+     *
+     * @param slot the group slot
+     * @return one nullable total per field
+     */
+    public Number[] get(int slot) {
+        Number[] values = new Number[fields.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = get(slot, i);
+        }
+        return values;
+    }
+
+    /**
+     * Returns a group's total for an integer field without boxing.
+     *
+     * @param slot the group slot
+     * @param field the index of an {@code INT}, {@code LONG} or {@code SHORT} field
+     * @return the total, or 0 if it is null
+     */
+    public long getLong(int slot, int field) {
+        return integers[field][slot];
+    }
+
+    /**
+     * Returns a group's total for a floating-point field without boxing.
+     *
+     * @param slot the group slot
+     * @param field the index of a {@code FLOAT} or {@code DOUBLE} field
+     * @return the total, or 0 if it is null
+     */
+    public double getDouble(int slot, int field) {
+        return reals[field][slot];
+    }
+
+    /**
+     * Appends an empty group, growing the columns if needed.
+     *
+     * @return the new slot
+     */
+    int addSlot() {
+        if (size == capacity) grow();
+        return size++;
+    }
+
+    private void grow() {
+        capacity *= 2;
+        for (int i = 0; i < fields.length; i++) {
+            if (reals[i] != null) reals[i] = Arrays.copyOf(reals[i], capacity);
+            else integers[i] = Arrays.copyOf(integers[i], capacity);
+            validity[i] = Arrays.copyOf(validity[i], words(capacity));
+        }
+    }
+
+    private static int words(int bits) {
+        return (bits + Long.SIZE - 1) >>> 6;
+    }
+
+    private static boolean isReal(FieldType type) {
+        return type == FieldType.FLOAT || type == FieldType.DOUBLE;
+    }
+}
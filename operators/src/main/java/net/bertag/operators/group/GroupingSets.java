@@ -0,0 +1,265 @@
+package net.bertag.operators.group;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Computes several groupings of the same records (grouping sets, such as a rollup or cube) in a single pass.
+ * <p>
+ * Records are described by a fixed list of dimensions (key extractors), and each grouping set is a subset of those
+ * dimensions.  Only the sets that are not contained in another requested set are aggregated record by record; every
+ * other set is derived, when it is read, by rolling up the partial aggregates of the smallest requested set that
+ * contains it.  For example, with the sets {@code (day, user)}, {@code (day)} and {@code (user)}, each record costs one
+ * key extraction and one merge however many coarser sets are requested.
+ * <p>
+ * Values are merged with {@link Ops#op(Object, Object, BinaryOperator)}, so null values leave a group unchanged and a
+ * group whose values were all null aggregates to null.  The first value of each group is copied before anything is
+ * merged into it, both when aggregating records and when deriving sets, so that merges which modify their receiver
+ * never alter the caller's values or the set a set was derived from.
+ * <p>
+ * Group keys are lists of the dimension values, in increasing order of dimension index.  Instances are not thread-safe.
+ *
+ * @param <R> the type of record
+ * @param <V> the type of aggregate
+ */
+public final class GroupingSets<R, V> {
+
+    /** Stands in for a null aggregate, so that a group whose values were all null can be told from a missing one. */
+    private static final Object NULL = new Object();
+
+    private final List<Function<? super R, ?>> dimensions;
+    private final Function<? super R, ? extends V> value;
+    private final BinaryOperator<V> merge;
+    private final UnaryOperator<V> copy;
+    private final List<int[]> sets = new ArrayList<>();
+    private final List<Map<List<Object>, V>> results = new ArrayList<>();
+    private int[] parents;
+    private boolean started;
+
+    private GroupingSets(List<Function<? super R, ?>> dimensions, Function<? super R, ? extends V> value,
+            BinaryOperator<V> merge, UnaryOperator<V> copy) {
+        this.dimensions = dimensions;
+        this.value = value;
+        this.merge = merge;
+        this.copy = copy;
+    }
+
+    /**
+     * Creates an aggregator of immutable {@link Addable} records (whose {@code plus} returns a new instance), each
+     * aggregated as itself.
+     *
+     * @param dimensions the key extractors, referred to by index when defining grouping sets
+     * @param <R> the type of record
+     * @return the aggregator, with no grouping sets yet
+     */
+    @SafeVarargs
+    public static <R extends Addable<R>> GroupingSets<R, R> of(Function<? super R, ?>... dimensions) {
+        List<Function<? super R, ?>> list = new ArrayList<>(dimensions.length);
+        for (Function<? super R, ?> dimension : dimensions) list.add(dimension);
+        return new GroupingSets<R, R>(list, Function.<R>identity(), R::plus, UnaryOperator.<R>identity());
+    }
+
+    /**
+     * Creates an aggregator that maps each record to a value and merges values with the given function.
+     *
+     * @param value extracts the nullable value to aggregate from a record
+     * @param merge merges two non-null values
+     * @param copy copies a value; may be the identity if {@code merge} never modifies its inputs
+     * @param dimensions the key extractors, referred to by index when defining grouping sets
+     * @param <R> the type of record
+     * @param <V> the type of aggregate
+     * @return the aggregator, with no grouping sets yet
+     */
+    @SafeVarargs
+    public static <R, V> GroupingSets<R, V> of(Function<? super R, ? extends V> value, BinaryOperator<V> merge,
+            UnaryOperator<V> copy, Function<? super R, ?>... dimensions) {
+        List<Function<? super R, ?>> list = new ArrayList<>(dimensions.length);
+        for (Function<? super R, ?> dimension : dimensions) list.add(dimension);
+        return new GroupingSets<>(list, value, merge, copy);
+    }
+
+    /**
+     * Adds a grouping set.  Adding a set that was already added has no effect.
+     *
+     * @param dimensions the indexes of the dimensions to group by; none for a grand total
+     * @return this aggregator
+     * @throws IllegalArgumentException if a dimension index is out of range
+     * @throws IllegalStateException if records have already been added
+     */
+    public GroupingSets<R, V> groupBy(int... dimensions) {
+        if (started) throw new IllegalStateException("Grouping sets must be defined before records are added");
+        int[] set = normalize(dimensions);
+        if (indexOf(set) < 0) sets.add(set);
+        return this;
+    }
+
+    /**
+     * Adds the grouping sets of a rollup over every dimension: all of them, all but the last, and so on down to the
+     * grand total.
+     *
+     * @return this aggregator
+     */
+    public GroupingSets<R, V> rollup() {
+        for (int n = dimensions.size(); n >= 0; n--) {
+            int[] set = new int[n];
+            for (int i = 0; i < n; i++) {
+                set[i] = i;
+            }
+            groupBy(set);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the grouping sets of a cube over every dimension: every subset of the dimensions.
+     *
+     * @return this aggregator
+     */
+    public GroupingSets<R, V> cube() {
+        int n = dimensions.size();
+        for (int mask = (1 << n) - 1; mask >= 0; mask--) {
+            int[] set = new int[Integer.bitCount(mask)];
+            for (int i = 0, j = 0; i < n; i++) {
+                if ((mask & (1 << i)) != 0) set[j++] = i;
+            }
+            groupBy(set);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a record to every grouping set.
+     *
+     * @param record some record
+     */
+    public void add(R record) {
+        if (!started) plan();
+        V v = value.apply(record);
+        for (int s = 0; s < sets.size(); s++) {
+            if (parents[s] >= 0) {
+                results.set(s, null);
+                continue;
+            }
+            int[] set = sets.get(s);
+            Object[] key = new Object[set.length];
+            for (int i = 0; i < set.length; i++) {
+                key[i] = dimensions.get(set[i]).apply(record);
+            }
+            Map<List<Object>, V> result = results.get(s);
+            List<Object> group = Arrays.asList(key);
+            V existing = result.get(group);
+            if (existing == null || existing == NULL) {
+                // Copy the first value, as when rolling up, so that later merges never modify the caller's value.
+                if (existing == null || v != null) result.put(group, v == null ? nullValue() : copy.apply(v));
+            } else if (v != null) {
+                result.put(group, merge.apply(existing, v));
+            }
+        }
+    }
+
+    /**
+     * Returns the aggregates of a grouping set, deriving them from a finer set if necessary.  The returned map should
+     * be treated as read-only, and is only valid until the next record is added.
+     *
+     * @param dimensions the indexes of the dimensions of a grouping set that was added
+     * @return the aggregate for each group key
+     * @throws IllegalArgumentException if the grouping set was not added
+     */
+    public Map<List<Object>, V> result(int... dimensions) {
+        int s = indexOf(normalize(dimensions));
+        if (s < 0) throw new IllegalArgumentException("Unknown grouping set: " + Arrays.toString(dimensions));
+        if (!started) plan();
+        return Collections.unmodifiableMap(unwrap(resolve(s)));
+    }
+
+    private Map<List<Object>, V> resolve(int s) {
+        Map<List<Object>, V> result = results.get(s);
+        if (result != null) return result;
+
+        // Roll the parent's partial aggregates up by projecting each key onto this set's dimensions.
+        int[] set = sets.get(s);
+        int[] parent = sets.get(parents[s]);
+        int[] positions = new int[set.length];
+        for (int i = 0; i < set.length; i++) {
+            positions[i] = Arrays.binarySearch(parent, set[i]);
+        }
+        result = new HashMap<>();
+        for (Map.Entry<List<Object>, V> entry : resolve(parents[s]).entrySet()) {
+            Object[] key = new Object[set.length];
+            for (int i = 0; i < set.length; i++) {
+                key[i] = entry.getKey().get(positions[i]);
+            }
+            V partial = entry.getValue();
+            List<Object> projected = Arrays.asList(key);
+            V existing = result.get(projected);
+            if (existing == null || existing == NULL) {
+                result.put(projected, partial == NULL ? partial : copy.apply(partial));
+            } else if (partial != NULL) {
+                result.put(projected, merge.apply(existing, partial));
+            }
+        }
+        results.set(s, result);
+        return result;
+    }
+
+    private void plan() {
+        started = true;
+        parents = new int[sets.size()];
+        for (int s = 0; s < sets.size(); s++) {
+            // The parent is the smallest other set that contains this one (ties broken by order of definition).
+            parents[s] = -1;
+            for (int p = 0; p < sets.size(); p++) {
+                if (p == s || !containsAll(sets.get(p), sets.get(s))) continue;
+                if (sets.get(p).length == sets.get(s).length) continue;
+                if (parents[s] < 0 || sets.get(p).length < sets.get(parents[s]).length) parents[s] = p;
+            }
+            results.add(parents[s] < 0 ? new HashMap<>() : null);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V nullValue() {
+        return (V) NULL;
+    }
+
+    private Map<List<Object>, V> unwrap(Map<List<Object>, V> result) {
+        if (!result.containsValue(NULL)) return result;
+        Map<List<Object>, V> unwrapped = new HashMap<>(result);
+        unwrapped.replaceAll((key, v) -> v == NULL ? null : v);
+        return unwrapped;
+    }
+
+    private int indexOf(int[] set) {
+        for (int s = 0; s < sets.size(); s++) {
+            if (Arrays.equals(sets.get(s), set)) return s;
+        }
+        return -1;
+    }
+
+    private int[] normalize(int[] set) {
+        int[] sorted = Arrays.stream(set).distinct().sorted().toArray();
+        for (int dimension : sorted) {
+            if (dimension < 0 || dimension >= dimensions.size()) {
+                throw new IllegalArgumentException("No such dimension: " + dimension);
+            }
+        }
+        return sorted;
+    }
+
+    private static boolean containsAll(int[] superset, int[] subset) {
+        for (int dimension : subset) {
+            if (Arrays.binarySearch(superset, dimension) < 0) return false;
+        }
+        return true;
+    }
+}
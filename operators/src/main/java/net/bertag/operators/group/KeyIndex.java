@@ -0,0 +1,97 @@
+package net.bertag.operators.group;
+
+/**
+ * Open-addressing hash index from keys to dense slots (0, 1, 2, ...) in insertion order, using linear probing.  The
+ * table holds only each key's hash code and slot; subclasses store the keys themselves by slot, supply the hash code
+ * of the key being looked up, and compare it against the key in a candidate slot, so the key type is never boxed.
+ */
+abstract class KeyIndex {
+
+    static final int INITIAL_CAPACITY = 16;
+
+    private int[] hashes = new int[INITIAL_CAPACITY * 2];
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int mask = slots.length - 1;
+    private int size;
+
+    final int size() {
+        return size;
+    }
+
+    /**
+     * Finds the slot of the key being looked up.
+     *
+     * @param hash the hash code of the key
+     * @return the slot, or -1 if the key has not been added
+     */
+    final int findSlot(int hash) {
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            // Table entries hold slot + 1 so that 0 marks an empty entry.
+            int entry = slots[i];
+            if (entry == 0) return -1;
+            if (hashes[i] == hash && matches(entry - 1)) return entry - 1;
+        }
+    }
+
+    /**
+     * Finds the slot of the key being looked up, adding the key with the next slot if it is absent.
+     *
+     * @param hash the hash code of the key
+     * @return the slot
+     */
+    final int findOrAddSlot(int hash) {
+        int i = hash & mask;
+        for (int entry = slots[i]; entry != 0; entry = slots[i]) {
+            if (hashes[i] == hash && matches(entry - 1)) return entry - 1;
+            i = (i + 1) & mask;
+        }
+        int slot = newSlot();
+        hashes[i] = hash;
+        slots[i] = slot + 1;
+        // Keep the table at most half full so that probe sequences stay short.
+        if (size * 2 > slots.length) rehash();
+        return slot;
+    }
+
+    /**
+     * Adds the key being looked up with the next slot, without entering it in the table.  Subclasses use this for keys
+     * they find by other means, such as null.
+     *
+     * @return the slot
+     */
+    final int newSlot() {
+        int slot = size++;
+        store(slot);
+        return slot;
+    }
+
+    /**
+     * Returns whether the key in a slot equals the key being looked up.
+     *
+     * @param slot some slot
+     * @return true if the keys are equal
+     */
+    abstract boolean matches(int slot);
+
+    /**
+     * Stores the key being looked up in a new slot.
+     *
+     * @param slot the new slot, equal to the number of slots before it was added
+     */
+    abstract void store(int slot);
+
+    private void rehash() {
+        int[] oldHashes = hashes;
+        int[] oldSlots = slots;
+        hashes = new int[oldHashes.length * 2];
+        slots = new int[oldSlots.length * 2];
+        mask = slots.length - 1;
+        for (int j = 0; j < oldSlots.length; j++) {
+            if (oldSlots[j] == 0) continue;
+            int i = oldHashes[j] & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            hashes[i] = oldHashes[j];
+            slots[i] = oldSlots[j];
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package net.bertag.operators.group;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash index from primitive {@code long} keys to dense slots (0, 1, 2, ...) in insertion order, using
+ * linear probing.  Keys are never boxed.
+ */
+final class LongKeyIndex extends KeyIndex {
+
+    private long[] slotKeys = new long[INITIAL_CAPACITY];
+    private long lookup;
+
+    long key(int slot) {
+        return slotKeys[slot];
+    }
+
+    /**
+     * Finds the slot of a key.
+     *
+     * @param key some key
+     * @return the slot, or -1 if the key has not been added
+     */
+    int find(long key) {
+        lookup = key;
+        return findSlot(hash(key));
+    }
+
+    /**
+     * Finds the slot of a key, adding the key with the next slot if it is absent.
+     *
+     * @param key some key
+     * @return the slot
+     */
+    int findOrAdd(long key) {
+        lookup = key;
+        return findOrAddSlot(hash(key));
+    }
+
+    @Override
+    boolean matches(int slot) {
+        return slotKeys[slot] == lookup;
+    }
+
+    @Override
+    void store(int slot) {
+        if (slot == slotKeys.length) slotKeys = Arrays.copyOf(slotKeys, slot * 2);
+        slotKeys[slot] = lookup;
+    }
+
+    private static int hash(long key) {
+        // Fibonacci hashing spreads sequential and clustered keys across the whole table.
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
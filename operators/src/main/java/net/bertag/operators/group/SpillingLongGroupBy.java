@@ -0,0 +1,269 @@
+package net.bertag.operators.group;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.io.FieldType;
+import net.bertag.operators.io.RecordLayout;
+import net.bertag.operators.io.RecordReader;
+import net.bertag.operators.io.RecordWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Group-by aggregator keyed by primitive {@code long} keys whose memory use is bounded, for key sets too large to total
+ * in memory.  Records are totalled in an in-memory {@link LongGroupBy} until it reaches the memory budget; its partial
+ * totals are then hash-partitioned by key and appended to one spill file per partition (in the format of
+ * {@link RecordWriter}, with the key as an extra leading field), and the in-memory table starts over.
+ * <p>
+ * When the results are read, each partition is loaded on its own and its partial totals are merged with the same null
+ * semantics as {@link Ops#op(Object, Object, java.util.function.BinaryOperator) Ops.op}: a null partial total leaves
+ * the other unchanged.  Every key falls in exactly one partition, so typically only {@code 1 / partitions} of all
+ * groups is in memory at a time, and all disk I/O is sequential.  A partition that still holds more groups than the
+ * memory budget allows is split again using other bits of the key's hash, recursively, so the in-memory table never
+ * exceeds the budget however many distinct keys there are.  Integer totals are identical to those of an in-memory
+ * {@link LongGroupBy}; floating-point totals are sums of partial sums, so they may differ from an in-memory total in
+ * the last few bits.
+ * <p>
+ * The budget also covers the direct buffer of each spill file writer ({@link RecordWriter#BUFFER_BYTES}); the number of
+ * partitions is reduced for small budgets so that those buffers take at most half of it.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public final class SpillingLongGroupBy implements Closeable {
+
+    /** The number of spill partitions, unless the memory budget is too small for their buffers. */
+    public static final int DEFAULT_PARTITIONS = 64;
+
+    private final Path directory;
+    private final FieldType[] fields;
+    private final RecordLayout spillLayout;
+    private final int maxGroups;
+    private final int partitionBits;
+    private final Path[] files;
+    private final RecordWriter[] writers;
+    private final Set<Path> spillFiles = new LinkedHashSet<>();
+    private LongGroupBy groups;
+    private int largestMerge;
+    private int spills;
+    private boolean finished;
+
+    /**
+     * Creates an aggregator with the default number of partitions.
+     *
+     * @param directory an existing directory for the spill files
+     * @param memoryBudget the approximate number of bytes the in-memory table may use before it is spilled
+     * @param fields the type of each field to total
+     */
+    public SpillingLongGroupBy(Path directory, long memoryBudget, FieldType... fields) {
+        this(directory, groupsWithin(memoryBudget, fields.length), partitionsWithin(memoryBudget), fields);
+    }
+
+    SpillingLongGroupBy(Path directory, int maxGroups, int partitions, FieldType... fields) {
+        if (partitions < 2 || Integer.bitCount(partitions) != 1) {
+            throw new IllegalArgumentException("Partitions must be a power of two of at least 2: " + partitions);
+        }
+        this.partitionBits = Integer.numberOfTrailingZeros(partitions);
+        this.directory = directory;
+        this.fields = fields.clone();
+        FieldType[] spillFields = new FieldType[fields.length + 1];
+        spillFields[0] = FieldType.LONG;
+        System.arraycopy(fields, 0, spillFields, 1, fields.length);
+        this.spillLayout = RecordLayout.of(spillFields);
+        this.maxGroups = Math.max(1, maxGroups);
+        this.files = new Path[partitions];
+        this.writers = new RecordWriter[partitions];
+        this.groups = new LongGroupBy(fields);
+    }
+
+    /**
+     * Adds a record to a group, spilling the in-memory totals first if they have reached the memory budget.
+     *
+     * @param key some key
+     * @param values one nullable value per field
+     * @throws IllegalArgumentException if the number of values does not match the number of fields
+     * @throws IllegalStateException if the results have already been read
+     * @throws IOException if the totals cannot be spilled
+     */
+    public void add(long key, Number... values) throws IOException {
+        if (finished) throw new IllegalStateException("Results have already been read");
+        if (groups.size() >= maxGroups && groups.find(key) < 0) spill();
+        groups.add(key, values);
+    }
+
+    /**
+     * Returns the number of times the in-memory totals have been spilled to disk.
+     *
+     * @return the spill count
+     */
+    public int spillCount() {
+        return spills;
+    }
+
+    /**
+     * Passes each key and its totals to the given action, merging spilled partitions one at a time.  Groups are
+     * visited in no particular order.  This may only be called once, after which the spill files are deleted.
+     *
+     * @param action the action to perform, given one nullable total per field (typed as the field is) and the key
+     * @throws IllegalStateException if the results have already been read
+     * @throws IOException if the spill files cannot be read
+     */
+    public void forEach(ObjLongConsumer<Number[]> action) throws IOException {
+        if (finished) throw new IllegalStateException("Results have already been read");
+        finished = true;
+        if (spills == 0) {
+            emit(groups, action);
+            groups = null;
+            return;
+        }
+
+        spill();
+        groups = null;
+        merge(closeWriters(), 0, action);
+    }
+
+    /**
+     * Returns the largest number of groups merged in memory at once while reading the results.
+     *
+     * @return the group count
+     */
+    int largestMerge() {
+        return largestMerge;
+    }
+
+    /**
+     * Deletes any spill files.
+     *
+     * @throws IOException if a spill file cannot be closed or deleted
+     */
+    @Override
+    public void close() throws IOException {
+        closeWriters();
+        for (Path file : spillFiles) {
+            Files.deleteIfExists(file);
+        }
+        spillFiles.clear();
+    }
+
+    private void spill() throws IOException {
+        write(groups, 0);
+        groups = new LongGroupBy(fields);
+        spills++;
+    }
+
+    /**
+     * Merges the partitions spilled at the given level one at a time, splitting any that outgrow the memory budget into
+     * partitions at the next level.
+     */
+    private void merge(Path[] partitions, int level, ObjLongConsumer<Number[]> action) throws IOException {
+        for (Path file : partitions) {
+            if (file == null) continue;
+            LongGroupBy partition = new LongGroupBy(fields);
+            Path[] split = null;
+            try (RecordReader reader = RecordReader.open(file)) {
+                for (Number[] record = reader.read(); record != null; record = reader.read()) {
+                    long key = (Long) record[0];
+                    if (partition.size() >= maxGroups && partition.find(key) < 0) {
+                        split = split(partition, record, reader, level + 1);
+                        break;
+                    }
+                    int slot = partition.slot(key);
+                    for (int i = 0; i < fields.length; i++) {
+                        partition.columns().add(slot, i, record[i + 1]);
+                    }
+                }
+            }
+            delete(file);
+            if (split != null) {
+                merge(split, level + 1, action);
+            } else {
+                largestMerge = Math.max(largestMerge, partition.size());
+                emit(partition, action);
+            }
+        }
+    }
+
+    /**
+     * Writes the groups merged so far, the current record, and the rest of a partition's records to partitions at the
+     * given level.
+     */
+    private Path[] split(LongGroupBy merged, Number[] record, RecordReader reader, int level) throws IOException {
+        write(merged, level);
+        for (; record != null; record = reader.read()) {
+            writer(partition((Long) record[0], level)).write(record);
+        }
+        return closeWriters();
+    }
+
+    private void write(LongGroupBy groups, int level) throws IOException {
+        GroupColumns columns = groups.columns();
+        Number[] record = new Number[fields.length + 1];
+        for (int slot = 0; slot < groups.size(); slot++) {
+            long key = groups.key(slot);
+            record[0] = key;
+            for (int i = 0; i < fields.length; i++) {
+                record[i + 1] = columns.get(slot, i);
+            }
+            writer(partition(key, level)).write(record);
+        }
+    }
+
+    private RecordWriter writer(int partition) throws IOException {
+        if (writers[partition] == null) {
+            files[partition] = Files.createTempFile(directory, "spill-" + partition + "-", ".bin");
+            spillFiles.add(files[partition]);
+            writers[partition] = RecordWriter.create(files[partition], spillLayout);
+        }
+        return writers[partition];
+    }
+
+    /**
+     * Closes the open writers and returns their files, indexed by partition.
+     */
+    private Path[] closeWriters() throws IOException {
+        Path[] closed = files.clone();
+        for (int i = 0; i < writers.length; i++) {
+            files[i] = null;
+            if (writers[i] == null) continue;
+            writers[i].close();
+            writers[i] = null;
+        }
+        return closed;
+    }
+
+    private void delete(Path file) throws IOException {
+        Files.delete(file);
+        spillFiles.remove(file);
+    }
+
+    private int partition(long key, int level) {
+        // Use the high bits of a different hash than LongKeyIndex, so keys within a partition still spread evenly.
+        // Each level takes the next bits of the hash; since the hash is a bijection, keys sharing a partition at every
+        // level share all 64 bits and so are equal, which bounds the depth of splitting.
+        long h = Long.rotateLeft(key * 0xC2B2AE3D27D4EB4FL, level * partitionBits);
+        return (int) (h >>> 40) & (files.length - 1);
+    }
+
+    private static void emit(LongGroupBy groups, ObjLongConsumer<Number[]> action) {
+        for (int slot = 0; slot < groups.size(); slot++) {
+            action.accept(groups.columns().get(slot), groups.key(slot));
+        }
+    }
+
+    private static int groupsWithin(long memoryBudget, int fieldCount) {
+        // Per group: a key and slot in a table kept at most half full, the key by slot, 8 bytes and a validity bit per
+        // field, doubled because arrays grow by copying.  The spill writers and one reader need buffers too.
+        long buffers = (partitionsWithin(memoryBudget) + 1L) * RecordWriter.BUFFER_BYTES;
+        long bytesPerGroup = 2 * (2 * (Long.BYTES + Integer.BYTES) + Long.BYTES + fieldCount * (Long.BYTES + 1));
+        return (int) Math.min(Integer.MAX_VALUE / 2, Math.max(0, memoryBudget - buffers) / bytesPerGroup);
+    }
+
+    private static int partitionsWithin(long memoryBudget) {
+        long fit = memoryBudget / 2 / RecordWriter.BUFFER_BYTES;
+        return (int) Math.max(2, Long.highestOneBit(Math.min(DEFAULT_PARTITIONS, fit)));
+    }
+}
@@ -0,0 +1,102 @@
+package net.bertag.operators.group;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.io.FieldType;
+
+/**
+ * Group-by aggregator keyed by {@code String} keys (including null).  Keys are mapped to dense slots by an
+ * open-addressing hash table that caches each key's hash code, and each group's totals are kept in columnar
+ * {@link GroupColumns} and updated in place, so adding a record to an existing group allocates nothing.
+ * <p>
+ * This replaces the common pattern of {@code map.merge(key, record, Ops::plus)} on a {@code HashMap<String, ?>}, with
+ * the same null semantics: see {@link GroupColumns}.  Groups are numbered in order of first appearance.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public final class StringGroupBy {
+
+    private final StringKeyIndex index = new StringKeyIndex();
+    private final GroupColumns columns;
+
+    /**
+     * Creates an empty aggregator.
+     *
+     * @param fields the type of each field to total
+     */
+    public StringGroupBy(FieldType... fields) {
+        this.columns = new GroupColumns(fields);
+    }
+
+    /**
+     * Returns the slot of a group, adding an empty group if the key has not been seen.  Callers adding several fields
+     * at once can look the slot up once and then update {@link #columns()} directly.
+     *
+     * @param key some nullable key
+     * @return the slot
+     */
+    public int slot(String key) {
+        int slot = index.findOrAdd(key);
+        if (slot == columns.size()) columns.addSlot();
+        return slot;
+    }
+
+    /**
+     * Finds the slot of a group without adding it.
+     *
+     * @param key some nullable key
+     * @return the slot, or -1 if the key has not been seen
+     */
+    public int find(String key) {
+        return index.find(key);
+    }
+
+    /**
+     * Adds a record to a group, as with {@link Ops#plus(Integer, Integer) Ops.plus} on each field.
+     *
+     * @param key some nullable key
+     * @param values one nullable value per field
+     * @throws IllegalArgumentException if the number of values does not match the number of fields
+     */
+    public void add(String key, Number... values) {
+        columns.add(slot(key), values);
+    }
+
+    /**
+     * Returns the key of a group.
+     *
+     * @param slot the group slot
+     * @return the key
+     */
+    public String key(int slot) {
+        return index.key(slot);
+    }
+
+    /**
+     * Returns the totals of a group.
+     *
+     * @param key some nullable key
+     * @return one nullable total per field, or null if the key has not been seen
+     */
+    public Number[] get(String key) {
+        int slot = index.find(key);
+        return slot < 0 ? null : columns.get(slot);
+    }
+
+    /**
+     * Returns the number of groups.
+     *
+     * @return the group count
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the per-group totals, indexed by slot.
+     *
+     * @return the columns
+     */
+    public GroupColumns columns() {
+        return columns;
+    }
+}
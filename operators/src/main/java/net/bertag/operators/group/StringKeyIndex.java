@@ -0,0 +1,63 @@
+package net.bertag.operators.group;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash index from {@code String} keys (including null) to dense slots (0, 1, 2, ...) in insertion
+ * order, using linear probing.  Each entry caches its key's hash code so that most probes never call
+ * {@link String#equals(Object)}.
+ */
+final class StringKeyIndex extends KeyIndex {
+
+    private String[] slotKeys = new String[INITIAL_CAPACITY];
+    private String lookup;
+    private int nullSlot = -1;
+
+    String key(int slot) {
+        return slotKeys[slot];
+    }
+
+    /**
+     * Finds the slot of a key.
+     *
+     * @param key some nullable key
+     * @return the slot, or -1 if the key has not been added
+     */
+    int find(String key) {
+        if (key == null) return nullSlot;
+        lookup = key;
+        return findSlot(hash(key));
+    }
+
+    /**
+     * Finds the slot of a key, adding the key with the next slot if it is absent.
+     *
+     * @param key some nullable key
+     * @return the slot
+     */
+    int findOrAdd(String key) {
+        lookup = key;
+        if (key == null) {
+            if (nullSlot < 0) nullSlot = newSlot();
+            return nullSlot;
+        }
+        return findOrAddSlot(hash(key));
+    }
+
+    @Override
+    boolean matches(int slot) {
+        return lookup.equals(slotKeys[slot]);
+    }
+
+    @Override
+    void store(int slot) {
+        if (slot == slotKeys.length) slotKeys = Arrays.copyOf(slotKeys, slot * 2);
+        slotKeys[slot] = lookup;
+    }
+
+    private static int hash(String key) {
+        // Spread String.hashCode(), whose low bits are weak for short keys sharing a prefix.
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
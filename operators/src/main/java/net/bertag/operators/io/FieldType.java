@@ -0,0 +1,118 @@
+package net.bertag.operators.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The numeric types that may appear as fields of a record file (see {@link RecordLayout}).  Each type is stored at its
+ * natural width in little-endian byte order.
+ */
+public enum FieldType {
+
+    /** A nullable {@link Integer}, stored in 4 bytes. */
+    INT(1, Integer.BYTES, Integer.class) {
+        @Override
+        Number get(ByteBuffer buffer, int offset) {
+            return buffer.getInt(offset);
+        }
+
+        @Override
+        void put(ByteBuffer buffer, int offset, Number value) {
+            buffer.putInt(offset, value.intValue());
+        }
+    },
+
+    /** A nullable {@link Long}, stored in 8 bytes. */
+    LONG(2, Long.BYTES, Long.class) {
+        @Override
+        Number get(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+
+        @Override
+        void put(ByteBuffer buffer, int offset, Number value) {
+            buffer.putLong(offset, value.longValue());
+        }
+    },
+
+    /** A nullable {@link Short}, stored in 2 bytes. */
+    SHORT(3, Short.BYTES, Short.class) {
+        @Override
+        Number get(ByteBuffer buffer, int offset) {
+            return buffer.getShort(offset);
+        }
+
+        @Override
+        void put(ByteBuffer buffer, int offset, Number value) {
+            buffer.putShort(offset, value.shortValue());
+        }
+    },
+
+    /** A nullable {@link Float}, stored in 4 bytes. */
+    FLOAT(4, Float.BYTES, Float.class) {
+        @Override
+        Number get(ByteBuffer buffer, int offset) {
+            return buffer.getFloat(offset);
+        }
+
+        @Override
+        void put(ByteBuffer buffer, int offset, Number value) {
+            buffer.putFloat(offset, value.floatValue());
+        }
+    },
+
+    /** A nullable {@link Double}, stored in 8 bytes. */
+    DOUBLE(5, Double.BYTES, Double.class) {
+        @Override
+        Number get(ByteBuffer buffer, int offset) {
+            return buffer.getDouble(offset);
+        }
+
+        @Override
+        void put(ByteBuffer buffer, int offset, Number value) {
+            buffer.putDouble(offset, value.doubleValue());
+        }
+    };
+
+    private final byte code;
+    private final int width;
+    private final Class<? extends Number> javaType;
+
+    FieldType(int code, int width, Class<? extends Number> javaType) {
+        this.code = (byte) code;
+        this.width = width;
+        this.javaType = javaType;
+    }
+
+    /**
+     * Returns the number of bytes a value of this type occupies in a record.
+     *
+     * @return the width in bytes
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Returns the boxed Java type of values of this type.
+     *
+     * @return the Java type
+     */
+    public Class<? extends Number> javaType() {
+        return javaType;
+    }
+
+    byte code() {
+        return code;
+    }
+
+    static FieldType fromCode(byte code) {
+        for (FieldType type : values()) {
+            if (type.code == code) return type;
+        }
+        throw new IllegalArgumentException("Unknown field type code: " + code);
+    }
+
+    abstract Number get(ByteBuffer buffer, int offset);
+
+    abstract void put(ByteBuffer buffer, int offset, Number value);
+}
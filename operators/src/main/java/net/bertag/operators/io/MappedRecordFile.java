@@ -0,0 +1,233 @@
+package net.bertag.operators.io;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.sum.ExactSum;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.LongStream;
+
+/**
+ * A record file (see {@link RecordLayout}) opened for aggregation.  Records are read straight out of memory-mapped
+ * regions of the file rather than copied through a buffer, and the file is split on record boundaries into segments
+ * that can be reduced in parallel.
+ * <p>
+ * The aggregates follow the same null semantics as folding the records with {@link Ops}: null fields are skipped, and
+ * a field that is null in every record aggregates to null.  Integer fields wrap on overflow, as with
+ * {@link Ops#plus(Long, Long)}, which makes their sums independent of how the file is split.  Floating-point fields are
+ * summed exactly with {@link ExactSum} and rounded once, for the same reason.
+ */
+public final class MappedRecordFile implements Closeable {
+
+    private static final long SEGMENT_BYTES = 1L << 26;
+
+    private final FileChannel channel;
+    private final RecordLayout layout;
+    private final long size;
+    private final long recordsPerSegment;
+
+    private MappedRecordFile(FileChannel channel, RecordLayout layout, long segmentBytes) throws IOException {
+        this.channel = channel;
+        this.layout = layout;
+        long bytes = channel.size() - layout.headerSize();
+        if (bytes % layout.recordSize() != 0) throw new IOException("Truncated record at end of file");
+        this.size = bytes / layout.recordSize();
+        this.recordsPerSegment = Math.max(1, segmentBytes / layout.recordSize());
+    }
+
+    /**
+     * Opens a record file and reads its header.
+     *
+     * @param path the file to open
+     * @return the file
+     * @throws IOException if the file cannot be opened, is not a record file, or ends part-way through a record
+     */
+    public static MappedRecordFile open(Path path) throws IOException {
+        return open(path, SEGMENT_BYTES);
+    }
+
+    static MappedRecordFile open(Path path, long segmentBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedRecordFile(channel, RecordLayout.readHeader(channel), segmentBytes);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the layout of the records in the file.
+     *
+     * @return the layout
+     */
+    public RecordLayout layout() {
+        return layout;
+    }
+
+    /**
+     * Returns the number of records in the file.
+     *
+     * @return the record count
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Sums each field across every record, one segment at a time.
+     *
+     * @return one nullable total per field, typed as the field is
+     * @throws IOException if the file cannot be mapped
+     */
+    public Number[] sum() throws IOException {
+        try {
+            return segments().mapToObj(this::sumSegment).reduce(Totals::plus).orElseGet(this::emptyTotals).toValues();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Sums each field across every record, reducing segments in parallel using the common fork-join pool.  The result
+     * is identical to {@link #sum()}.
+     *
+     * @return one nullable total per field, typed as the field is
+     * @throws IOException if the file cannot be mapped
+     */
+    public Number[] parallelSum() throws IOException {
+        try {
+            return segments().parallel().mapToObj(this::sumSegment).reduce(Totals::plus).orElseGet(this::emptyTotals)
+                    .toValues();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private LongStream segments() {
+        return LongStream.range(0, (size + recordsPerSegment - 1) / recordsPerSegment);
+    }
+
+    private Totals emptyTotals() {
+        return new Totals(layout);
+    }
+
+    private Totals sumSegment(long segment) {
+        long first = segment * recordsPerSegment;
+        int records = (int) Math.min(recordsPerSegment, size - first);
+        int recordSize = layout.recordSize();
+        ByteBuffer region;
+        try {
+            region = channel.map(FileChannel.MapMode.READ_ONLY, layout.headerSize() + first * recordSize,
+                    (long) records * recordSize).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Read each field as a primitive straight from the mapped region; nothing is boxed per record.
+        Totals totals = new Totals(layout);
+        for (int r = 0; r < records; r++) {
+            int base = r * recordSize;
+            for (int i = 0; i < layout.fieldCount(); i++) {
+                if (layout.isNull(region, base, i)) continue;
+                int offset = base + layout.offset(i);
+                switch (layout.field(i)) {
+                    case INT:
+                        totals.add(i, region.getInt(offset));
+                        break;
+                    case LONG:
+                        totals.add(i, region.getLong(offset));
+                        break;
+                    case SHORT:
+                        totals.add(i, region.getShort(offset));
+                        break;
+                    case FLOAT:
+                        totals.add(i, (double) region.getFloat(offset));
+                        break;
+                    default:
+                        totals.add(i, region.getDouble(offset));
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Partial per-field totals for one or more segments.
+     */
+    private static final class Totals {
+
+        private final RecordLayout layout;
+        private final long[] integers;
+        private final ExactSum[] reals;
+        private final boolean[] present;
+
+        Totals(RecordLayout layout) {
+            this.layout = layout;
+            this.integers = new long[layout.fieldCount()];
+            this.reals = new ExactSum[layout.fieldCount()];
+            this.present = new boolean[layout.fieldCount()];
+            for (int i = 0; i < reals.length; i++) {
+                if (isReal(layout.field(i))) reals[i] = new ExactSum();
+            }
+        }
+
+        void add(int field, long value) {
+            present[field] = true;
+            integers[field] += value;
+        }
+
+        void add(int field, double value) {
+            present[field] = true;
+            reals[field].add(value);
+        }
+
+        Totals plus(Totals other) {
+            for (int i = 0; i < integers.length; i++) {
+                present[i] |= other.present[i];
+                if (reals[i] != null) reals[i].plus(other.reals[i]);
+                else integers[i] += other.integers[i];
+            }
+            return this;
+        }
+
+        Number[] toValues() {
+            Number[] values = new Number[integers.length];
+            for (int i = 0; i < values.length; i++) {
+                if (!present[i]) continue;
+                switch (layout.field(i)) {
+                    case INT:
+                        values[i] = (int) integers[i];
+                        break;
+                    case LONG:
+                        values[i] = integers[i];
+                        break;
+                    case SHORT:
+                        values[i] = (short) integers[i];
+                        break;
+                    case FLOAT:
+                        values[i] = (float) reals[i].sum();
+                        break;
+                    default:
+                        values[i] = reals[i].sum();
+                }
+            }
+            return values;
+        }
+
+        private static boolean isReal(FieldType type) {
+            return type == FieldType.FLOAT || type == FieldType.DOUBLE;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package net.bertag.operators.io;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Describes the fixed-size records of a record file: an ordered list of nullable numeric fields.
+ * <p>
+ * A record file is a small header followed by densely packed records, all in little-endian byte order:
+ * <pre>
+ * header:  int magic ("OPRC"), byte version, byte field count, one type code byte per field
+ * record:  null bitmap (one bit per field, set if non-null, rounded up to whole bytes), then each field's value
+ * </pre>
+ * Every record has the same size, so a record's position in the file can be computed from its index and a file can be
+ * split into independent segments on record boundaries.  Null fields still occupy their slot (holding 0), which keeps
+ * records fixed-size.
+ */
+public final class RecordLayout {
+
+    static final int MAGIC = 0x4352504F;
+    static final byte VERSION = 1;
+    private static final int FIXED_HEADER_BYTES = Integer.BYTES + 2;
+
+    private final FieldType[] fields;
+    private final int[] offsets;
+    private final int recordSize;
+
+    private RecordLayout(FieldType[] fields) {
+        if (fields.length == 0 || fields.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("A record must have between 1 and 127 fields");
+        }
+        this.fields = fields;
+        this.offsets = new int[fields.length];
+        int offset = (fields.length + Byte.SIZE - 1) / Byte.SIZE;
+        for (int i = 0; i < fields.length; i++) {
+            offsets[i] = offset;
+            offset += fields[i].width();
+        }
+        this.recordSize = offset;
+    }
+
+    /**
+     * Creates a layout with the given fields, in order.
+     *
+     * @param fields the type of each field
+     * @return the layout
+     * @throws IllegalArgumentException if there are no fields or more than 127
+     */
+    public static RecordLayout of(FieldType... fields) {
+        return new RecordLayout(fields.clone());
+    }
+
+    /**
+     * Returns the number of fields in each record.
+     *
+     * @return the field count
+     */
+    public int fieldCount() {
+        return fields.length;
+    }
+
+    /**
+     * Returns the type of a field.
+     *
+     * @param field the field index
+     * @return the type
+     */
+    public FieldType field(int field) {
+        return fields[field];
+    }
+
+    /**
+     * Returns the size of each record in bytes, including its null bitmap.
+     *
+     * @return the record size
+     */
+    public int recordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Returns the size of the file header for this layout in bytes.
+     *
+     * @return the header size
+     */
+    public int headerSize() {
+        return FIXED_HEADER_BYTES + fields.length;
+    }
+
+    /**
+     * Reads the field of the record starting at {@code base}.
+     *
+     * @param buffer a little-endian buffer holding the record
+     * @param base the offset of the record within the buffer
+     * @param field the field index
+     * @return the value, or null if the field is null
+     */
+    Number get(ByteBuffer buffer, int base, int field) {
+        return isNull(buffer, base, field) ? null : fields[field].get(buffer, base + offsets[field]);
+    }
+
+    boolean isNull(ByteBuffer buffer, int base, int field) {
+        return (buffer.get(base + (field >>> 3)) & (1 << (field & 7))) == 0;
+    }
+
+    int offset(int field) {
+        return offsets[field];
+    }
+
+    /**
+     * Writes a complete record starting at {@code base}.
+     *
+     * @param buffer a little-endian buffer with room for the record
+     * @param base the offset of the record within the buffer
+     * @param values one nullable value per field
+     * @throws IllegalArgumentException if the values do not match the layout
+     */
+    void put(ByteBuffer buffer, int base, Number[] values) {
+        if (values.length != fields.length) {
+            throw new IllegalArgumentException("Expected " + fields.length + " fields but got " + values.length);
+        }
+        for (int b = 0; b < offsets[0]; b++) {
+            buffer.put(base + b, (byte) 0);
+        }
+        for (int i = 0; i < fields.length; i++) {
+            Number value = values[i];
+            if (value == null) {
+                for (int b = 0; b < fields[i].width(); b++) {
+                    buffer.put(base + offsets[i] + b, (byte) 0);
+                }
+                continue;
+            }
+            if (!fields[i].javaType().isInstance(value)) {
+                throw new IllegalArgumentException(
+                        "Field " + i + " expects " + fields[i] + " but got " + value.getClass().getSimpleName());
+            }
+            int bitmapByte = base + (i >>> 3);
+            buffer.put(bitmapByte, (byte) (buffer.get(bitmapByte) | (1 << (i & 7))));
+            fields[i].put(buffer, base + offsets[i], value);
+        }
+    }
+
+    ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(headerSize()).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).put(VERSION).put((byte) fields.length);
+        for (FieldType field : fields) {
+            header.put(field.code());
+        }
+        ((Buffer) header).flip();
+        return header;
+    }
+
+    static RecordLayout readHeader(FileChannel channel) throws IOException {
+        ByteBuffer fixed = readFully(channel, 0, FIXED_HEADER_BYTES);
+        if (fixed.getInt() != MAGIC) throw new IOException("Not a record file");
+        byte version = fixed.get();
+        if (version != VERSION) throw new IOException("Unsupported record file version: " + version);
+        int count = fixed.get();
+        if (count <= 0) throw new IOException("Corrupt record file header");
+
+        ByteBuffer codes = readFully(channel, FIXED_HEADER_BYTES, count);
+        FieldType[] fields = new FieldType[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                fields[i] = FieldType.fromCode(codes.get());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt record file header", e);
+        }
+        return new RecordLayout(fields);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated record file header");
+            }
+        }
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RecordLayout)) return false;
+        return Arrays.equals(fields, ((RecordLayout) o).fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(fields);
+    }
+
+    @Override
+    public String toString() {
+        return "RecordLayout" + Arrays.toString(fields);
+    }
+}
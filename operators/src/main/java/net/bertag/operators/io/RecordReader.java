@@ -0,0 +1,99 @@
+package net.bertag.operators.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the records of a record file sequentially (see {@link RecordLayout} for the format).  The file is read from
+ * the underlying {@link FileChannel} in large blocks.  For aggregating a whole file, {@link MappedRecordFile} avoids
+ * copying the records altogether.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public final class RecordReader implements Closeable {
+
+    /**
+     * The approximate number of bytes of direct memory each reader allocates for its buffer (more if a single record is
+     * larger).
+     */
+    public static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final RecordLayout layout;
+    private final ByteBuffer buffer;
+    private boolean endOfFile;
+
+    private RecordReader(FileChannel channel, RecordLayout layout) throws IOException {
+        this.channel = channel;
+        this.layout = layout;
+        int records = Math.max(1, BUFFER_BYTES / layout.recordSize());
+        this.buffer = ByteBuffer.allocateDirect(records * layout.recordSize()).order(ByteOrder.LITTLE_ENDIAN);
+        ((Buffer) buffer).limit(0);
+        channel.position(layout.headerSize());
+    }
+
+    /**
+     * Opens a record file and reads its header.
+     *
+     * @param path the file to read
+     * @return the reader, positioned at the first record
+     * @throws IOException if the file cannot be opened or is not a record file
+     */
+    public static RecordReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new RecordReader(channel, RecordLayout.readHeader(channel));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the layout of the records in the file.
+     *
+     * @return the layout
+     */
+    public RecordLayout layout() {
+        return layout;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return one nullable value per field, or null if there are no more records
+     * @throws IOException if the record cannot be read or the file ends part-way through a record
+     */
+    public Number[] read() throws IOException {
+        if (buffer.remaining() < layout.recordSize() && !fill()) return null;
+        int base = buffer.position();
+        Number[] values = new Number[layout.fieldCount()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = layout.get(buffer, base, i);
+        }
+        ((Buffer) buffer).position(base + layout.recordSize());
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean fill() throws IOException {
+        buffer.compact();
+        while (!endOfFile && buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) endOfFile = true;
+        }
+        ((Buffer) buffer).flip();
+        if (buffer.remaining() >= layout.recordSize()) return true;
+        if (buffer.hasRemaining()) throw new IOException("Truncated record at end of file");
+        return false;
+    }
+}
@@ -0,0 +1,122 @@
+package net.bertag.operators.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes records to a new record file (see {@link RecordLayout} for the format).  Records are packed into a buffer and
+ * written to the underlying {@link FileChannel} in large blocks; the file is complete once the writer is closed.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public final class RecordWriter implements Closeable {
+
+    /**
+     * The approximate number of bytes of direct memory each writer allocates for its buffer (more if a single record is
+     * larger).
+     */
+    public static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final RecordLayout layout;
+    private final ByteBuffer buffer;
+    private long count;
+
+    private RecordWriter(FileChannel channel, RecordLayout layout) {
+        this.channel = channel;
+        this.layout = layout;
+        int records = Math.max(1, BUFFER_BYTES / layout.recordSize());
+        this.buffer = ByteBuffer.allocateDirect(records * layout.recordSize()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Creates (or truncates) a record file and writes its header.
+     *
+     * @param path the file to write
+     * @param layout the layout of every record
+     * @return the writer
+     * @throws IOException if the file cannot be created
+     */
+    public static RecordWriter create(Path path, RecordLayout layout) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            writeFully(channel, layout.header());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new RecordWriter(channel, layout);
+    }
+
+    /**
+     * Returns the layout of the records being written.
+     *
+     * @return the layout
+     */
+    public RecordLayout layout() {
+        return layout;
+    }
+
+    /**
+     * Returns the number of records written so far.
+     *
+     * @return the record count
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Appends a record.  Each value must be null or of the {@linkplain FieldType#javaType() Java type} of its field.
+     *
+     * @param values one nullable value per field
+     * @throws IllegalArgumentException if the values do not match the layout
+     * @throws IOException if the record cannot be written
+     */
+    public void write(Number... values) throws IOException {
+        if (buffer.remaining() < layout.recordSize()) flush();
+        int base = buffer.position();
+        layout.put(buffer, base, values);
+        ((Buffer) buffer).position(base + layout.recordSize());
+        count++;
+    }
+
+    /**
+     * Writes any buffered records to the file.
+     *
+     * @throws IOException if the records cannot be written
+     */
+    public void flush() throws IOException {
+        ((Buffer) buffer).flip();
+        writeFully(channel, buffer);
+        ((Buffer) buffer).clear();
+    }
+
+    /**
+     * Flushes any buffered records and closes the file.
+     *
+     * @throws IOException if the records cannot be written or the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package net.bertag.operators.join;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+import net.bertag.operators.api.Dividable;
+import net.bertag.operators.api.Multipliable;
+import net.bertag.operators.api.Scalable;
+import net.bertag.operators.api.Subtractable;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Combines two datasets that are sorted by key, pairing records with equal keys in a single streaming pass (a full
+ * outer merge join).  Only the next record of each input is held at a time, so memory use is constant however large
+ * the inputs are.
+ * <p>
+ * A key present in only one input is combined with null in place of the missing record, which gives the outer-join
+ * semantics of {@link Ops}: {@code Ops.plus(yesterday, today)} keeps a total present on only one day, and
+ * {@code Ops.minus(today, yesterday)} yields the change per key.  Results that are null are skipped.
+ * <p>
+ * Each input must be strictly increasing by key (null keys first); a key out of order, or repeated within an input,
+ * causes an {@link IllegalStateException} when it is reached.
+ */
+public final class SortedMerge {
+
+    private SortedMerge() {
+    }
+
+    /**
+     * Combines two sorted inputs of possibly different types.
+     *
+     * @param left the left input, sorted by key
+     * @param right the right input, sorted by key
+     * @param leftKey extracts the (nullable) key of a left record
+     * @param rightKey extracts the (nullable) key of a right record
+     * @param op combines the records for a key, either of which may be null
+     * @param <L> the type of left record
+     * @param <R> the type of right record
+     * @param <K> the type of key
+     * @param <O> the type of result
+     * @return the non-null results, in key order
+     */
+    public static <L, R, K extends Comparable<? super K>, O> Iterator<O> combine(Iterator<? extends L> left,
+            Iterator<? extends R> right, Function<? super L, ? extends K> leftKey,
+            Function<? super R, ? extends K> rightKey, BiFunction<? super L, ? super R, ? extends O> op) {
+        return new MergeIterator<>(left, right, leftKey, rightKey, op);
+    }
+
+    /**
+     * Combines two sorted inputs of the same type.
+     *
+     * @param left the left input, sorted by key
+     * @param right the right input, sorted by key
+     * @param key extracts the (nullable) key of a record
+     * @param op combines the records for a key, either of which may be null (such as {@code Ops::plus})
+     * @param <T> the type of record
+     * @param <K> the type of key
+     * @return the non-null results, in key order
+     */
+    public static <T, K extends Comparable<? super K>> Iterator<T> combine(Iterator<? extends T> left,
+            Iterator<? extends T> right, Function<? super T, ? extends K> key, BinaryOperator<T> op) {
+        return new MergeIterator<T, T, K, T>(left, right, key, key, op);
+    }
+
+    /**
+     * Combines range-partitioned inputs in parallel.  Partition {@code i} of each input must hold the same range of
+     * keys, and the ranges must increase with {@code i}; each pair of partitions is merged on its own, and the results
+     * are concatenated in partition order.
+     *
+     * @param left the partitions of the left input, each sorted by key
+     * @param right the partitions of the right input, each sorted by key
+     * @param leftKey extracts the (nullable) key of a left record
+     * @param rightKey extracts the (nullable) key of a right record
+     * @param op combines the records for a key, either of which may be null
+     * @param <L> the type of left record
+     * @param <R> the type of right record
+     * @param <K> the type of key
+     * @param <O> the type of result
+     * @return a parallel stream of the non-null results, in key order
+     * @throws IllegalArgumentException if the inputs have different numbers of partitions
+     */
+    public static <L, R, K extends Comparable<? super K>, O> Stream<O> parallelCombine(
+            List<? extends Iterable<? extends L>> left, List<? extends Iterable<? extends R>> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey,
+            BiFunction<? super L, ? super R, ? extends O> op) {
+        if (left.size() != right.size()) {
+            throw new IllegalArgumentException("Partition counts differ: " + left.size() + " vs " + right.size());
+        }
+        return IntStream.range(0, left.size()).parallel().boxed().flatMap(i -> stream(
+                combine(left.get(i).iterator(), right.get(i).iterator(), leftKey, rightKey, op)));
+    }
+
+    /**
+     * Adds two sorted inputs key by key with {@link Ops#plus(Addable, Addable)}.
+     *
+     * @param left the left input, sorted by key
+     * @param right the right input, sorted by key
+     * @param key extracts the (nullable) key of a record
+     * @param <T> the type of record
+     * @param <K> the type of key
+     * @return the sums, in key order
+     */
+    public static <T extends Addable<T>, K extends Comparable<? super K>> Iterator<T> plus(Iterator<? extends T> left,
+            Iterator<? extends T> right, Function<? super T, ? extends K> key) {
+        return combine(left, right, key, (BinaryOperator<T>) Ops::plus);
+    }
+
+    /**
+     * Subtracts the right input from the left key by key with {@link Ops#minus(Subtractable, Subtractable)}.
+     *
+     * @param left the left input, sorted by key
+     * @param right the right input, sorted by key
+     * @param key extracts the (nullable) key of a record
+     * @param <T> the type of record
+     * @param <K> the type of key
+     * @return the differences, in key order
+     */
+    public static <T extends Subtractable<T>, K extends Comparable<? super K>> Iterator<T> minus(
+            Iterator<? extends T> left, Iterator<? extends T> right, Function<? super T, ? extends K> key) {
+        return combine(left, right, key, (BinaryOperator<T>) Ops::minus);
+    }
+
+    /**
+     * Multiplies two sorted inputs key by key with {@link Ops#times(Multipliable, Multipliable)}.
+     *
+     * @param left the left input, sorted by key
+     * @param right the right input, sorted by key
+     * @param key extracts the (nullable) key of a record
+     * @param <T> the type of record
+     * @param <K> the type of key
+     * @return the products, in key order
+     */
+    public static <T extends Multipliable<T>, K extends Comparable<? super K>> Iterator<T> times(
+            Iterator<? extends T> left, Iterator<? extends T> right, Function<? super T, ? extends K> key) {
+        return combine(left, right, key, (BinaryOperator<T>) Ops::times);
+    }
+
+    /**
+     * Divides the left input by the right key by key with {@link Ops#div(Dividable, Dividable)}.
+     *
+     * @param left the left input, sorted by key
+     * @param right the right input, sorted by key
+     * @param key extracts the (nullable) key of a record
+     * @param <T> the type of record
+     * @param <K> the type of key
+     * @return the quotients, in key order
+     */
+    public static <T extends Dividable<T>, K extends Comparable<? super K>> Iterator<T> div(Iterator<? extends T> left,
+            Iterator<? extends T> right, Function<? super T, ? extends K> key) {
+        return combine(left, right, key, (BinaryOperator<T>) Ops::div);
+    }
+
+    /**
+     * Scales each record by the factor with the same key, with {@link Ops#scale(Scalable, Double)}: records without a
+     * factor are left unscaled, and factors without a record are skipped.
+     *
+     * @param values the records, sorted by key
+     * @param factors the factors, sorted by key
+     * @param key extracts the (nullable) key of a record
+     * @param <T> the type of record
+     * @param <K> the type of key
+     * @return the scaled records, in key order
+     */
+    public static <T extends Scalable<T>, K extends Comparable<? super K>> Iterator<T> scale(
+            Iterator<? extends T> values, Iterator<? extends Map.Entry<K, Double>> factors,
+            Function<? super T, ? extends K> key) {
+        return combine(values, factors, key, Map.Entry::getKey,
+                (T value, Map.Entry<K, Double> factor) -> Ops.scale(value, factor == null ? null : factor.getValue()));
+    }
+
+    /**
+     * Wraps the results of a merge as a sequential stream.
+     *
+     * @param results some merge results
+     * @param <T> the type of result
+     * @return the stream
+     */
+    public static <T> Stream<T> stream(Iterator<T> results) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Merges two inputs lazily, looking ahead by one record on each side.
+     */
+    private static final class MergeIterator<L, R, K extends Comparable<? super K>, O> implements Iterator<O> {
+
+        private static final Comparator<Comparable<Object>> ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+        private final Cursor<L, K> left;
+        private final Cursor<R, K> right;
+        private final BiFunction<? super L, ? super R, ? extends O> op;
+        private O next;
+
+        MergeIterator(Iterator<? extends L> left, Iterator<? extends R> right,
+                Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey,
+                BiFunction<? super L, ? super R, ? extends O> op) {
+            this.left = new Cursor<>(left, leftKey);
+            this.right = new Cursor<>(right, rightKey);
+            this.op = op;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && (left.present || right.present)) {
+                int order = !left.present ? 1 : !right.present ? -1 : compare(left.key, right.key);
+                L l = order <= 0 ? left.take() : null;
+                R r = order >= 0 ? right.take() : null;
+                next = op.apply(l, r);
+            }
+            return next != null;
+        }
+
+        @Override
+        public O next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            O result = next;
+            next = null;
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <K> int compare(K a, K b) {
+            return ORDER.compare((Comparable<Object>) a, (Comparable<Object>) b);
+        }
+    }
+
+    /**
+     * The next record of one input and its key, checking that keys strictly increase.
+     */
+    private static final class Cursor<T, K> {
+
+        private final Iterator<? extends T> records;
+        private final Function<? super T, ? extends K> keyOf;
+        private boolean present;
+        private T record;
+        private K key;
+
+        Cursor(Iterator<? extends T> records, Function<? super T, ? extends K> keyOf) {
+            this.records = records;
+            this.keyOf = keyOf;
+            advance(true);
+        }
+
+        T take() {
+            T taken = record;
+            advance(false);
+            return taken;
+        }
+
+        private void advance(boolean first) {
+            K previous = key;
+            present = records.hasNext();
+            if (!present) {
+                record = null;
+                return;
+            }
+            record = records.next();
+            key = keyOf.apply(record);
+            if (!first && MergeIterator.compare(previous, key) >= 0) {
+                throw new IllegalStateException("Keys are not strictly increasing: " + key + " after " + previous);
+            }
+        }
+    }
+}
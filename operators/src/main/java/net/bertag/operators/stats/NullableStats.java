@@ -0,0 +1,239 @@
+package net.bertag.operators.stats;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+import net.bertag.operators.api.Scalable;
+
+import java.util.function.DoubleConsumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Mutable, single-pass accumulator of descriptive statistics over nullable {@code double} values: the count of
+ * non-null and null values, sum, minimum, maximum, mean and variance, all kept in primitives.  Values are added with
+ * Welford's update and accumulators are merged with Chan et al.'s pairwise formulas, so statistics computed over
+ * separate partitions (or threads) combine into the same result as a single pass, up to rounding.
+ * <p>
+ * Unlike a plain sum, the accumulator knows how many non-null values it has seen, so its {@link #mean()} is the
+ * average of the values actually present: a week of daily readings with one missing day averages over six days, not
+ * seven.  Each statistic is null if no non-null values were added, as with {@link Ops#plus(Double, Double)}.
+ * <p>
+ * {@link #scale(double)} applies a change of units to the underlying values (for example, minutes to hours): the sum,
+ * extremes and mean scale by the factor and the variance by its square, while the counts are unchanged.
+ */
+public final class NullableStats implements Addable<NullableStats>, Scalable<NullableStats>, DoubleConsumer {
+
+    private long count;
+    private long nullCount;
+    private double sum;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Adds a value to the statistics.
+     *
+     * @param value some value
+     * @return this accumulator
+     */
+    public NullableStats add(double value) {
+        count++;
+        sum += value;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (value < min) min = value;
+        if (value > max) max = value;
+        return this;
+    }
+
+    /**
+     * Adds a value to the statistics, or counts it as null.
+     *
+     * @param value some nullable value
+     * @return this accumulator
+     */
+    public NullableStats add(Double value) {
+        if (value == null) {
+            nullCount++;
+            return this;
+        }
+        return add(value.doubleValue());
+    }
+
+    @Override
+    public void accept(double value) {
+        add(value);
+    }
+
+    /**
+     * Merges another accumulator into this one.
+     *
+     * @param other another accumulator
+     * @return this accumulator
+     */
+    @Override
+    public NullableStats plus(NullableStats other) {
+        nullCount += other.nullCount;
+        if (other.count == 0) return this;
+        if (count == 0) {
+            count = other.count;
+            sum = other.sum;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * ((double) other.count / total);
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Scales the underlying values by a factor, in place.
+     *
+     * @param factor the scale factor
+     * @return this accumulator
+     */
+    @Override
+    public NullableStats scale(double factor) {
+        if (count == 0) return this;
+        sum *= factor;
+        mean *= factor;
+        m2 *= factor * factor;
+        double scaledMin = min * factor;
+        double scaledMax = max * factor;
+        min = Math.min(scaledMin, scaledMax);
+        max = Math.max(scaledMin, scaledMax);
+        return this;
+    }
+
+    /**
+     * Returns the number of non-null values added.
+     *
+     * @return the count
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the number of null values added.
+     *
+     * @return the null count
+     */
+    public long nullCount() {
+        return nullCount;
+    }
+
+    /**
+     * Returns the sum of the non-null values.
+     *
+     * @return the sum, or null if no non-null values were added
+     */
+    public Double sum() {
+        return count > 0 ? sum : null;
+    }
+
+    /**
+     * Returns the smallest non-null value.
+     *
+     * @return the minimum, or null if no non-null values were added
+     */
+    public Double min() {
+        return count > 0 ? min : null;
+    }
+
+    /**
+     * Returns the largest non-null value.
+     *
+     * @return the maximum, or null if no non-null values were added
+     */
+    public Double max() {
+        return count > 0 ? max : null;
+    }
+
+    /**
+     * Returns the mean of the non-null values; nulls are not counted in the divisor.
+     *
+     * @return the mean, or null if no non-null values were added
+     */
+    public Double mean() {
+        return count > 0 ? mean : null;
+    }
+
+    /**
+     * Returns the population variance of the non-null values (the mean squared deviation from the mean).
+     *
+     * @return the variance, or null if no non-null values were added
+     */
+    public Double variance() {
+        return count > 0 ? m2 / count : null;
+    }
+
+    /**
+     * Returns the sample variance of the non-null values, with Bessel's correction.
+     *
+     * @return the variance, or null if fewer than two non-null values were added
+     */
+    public Double sampleVariance() {
+        return count > 1 ? m2 / (count - 1) : null;
+    }
+
+    /**
+     * Returns the population standard deviation of the non-null values.
+     *
+     * @return the standard deviation, or null if no non-null values were added
+     */
+    public Double standardDeviation() {
+        return count > 0 ? Math.sqrt(m2 / count) : null;
+    }
+
+    /**
+     * Computes the statistics of an array.
+     *
+     * @param values some nullable values
+     * @return the statistics
+     */
+    public static NullableStats of(Double... values) {
+        NullableStats stats = new NullableStats();
+        for (Double value : values) {
+            stats.add(value);
+        }
+        return stats;
+    }
+
+    /**
+     * Computes the statistics of a (possibly parallel) stream.
+     *
+     * @param values a stream of nullable values
+     * @return the statistics
+     */
+    public static NullableStats of(Stream<Double> values) {
+        return values.collect(toStats());
+    }
+
+    /**
+     * Returns a collector that accumulates nullable {@code Double} values into statistics.
+     *
+     * @return the collector
+     */
+    public static Collector<Double, NullableStats, NullableStats> toStats() {
+        return Collector.of(NullableStats::new, NullableStats::add, NullableStats::plus,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    @Override
+    public String toString() {
+        return "NullableStats{count=" + count + ", nullCount=" + nullCount + ", sum=" + sum() + ", min=" + min()
+                + ", max=" + max() + ", mean=" + mean() + ", variance=" + variance() + "}";
+    }
+}
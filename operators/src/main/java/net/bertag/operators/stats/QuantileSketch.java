@@ -0,0 +1,343 @@
+package net.bertag.operators.stats;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+import java.util.stream.Collector;
+
+/**
+ * Mutable, mergeable sketch of a distribution of {@code double} values that answers approximate quantile and rank
+ * queries (such as p50 and p99 latencies) in bounded memory, using the KLL algorithm of Karnin, Lang and Liberty.
+ * <p>
+ * Values are kept in a stack of compactors, where an item at level {@code h} stands for {@code 2^h} input values.  When
+ * a level fills up it is sorted and every other item (starting at a random offset) is promoted to the next level, which
+ * halves the level while preserving the total weight.  Level capacities shrink geometrically by a factor of 2/3 below
+ * the top level, so the sketch retains about {@code 3k} values however many are added, and the rank error of a query is
+ * roughly {@code 1.7 / k} (about 1% for the default {@code k} of 200) with high probability.  Minimum and maximum are
+ * tracked exactly.
+ * <p>
+ * Sketches built on separate threads or nodes merge with {@link #plus(QuantileSketch)} (and so with
+ * {@link Ops#plus(Addable, Addable)}, where null stands for an empty sketch) and can be shipped between them with
+ * {@link #writeTo(ByteBuffer)}.  Null and NaN values are skipped.  The coin flips that choose which items to promote
+ * come from a generator seeded deterministically, so the same sequence of operations always yields the same sketch.
+ */
+public final class QuantileSketch implements Addable<QuantileSketch>, DoubleConsumer {
+
+    /**
+     * The default accuracy parameter.
+     */
+    public static final int DEFAULT_K = 200;
+
+    private static final double DECAY = 2d / 3;
+    private static final int MIN_CAPACITY = 2;
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private final int k;
+    private double[][] levels;
+    private int[] sizes;
+    private int levelCount;
+    private int maxRetained;
+    private int retained;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long random = SEED;
+
+    /**
+     * Creates an empty sketch with the default accuracy.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param k the accuracy parameter: larger values retain more items and give smaller errors
+     * @throws IllegalArgumentException if {@code k} is less than 8 or more than 65535
+     */
+    public QuantileSketch(int k) {
+        if (k < 8 || k > 0xFFFF) throw new IllegalArgumentException("k must be between 8 and 65535: " + k);
+        this.k = k;
+        this.levels = new double[][] {new double[k]};
+        this.sizes = new int[1];
+        this.levelCount = 1;
+        this.maxRetained = capacity(0);
+    }
+
+    /**
+     * Adds a value to the sketch, unless it is NaN.
+     *
+     * @param value some value
+     * @return this sketch
+     */
+    public QuantileSketch add(double value) {
+        if (Double.isNaN(value)) return this;
+        count++;
+        if (value < min) min = value;
+        if (value > max) max = value;
+        append(0, value);
+        retained++;
+        if (retained >= maxRetained) compress();
+        return this;
+    }
+
+    /**
+     * Adds a value to the sketch if it is non-null.
+     *
+     * @param value some nullable value
+     * @return this sketch
+     */
+    public QuantileSketch add(Double value) {
+        return value != null ? add(value.doubleValue()) : this;
+    }
+
+    @Override
+    public void accept(double value) {
+        add(value);
+    }
+
+    /**
+     * Merges another sketch into this one; the other sketch is unchanged.  The sketches should have the same
+     * {@code k}; if not, the result has the accuracy of this sketch.
+     *
+     * @param other another sketch
+     * @return this sketch
+     */
+    @Override
+    public QuantileSketch plus(QuantileSketch other) {
+        if (other.count == 0) return this;
+        while (levelCount < other.levelCount) addLevel();
+        for (int h = 0; h < other.levelCount; h++) {
+            // Read the size once, since merging a sketch into itself grows the level being read.
+            int size = other.sizes[h];
+            for (int i = 0; i < size; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        retained += other.retained;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        random ^= other.random;
+        while (retained >= maxRetained) compress();
+        return this;
+    }
+
+    /**
+     * Returns the number of values added.
+     *
+     * @return the count
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the number of values the sketch currently holds, which stays bounded as values are added.
+     *
+     * @return the retained item count
+     */
+    public int retained() {
+        return retained;
+    }
+
+    /**
+     * Returns the smallest value added.
+     *
+     * @return the minimum, or null if the sketch is empty
+     */
+    public Double min() {
+        return count > 0 ? min : null;
+    }
+
+    /**
+     * Returns the largest value added.
+     *
+     * @return the maximum, or null if the sketch is empty
+     */
+    public Double max() {
+        return count > 0 ? max : null;
+    }
+
+    /**
+     * Estimates a quantile: a value such that about a fraction {@code q} of the values added are less than or equal
+     * to it.  Quantiles 0 and 1 are the exact minimum and maximum.
+     *
+     * @param q the quantile, from 0 to 1 (for example, 0.99 for p99)
+     * @return the estimated quantile, or null if the sketch is empty
+     * @throws IllegalArgumentException if {@code q} is out of range
+     */
+    public Double quantile(double q) {
+        if (!(q >= 0 && q <= 1)) throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        if (count == 0) return null;
+        if (q == 0) return min;
+        if (q == 1) return max;
+        double target = q * count;
+        long cumulative = 0;
+        int[] positions = sortLevels();
+        while (true) {
+            int h = nextLevel(positions);
+            cumulative += 1L << h;
+            double value = levels[h][positions[h]++];
+            if (cumulative >= target) return value;
+        }
+    }
+
+    /**
+     * Estimates the fraction of the values added that are less than or equal to a value.
+     *
+     * @param value some value
+     * @return the estimated rank, from 0 to 1, or null if the sketch is empty
+     */
+    public Double rank(double value) {
+        if (count == 0) return null;
+        long weight = 0;
+        for (int h = 0; h < levelCount; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                if (levels[h][i] <= value) weight += 1L << h;
+            }
+        }
+        return (double) weight / count;
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeTo(ByteBuffer)} writes: a fixed header plus 8 bytes per retained value.
+     *
+     * @return the serialized size
+     */
+    public int serializedSize() {
+        return Short.BYTES + Byte.BYTES + Long.BYTES * 4 + levelCount * Integer.BYTES + retained * Double.BYTES;
+    }
+
+    /**
+     * Writes the state of this sketch at the buffer's position (see {@link #readFrom(ByteBuffer)}).
+     *
+     * @param buffer a buffer with at least {@link #serializedSize()} bytes remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putShort((short) k).put((byte) levelCount).putLong(count).putDouble(min).putDouble(max).putLong(random);
+        for (int h = 0; h < levelCount; h++) {
+            buffer.putInt(sizes[h]);
+            for (int i = 0; i < sizes[h]; i++) {
+                buffer.putDouble(levels[h][i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(ByteBuffer)} from the buffer's position.
+     *
+     * @param buffer a buffer with the same byte order as the one written to
+     * @return a new sketch with the same state
+     */
+    public static QuantileSketch readFrom(ByteBuffer buffer) {
+        QuantileSketch sketch = new QuantileSketch(buffer.getShort() & 0xFFFF);
+        int levelCount = buffer.get() & 0xFF;
+        sketch.count = buffer.getLong();
+        sketch.min = buffer.getDouble();
+        sketch.max = buffer.getDouble();
+        sketch.random = buffer.getLong();
+        while (sketch.levelCount < levelCount) sketch.addLevel();
+        for (int h = 0; h < levelCount; h++) {
+            int size = buffer.getInt();
+            for (int i = 0; i < size; i++) {
+                sketch.append(h, buffer.getDouble());
+            }
+            sketch.retained += size;
+        }
+        return sketch;
+    }
+
+    /**
+     * Returns a collector that sketches nullable {@code Double} values.
+     *
+     * @return the collector
+     */
+    public static Collector<Double, QuantileSketch, QuantileSketch> toSketch() {
+        return Collector.of(QuantileSketch::new, QuantileSketch::add, QuantileSketch::plus,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{count=" + count + ", min=" + min() + ", p50=" + quantile(0.5) + ", p99=" + quantile(0.99)
+                + ", max=" + max() + "}";
+    }
+
+    private int capacity(int level) {
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(DECAY, levelCount - 1 - level)));
+    }
+
+    /**
+     * Compacts the lowest level that is at capacity: sorts it and promotes every other item to the next level, keeping
+     * one item behind if the level has an odd size so that the total weight is preserved exactly.
+     */
+    private void compress() {
+        for (int h = 0; h < levelCount; h++) {
+            if (sizes[h] < capacity(h)) continue;
+            if (h + 1 == levelCount) addLevel();
+            double[] items = levels[h];
+            int size = sizes[h];
+            Arrays.sort(items, 0, size);
+            int paired = size & ~1;
+            for (int i = nextBit(); i < paired; i += 2) {
+                append(h + 1, items[i]);
+            }
+            if (paired < size) items[0] = items[size - 1];
+            sizes[h] = size - paired;
+            retained -= paired / 2;
+            return;
+        }
+    }
+
+    private void append(int level, double value) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(MIN_CAPACITY, levels[level].length * 2));
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levelCount + 1);
+        sizes = Arrays.copyOf(sizes, levelCount + 1);
+        levels[levelCount] = new double[MIN_CAPACITY];
+        levelCount++;
+        // The capacities depend only on the number of levels, so their total only changes here.
+        maxRetained = 0;
+        for (int h = 0; h < levelCount; h++) {
+            maxRetained += capacity(h);
+        }
+    }
+
+    private int nextBit() {
+        if (random == 0) random = SEED;
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return (int) (random >>> 63);
+    }
+
+    private int[] sortLevels() {
+        for (int h = 0; h < levelCount; h++) {
+            Arrays.sort(levels[h], 0, sizes[h]);
+        }
+        return new int[levelCount];
+    }
+
+    /**
+     * Finds the level whose next unread item is smallest, in a merge of the sorted levels.
+     */
+    private int nextLevel(int[] positions) {
+        int best = -1;
+        for (int h = 0; h < levelCount; h++) {
+            if (positions[h] < sizes[h] && (best < 0 || levels[h][positions[h]] < levels[best][positions[best]])) {
+                best = h;
+            }
+        }
+        return best;
+    }
+}
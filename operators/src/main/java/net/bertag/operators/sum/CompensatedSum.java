@@ -0,0 +1,230 @@
+package net.bertag.operators.sum;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+
+import java.nio.ByteBuffer;
+import java.util.function.DoubleConsumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Mutable accumulator that sums {@code double} values using Neumaier's variant of Kahan summation, which carries the
+ * low-order bits lost by each addition in a separate compensation term.  The result is typically accurate to within a
+ * few ulps of the exact sum regardless of how many values are added, at a cost of a few extra flops per value.
+ * <p>
+ * Null inputs are skipped, and {@link #toDouble()} returns null if nothing but nulls was added, matching the
+ * behavior of folding values with {@link Ops#plus(Double, Double)}.  Accumulators built on separate threads can be
+ * combined with {@link #plus(CompensatedSum)}, which makes this class suitable as a {@link Collector} container.
+ */
+public final class CompensatedSum implements Addable<CompensatedSum>, DoubleConsumer {
+
+    private double sum;
+    private double compensation;
+    private double simpleSum;
+    private long count;
+
+    /**
+     * Adds a value to the sum.
+     *
+     * @param value some value
+     * @return this accumulator
+     */
+    public CompensatedSum add(double value) {
+        accumulate(value);
+        simpleSum += value;
+        count++;
+        return this;
+    }
+
+    /**
+     * Adds a value to the sum if it is non-null.
+     *
+     * @param value some nullable value
+     * @return this accumulator
+     */
+    public CompensatedSum add(Double value) {
+        return value != null ? add(value.doubleValue()) : this;
+    }
+
+    /**
+     * Adds a value to the sum if it is non-null.
+     *
+     * @param value some nullable value
+     * @return this accumulator
+     */
+    public CompensatedSum add(Float value) {
+        return value != null ? add(value.doubleValue()) : this;
+    }
+
+    @Override
+    public void accept(double value) {
+        add(value);
+    }
+
+    /**
+     * Merges another accumulator into this one, preserving the compensation of both.
+     *
+     * @param other another accumulator
+     * @return this accumulator
+     */
+    @Override
+    public CompensatedSum plus(CompensatedSum other) {
+        accumulate(other.sum);
+        accumulate(other.compensation);
+        simpleSum += other.simpleSum;
+        count += other.count;
+        return this;
+    }
+
+    /**
+     * Returns the number of (non-null) values added.
+     *
+     * @return the count
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the compensated sum.
+     *
+     * @return the sum, or 0 if no values were added
+     */
+    public double sum() {
+        double result = sum + compensation;
+        // If the sum overflowed, the compensation is NaN; fall back to the naive sum to report the right infinity.
+        return Double.isNaN(result) && Double.isInfinite(simpleSum) ? simpleSum : result;
+    }
+
+    /**
+     * Returns the compensated sum, or null if no non-null values were added.
+     *
+     * @return the sum as described
+     */
+    public Double toDouble() {
+        return count > 0 ? sum() : null;
+    }
+
+    /**
+     * Returns the compensated sum narrowed to a {@code float}, or null if no non-null values were added.
+     *
+     * @return the sum as described
+     */
+    public Float toFloat() {
+        return count > 0 ? (float) sum() : null;
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeTo(ByteBuffer)} writes.
+     *
+     * @return the serialized size
+     */
+    public int serializedSize() {
+        return 3 * Double.BYTES + Long.BYTES;
+    }
+
+    /**
+     * Writes the state of this accumulator at the buffer's position (see {@link #readFrom(ByteBuffer)}).
+     *
+     * @param buffer a buffer with at least {@link #serializedSize()} bytes remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putDouble(sum).putDouble(compensation).putDouble(simpleSum).putLong(count);
+    }
+
+    /**
+     * Reads an accumulator written by {@link #writeTo(ByteBuffer)} from the buffer's position.
+     *
+     * @param buffer a buffer with the same byte order as the one written to
+     * @return a new accumulator with the same state
+     */
+    public static CompensatedSum readFrom(ByteBuffer buffer) {
+        CompensatedSum acc = new CompensatedSum();
+        acc.sum = buffer.getDouble();
+        acc.compensation = buffer.getDouble();
+        acc.simpleSum = buffer.getDouble();
+        acc.count = buffer.getLong();
+        return acc;
+    }
+
+    /**
+     * Sums the non-null values of an array.
+     *
+     * @param values some nullable values
+     * @return the compensated sum, or null if every value is null
+     */
+    public static Double sum(Double[] values) {
+        CompensatedSum acc = new CompensatedSum();
+        for (Double value : values) {
+            acc.add(value);
+        }
+        return acc.toDouble();
+    }
+
+    /**
+     * Sums the non-null values of an array, accumulating in {@code double} precision.
+     *
+     * @param values some nullable values
+     * @return the compensated sum, or null if every value is null
+     */
+    public static Float sum(Float[] values) {
+        CompensatedSum acc = new CompensatedSum();
+        for (Float value : values) {
+            acc.add(value);
+        }
+        return acc.toFloat();
+    }
+
+    /**
+     * Sums the values of a primitive array.
+     *
+     * @param values some values
+     * @return the compensated sum, or 0 if the array is empty
+     */
+    public static double sum(double[] values) {
+        CompensatedSum acc = new CompensatedSum();
+        for (double value : values) {
+            acc.add(value);
+        }
+        return acc.sum();
+    }
+
+    /**
+     * Sums the non-null values of a (possibly parallel) stream.
+     *
+     * @param values a stream of nullable values
+     * @return the compensated sum, or null if every value is null
+     */
+    public static Double sum(Stream<Double> values) {
+        return values.collect(toDoubleSum());
+    }
+
+    /**
+     * Returns a collector that sums nullable {@code Double} values with compensation.
+     *
+     * @return the collector, yielding null if every value is null
+     */
+    public static Collector<Double, CompensatedSum, Double> toDoubleSum() {
+        return Collector.of(CompensatedSum::new, CompensatedSum::add, CompensatedSum::plus,
+                CompensatedSum::toDouble);
+    }
+
+    /**
+     * Returns a collector that sums nullable {@code Float} values with compensation, accumulating in {@code double}
+     * precision.
+     *
+     * @return the collector, yielding null if every value is null
+     */
+    public static Collector<Float, CompensatedSum, Float> toFloatSum() {
+        return Collector.of(CompensatedSum::new, CompensatedSum::add, CompensatedSum::plus,
+                CompensatedSum::toFloat);
+    }
+
+    private void accumulate(double value) {
+        double t = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) compensation += (sum - t) + value;
+        else compensation += (value - t) + sum;
+        sum = t;
+    }
+}
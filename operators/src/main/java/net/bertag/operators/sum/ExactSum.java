@@ -0,0 +1,391 @@
+package net.bertag.operators.sum;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Mutable accumulator that sums {@code double} values exactly and rounds only once, when the result is read.  Because
+ * exact addition is associative, the result is bit-for-bit identical regardless of the order in which values are added
+ * or how the work is split across threads, which makes parallel reductions reproducible.
+ * <p>
+ * Internally, each finite double is an integer multiple of {@code 2^-1074}, so the running total is kept as a
+ * fixed-point integer spread across 32-bit limbs stored in {@code long}s.  The spare high bits of each limb absorb
+ * carries, so adding a value touches at most three limbs and carries are only propagated occasionally.  Adding a value
+ * costs a handful of integer operations; the accumulator itself is about 550 bytes.
+ * <p>
+ * Null inputs are skipped, and {@link #toDouble()} returns null if nothing but nulls was added, matching the behavior
+ * of folding values with {@link Ops#plus(Double, Double)}.  Infinities and NaNs propagate as they would with ordinary
+ * addition.
+ */
+public final class ExactSum implements Addable<ExactSum>, DoubleConsumer {
+
+    private static final int LIMB_BITS = 32;
+    private static final long LIMB_MASK = 0xFFFFFFFFL;
+    private static final int LIMBS = 67;
+    private static final int MIN_EXPONENT = -1074;
+    private static final int MANTISSA_BITS = 52;
+    private static final long MANTISSA_MASK = (1L << MANTISSA_BITS) - 1;
+    private static final int MAX_PENDING = 1 << 30;
+    private static final double SPLITTER = 0x1p27 + 1;
+
+    private final long[] limbs = new long[LIMBS];
+    private int pending;
+    private long count;
+    private boolean positiveInfinity;
+    private boolean negativeInfinity;
+    private boolean nan;
+
+    /**
+     * Adds a value to the sum.
+     *
+     * @param value some value
+     * @return this accumulator
+     */
+    public ExactSum add(double value) {
+        count++;
+        long bits = Double.doubleToRawLongBits(value);
+        int biasedExponent = (int) (bits >>> MANTISSA_BITS) & 0x7FF;
+        if (biasedExponent == 0x7FF) {
+            if ((bits & MANTISSA_MASK) != 0) nan = true;
+            else if (value > 0) positiveInfinity = true;
+            else negativeInfinity = true;
+            return this;
+        }
+
+        long mantissa = bits & MANTISSA_MASK;
+        int position = 0;
+        if (biasedExponent != 0) {
+            mantissa |= 1L << MANTISSA_BITS;
+            position = biasedExponent - 1;
+        }
+        if (mantissa == 0) return this;
+
+        // The value is mantissa * 2^(position - 1074); spread the mantissa across the (up to three) limbs it overlaps.
+        int limb = position >>> 5;
+        int offset = position & (LIMB_BITS - 1);
+        long low = (mantissa << offset) & LIMB_MASK;
+        long mid = (mantissa >>> (LIMB_BITS - offset)) & LIMB_MASK;
+        long high = offset == 0 ? 0L : mantissa >>> (Long.SIZE - offset);
+        if (bits < 0) {
+            limbs[limb] -= low;
+            limbs[limb + 1] -= mid;
+            limbs[limb + 2] -= high;
+        } else {
+            limbs[limb] += low;
+            limbs[limb + 1] += mid;
+            limbs[limb + 2] += high;
+        }
+        if (++pending == MAX_PENDING) normalize();
+        return this;
+    }
+
+    /**
+     * Adds a value to the sum if it is non-null.
+     *
+     * @param value some nullable value
+     * @return this accumulator
+     */
+    public ExactSum add(Double value) {
+        return value != null ? add(value.doubleValue()) : this;
+    }
+
+    /**
+     * Adds a value to the sum if it is non-null.
+     *
+     * @param value some nullable value
+     * @return this accumulator
+     */
+    public ExactSum add(Float value) {
+        return value != null ? add(value.doubleValue()) : this;
+    }
+
+    @Override
+    public void accept(double value) {
+        add(value);
+    }
+
+    /**
+     * Merges another accumulator into this one.  The result is exact, so merge order does not matter.
+     *
+     * @param other another accumulator
+     * @return this accumulator
+     */
+    @Override
+    public ExactSum plus(ExactSum other) {
+        other.normalize();
+        normalize();
+        for (int i = 0; i < LIMBS; i++) {
+            limbs[i] += other.limbs[i];
+        }
+        pending = 1;
+        count += other.count;
+        positiveInfinity |= other.positiveInfinity;
+        negativeInfinity |= other.negativeInfinity;
+        nan |= other.nan;
+        return this;
+    }
+
+    /**
+     * Returns the number of (non-null) values added.
+     *
+     * @return the count
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the exact sum, correctly rounded (half-even) to the nearest {@code double}.
+     *
+     * @return the sum, or 0 if no values were added
+     */
+    public double sum() {
+        if (nan || (positiveInfinity && negativeInfinity)) return Double.NaN;
+        if (positiveInfinity) return Double.POSITIVE_INFINITY;
+        if (negativeInfinity) return Double.NEGATIVE_INFINITY;
+
+        normalize();
+        BigInteger total = toBigInteger();
+        int signum = total.signum();
+        if (signum == 0) return 0d;
+
+        BigInteger magnitude = total.abs();
+        int length = magnitude.bitLength();
+        if (length <= MANTISSA_BITS + 1) {
+            // Every multiple of 2^-1074 below 2^-1021 is representable, so no rounding is needed.
+            return signum * Math.scalb((double) magnitude.longValue(), MIN_EXPONENT);
+        }
+
+        // Keep 54 bits (the 53-bit significand plus a rounding bit) and note whether anything below them is set.
+        int shift = length - (MANTISSA_BITS + 2);
+        long top = magnitude.shiftRight(shift).longValue();
+        boolean sticky = magnitude.getLowestSetBit() < shift;
+        long significand = top >>> 1;
+        if ((top & 1) != 0 && (sticky || (significand & 1) != 0)) {
+            significand++;
+        }
+        return signum * Math.scalb((double) significand, shift + 1 + MIN_EXPONENT);
+    }
+
+    /**
+     * Returns the exact sum correctly rounded to a {@code double}, or null if no non-null values were added.
+     *
+     * @return the sum as described
+     */
+    public Double toDouble() {
+        return count > 0 ? sum() : null;
+    }
+
+    /**
+     * Returns the exact sum rounded to a {@code float}, or null if no non-null values were added.
+     *
+     * @return the sum as described
+     */
+    public Float toFloat() {
+        return count > 0 ? (float) sum() : null;
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeTo(ByteBuffer)} writes.  Only the limbs that are in use are written, so
+     * the size depends on the range of magnitudes added.
+     *
+     * @return the serialized size
+     */
+    public int serializedSize() {
+        normalize();
+        return Long.BYTES + 3 + (highestLimb() - lowestLimb() + 1) * Long.BYTES;
+    }
+
+    /**
+     * Writes the state of this accumulator at the buffer's position (see {@link #readFrom(ByteBuffer)}).
+     *
+     * @param buffer a buffer with at least {@link #serializedSize()} bytes remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+        normalize();
+        int low = lowestLimb();
+        int high = highestLimb();
+        int flags = (nan ? 1 : 0) | (positiveInfinity ? 2 : 0) | (negativeInfinity ? 4 : 0);
+        buffer.putLong(count).put((byte) flags).put((byte) low).put((byte) (high - low + 1));
+        for (int i = low; i <= high; i++) {
+            buffer.putLong(limbs[i]);
+        }
+    }
+
+    /**
+     * Reads an accumulator written by {@link #writeTo(ByteBuffer)} from the buffer's position.
+     *
+     * @param buffer a buffer with the same byte order as the one written to
+     * @return a new accumulator with the same state
+     */
+    public static ExactSum readFrom(ByteBuffer buffer) {
+        ExactSum acc = new ExactSum();
+        acc.count = buffer.getLong();
+        int flags = buffer.get();
+        acc.nan = (flags & 1) != 0;
+        acc.positiveInfinity = (flags & 2) != 0;
+        acc.negativeInfinity = (flags & 4) != 0;
+        int low = buffer.get() & 0xFF;
+        int length = buffer.get() & 0xFF;
+        if (low + length > LIMBS) throw new IllegalArgumentException("Corrupt exact sum state");
+        for (int i = low; i < low + length; i++) {
+            acc.limbs[i] = buffer.getLong();
+        }
+        return acc;
+    }
+
+    /**
+     * Sums the non-null values of an array.
+     *
+     * @param values some nullable values
+     * @return the correctly rounded sum, or null if every value is null
+     */
+    public static Double sum(Double[] values) {
+        ExactSum acc = new ExactSum();
+        for (Double value : values) {
+            acc.add(value);
+        }
+        return acc.toDouble();
+    }
+
+    /**
+     * Sums the non-null values of an array.
+     *
+     * @param values some nullable values
+     * @return the rounded sum, or null if every value is null
+     */
+    public static Float sum(Float[] values) {
+        ExactSum acc = new ExactSum();
+        for (Float value : values) {
+            acc.add(value);
+        }
+        return acc.toFloat();
+    }
+
+    /**
+     * Sums the values of a primitive array.
+     *
+     * @param values some values
+     * @return the correctly rounded sum, or 0 if the array is empty
+     */
+    public static double sum(double[] values) {
+        ExactSum acc = new ExactSum();
+        for (double value : values) {
+            acc.add(value);
+        }
+        return acc.sum();
+    }
+
+    /**
+     * Sums the values of a primitive array using the common fork-join pool.  The result is identical to
+     * {@link #sum(double[])}.
+     *
+     * @param values some values
+     * @return the correctly rounded sum, or 0 if the array is empty
+     */
+    public static double parallelSum(double[] values) {
+        return Arrays.stream(values).parallel().collect(ExactSum::new, ExactSum::add, ExactSum::plus).sum();
+    }
+
+    /**
+     * Sums the non-null values of a (possibly parallel) stream.  The result does not depend on how the stream is split.
+     *
+     * @param values a stream of nullable values
+     * @return the correctly rounded sum, or null if every value is null
+     */
+    public static Double sum(Stream<Double> values) {
+        return values.collect(toDoubleSum());
+    }
+
+    /**
+     * Returns a collector that sums nullable {@code Double} values exactly.
+     *
+     * @return the collector, yielding null if every value is null
+     */
+    public static Collector<Double, ExactSum, Double> toDoubleSum() {
+        return Collector.of(ExactSum::new, ExactSum::add, ExactSum::plus, ExactSum::toDouble,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Returns a collector that sums nullable {@code Float} values exactly.
+     *
+     * @return the collector, yielding null if every value is null
+     */
+    public static Collector<Float, ExactSum, Float> toFloatSum() {
+        return Collector.of(ExactSum::new, ExactSum::add, ExactSum::plus, ExactSum::toFloat,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Computes the rounding error of the product {@code a * b} exactly, so that {@code a * b + productError(a, b)} is
+     * the exact product.  This uses Dekker's algorithm, which needs no fused multiply-add: each operand is split into
+     * two 26-bit halves whose partial products are all exact.
+     * <p>
+     * The split multiplies each operand by {@code 2^27 + 1}, which overflows once either magnitude exceeds about
+     * {@code 1e300}; the error is then unknown and 0 is returned, as it is for non-finite products.
+     *
+     * @param a some value
+     * @param b another value
+     * @return the exact rounding error of the product, or 0 as described
+     */
+    public static double productError(double a, double b) {
+        double product = a * b;
+        double aHigh = a * SPLITTER - (a * SPLITTER - a);
+        double aLow = a - aHigh;
+        double bHigh = b * SPLITTER - (b * SPLITTER - b);
+        double bLow = b - bHigh;
+        double error = ((aHigh * bHigh - product) + aHigh * bLow + aLow * bHigh) + aLow * bLow;
+        return Double.isFinite(error) && Double.isFinite(product) ? error : 0d;
+    }
+
+    /**
+     * Propagates carries so that every limb but the last holds an unsigned 32-bit chunk; the last limb holds the
+     * (signed) remainder.
+     */
+    private void normalize() {
+        if (pending == 0) return;
+        for (int i = 0; i < LIMBS - 1; i++) {
+            limbs[i + 1] += limbs[i] >> LIMB_BITS;
+            limbs[i] &= LIMB_MASK;
+        }
+        pending = 0;
+    }
+
+    private int lowestLimb() {
+        int low = 0;
+        while (low < LIMBS - 1 && limbs[low] == 0) low++;
+        return low;
+    }
+
+    private int highestLimb() {
+        int high = LIMBS - 1;
+        while (high > 0 && limbs[high] == 0) high--;
+        return Math.max(high, lowestLimb());
+    }
+
+    private BigInteger toBigInteger() {
+        // Big-endian two's complement: the signed top limb as a full long, then each 32-bit limb below it.
+        byte[] bytes = new byte[Long.BYTES + (LIMBS - 1) * Integer.BYTES];
+        long top = limbs[LIMBS - 1];
+        for (int b = 0; b < Long.BYTES; b++) {
+            bytes[b] = (byte) (top >>> (Long.SIZE - Byte.SIZE * (b + 1)));
+        }
+        int index = Long.BYTES;
+        for (int i = LIMBS - 2; i >= 0; i--) {
+            int chunk = (int) limbs[i];
+            bytes[index++] = (byte) (chunk >>> 24);
+            bytes[index++] = (byte) (chunk >>> 16);
+            bytes[index++] = (byte) (chunk >>> 8);
+            bytes[index++] = (byte) chunk;
+        }
+        return new BigInteger(bytes);
+    }
+}
@@ -0,0 +1,356 @@
+package net.bertag.operators.time;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+import net.bertag.operators.api.Scalable;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Streaming aggregator that totals records into calendar or fixed-length time buckets (windows) and emits each window
+ * once it can no longer change.
+ * <p>
+ * Times are converted to whole units (epoch days for {@link LocalDate}, epoch seconds for {@link Instant}) and each
+ * window is identified by a {@code long} index computed from them arithmetically, so locating the windows of a record
+ * takes constant time.  Open windows live in a ring of primitive-indexed slots rather than a sorted map.  Tumbling
+ * windows (including weeks and months) put each record in exactly one window; hopping windows of size {@code s} and hop
+ * {@code h} put it in {@code ceil(s / h)} overlapping windows.
+ * <p>
+ * Records may arrive out of order.  The watermark trails the latest time seen by the allowed lateness; once a window
+ * ends at or before the watermark it is passed to the sink, and records that arrive after all of their windows have
+ * been emitted are dropped and counted as {@linkplain #lateCount() late}.  Call {@link #flush()} at the end of the
+ * stream to emit the windows that are still open.
+ * <p>
+ * Each window's total starts from a fresh empty record (which must not be null) and records are added to it with
+ * {@code plus}, so the records themselves are never modified.  As with {@link Ops#plus(Addable, Addable) Ops.plus},
+ * null records are skipped, and windows that received no non-null records are not emitted.  Instances are not
+ * thread-safe.
+ *
+ * @param <K> the type of time
+ * @param <T> the type of record
+ */
+public final class TimeBuckets<K, T extends Addable<T> & Scalable<T>> {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final Scheme scheme;
+    private final ToLongFunction<K> toUnits;
+    private final LongFunction<K> fromUnits;
+    private final long lateness;
+    private final Supplier<T> empty;
+    private final Consumer<? super Window<K, T>> sink;
+
+    private Object[] totals = new Object[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY];
+    private long[] windows = new long[INITIAL_CAPACITY];
+    private boolean started;
+    private long latest;
+    private long lowest;
+    private long lateCount;
+
+    private TimeBuckets(Scheme scheme, ToLongFunction<K> toUnits, LongFunction<K> fromUnits, long lateness,
+            Supplier<T> empty, Consumer<? super Window<K, T>> sink) {
+        if (lateness < 0) throw new IllegalArgumentException("Allowed lateness must not be negative");
+        this.scheme = scheme;
+        this.toUnits = toUnits;
+        this.fromUnits = fromUnits;
+        this.lateness = lateness;
+        this.empty = empty;
+        this.sink = sink;
+    }
+
+    /**
+     * Creates an aggregator of daily buckets.
+     *
+     * @param latenessDays how many days a record may trail the latest date seen
+     * @param empty a supplier of empty records, from which each window's total starts
+     * @param sink receives each window once it closes
+     * @param <T> the type of record
+     * @return the aggregator
+     */
+    public static <T extends Addable<T> & Scalable<T>> TimeBuckets<LocalDate, T> daily(int latenessDays,
+            Supplier<T> empty, Consumer<? super Window<LocalDate, T>> sink) {
+        return days(1, 1, latenessDays, empty, sink);
+    }
+
+    /**
+     * Creates an aggregator of weekly buckets.
+     *
+     * @param firstDay the day each week starts on
+     * @param latenessDays how many days a record may trail the latest date seen
+     * @param empty a supplier of empty records, from which each window's total starts
+     * @param sink receives each window once it closes
+     * @param <T> the type of record
+     * @return the aggregator
+     */
+    public static <T extends Addable<T> & Scalable<T>> TimeBuckets<LocalDate, T> weekly(DayOfWeek firstDay,
+            int latenessDays, Supplier<T> empty, Consumer<? super Window<LocalDate, T>> sink) {
+        // Epoch day 0 (1970-01-01) was a Thursday.
+        long origin = Math.floorMod(firstDay.getValue() - DayOfWeek.THURSDAY.getValue(), 7);
+        return new TimeBuckets<>(new FixedScheme(7, 7, origin), LocalDate::toEpochDay, LocalDate::ofEpochDay,
+                latenessDays, empty, sink);
+    }
+
+    /**
+     * Creates an aggregator of calendar-month buckets.
+     *
+     * @param latenessDays how many days a record may trail the latest date seen
+     * @param empty a supplier of empty records, from which each window's total starts
+     * @param sink receives each window once it closes
+     * @param <T> the type of record
+     * @return the aggregator
+     */
+    public static <T extends Addable<T> & Scalable<T>> TimeBuckets<LocalDate, T> monthly(int latenessDays,
+            Supplier<T> empty, Consumer<? super Window<LocalDate, T>> sink) {
+        return new TimeBuckets<>(new MonthScheme(), LocalDate::toEpochDay, LocalDate::ofEpochDay, latenessDays, empty,
+                sink);
+    }
+
+    /**
+     * Creates an aggregator of tumbling ({@code hopDays == sizeDays}) or hopping buckets measured in days, aligned to
+     * 1970-01-01.
+     *
+     * @param sizeDays the length of each window in days
+     * @param hopDays the number of days between the starts of consecutive windows
+     * @param latenessDays how many days a record may trail the latest date seen
+     * @param empty a supplier of empty records, from which each window's total starts
+     * @param sink receives each window once it closes
+     * @param <T> the type of record
+     * @return the aggregator
+     * @throws IllegalArgumentException if the size or hop is not positive
+     */
+    public static <T extends Addable<T> & Scalable<T>> TimeBuckets<LocalDate, T> days(int sizeDays, int hopDays,
+            int latenessDays, Supplier<T> empty, Consumer<? super Window<LocalDate, T>> sink) {
+        return new TimeBuckets<>(new FixedScheme(sizeDays, hopDays, 0), LocalDate::toEpochDay, LocalDate::ofEpochDay,
+                latenessDays, empty, sink);
+    }
+
+    /**
+     * Creates an aggregator of tumbling buckets of a fixed duration, aligned to the epoch.  Sub-second precision is
+     * ignored.
+     *
+     * @param size the length of each window; a whole number of seconds
+     * @param lateness how long a record may trail the latest instant seen
+     * @param empty a supplier of empty records, from which each window's total starts
+     * @param sink receives each window once it closes
+     * @param <T> the type of record
+     * @return the aggregator
+     * @throws IllegalArgumentException if the size is not a positive whole number of seconds
+     */
+    public static <T extends Addable<T> & Scalable<T>> TimeBuckets<Instant, T> tumbling(Duration size,
+            Duration lateness, Supplier<T> empty, Consumer<? super Window<Instant, T>> sink) {
+        return hopping(size, size, lateness, empty, sink);
+    }
+
+    /**
+     * Creates an aggregator of hopping buckets of a fixed duration, aligned to the epoch.  Sub-second precision is
+     * ignored.
+     *
+     * @param size the length of each window; a whole number of seconds
+     * @param hop the time between the starts of consecutive windows; a whole number of seconds
+     * @param lateness how long a record may trail the latest instant seen
+     * @param empty a supplier of empty records, from which each window's total starts
+     * @param sink receives each window once it closes
+     * @param <T> the type of record
+     * @return the aggregator
+     * @throws IllegalArgumentException if the size or hop is not a positive whole number of seconds
+     */
+    public static <T extends Addable<T> & Scalable<T>> TimeBuckets<Instant, T> hopping(Duration size, Duration hop,
+            Duration lateness, Supplier<T> empty, Consumer<? super Window<Instant, T>> sink) {
+        if (size.getNano() != 0 || hop.getNano() != 0) {
+            throw new IllegalArgumentException("Window size and hop must be whole seconds");
+        }
+        return new TimeBuckets<>(new FixedScheme(size.getSeconds(), hop.getSeconds(), 0), Instant::getEpochSecond,
+                Instant::ofEpochSecond, lateness.getSeconds(), empty, sink);
+    }
+
+    /**
+     * Adds a record to every window containing the given time, first emitting any windows that the advancing
+     * watermark closes.
+     *
+     * @param time the time of the record
+     * @param record a nullable record; it is not modified
+     */
+    public void add(K time, T record) {
+        long t = toUnits.applyAsLong(time);
+        if (!started) {
+            started = true;
+            latest = t;
+            lowest = scheme.first(t - lateness);
+        } else if (t > latest) {
+            latest = t;
+            close(scheme.first(t - lateness));
+        }
+
+        long last = scheme.last(t);
+        if (last < lowest) {
+            lateCount++;
+            return;
+        }
+        if (record == null) return;
+        for (long w = Math.max(scheme.first(t), lowest); w <= last; w++) {
+            int slot = slot(w);
+            if (counts[slot] == 0) {
+                windows[slot] = w;
+                totals[slot] = empty.get();
+            }
+            totals[slot] = total(slot).plus(record);
+            counts[slot]++;
+        }
+    }
+
+    /**
+     * Emits every open window, in order, as at the end of the stream.
+     */
+    public void flush() {
+        if (!started) return;
+        close(lowest + totals.length);
+        started = false;
+    }
+
+    /**
+     * Returns the number of records dropped because all of their windows had already been emitted.
+     *
+     * @return the late record count
+     */
+    public long lateCount() {
+        return lateCount;
+    }
+
+    /**
+     * Emits the open windows below {@code newLowest} in order, and frees their slots.
+     */
+    private void close(long newLowest) {
+        // Only the windows in [lowest, lowest + capacity) can be open, however far the watermark jumps.
+        long end = Math.min(newLowest, lowest + totals.length);
+        for (long w = lowest; w < end; w++) {
+            int slot = (int) (w & (totals.length - 1));
+            if (counts[slot] == 0 || windows[slot] != w) continue;
+            Window<K, T> window = new Window<>(fromUnits.apply(scheme.start(w)), fromUnits.apply(scheme.end(w)),
+                    counts[slot], total(slot), empty);
+            totals[slot] = null;
+            counts[slot] = 0;
+            sink.accept(window);
+        }
+        lowest = Math.max(lowest, newLowest);
+    }
+
+    private int slot(long w) {
+        if (w - lowest >= totals.length) grow(w - lowest + 1);
+        return (int) (w & (totals.length - 1));
+    }
+
+    private void grow(long span) {
+        int capacity = totals.length;
+        while (capacity < span) capacity *= 2;
+        Object[] oldTotals = totals;
+        long[] oldCounts = counts;
+        long[] oldWindows = windows;
+        totals = new Object[capacity];
+        counts = new long[capacity];
+        windows = new long[capacity];
+        for (int i = 0; i < oldTotals.length; i++) {
+            if (oldCounts[i] == 0) continue;
+            int slot = (int) (oldWindows[i] & (capacity - 1));
+            totals[slot] = oldTotals[i];
+            counts[slot] = oldCounts[i];
+            windows[slot] = oldWindows[i];
+        }
+        Arrays.fill(oldTotals, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T total(int slot) {
+        return (T) totals[slot];
+    }
+
+    /**
+     * Maps times (in whole units) to the indexes of the windows containing them, and windows back to their bounds.
+     */
+    private interface Scheme {
+
+        /** Returns the earliest window containing time {@code t}. */
+        long first(long t);
+
+        /** Returns the latest window containing time {@code t}. */
+        long last(long t);
+
+        /** Returns the (inclusive) start of a window. */
+        long start(long window);
+
+        /** Returns the (exclusive) end of a window. */
+        long end(long window);
+    }
+
+    /**
+     * Windows of a fixed size starting every {@code hop} units from an origin.
+     */
+    private static final class FixedScheme implements Scheme {
+
+        private final long size;
+        private final long hop;
+        private final long origin;
+
+        FixedScheme(long size, long hop, long origin) {
+            if (size <= 0 || hop <= 0) throw new IllegalArgumentException("Window size and hop must be positive");
+            this.size = size;
+            this.hop = hop;
+            this.origin = origin;
+        }
+
+        @Override
+        public long first(long t) {
+            return Math.floorDiv(t - origin - size, hop) + 1;
+        }
+
+        @Override
+        public long last(long t) {
+            return Math.floorDiv(t - origin, hop);
+        }
+
+        @Override
+        public long start(long window) {
+            return origin + window * hop;
+        }
+
+        @Override
+        public long end(long window) {
+            return start(window) + size;
+        }
+    }
+
+    /**
+     * Calendar months, in epoch days, indexed by the number of months since January 1970.
+     */
+    private static final class MonthScheme implements Scheme {
+
+        @Override
+        public long first(long t) {
+            LocalDate date = LocalDate.ofEpochDay(t);
+            return (date.getYear() - 1970L) * 12 + date.getMonthValue() - 1;
+        }
+
+        @Override
+        public long last(long t) {
+            return first(t);
+        }
+
+        @Override
+        public long start(long window) {
+            return LocalDate.of(1970, 1, 1).plusMonths(window).toEpochDay();
+        }
+
+        @Override
+        public long end(long window) {
+            return start(window + 1);
+        }
+    }
+}
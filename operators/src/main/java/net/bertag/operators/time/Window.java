@@ -0,0 +1,81 @@
+package net.bertag.operators.time;
+
+import net.bertag.operators.api.Addable;
+import net.bertag.operators.api.Scalable;
+
+import java.util.function.Supplier;
+
+/**
+ * A closed time bucket emitted by {@link TimeBuckets}: its bounds, the number of (non-null) records added to it, and
+ * their total.  The window owns its total, so the recipient may keep or modify it.
+ *
+ * @param <K> the type of time (such as {@link java.time.LocalDate} or {@link java.time.Instant})
+ * @param <T> the type of record
+ */
+public final class Window<K, T extends Addable<T> & Scalable<T>> {
+
+    private final K start;
+    private final K end;
+    private final long count;
+    private final T total;
+    private final Supplier<T> empty;
+
+    Window(K start, K end, long count, T total, Supplier<T> empty) {
+        this.start = start;
+        this.end = end;
+        this.count = count;
+        this.total = total;
+        this.empty = empty;
+    }
+
+    /**
+     * Returns the start of the window.
+     *
+     * @return the (inclusive) start
+     */
+    public K start() {
+        return start;
+    }
+
+    /**
+     * Returns the end of the window.
+     *
+     * @return the (exclusive) end
+     */
+    public K end() {
+        return end;
+    }
+
+    /**
+     * Returns the number of non-null records added to the window.
+     *
+     * @return the record count
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the total of the records added to the window.
+     *
+     * @return the total
+     */
+    public T total() {
+        return total;
+    }
+
+    /**
+     * Returns the mean record of the window: a copy of the total scaled by {@code 1 / count}.  The total itself is
+     * not modified.
+     *
+     * @return the mean
+     */
+    public T average() {
+        return empty.get().plus(total).scale(1d / count);
+    }
+
+    @Override
+    public String toString() {
+        return "Window[" + start + ", " + end + ") count=" + count + " total=" + total;
+    }
+}
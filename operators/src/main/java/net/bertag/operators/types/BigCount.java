@@ -0,0 +1,222 @@
+package net.bertag.operators.types;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+import net.bertag.operators.api.Dividable;
+import net.bertag.operators.api.Multipliable;
+import net.bertag.operators.api.Scalable;
+import net.bertag.operators.api.Subtractable;
+
+import java.math.BigInteger;
+
+/**
+ * Immutable integer that never overflows.  Values that fit in a {@code long} are held as a primitive and combined with
+ * plain {@code long} arithmetic; only when {@link Math#addExact(long, long)} (or its siblings) signal an overflow is
+ * the result promoted to a {@link BigInteger}.  Results that fit in a {@code long} again are demoted, so a counter
+ * that briefly exceeds the {@code long} range does not stay on the slow path.
+ * <p>
+ * Division truncates toward zero, and scaling rounds to the nearest integer, as with {@link Ops#div(Long, Long)} and
+ * {@link Ops#scale(Long, Double)}.
+ */
+public final class BigCount extends Number implements Addable<BigCount>, Subtractable<BigCount>,
+        Multipliable<BigCount>, Dividable<BigCount>, Scalable<BigCount>, Comparable<BigCount> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Zero.
+     */
+    public static final BigCount ZERO = new BigCount(0L, null);
+
+    /**
+     * One.
+     */
+    public static final BigCount ONE = new BigCount(1L, null);
+
+    private final long small;
+    private final BigInteger big;
+
+    private BigCount(long small, BigInteger big) {
+        this.small = small;
+        this.big = big;
+    }
+
+    /**
+     * Creates a count from a {@code long}.
+     *
+     * @param value some value
+     * @return the count
+     */
+    public static BigCount valueOf(long value) {
+        return value == 0L ? ZERO : value == 1L ? ONE : new BigCount(value, null);
+    }
+
+    /**
+     * Creates a count from a {@link BigInteger}, using the compact {@code long} form if the value fits.
+     *
+     * @param value some value
+     * @return the count
+     */
+    public static BigCount valueOf(BigInteger value) {
+        return value.bitLength() < Long.SIZE ? valueOf(value.longValue()) : new BigCount(0L, value);
+    }
+
+    /**
+     * Determines if this count is held in its compact {@code long} form.
+     *
+     * @return true if the value fits in a {@code long}
+     */
+    public boolean isLong() {
+        return big == null;
+    }
+
+    /**
+     * Returns this count as a {@code long}.
+     *
+     * @return the value
+     * @throws ArithmeticException if the value does not fit in a {@code long}
+     */
+    public long longValueExact() {
+        if (big != null) throw new ArithmeticException("BigCount out of long range: " + big);
+        return small;
+    }
+
+    /**
+     * Returns this count as a {@link BigInteger}.
+     *
+     * @return the value
+     */
+    public BigInteger toBigInteger() {
+        return big != null ? big : BigInteger.valueOf(small);
+    }
+
+    /**
+     * Determines the sign of this count.
+     *
+     * @return -1, 0, or 1 as this count is negative, zero, or positive
+     */
+    public int signum() {
+        return big != null ? big.signum() : Long.signum(small);
+    }
+
+    /**
+     * Negates this count.
+     *
+     * @return the negated count
+     */
+    public BigCount negate() {
+        if (big == null && small != Long.MIN_VALUE) return valueOf(-small);
+        return valueOf(toBigInteger().negate());
+    }
+
+    @Override
+    public BigCount plus(BigCount other) {
+        if (big == null && other.big == null) {
+            try {
+                return valueOf(Math.addExact(small, other.small));
+            } catch (ArithmeticException e) {
+                // Fall through to the BigInteger path.
+            }
+        }
+        return valueOf(toBigInteger().add(other.toBigInteger()));
+    }
+
+    @Override
+    public BigCount minus(BigCount other) {
+        if (big == null && other.big == null) {
+            try {
+                return valueOf(Math.subtractExact(small, other.small));
+            } catch (ArithmeticException e) {
+                // Fall through to the BigInteger path.
+            }
+        }
+        return valueOf(toBigInteger().subtract(other.toBigInteger()));
+    }
+
+    @Override
+    public BigCount times(BigCount other) {
+        if (big == null && other.big == null) {
+            try {
+                return valueOf(Math.multiplyExact(small, other.small));
+            } catch (ArithmeticException e) {
+                // Fall through to the BigInteger path.
+            }
+        }
+        return valueOf(toBigInteger().multiply(other.toBigInteger()));
+    }
+
+    /**
+     * {@inheritDoc}  The quotient is truncated toward zero.
+     *
+     * @throws ArithmeticException if {@code other} is zero
+     */
+    @Override
+    public BigCount div(BigCount other) {
+        // Long.MIN_VALUE / -1 is the only long quotient that overflows.
+        if (big == null && other.big == null && !(small == Long.MIN_VALUE && other.small == -1L)) {
+            return valueOf(small / other.small);
+        }
+        return valueOf(toBigInteger().divide(other.toBigInteger()));
+    }
+
+    /**
+     * {@inheritDoc}  The result is rounded to the nearest integer as with {@link Math#round(double)}.
+     */
+    @Override
+    public BigCount scale(double factor) {
+        if (factor == 1d) return this;
+        if (big == null) {
+            try {
+                return valueOf(FixedPoint.scale(small, factor));
+            } catch (ArithmeticException e) {
+                // Fall through to the BigInteger path.
+            }
+        }
+        return valueOf(Ops.scale(toBigInteger(), factor));
+    }
+
+    @Override
+    public int intValue() {
+        return big != null ? big.intValue() : (int) small;
+    }
+
+    @Override
+    public long longValue() {
+        return big != null ? big.longValue() : small;
+    }
+
+    @Override
+    public float floatValue() {
+        return big != null ? big.floatValue() : (float) small;
+    }
+
+    @Override
+    public double doubleValue() {
+        return big != null ? big.doubleValue() : (double) small;
+    }
+
+    @Override
+    public int compareTo(BigCount other) {
+        if (big == null && other.big == null) return Long.compare(small, other.small);
+        return toBigInteger().compareTo(other.toBigInteger());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BigCount)) return false;
+        BigCount other = (BigCount) o;
+        // Instances are always normalized, so a promoted value never equals a compact one.
+        return big != null ? big.equals(other.big) : other.big == null && small == other.small;
+    }
+
+    @Override
+    public int hashCode() {
+        return big != null ? big.hashCode() : Long.hashCode(small);
+    }
+
+    @Override
+    public String toString() {
+        return big != null ? big.toString() : Long.toString(small);
+    }
+}
@@ -0,0 +1,252 @@
+package net.bertag.operators.types;
+
+import net.bertag.operators.api.Addable;
+import net.bertag.operators.api.Dividable;
+import net.bertag.operators.api.Multipliable;
+import net.bertag.operators.api.Scalable;
+import net.bertag.operators.api.Subtractable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable fixed-point decimal backed by a single {@code long} of unscaled units (e.g. cents) plus a scale between 0
+ * and {@link FixedPoint#MAX_SCALE}.  It is intended as a compact replacement for {@link BigDecimal} when amounts fit in
+ * 18-19 significant digits, such as monetary values.
+ * <p>
+ * When operands have different scales, the result takes the larger of the two.  Addition and subtraction are exact;
+ * multiplication and division round half-even to the result scale.  All operations throw {@link ArithmeticException}
+ * rather than silently overflowing.
+ * <p>
+ * As with {@link BigDecimal}, {@link #equals(Object)} considers the scale (so {@code 1.50} and {@code 1.5} are not
+ * equal) while {@link #compareTo(Decimal64)} does not.
+ */
+public final class Decimal64 extends Number implements Addable<Decimal64>, Subtractable<Decimal64>,
+        Multipliable<Decimal64>, Dividable<Decimal64>, Scalable<Decimal64>, Comparable<Decimal64> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Zero, at scale 0.
+     */
+    public static final Decimal64 ZERO = new Decimal64(0L, 0);
+
+    /**
+     * One, at scale 0.
+     */
+    public static final Decimal64 ONE = new Decimal64(1L, 0);
+
+    private final long unscaled;
+    private final int scale;
+
+    private Decimal64(long unscaled, int scale) {
+        this.unscaled = unscaled;
+        this.scale = scale;
+    }
+
+    /**
+     * Creates a decimal from an unscaled value and a scale, e.g. {@code of(1234, 2)} is {@code 12.34}.
+     *
+     * @param unscaled the unscaled value
+     * @param scale the number of digits to the right of the decimal point
+     * @return the decimal
+     * @throws IllegalArgumentException if the scale is out of range
+     */
+    public static Decimal64 of(long unscaled, int scale) {
+        return new Decimal64(unscaled, FixedPoint.checkScale(scale));
+    }
+
+    /**
+     * Creates a decimal representing a whole number.
+     *
+     * @param value some whole number
+     * @return the decimal, at scale 0
+     */
+    public static Decimal64 valueOf(long value) {
+        return value == 0L ? ZERO : value == 1L ? ONE : new Decimal64(value, 0);
+    }
+
+    /**
+     * Converts a {@link BigDecimal} into a decimal, keeping its scale.
+     *
+     * @param value some decimal
+     * @return the decimal
+     * @throws ArithmeticException if the unscaled value does not fit in a {@code long} or the scale is out of range
+     */
+    public static Decimal64 valueOf(BigDecimal value) {
+        BigDecimal normalized = value.scale() < 0 ? value.setScale(0) : value;
+        if (normalized.scale() > FixedPoint.MAX_SCALE) {
+            throw new ArithmeticException("Scale exceeds " + FixedPoint.MAX_SCALE + ": " + value);
+        }
+        return new Decimal64(normalized.unscaledValue().longValueExact(), normalized.scale());
+    }
+
+    /**
+     * Converts a {@link BigDecimal} into a decimal with the given scale, rounding half-even if necessary.
+     *
+     * @param value some decimal
+     * @param scale the desired scale
+     * @return the decimal
+     * @throws ArithmeticException if the unscaled value does not fit in a {@code long}
+     */
+    public static Decimal64 valueOf(BigDecimal value, int scale) {
+        FixedPoint.checkScale(scale);
+        return new Decimal64(value.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact(), scale);
+    }
+
+    /**
+     * Parses a decimal from its string form (e.g. {@code "12.34"}), keeping the number of fractional digits given.
+     *
+     * @param value some string
+     * @return the decimal
+     * @throws NumberFormatException if the string is not a valid number
+     * @throws ArithmeticException if the value does not fit
+     */
+    public static Decimal64 parse(String value) {
+        return valueOf(new BigDecimal(value));
+    }
+
+    /**
+     * Returns the unscaled value (e.g. {@code 1234} for {@code 12.34}).
+     *
+     * @return the unscaled value
+     */
+    public long unscaledValue() {
+        return unscaled;
+    }
+
+    /**
+     * Returns the number of digits to the right of the decimal point.
+     *
+     * @return the scale
+     */
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * Returns this value at a different scale, rounding half-even if digits are dropped.
+     *
+     * @param newScale the desired scale
+     * @return the rescaled decimal; {@code this} if the scale is unchanged
+     */
+    public Decimal64 withScale(int newScale) {
+        if (newScale == scale) return this;
+        return new Decimal64(FixedPoint.rescale(unscaled, scale, FixedPoint.checkScale(newScale)), newScale);
+    }
+
+    /**
+     * Determines the sign of this value.
+     *
+     * @return -1, 0, or 1 as this value is negative, zero, or positive
+     */
+    public int signum() {
+        return Long.signum(unscaled);
+    }
+
+    /**
+     * Negates this value.
+     *
+     * @return the negated decimal, at the same scale
+     */
+    public Decimal64 negate() {
+        return new Decimal64(Math.negateExact(unscaled), scale);
+    }
+
+    @Override
+    public Decimal64 plus(Decimal64 other) {
+        int s = Math.max(scale, other.scale);
+        return new Decimal64(FixedPoint.plus(unscaledAt(s), other.unscaledAt(s)), s);
+    }
+
+    @Override
+    public Decimal64 minus(Decimal64 other) {
+        int s = Math.max(scale, other.scale);
+        return new Decimal64(FixedPoint.minus(unscaledAt(s), other.unscaledAt(s)), s);
+    }
+
+    @Override
+    public Decimal64 times(Decimal64 other) {
+        int s = Math.max(scale, other.scale);
+        return new Decimal64(FixedPoint.times(unscaledAt(s), other.unscaledAt(s), s), s);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws ArithmeticException if {@code other} is zero
+     */
+    @Override
+    public Decimal64 div(Decimal64 other) {
+        int s = Math.max(scale, other.scale);
+        return new Decimal64(FixedPoint.div(unscaledAt(s), other.unscaledAt(s), s), s);
+    }
+
+    /**
+     * {@inheritDoc}  The result keeps this value's scale and is rounded as with {@link Math#round(double)}.
+     */
+    @Override
+    public Decimal64 scale(double factor) {
+        return factor == 1d ? this : new Decimal64(FixedPoint.scale(unscaled, factor), scale);
+    }
+
+    /**
+     * Converts this value into a {@link BigDecimal} with the same unscaled value and scale.
+     *
+     * @return the equivalent {@link BigDecimal}
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    @Override
+    public long longValue() {
+        return unscaled / FixedPoint.powerOfTen(scale);
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        // Both operands are exact doubles, so the quotient is correctly rounded.
+        if (Math.abs(unscaled) < (1L << 53)) return unscaled / (double) FixedPoint.powerOfTen(scale);
+        else return toBigDecimal().doubleValue();
+    }
+
+    @Override
+    public int compareTo(Decimal64 other) {
+        if (scale == other.scale) return Long.compare(unscaled, other.unscaled);
+        if (signum() != other.signum()) return Integer.compare(signum(), other.signum());
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Decimal64)) return false;
+        Decimal64 other = (Decimal64) o;
+        return unscaled == other.unscaled && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(unscaled) + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private long unscaledAt(int targetScale) {
+        return FixedPoint.rescale(unscaled, scale, targetScale);
+    }
+}
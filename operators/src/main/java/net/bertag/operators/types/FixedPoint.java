@@ -0,0 +1,186 @@
+package net.bertag.operators.types;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Overflow-checked arithmetic on unscaled {@code long} values carrying an implied decimal scale (i.e. a value {@code u}
+ * at scale {@code s} represents {@code u / 10^s}).  These are the primitive building blocks behind {@link Decimal64}
+ * and {@link net.bertag.operators.column.Decimal64Column}; they allocate nothing unless an intermediate result
+ * overflows a {@code long}, in which case the computation is retried with {@link BigDecimal}.  Every method throws
+ * {@link ArithmeticException} if the final result cannot be represented.
+ */
+public final class FixedPoint {
+
+    /**
+     * The largest supported scale; {@code 10^18} is the largest power of ten that fits in a {@code long}.
+     */
+    public static final int MAX_SCALE = 18;
+
+    private static final long EXACT_DOUBLE_BOUND = 1L << 53;
+    private static final BigDecimal HALF = BigDecimal.valueOf(5, 1);
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Returns {@code 10^exponent}.
+     *
+     * @param exponent an exponent between 0 and {@link #MAX_SCALE}
+     * @return the power of ten
+     */
+    public static long powerOfTen(int exponent) {
+        return POWERS_OF_TEN[exponent];
+    }
+
+    /**
+     * Verifies that a scale is supported.
+     *
+     * @param scale some scale
+     * @return the scale
+     * @throws IllegalArgumentException if the scale is negative or greater than {@link #MAX_SCALE}
+     */
+    public static int checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Scale must be between 0 and " + MAX_SCALE + ": " + scale);
+        }
+        return scale;
+    }
+
+    /**
+     * Converts an unscaled value from one scale to another, rounding half-even if digits are dropped.
+     *
+     * @param unscaled the unscaled value
+     * @param fromScale the scale of {@code unscaled}
+     * @param toScale the desired scale
+     * @return the unscaled value at {@code toScale}
+     */
+    public static long rescale(long unscaled, int fromScale, int toScale) {
+        if (fromScale == toScale) return unscaled;
+        else if (fromScale < toScale) return Math.multiplyExact(unscaled, POWERS_OF_TEN[toScale - fromScale]);
+        else return divideHalfEven(unscaled, POWERS_OF_TEN[fromScale - toScale]);
+    }
+
+    /**
+     * Adds two unscaled values sharing a scale.
+     *
+     * @param a some unscaled value
+     * @param b another unscaled value at the same scale
+     * @return the unscaled sum at the same scale
+     */
+    public static long plus(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Subtracts two unscaled values sharing a scale.
+     *
+     * @param a some unscaled value
+     * @param b another unscaled value at the same scale
+     * @return the unscaled difference at the same scale
+     */
+    public static long minus(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Multiplies two unscaled values sharing a scale, rounding the product half-even back to that scale.
+     *
+     * @param a some unscaled value
+     * @param b another unscaled value at the same scale
+     * @param scale the shared scale
+     * @return the unscaled product at the same scale
+     */
+    public static long times(long a, long b, int scale) {
+        long product;
+        try {
+            product = Math.multiplyExact(a, b);
+        } catch (ArithmeticException e) {
+            return slowTimes(a, b, scale);
+        }
+        return scale == 0 ? product : divideHalfEven(product, POWERS_OF_TEN[scale]);
+    }
+
+    /**
+     * Divides two unscaled values sharing a scale, rounding the quotient half-even to that scale.
+     *
+     * @param a some unscaled value
+     * @param b another unscaled value at the same scale
+     * @param scale the shared scale
+     * @return the unscaled quotient at the same scale
+     * @throws ArithmeticException if {@code b} is zero
+     */
+    public static long div(long a, long b, int scale) {
+        if (b == 0) throw new ArithmeticException("Division by zero");
+        if (b == Long.MIN_VALUE) return slowDiv(a, b, scale);
+
+        long numerator;
+        try {
+            numerator = Math.multiplyExact(a, POWERS_OF_TEN[scale]);
+        } catch (ArithmeticException e) {
+            return slowDiv(a, b, scale);
+        }
+        return divideHalfEven(numerator, b);
+    }
+
+    /**
+     * Scales an unscaled value by a factor, rounding to the nearest unit in the last place (ties toward positive
+     * infinity, as with {@link Math#round(double)}).
+     *
+     * @param unscaled some unscaled value
+     * @param factor the scale factor
+     * @return the unscaled result at the same scale
+     */
+    public static long scale(long unscaled, double factor) {
+        if (factor == 1d) return unscaled;
+
+        double product = unscaled * factor;
+        if (unscaled > -EXACT_DOUBLE_BOUND && unscaled < EXACT_DOUBLE_BOUND && Math.abs(product) < 0x1p62) {
+            return Math.round(product);
+        }
+        BigDecimal exact = BigDecimal.valueOf(unscaled).multiply(BigDecimal.valueOf(factor));
+        return exact.add(HALF).setScale(0, RoundingMode.FLOOR).longValueExact();
+    }
+
+    /**
+     * Divides two longs, rounding the quotient half-even.
+     *
+     * @param n the numerator
+     * @param d the (non-zero) denominator
+     * @return the rounded quotient
+     */
+    static long divideHalfEven(long n, long d) {
+        // Long.MIN_VALUE / -1 silently overflows back to Long.MIN_VALUE.
+        if (d == -1L) return Math.negateExact(n);
+        long q = n / d;
+        long r = n % d;
+        if (r == 0) return q;
+
+        // Compare |r| against |d| - |r| rather than 2|r| against |d| so that nothing can overflow.
+        long absR = Math.abs(r);
+        long cmp = absR - (Math.abs(d) - absR);
+        if (cmp > 0 || (cmp == 0 && (q & 1) != 0)) {
+            return (n ^ d) < 0 ? q - 1 : q + 1;
+        }
+        return q;
+    }
+
+    private static long slowTimes(long a, long b, int scale) {
+        BigDecimal product = BigDecimal.valueOf(a, scale).multiply(BigDecimal.valueOf(b, scale));
+        return product.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    private static long slowDiv(long a, long b, int scale) {
+        BigDecimal quotient = BigDecimal.valueOf(a, scale).divide(BigDecimal.valueOf(b, scale), scale,
+                RoundingMode.HALF_EVEN);
+        return quotient.unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,186 @@
+package net.bertag.operators.view;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.api.Addable;
+import net.bertag.operators.api.Dividable;
+import net.bertag.operators.api.Multipliable;
+import net.bertag.operators.api.Scalable;
+import net.bertag.operators.api.Subtractable;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable, lazily scaled view of a {@link Scalable} value.  Scaling a view only multiplies its pending factor, so a
+ * chain of normalizations such as {@code view.scale(1d / 7).scale(100)} touches no fields and copies nothing; the value
+ * is copied (if it is mutable) and scaled once, by the combined factor, only when it is {@linkplain #get()
+ * materialized}, which happens when it is read or combined with another value by a non-scale operation.  The
+ * materialized value is cached, so reading a view repeatedly scales it only once.
+ * <p>
+ * This replaces the {@code value.copy().scale(factor)} pattern:
+ * <pre>{@code
+ * ScaledView<ReadingLog> average = ScaledView.of(weeklyLog, ReadingLog::copy).scale(1d / 7);
+ * ReadingLog result = average.get();  // one copy, one scale
+ * }</pre>
+ * Because the factors are multiplied before scaling, the result may differ in the last bit from scaling step by step,
+ * and integral fields are rounded once rather than after every step.
+ *
+ * @param <T> the type of value
+ */
+public final class ScaledView<T extends Scalable<T>> implements Scalable<ScaledView<T>> {
+
+    private final T base;
+    private final UnaryOperator<T> copy;
+    private final double factor;
+    private volatile T materialized;
+
+    private ScaledView(T base, UnaryOperator<T> copy, double factor) {
+        this.base = base;
+        this.copy = copy;
+        this.factor = factor;
+    }
+
+    /**
+     * Creates an unscaled view of an immutable value, whose {@code scale} method returns a new instance.
+     *
+     * @param base some value
+     * @param <T> the type of value
+     * @return the view
+     */
+    public static <T extends Scalable<T>> ScaledView<T> of(T base) {
+        return of(base, UnaryOperator.identity());
+    }
+
+    /**
+     * Creates an unscaled view of a mutable value, whose {@code scale} method modifies it in place.  The value is
+     * copied when the view is materialized, so the base value is never modified.
+     *
+     * @param base some value
+     * @param copy copies a value
+     * @param <T> the type of value
+     * @return the view
+     */
+    public static <T extends Scalable<T>> ScaledView<T> of(T base, UnaryOperator<T> copy) {
+        return new ScaledView<>(Objects.requireNonNull(base, "base"), copy, 1d);
+    }
+
+    /**
+     * Returns a view with the factor multiplied by another; neither the base value nor this view is changed.
+     *
+     * @param factor the scale factor
+     * @return the new view
+     */
+    @Override
+    public ScaledView<T> scale(double factor) {
+        return new ScaledView<>(base, copy, this.factor * factor);
+    }
+
+    /**
+     * Returns the combined pending factor.
+     *
+     * @return the factor
+     */
+    public double factor() {
+        return factor;
+    }
+
+    /**
+     * Returns the unscaled value.
+     *
+     * @return the base value
+     */
+    public T base() {
+        return base;
+    }
+
+    /**
+     * Materializes the view: copies the base value and scales it once by the combined factor.  If the factor is 1, the
+     * copy is returned unscaled.  The result is cached, so every call on this view returns the same instance; a mutable
+     * result must therefore not be modified (copy it first).
+     *
+     * @return the scaled value
+     */
+    public T get() {
+        T value = materialized;
+        if (value == null) {
+            // Racing threads may each materialize the view, but they compute equal values and any one can be kept.
+            value = copy.apply(base);
+            if (factor != 1d) value = value.scale(factor);
+            materialized = value;
+        }
+        return value;
+    }
+
+    /**
+     * Materializes the view (see {@link #get()}) and reads from the result, which the reader must not modify.
+     *
+     * @param reader reads some field of the value
+     * @param <R> the type of result
+     * @return the result
+     */
+    public <R> R read(Function<? super T, R> reader) {
+        return reader.apply(get());
+    }
+
+    /**
+     * Adds two views with {@link Ops#plus(Addable, Addable)}, materializing both.  Mutable values are copied from the
+     * cache rather than scaled again, so that the operation cannot modify it.
+     *
+     * @param a some nullable view
+     * @param b another nullable view
+     * @param <T> the type of value
+     * @return the sum as described, or null if both views are null
+     */
+    public static <T extends Scalable<T> & Addable<T>> T plus(ScaledView<T> a, ScaledView<T> b) {
+        return Ops.plus(materialize(a), materialize(b));
+    }
+
+    /**
+     * Subtracts the second view from the first with {@link Ops#minus(Subtractable, Subtractable)}, materializing both.
+     * As with {@link #plus(ScaledView, ScaledView)}, the cached values are never modified.
+     *
+     * @param a some nullable view
+     * @param b another nullable view
+     * @param <T> the type of value
+     * @return the difference as described, or null if both views are null
+     */
+    public static <T extends Scalable<T> & Subtractable<T>> T minus(ScaledView<T> a, ScaledView<T> b) {
+        return Ops.minus(materialize(a), materialize(b));
+    }
+
+    /**
+     * Multiplies two views with {@link Ops#times(Multipliable, Multipliable)}, materializing both.  As with
+     * {@link #plus(ScaledView, ScaledView)}, the cached values are never modified.
+     *
+     * @param a some nullable view
+     * @param b another nullable view
+     * @param <T> the type of value
+     * @return the product as described, or null if both views are null
+     */
+    public static <T extends Scalable<T> & Multipliable<T>> T times(ScaledView<T> a, ScaledView<T> b) {
+        return Ops.times(materialize(a), materialize(b));
+    }
+
+    /**
+     * Divides the first view by the second with {@link Ops#div(Dividable, Dividable)}, materializing both.  As with
+     * {@link #plus(ScaledView, ScaledView)}, the cached values are never modified.
+     *
+     * @param a some nullable view
+     * @param b another nullable view
+     * @param <T> the type of value
+     * @return the quotient as described, or null if both views are null
+     */
+    public static <T extends Scalable<T> & Dividable<T>> T div(ScaledView<T> a, ScaledView<T> b) {
+        return Ops.div(materialize(a), materialize(b));
+    }
+
+    @Override
+    public String toString() {
+        return base + " * " + factor;
+    }
+
+    private static <T extends Scalable<T>> T materialize(ScaledView<T> view) {
+        return view != null ? view.copy.apply(view.get()) : null;
+    }
+}
@@ -5,6 +5,10 @@ import net.bertag.operators.api.Dividable
 import net.bertag.operators.api.Multipliable
 import net.bertag.operators.api.Scalable
 import net.bertag.operators.api.Subtractable
+import net.bertag.operators.types.BigCount
+import net.bertag.operators.types.Decimal64
+import java.math.BigDecimal
+import java.math.BigInteger
 import java.util.function.BiFunction
 import java.util.function.BinaryOperator
 
@@ -58,6 +62,46 @@ operator fun Float?.plus(other: Float?): Float? = Ops.plus(this, other)
  */
 operator fun Double?.plus(other: Double?): Double? = Ops.plus(this, other)
 
+/**
+ * Adds the two numbers together (`a + b`) if at least one input is non-null (substituting 0 for the
+ * other input if it is null), or returning null if both inputs are null.
+ *
+ * @receiver some nullable number
+ * @param other another nullable number
+ * @return the exact sum as described
+ */
+operator fun BigDecimal?.plus(other: BigDecimal?): BigDecimal? = Ops.plus(this, other)
+
+/**
+ * Adds the two numbers together (`a + b`) if at least one input is non-null (substituting 0 for the
+ * other input if it is null), or returning null if both inputs are null.
+ *
+ * @receiver some nullable number
+ * @param other another nullable number
+ * @return the sum as described
+ */
+operator fun BigInteger?.plus(other: BigInteger?): BigInteger? = Ops.plus(this, other)
+
+/**
+ * Adds the two counts together (`a + b`) if at least one input is non-null (substituting 0 for the
+ * other input if it is null), or returning null if both inputs are null.  The result never overflows.
+ *
+ * @receiver some nullable count
+ * @param other another nullable count
+ * @return the sum as described
+ */
+operator fun BigCount?.plus(other: BigCount?): BigCount? = Ops.plus(this, other)
+
+/**
+ * Adds the two decimals together (`a + b`) if at least one input is non-null (substituting 0 for the
+ * other input if it is null), or returning null if both inputs are null.
+ *
+ * @receiver some nullable decimal
+ * @param other another nullable decimal
+ * @return the sum as described
+ */
+operator fun Decimal64?.plus(other: Decimal64?): Decimal64? = Ops.plus(this, other)
+
 /**
  * Adds the two objects together (`a + b`) using [Addable.plus] if both inputs are non-null; if either input is null,
  * the other input is returned.
@@ -119,6 +163,46 @@ operator fun Float?.minus(other: Float?): Float? = Ops.minus(this, other)
  */
 operator fun Double?.minus(other: Double?): Double? = Ops.minus(this, other)
 
+/**
+ * Subtracts the second number from the first (`a - b`) if at least one input is non-null (substituting
+ * 0 for the other input if it is null), or null if both inputs are null.
+ *
+ * @receiver some nullable number
+ * @param other another nullable number
+ * @return the exact difference as described
+ */
+operator fun BigDecimal?.minus(other: BigDecimal?): BigDecimal? = Ops.minus(this, other)
+
+/**
+ * Subtracts the second number from the first (`a - b`) if at least one input is non-null (substituting
+ * 0 for the other input if it is null), or null if both inputs are null.
+ *
+ * @receiver some nullable number
+ * @param other another nullable number
+ * @return the difference as described
+ */
+operator fun BigInteger?.minus(other: BigInteger?): BigInteger? = Ops.minus(this, other)
+
+/**
+ * Subtracts the second count from the first (`a - b`) if at least one input is non-null (substituting
+ * 0 for the other input if it is null), or null if both inputs are null.  The result never overflows.
+ *
+ * @receiver some nullable count
+ * @param other another nullable count
+ * @return the difference as described
+ */
+operator fun BigCount?.minus(other: BigCount?): BigCount? = Ops.minus(this, other)
+
+/**
+ * Subtracts the second decimal from the first (`a - b`) if at least one input is non-null (substituting
+ * 0 for the other input if it is null), or null if both inputs are null.
+ *
+ * @receiver some nullable decimal
+ * @param other another nullable decimal
+ * @return the difference as described
+ */
+operator fun Decimal64?.minus(other: Decimal64?): Decimal64? = Ops.minus(this, other)
+
 /**
  * Subtracts the second object from the first (`a - b`) using [Subtractable.minus] if both inputs are non-null; if
  * either input is null, the other input is returned.
@@ -180,6 +264,46 @@ operator fun Float?.times(other: Float?): Float? = Ops.times(this, other)
  */
 operator fun Double?.times(other: Double?): Double? = Ops.times(this, other)
 
+/**
+ * Multiplies the two numbers together (`a * b`) if at least one input is non-null (substituting 1 for
+ * the other input if it is null), or null if both inputs are null.
+ *
+ * @receiver some nullable number
+ * @param other another nullable number
+ * @return the exact product as described
+ */
+operator fun BigDecimal?.times(other: BigDecimal?): BigDecimal? = Ops.times(this, other)
+
+/**
+ * Multiplies the two numbers together (`a * b`) if at least one input is non-null (substituting 1 for
+ * the other input if it is null), or null if both inputs are null.
+ *
+ * @receiver some nullable number
+ * @param other another nullable number
+ * @return the product as described
+ */
+operator fun BigInteger?.times(other: BigInteger?): BigInteger? = Ops.times(this, other)
+
+/**
+ * Multiplies the two counts together (`a * b`) if at least one input is non-null (substituting 1 for
+ * the other input if it is null), or null if both inputs are null.  The result never overflows.
+ *
+ * @receiver some nullable count
+ * @param other another nullable count
+ * @return the product as described
+ */
+operator fun BigCount?.times(other: BigCount?): BigCount? = Ops.times(this, other)
+
+/**
+ * Multiplies the two decimals together (`a * b`) if at least one input is non-null (substituting 1 for
+ * the other input if it is null), or null if both inputs are null.
+ *
+ * @receiver some nullable decimal
+ * @param other another nullable decimal
+ * @return the product as described, rounded half-even to the larger scale
+ */
+operator fun Decimal64?.times(other: Decimal64?): Decimal64? = Ops.times(this, other)
+
 /**
  * Multiplies the two objects together (`a * b`) using [Multipliable.times] if both inputs are non-null; if either input
  * is null, the other input is returned.
@@ -241,6 +365,48 @@ operator fun Float?.div(other: Float?): Float? = Ops.div(this, other)
  */
 operator fun Double?.div(other: Double?): Double? = Ops.div(this, other)
 
+/**
+ * Divides the second number from the first (`a / b`) if at least one input is non-null (substituting
+ * 1 for the other input if it is null), or null if both inputs are null.  This is deliberately not the
+ * `div` operator, since that would shadow the standard library's `BigDecimal.div`, which keeps the
+ * scale of the dividend rather than rounding to [java.math.MathContext.DECIMAL128].
+ *
+ * @receiver some nullable number
+ * @param other another nullable number
+ * @return the quotient as described, rounded to [java.math.MathContext.DECIMAL128]
+ */
+infix fun BigDecimal?.divRounded(other: BigDecimal?): BigDecimal? = Ops.div(this, other)
+
+/**
+ * Divides the second number from the first (`a / b`) if at least one input is non-null (substituting
+ * 1 for the other input if it is null), or null if both inputs are null.
+ *
+ * @receiver some nullable number
+ * @param other another nullable number
+ * @return the quotient as described
+ */
+operator fun BigInteger?.div(other: BigInteger?): BigInteger? = Ops.div(this, other)
+
+/**
+ * Divides the second count from the first (`a / b`) if at least one input is non-null (substituting
+ * 1 for the other input if it is null), or null if both inputs are null.
+ *
+ * @receiver some nullable count
+ * @param other another nullable count
+ * @return the (truncated) quotient as described
+ */
+operator fun BigCount?.div(other: BigCount?): BigCount? = Ops.div(this, other)
+
+/**
+ * Divides the second decimal from the first (`a / b`) if at least one input is non-null (substituting
+ * 1 for the other input if it is null), or null if both inputs are null.
+ *
+ * @receiver some nullable decimal
+ * @param other another nullable decimal
+ * @return the quotient as described, rounded half-even to the larger scale
+ */
+operator fun Decimal64?.div(other: Decimal64?): Decimal64? = Ops.div(this, other)
+
 /**
  * Divides the second object from the first (`a / b`) using [Dividable.div] if both inputs are non-null; if either input
  * is null, the other input is returned.
@@ -302,6 +468,46 @@ fun Float?.scale(factor: Double?): Float? = Ops.scale(this, factor)
  */
 fun Double?.scale(factor: Double?): Double? = Ops.scale(this, factor)
 
+/**
+ * Scales a number by a given factor if both are non-null.  If the receiver (Kotlin) — or first argument (Java) — is
+ * null, null is returned; if the factor is null, no scaling will be applied.
+ *
+ * @receiver some nullable number
+ * @param factor a nullable factor
+ * @return the exact scaled result as described
+ */
+fun BigDecimal?.scale(factor: Double?): BigDecimal? = Ops.scale(this, factor)
+
+/**
+ * Scales a number by a given factor if both are non-null.  If the receiver (Kotlin) — or first argument (Java) — is
+ * null, null is returned; if the factor is null, no scaling will be applied.
+ *
+ * @receiver some nullable number
+ * @param factor a nullable factor
+ * @return the scaled result as described, rounded to the nearest integer
+ */
+fun BigInteger?.scale(factor: Double?): BigInteger? = Ops.scale(this, factor)
+
+/**
+ * Scales a count by a given factor if both are non-null.  If the receiver (Kotlin) — or first argument (Java) — is
+ * null, null is returned; if the factor is null, no scaling will be applied.
+ *
+ * @receiver some nullable count
+ * @param factor a nullable factor
+ * @return the scaled result as described, rounded to the nearest integer
+ */
+fun BigCount?.scale(factor: Double?): BigCount? = Ops.scale(this, factor)
+
+/**
+ * Scales a decimal by a given factor if both are non-null.  If the receiver (Kotlin) — or first argument (Java) —
+ * is null, null is returned; if the factor is null, no scaling will be applied.
+ *
+ * @receiver some nullable decimal
+ * @param factor a nullable factor
+ * @return the scaled result as described, at the receiver's scale
+ */
+fun Decimal64?.scale(factor: Double?): Decimal64? = Ops.scale(this, factor)
+
 /**
  * Scales a [Scalable] object by a given factor if both are non-null.  If the receiver (Kotlin) — or first argument
  * (Java) — is null, null is returned; if the factor is null, no scaling will be applied.
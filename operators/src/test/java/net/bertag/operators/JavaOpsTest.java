@@ -1,5 +1,6 @@
 package net.bertag.operators;
 
+import net.bertag.operators.stats.Histogram;
 import net.bertag.operators.test.MyData;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,9 @@ import org.junit.jupiter.params.provider.ArgumentsProvider;
 import org.junit.jupiter.params.provider.ArgumentsSource;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
@@ -102,6 +106,39 @@ public class JavaOpsTest {
             }
         }
 
+        @ParameterizedTest
+        @CsvSource({", , , ", "1.1, , 1.1", ", 2.2, 2.2", "1.1, 2.2, 3.3"})
+        void shouldAddNullableBigDecimal(BigDecimal a, BigDecimal b, BigDecimal expectedResult) {
+            // GIVEN two nullable BigDecimals `a` and `b`.
+            // WHEN plus(a, b) is called...
+            BigDecimal result = Ops.plus(a, b);
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , , ", "1.11, , 1.1", ", 2.22, 2.2", "1.11, 2.22, 3.3"})
+        void shouldAddNullableBigDecimalWithContext(BigDecimal a, BigDecimal b, BigDecimal expectedResult) {
+            // GIVEN two nullable BigDecimals `a` and `b`.
+            // WHEN plus(a, b, mc) is called...
+            BigDecimal result = Ops.plus(a, b, new MathContext(2));
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , , ", "1, , 1", ", 2, 2", "1, 2, 3", "9223372036854775807, 1, 9223372036854775808"})
+        void shouldAddNullableBigInteger(BigInteger a, BigInteger b, BigInteger expectedResult) {
+            // GIVEN two nullable BigIntegers `a` and `b`.
+            // WHEN plus(a, b) is called...
+            BigInteger result = Ops.plus(a, b);
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
         @ParameterizedTest
         @ArgumentsSource(AddObjectArgProvider.class)
         void shouldAddNullableObject(MyData a, MyData b, MyData expectedResult) {
@@ -190,6 +227,39 @@ public class JavaOpsTest {
             }
         }
 
+        @ParameterizedTest
+        @CsvSource({", , , ", "1.1, , 1.1", ", 2.2, -2.2", "1.1, 2.2, -1.1"})
+        void shouldSubtractNullableBigDecimal(BigDecimal a, BigDecimal b, BigDecimal expectedResult) {
+            // GIVEN two nullable BigDecimals `a` and `b`.
+            // WHEN minus(a, b) is called...
+            BigDecimal result = Ops.minus(a, b);
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , , ", "1.11, , 1.1", ", 2.22, -2.2", "1.11, 2.22, -1.1"})
+        void shouldSubtractNullableBigDecimalWithContext(BigDecimal a, BigDecimal b, BigDecimal expectedResult) {
+            // GIVEN two nullable BigDecimals `a` and `b`.
+            // WHEN minus(a, b, mc) is called...
+            BigDecimal result = Ops.minus(a, b, new MathContext(2));
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , , ", "1, , 1", ", 2, -2", "1, 2, -1", "-9223372036854775808, 1, -9223372036854775809"})
+        void shouldSubtractNullableBigInteger(BigInteger a, BigInteger b, BigInteger expectedResult) {
+            // GIVEN two nullable BigIntegers `a` and `b`.
+            // WHEN minus(a, b) is called...
+            BigInteger result = Ops.minus(a, b);
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
         @ParameterizedTest
         @ArgumentsSource(SubtractObjectArgProvider.class)
         void shouldSubtractNullableObject(MyData a, MyData b, MyData expectedResult) {
@@ -278,6 +348,39 @@ public class JavaOpsTest {
             }
         }
 
+        @ParameterizedTest
+        @CsvSource({", , , ", "1.5, , 1.5", ", 2.5, 2.5", "1.5, 2.5, 3.75"})
+        void shouldMultiplyNullableBigDecimal(BigDecimal a, BigDecimal b, BigDecimal expectedResult) {
+            // GIVEN two nullable BigDecimals `a` and `b`.
+            // WHEN times(a, b) is called...
+            BigDecimal result = Ops.times(a, b);
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , , ", "1.55, , 1.6", ", 2.55, 2.6", "1.5, 2.5, 3.8"})
+        void shouldMultiplyNullableBigDecimalWithContext(BigDecimal a, BigDecimal b, BigDecimal expectedResult) {
+            // GIVEN two nullable BigDecimals `a` and `b`.
+            // WHEN times(a, b, mc) is called...
+            BigDecimal result = Ops.times(a, b, new MathContext(2));
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , , ", "1, , 1", ", 2, 2", "3, 4, 12", "4294967296, 4294967296, 18446744073709551616"})
+        void shouldMultiplyNullableBigInteger(BigInteger a, BigInteger b, BigInteger expectedResult) {
+            // GIVEN two nullable BigIntegers `a` and `b`.
+            // WHEN times(a, b) is called...
+            BigInteger result = Ops.times(a, b);
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
         @ParameterizedTest
         @ArgumentsSource(MultiplyObjectArgProvider.class)
         void shouldMultiplyNullableObject(MyData a, MyData b, MyData expectedResult) {
@@ -366,6 +469,39 @@ public class JavaOpsTest {
             }
         }
 
+        @ParameterizedTest
+        @CsvSource({", , , ", "1.5, , 1.5", ", 2.5, 0.4", "3.75, 2.5, 1.5"})
+        void shouldDivideNullableBigDecimal(BigDecimal a, BigDecimal b, BigDecimal expectedResult) {
+            // GIVEN two nullable BigDecimals `a` and `b`.
+            // WHEN div(a, b) is called...
+            BigDecimal result = Ops.div(a, b);
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , , ", "1.55, , 1.6", ", 3, 0.33", "2, 3, 0.67"})
+        void shouldDivideNullableBigDecimalWithContext(BigDecimal a, BigDecimal b, BigDecimal expectedResult) {
+            // GIVEN two nullable BigDecimals `a` and `b`.
+            // WHEN div(a, b, mc) is called...
+            BigDecimal result = Ops.div(a, b, new MathContext(2));
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , , ", "1, , 1", ", 2, 0", "5, 4, 1", "18446744073709551616, 2, 9223372036854775808"})
+        void shouldDivideNullableBigInteger(BigInteger a, BigInteger b, BigInteger expectedResult) {
+            // GIVEN two nullable BigIntegers `a` and `b`.
+            // WHEN div(a, b) is called...
+            BigInteger result = Ops.div(a, b);
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
         @ParameterizedTest
         @ArgumentsSource(DivideObjectArgProvider.class)
         void shouldDivideNullableObject(MyData a, MyData b, MyData expectedResult) {
@@ -454,6 +590,35 @@ public class JavaOpsTest {
             }
         }
 
+        @ParameterizedTest
+        @CsvSource({", , , ", "1.1, , 1.1", ", 2.0, ", "3.1, 1.5, 4.65", "3.1, 2.0, 6.2"})
+        void shouldScaleNullableBigDecimal(BigDecimal obj, Double factor, BigDecimal expectedResult) {
+            // GIVEN a nullable object `obj` and a factor.
+            // WHEN scale(obj, factor) is called...
+            BigDecimal result = Ops.scale(obj, factor);
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
+        @ParameterizedTest
+        @CsvSource({
+                ", , , ",
+                "1, , 1",
+                ", 2.0, ",
+                "3, 1.5, 5",
+                "-3, 1.5, -4",
+                "36893488147419103232, 1.5, 55340232221128654848"
+        })
+        void shouldScaleNullableBigInteger(BigInteger obj, Double factor, BigInteger expectedResult) {
+            // GIVEN a nullable object `obj` and a factor.
+            // WHEN scale(obj, factor) is called...
+            BigInteger result = Ops.scale(obj, factor);
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult);
+        }
+
         @ParameterizedTest
         @ArgumentsSource(ScalableObjectArgProvider.class)
         void shouldScaleNullableObject(MyData obj, Double factor, MyData expectedResult) {
@@ -479,6 +644,72 @@ public class JavaOpsTest {
         }
     }
 
+    @Nested
+    class LinearCombinationTest {
+
+        @Test
+        void shouldSkipNullsInWeightedSumAndMean() {
+            // GIVEN nullable values and a weight for each.
+            Double[] values = {1.0, null, 3.0, 4.0};
+            double[] weights = {0.5, 10, 2, 1};
+
+            // WHEN the weighted sum and mean are computed...
+            // THEN null values should add nothing and carry no weight, and all-null inputs should give null.
+            assertThat(Ops.linearCombination(values, weights)).isEqualTo(10.5);
+            assertThat(Ops.weightedMean(values, weights)).isEqualTo(10.5 / 3.5);
+            assertNull(Ops.linearCombination(new Double[] {null, null}, new double[] {1, 2}));
+            assertNull(Ops.weightedMean(new Double[] {null}, new double[] {1}));
+        }
+
+        @Test
+        void shouldRoundTheExactWeightedSumOnce() {
+            // GIVEN products whose rounding errors would be lost by ordinary multiply-then-add.
+            double a = 1 + 0x1p-30;
+            Double[] values = {a, -1.0};
+            double[] weights = {a, 1 + 0x1p-29};
+
+            // WHEN the weighted sum is computed...
+            // THEN it should equal the exact result, a*a - (1 + 2^-29) = 2^-60.
+            assertThat(Ops.linearCombination(values, weights)).isEqualTo(0x1p-60);
+        }
+
+        @Test
+        void shouldCombineObjectsWithNullsExcludedFromTheWeights() {
+            // GIVEN nullable objects with repeated weights.
+            List<MyData> values = Arrays.asList(data1, null, data2, new MyData("key3", 5.0));
+            double[] weights = {2, 7, 2, 0.5};
+
+            // WHEN the weighted sum and mean are computed...
+            MyData sum = Ops.linearCombination(values, weights);
+            MyData mean = Ops.weightedMean(values, weights);
+
+            // THEN they should match the fields' weighted sum and mean over the non-null values only.
+            assertThat(sum.getSomeDouble()).isEqualTo(2 * 2.0 + 2 * 3.0 + 0.5 * 5.0);
+            assertThat(mean.getSomeDouble()).isCloseTo(12.5 / 4.5, within(1e-12));
+            assertNull(Ops.weightedMean(Arrays.<MyData>asList(null, null), new double[] {1, 1}));
+        }
+
+        @Test
+        void shouldNotModifyMutableValuesWhenGivenACopyFunction() {
+            // GIVEN histograms, whose plus and scale modify them in place.
+            Histogram first = new Histogram().record(10, 4);
+            Histogram second = new Histogram().record(20, 2);
+            List<Histogram> values = Arrays.asList(first, null, second);
+            double[] weights = {0.5, 3, 2};
+
+            // WHEN they are combined with a copy function...
+            Histogram sum = Ops.linearCombination(values, weights, h -> new Histogram().plus(h));
+            Histogram mean = Ops.weightedMean(values, weights, h -> new Histogram().plus(h));
+
+            // THEN the results should be weighted, and the inputs unchanged.
+            assertThat(sum.countAt(10)).isEqualTo(2);
+            assertThat(sum.countAt(20)).isEqualTo(4);
+            assertThat(mean.countAt(20)).isEqualTo(2);
+            assertThat(first.count()).isEqualTo(4);
+            assertThat(second.count()).isEqualTo(2);
+        }
+    }
+
     @Nested
     class MapTest {
 
@@ -0,0 +1,171 @@
+package net.bertag.operators.checkpoint;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.column.NullableDoubleColumn;
+import net.bertag.operators.sum.CompensatedSum;
+import net.bertag.operators.sum.ExactSum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link Checkpointer} and {@link StateCodec}.
+ */
+public class CheckpointerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldResumeFromIncrementalCheckpoints() throws IOException {
+        // GIVEN a checkpointer that has written several deltas (and one full checkpoint along the way).
+        Checkpointer<ExactSum> checkpointer = Checkpointer.open(dir, StateCodec.exactSum(), ExactSum::new, Ops::plus,
+                3);
+        for (int i = 1; i <= 10; i++) {
+            double value = i * 0.1;
+            checkpointer.update(sum -> sum.add(value));
+            checkpointer.checkpoint();
+        }
+        assertThat(checkpointer.sequence()).isEqualTo(10);
+
+        // WHEN the directory is reopened...
+        Checkpointer<ExactSum> restored = Checkpointer.open(dir, StateCodec.exactSum(), ExactSum::new, Ops::plus, 3);
+
+        // THEN the total should match, and files before the last full checkpoint should have been deleted.
+        assertThat(restored.sequence()).isEqualTo(10);
+        assertThat(restored.<Double>query(ExactSum::toDouble)).isEqualTo(ExactSum.sum(new double[] {
+                0.1, 0.2, 0.30000000000000004, 0.4, 0.5, 0.6000000000000001, 0.7000000000000001, 0.8, 0.9, 1.0}));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.count()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void shouldKeepCheckpointingWhenAStaleFileCannotBeDeleted() throws IOException {
+        // GIVEN a stale checkpoint that cannot be deleted (a non-empty directory with a checkpoint's name).
+        Checkpointer<Long> checkpointer = Checkpointer.open(dir, StateCodec.nullableLong(), () -> null, Ops::plus, 1);
+        Path stale = Files.createDirectory(dir.resolve(String.format("checkpoint-%019d.bin", 0)));
+        Files.createFile(stale.resolve("pinned"));
+
+        // WHEN full checkpoints (which clean up older files) and deltas are written...
+        checkpointer.update(total -> Ops.plus(total, 5L));
+        assertThat(checkpointer.checkpoint()).isEqualTo(1);
+        checkpointer.update(total -> Ops.plus(total, 7L));
+        assertThat(checkpointer.checkpoint()).isEqualTo(2);
+        checkpointer.update(total -> Ops.plus(total, 11L));
+        assertThat(checkpointer.checkpoint()).isEqualTo(3);
+
+        // THEN each should get its own sequence number, and restoring should see every update.
+        Checkpointer<Long> restored = Checkpointer.open(dir, StateCodec.nullableLong(), () -> null, Ops::plus, 1);
+        assertThat(restored.sequence()).isEqualTo(3);
+        assertThat(restored.<Long>query(total -> total)).isEqualTo(23L);
+        assertThat(stale).exists();
+    }
+
+    @Test
+    void shouldContinueAfterRestore() throws IOException {
+        // GIVEN a restored checkpointer for nullable longs.
+        Checkpointer<Long> first = Checkpointer.open(dir, StateCodec.nullableLong(), () -> null, Ops::plus, 2);
+        first.update(total -> Ops.plus(total, 5L));
+        first.checkpoint();
+        Checkpointer<Long> second = Checkpointer.open(dir, StateCodec.nullableLong(), () -> null, Ops::plus, 2);
+
+        // WHEN more updates are checkpointed and the directory is reopened again...
+        second.update(total -> Ops.plus(total, 7L));
+        second.checkpoint();
+        second.checkpoint();
+        Checkpointer<Long> third = Checkpointer.open(dir, StateCodec.nullableLong(), () -> null, Ops::plus, 2);
+
+        // THEN every update should be reflected exactly once.
+        assertThat(third.sequence()).isEqualTo(3);
+        assertThat(third.<Long>query(total -> total)).isEqualTo(12L);
+    }
+
+    @Test
+    void shouldRestoreEmptyDirectoryAsEmptyState() throws IOException {
+        // GIVEN an empty directory.
+        // WHEN it is opened...
+        Checkpointer<Long> checkpointer = Checkpointer.open(dir.resolve("new"), StateCodec.nullableLong(), () -> null,
+                Ops::plus, 2);
+
+        // THEN the state should be null, as with Ops.plus(null, null).
+        assertThat(checkpointer.sequence()).isZero();
+        assertThat(checkpointer.<Long>query(total -> total)).isNull();
+    }
+
+    @Test
+    void shouldNotLoseUpdatesMadeDuringCheckpoints() throws Exception {
+        // GIVEN producers updating concurrently with checkpoints.
+        Checkpointer<CompensatedSum> checkpointer = Checkpointer.open(dir, StateCodec.compensatedSum(),
+                CompensatedSum::new);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    checkpointer.update(sum -> sum.add(1.0));
+                }
+                done.countDown();
+            }).start();
+        }
+        while (done.getCount() > 0) {
+            checkpointer.checkpoint();
+        }
+        checkpointer.checkpoint();
+
+        // WHEN the directory is reopened...
+        Checkpointer<CompensatedSum> restored = Checkpointer.open(dir, StateCodec.compensatedSum(),
+                CompensatedSum::new);
+
+        // THEN every update should have been captured by exactly one checkpoint.
+        assertThat(restored.<Long>query(CompensatedSum::count)).isEqualTo(400_000L);
+        assertThat(restored.<Double>query(CompensatedSum::sum)).isEqualTo(400_000.0);
+    }
+
+    @Test
+    void shouldRejectMissingDeltas() throws IOException {
+        // GIVEN a sequence of deltas with one deleted.
+        Checkpointer<Long> checkpointer = Checkpointer.open(dir, StateCodec.nullableLong(), () -> null, Ops::plus, 10);
+        for (int i = 0; i < 3; i++) {
+            checkpointer.update(total -> Ops.plus(total, 1L));
+            checkpointer.checkpoint();
+        }
+        Files.delete(dir.resolve(String.format("checkpoint-%019d.bin", 2)));
+
+        // WHEN the directory is reopened...
+        // THEN an IOException should be thrown rather than silently restoring the wrong total.
+        assertThatThrownBy(() -> Checkpointer.open(dir, StateCodec.nullableLong(), () -> null, Ops::plus, 10))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void shouldRoundTripColumnsAndNulls() {
+        // GIVEN a column with null slots, and null state.
+        NullableDoubleColumn column = NullableDoubleColumn.of(null, 1.5, null, -2.0);
+        StateCodec<NullableDoubleColumn> codec = StateCodec.nullableDoubleColumn();
+        ByteBuffer buffer = ByteBuffer.allocate(codec.size(column) + codec.size(null));
+
+        // WHEN they are written and read back...
+        codec.write(column, buffer);
+        codec.write(null, buffer);
+        ((Buffer) buffer).flip();
+        NullableDoubleColumn copy = codec.read(buffer);
+
+        // THEN the contents should match, and null slots should take no space beyond their validity bit.
+        assertThat(codec.size(column)).isEqualTo(1 + 4 + 8 + 2 * 8);
+        assertThat(copy.size()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(copy.get(i)).isEqualTo(column.get(i));
+        }
+        assertThat(codec.read(buffer)).isNull();
+    }
+}
@@ -0,0 +1,97 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.types.Decimal64;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.BinaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link Decimal64Column}.
+ */
+public class Decimal64ColumnTest {
+
+    private static final Decimal64[] left = {null, d("1.50"), null, d("4.00"), d("-2.25")};
+    private static final Decimal64[] right = {null, null, d("2.00"), d("0.50"), d("3.00")};
+
+    @Test
+    void shouldAddColumnsLikeOps() {
+        assertMatchesOps(Decimal64Column.of(2, left).plus(Decimal64Column.of(2, right)), Ops::plus);
+    }
+
+    @Test
+    void shouldSubtractColumnsLikeOps() {
+        assertMatchesOps(Decimal64Column.of(2, left).minus(Decimal64Column.of(2, right)), Ops::minus);
+    }
+
+    @Test
+    void shouldMultiplyColumnsLikeOps() {
+        assertMatchesOps(Decimal64Column.of(2, left).times(Decimal64Column.of(2, right)), Ops::times);
+    }
+
+    @Test
+    void shouldDivideColumnsLikeOps() {
+        assertMatchesOps(Decimal64Column.of(2, left).div(Decimal64Column.of(2, right)), Ops::div);
+    }
+
+    @Test
+    void shouldScaleNonNullSlots() {
+        // GIVEN a column with null and non-null slots.
+        Decimal64Column column = Decimal64Column.of(2, left);
+
+        // WHEN the column is scaled...
+        column.scale(2.0);
+
+        // THEN only the non-null slots should change.
+        for (int i = 0; i < left.length; i++) {
+            assertThat(column.get(i)).isEqualTo(Ops.scale(left[i], 2.0));
+        }
+    }
+
+    @Test
+    void shouldSumNonNullSlots() {
+        // GIVEN a column with null and non-null slots, and a column of only nulls.
+        Decimal64Column column = Decimal64Column.of(2, left);
+        Decimal64Column empty = new Decimal64Column(3, 2);
+
+        // WHEN each is summed...
+        // THEN nulls should be skipped, and an all-null column should sum to null.
+        assertThat(column.sum()).isEqualTo(d("3.25"));
+        assertThat(column.nullCount()).isEqualTo(2);
+        assertThat(empty.sum()).isNull();
+    }
+
+    @Test
+    void shouldRejectMismatchedScales() {
+        // GIVEN two columns with different scales.
+        // WHEN they are added...
+        // THEN an IllegalArgumentException should be thrown.
+        assertThatThrownBy(() -> new Decimal64Column(2, 2).plus(new Decimal64Column(2, 3)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertMatchesOps(Decimal64Column result, BinaryOperator<BigDecimal> op) {
+        // THEN each slot should match the numeric Ops result, rounded to the column scale.
+        for (int i = 0; i < left.length; i++) {
+            BigDecimal expected = op.apply(toBigDecimal(left[i]), toBigDecimal(right[i]));
+            if (expected == null) {
+                assertThat(result.get(i)).isNull();
+            } else {
+                assertThat(result.get(i).toBigDecimal()).isEqualTo(expected.setScale(2, RoundingMode.HALF_EVEN));
+            }
+        }
+    }
+
+    private static BigDecimal toBigDecimal(Decimal64 value) {
+        return value != null ? value.toBigDecimal() : null;
+    }
+
+    private static Decimal64 d(String value) {
+        return Decimal64.parse(value);
+    }
+}
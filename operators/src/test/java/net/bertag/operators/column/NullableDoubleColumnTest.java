@@ -0,0 +1,142 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BinaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link NullableDoubleColumn}.
+ */
+public class NullableDoubleColumnTest {
+
+    private static final Double[] left = {null, 1.5, null, 4.0, -2.25};
+    private static final Double[] right = {null, null, 2.0, 0.5, 3.0};
+
+    @Test
+    void shouldAddColumnsLikeOps() {
+        assertMatchesOps(NullableDoubleColumn.of(left).plus(NullableDoubleColumn.of(right)), Ops::plus);
+    }
+
+    @Test
+    void shouldSubtractColumnsLikeOps() {
+        assertMatchesOps(NullableDoubleColumn.of(left).minus(NullableDoubleColumn.of(right)), Ops::minus);
+    }
+
+    @Test
+    void shouldMultiplyColumnsLikeOps() {
+        assertMatchesOps(NullableDoubleColumn.of(left).times(NullableDoubleColumn.of(right)), Ops::times);
+    }
+
+    @Test
+    void shouldDivideColumnsLikeOps() {
+        assertMatchesOps(NullableDoubleColumn.of(left).div(NullableDoubleColumn.of(right)), Ops::div);
+    }
+
+    @Test
+    void shouldScaleColumnLikeOps() {
+        // GIVEN a column with null and non-null slots.
+        // WHEN the column is scaled...
+        NullableDoubleColumn column = NullableDoubleColumn.of(left).scale(2.0);
+
+        // THEN each slot should match the scalar Ops result.
+        for (int i = 0; i < left.length; i++) {
+            assertThat(column.get(i)).isEqualTo(Ops.scale(left[i], 2.0));
+        }
+    }
+
+    @Test
+    void shouldKeepNullSlotsZeroWhenScaledByNonFiniteOrNegativeFactors() {
+        // GIVEN columns with a null slot, scaled by infinity, NaN and a negative factor.
+        NullableDoubleColumn infinite = NullableDoubleColumn.of(1.0, null).scale(Double.POSITIVE_INFINITY);
+        NullableDoubleColumn nan = NullableDoubleColumn.of(1.0, null).scale(Double.NaN);
+        NullableDoubleColumn negative = NullableDoubleColumn.of(1.0, null).scale(-1.0);
+
+        // WHEN another column is added to them...
+        // THEN the null slot should still act as 0, and should hold +0 rather than -0.
+        assertThat(infinite.plus(NullableDoubleColumn.of(2.0, 2.0)).get(1)).isEqualTo(2.0);
+        assertThat(nan.plus(NullableDoubleColumn.of(2.0, 2.0)).get(1)).isEqualTo(2.0);
+        assertThat(Double.doubleToRawLongBits(negative.getDouble(1))).isZero();
+    }
+
+    @Test
+    void shouldSumNonNullSlots() {
+        // GIVEN a column with null and non-null slots, and a column of only nulls.
+        // WHEN each is summed...
+        // THEN nulls should be skipped, and an all-null column should sum to null.
+        assertThat(NullableDoubleColumn.of(left).sum()).isEqualTo(3.25);
+        assertThat(new NullableDoubleColumn(70).sum()).isNull();
+    }
+
+    @Test
+    void shouldCombineColumnsWithWeightsSlotBySlot() {
+        // GIVEN three columns with nulls in different slots.
+        NullableDoubleColumn a = NullableDoubleColumn.of(1.0, null, 2.0, null);
+        NullableDoubleColumn b = NullableDoubleColumn.of(3.0, 4.0, null, null);
+        NullableDoubleColumn c = NullableDoubleColumn.of(5.0, 6.0, 8.0, null);
+        List<NullableDoubleColumn> columns = Arrays.asList(a, b, c);
+        double[] weights = {1, 2, 0.5};
+
+        // WHEN they are combined...
+        NullableDoubleColumn sum = NullableDoubleColumn.linearCombination(columns, weights);
+        NullableDoubleColumn mean = NullableDoubleColumn.weightedMean(columns, weights);
+
+        // THEN each slot should match the scalar Ops result, with nulls excluded from the weights.
+        for (int i = 0; i < a.size(); i++) {
+            Double[] values = {a.get(i), b.get(i), c.get(i)};
+            assertThat(sum.get(i)).isEqualTo(Ops.linearCombination(values, weights));
+            assertThat(mean.get(i)).isEqualTo(Ops.weightedMean(values, weights));
+        }
+        assertThat(mean.isNull(3)).isTrue();
+    }
+
+    @Test
+    void shouldCombineColumnsAsAccuratelyAsTheScalarForm() {
+        // GIVEN products whose rounding errors would be lost by ordinary multiply-then-add.
+        double a = 1 + 0x1p-30;
+        List<NullableDoubleColumn> columns = Arrays.asList(NullableDoubleColumn.of(a), NullableDoubleColumn.of(-1.0));
+        double[] weights = {a, 1 + 0x1p-29};
+
+        // WHEN they are combined...
+        // THEN the result should equal the exact result, a*a - (1 + 2^-29) = 2^-60.
+        assertThat(NullableDoubleColumn.linearCombination(columns, weights).get(0)).isEqualTo(0x1p-60);
+    }
+
+    @Test
+    void shouldSkipNullSlotsOfInfinitelyWeightedColumns() {
+        // GIVEN an infinitely weighted column with a null slot.
+        List<NullableDoubleColumn> columns = Arrays.asList(NullableDoubleColumn.of(1.0, null, null),
+                NullableDoubleColumn.of(2.0, 3.0, null));
+        double[] weights = {Double.POSITIVE_INFINITY, 1};
+
+        // WHEN the columns are combined...
+        NullableDoubleColumn sum = NullableDoubleColumn.linearCombination(columns, weights);
+
+        // THEN the null slot should add nothing rather than NaN, and an all-null slot should stay null and hold +0.
+        assertThat(sum.get(0)).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(sum.get(1)).isEqualTo(3.0);
+        assertThat(sum.isNull(2)).isTrue();
+        assertThat(Double.doubleToRawLongBits(sum.getDouble(2))).isZero();
+    }
+
+    @Test
+    void shouldRejectMismatchedSizes() {
+        // GIVEN two columns with different sizes.
+        // WHEN they are added...
+        // THEN an IllegalArgumentException should be thrown.
+        assertThatThrownBy(() -> new NullableDoubleColumn(2).plus(new NullableDoubleColumn(3)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertMatchesOps(NullableDoubleColumn result, BinaryOperator<Double> op) {
+        // THEN each slot should match the scalar Ops result.
+        for (int i = 0; i < left.length; i++) {
+            assertThat(result.get(i)).isEqualTo(op.apply(left[i], right[i]));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link NullableDoubleMatrix}.
+ */
+public class NullableDoubleMatrixTest {
+
+    @Test
+    void shouldMultiplyTreatingNullsAsMissing() {
+        // GIVEN matrices spanning several blocks, with scattered nulls, an all-null row and an all-null column.
+        Double[][] a = randomCells(new Random(1), 150, 130);
+        Double[][] b = randomCells(new Random(2), 130, 170);
+        a[7] = new Double[130];
+        for (Double[] row : b) {
+            row[11] = null;
+        }
+
+        // WHEN they are multiplied sequentially and in parallel...
+        NullableDoubleMatrix product = NullableDoubleMatrix.of(a).product(NullableDoubleMatrix.of(b));
+        NullableDoubleMatrix parallel = NullableDoubleMatrix.of(a).parallelProduct(NullableDoubleMatrix.of(b));
+
+        // THEN each cell should sum only the terms with both factors present, and both results should be identical.
+        assertThat(product.rows()).isEqualTo(150);
+        assertThat(product.columns()).isEqualTo(170);
+        for (int i = 0; i < 150; i++) {
+            for (int j = 0; j < 170; j++) {
+                Double expected = null;
+                for (int k = 0; k < 130; k++) {
+                    if (a[i][k] != null && b[k][j] != null) expected = Ops.plus(expected, a[i][k] * b[k][j]);
+                }
+                assertThat(product.get(i, j)).isEqualTo(expected);
+            }
+        }
+        assertThat(product.isNull(7, 0)).isTrue();
+        assertThat(product.isNull(0, 11)).isTrue();
+        assertThat(parallel).isEqualTo(product);
+    }
+
+    @Test
+    void shouldNotLetNonFiniteValuesMeetMissingCells() {
+        // GIVEN an infinite cell whose only partner in the product is null.
+        NullableDoubleMatrix a = NullableDoubleMatrix.of(new Double[] {Double.POSITIVE_INFINITY, 2.0});
+        NullableDoubleMatrix b = NullableDoubleMatrix.of(new Double[] {null}, new Double[] {3.0});
+
+        // WHEN they are multiplied...
+        // THEN the infinite cell should be skipped rather than producing NaN.
+        assertThat(a.product(b)).isEqualTo(NullableDoubleMatrix.of(new Double[] {6.0}));
+    }
+
+    @Test
+    void shouldApplyOpsSemanticsElementWise() {
+        // GIVEN two matrices of the same shape with nulls in different cells.
+        NullableDoubleMatrix a = NullableDoubleMatrix.of(new Double[] {1.0, null}, new Double[] {null, 4.0});
+        NullableDoubleMatrix b = NullableDoubleMatrix.of(new Double[] {2.0, null}, new Double[] {3.0, 2.0});
+
+        // WHEN they are combined cell by cell...
+        // THEN each cell should follow the Ops null rules.
+        assertThat(Ops.plus(a, b)).hasToString("[[3.0, null], [3.0, 6.0]]");
+        assertThat(Ops.minus(a, b)).hasToString("[[-1.0, null], [-3.0, 2.0]]");
+        assertThat(Ops.times(a, b)).hasToString("[[2.0, null], [3.0, 8.0]]");
+        assertThat(Ops.div(a, b)).hasToString("[[0.5, null], [0.3333333333333333, 2.0]]");
+        assertThat(Ops.scale(a, 2.0)).isEqualTo(a.plus(a));
+        assertThat(a.with(0, 1, 5.0).get(0, 1)).isEqualTo(5.0);
+        assertThat(a.isNull(0, 1)).isTrue();
+    }
+
+    @Test
+    void shouldRejectIncompatibleShapes() {
+        // GIVEN a 2 x 3 matrix.
+        NullableDoubleMatrix matrix = new NullableDoubleMatrix(2, 3);
+
+        // WHEN it is combined with matrices of the wrong shape...
+        // THEN an IllegalArgumentException should be thrown.
+        assertThatThrownBy(() -> matrix.product(new NullableDoubleMatrix(2, 3)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> matrix.plus(new NullableDoubleMatrix(3, 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(matrix.product(new NullableDoubleMatrix(3, 4)).nullCount()).isEqualTo(8);
+    }
+
+    private static Double[][] randomCells(Random random, int rows, int columns) {
+        Double[][] cells = new Double[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                cells[i][j] = random.nextInt(5) == 0 ? null : random.nextDouble() * 10 - 5;
+            }
+        }
+        return cells;
+    }
+}
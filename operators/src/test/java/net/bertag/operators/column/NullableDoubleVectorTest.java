@@ -0,0 +1,89 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.BinaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link NullableDoubleVector}.
+ */
+public class NullableDoubleVectorTest {
+
+    private static final Double[] left = values(new Random(1), 0);
+    private static final Double[] right = values(new Random(2), 3);
+
+    @Test
+    void shouldMatchOpsSlotBySlot() {
+        // GIVEN two vectors spanning several bitmap words, with some words free of nulls.
+        NullableDoubleVector a = NullableDoubleVector.of(left);
+        NullableDoubleVector b = NullableDoubleVector.of(right);
+
+        // WHEN they are combined with each operator...
+        // THEN each slot should match the scalar Ops result, and the inputs should be unchanged.
+        assertMatchesOps(Ops.plus(a, b), Ops::plus);
+        assertMatchesOps(Ops.minus(a, b), Ops::minus);
+        assertMatchesOps(Ops.times(a, b), Ops::times);
+        assertMatchesOps(Ops.div(a, b), Ops::div);
+        assertMatchesOps(Ops.scale(a, 0.5), (x, y) -> Ops.scale(x, 0.5));
+        assertThat(a).isEqualTo(NullableDoubleVector.of(left));
+    }
+
+    @Test
+    void shouldBehaveAsAValue() {
+        // GIVEN an hourly profile.
+        NullableDoubleVector profile = NullableDoubleVector.of(new double[24]).with(3, 2.5).with(5, null);
+
+        // WHEN it is read and compared...
+        // THEN replaced slots should be visible only in the copy, and equal vectors should be equal.
+        assertThat(profile.get(3)).isEqualTo(2.5);
+        assertThat(profile.isNull(5)).isTrue();
+        assertThat(profile.nullCount()).isEqualTo(1);
+        assertThat(profile.sum()).isEqualTo(2.5);
+        assertThat(profile).isEqualTo(NullableDoubleVector.of(new double[24]).with(5, null).with(3, 2.5))
+                .hasSameHashCodeAs(NullableDoubleVector.of(new double[24]).with(5, null).with(3, 2.5));
+        assertThat(NullableDoubleVector.of(1.0, null)).hasToString("[1.0, null]");
+        assertThat(new NullableDoubleVector(3).sum()).isNull();
+    }
+
+    @Test
+    void shouldKeepNullSlotsZeroWhenScaledByNonFiniteOrNegativeFactors() {
+        // GIVEN a vector with a null slot, scaled by infinity.
+        NullableDoubleVector scaled = NullableDoubleVector.of(1.0, null).scale(Double.POSITIVE_INFINITY);
+
+        // WHEN it is added to another vector...
+        // THEN the null slot should still act as 0.
+        assertThat(scaled.plus(NullableDoubleVector.of(1.0, 2.0)).get(1)).isEqualTo(2.0);
+        assertThat(NullableDoubleVector.of(1.0, null).scale(-1.0)).isEqualTo(NullableDoubleVector.of(-1.0, null));
+    }
+
+    @Test
+    void shouldRejectMismatchedSizes() {
+        // GIVEN two vectors with different sizes.
+        // WHEN they are added...
+        // THEN an IllegalArgumentException should be thrown.
+        assertThatThrownBy(() -> new NullableDoubleVector(2).plus(new NullableDoubleVector(3)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertMatchesOps(NullableDoubleVector result, BinaryOperator<Double> op) {
+        for (int i = 0; i < left.length; i++) {
+            assertThat(result.get(i)).isEqualTo(op.apply(left[i], right[i]));
+        }
+    }
+
+    /**
+     * Creates 150 values: the first 64 non-null, and the rest null with a given period.
+     */
+    private static Double[] values(Random random, int offset) {
+        Double[] values = new Double[150];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i >= 64 && (i + offset) % 4 == 0 ? null : random.nextDouble() * 10 - 5;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,89 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BinaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link NullableFloatColumn}.
+ */
+public class NullableFloatColumnTest {
+
+    private static final Float[] left = {null, 1.5f, null, 4.0f, -2.25f};
+    private static final Float[] right = {null, null, 2.0f, 0.5f, 3.0f};
+
+    @Test
+    void shouldAddColumnsLikeOps() {
+        assertMatchesOps(NullableFloatColumn.of(left).plus(NullableFloatColumn.of(right)), Ops::plus);
+    }
+
+    @Test
+    void shouldSubtractColumnsLikeOps() {
+        assertMatchesOps(NullableFloatColumn.of(left).minus(NullableFloatColumn.of(right)), Ops::minus);
+    }
+
+    @Test
+    void shouldMultiplyColumnsLikeOps() {
+        assertMatchesOps(NullableFloatColumn.of(left).times(NullableFloatColumn.of(right)), Ops::times);
+    }
+
+    @Test
+    void shouldDivideColumnsLikeOps() {
+        assertMatchesOps(NullableFloatColumn.of(left).div(NullableFloatColumn.of(right)), Ops::div);
+    }
+
+    @Test
+    void shouldScaleColumnLikeOps() {
+        // GIVEN a column with null and non-null slots.
+        // WHEN the column is scaled...
+        NullableFloatColumn column = NullableFloatColumn.of(left).scale(2.0);
+
+        // THEN each slot should match the scalar Ops result.
+        for (int i = 0; i < left.length; i++) {
+            assertThat(column.get(i)).isEqualTo(Ops.scale(left[i], 2.0));
+        }
+    }
+
+    @Test
+    void shouldKeepNullSlotsZeroWhenScaledByNonFiniteOrNegativeFactors() {
+        // GIVEN columns with a null slot, scaled by infinity, NaN and a negative factor.
+        NullableFloatColumn infinite = NullableFloatColumn.of(1f, null).scale(Double.POSITIVE_INFINITY);
+        NullableFloatColumn nan = NullableFloatColumn.of(1f, null).scale(Double.NaN);
+        NullableFloatColumn negative = NullableFloatColumn.of(1f, null).scale(-1.0);
+
+        // WHEN another column is added to them...
+        // THEN the null slot should still act as 0, and should hold +0 rather than -0.
+        assertThat(infinite.plus(NullableFloatColumn.of(2.0f, 2.0f)).get(1)).isEqualTo(2.0f);
+        assertThat(nan.plus(NullableFloatColumn.of(2.0f, 2.0f)).get(1)).isEqualTo(2.0f);
+        assertThat(Float.floatToRawIntBits(negative.getFloat(1))).isZero();
+    }
+
+    @Test
+    void shouldSumNonNullSlots() {
+        // GIVEN a column with null and non-null slots, and a column of only nulls.
+        // WHEN each is summed...
+        // THEN nulls should be skipped, and an all-null column should sum to null.
+        assertThat(NullableFloatColumn.of(left).sum()).isEqualTo(3.25f);
+        assertThat(new NullableFloatColumn(70).sum()).isNull();
+    }
+
+    @Test
+    void shouldRejectMismatchedSizes() {
+        // GIVEN two columns with different sizes.
+        // WHEN they are added...
+        // THEN an IllegalArgumentException should be thrown.
+        assertThatThrownBy(() -> new NullableFloatColumn(2).plus(new NullableFloatColumn(3)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertMatchesOps(NullableFloatColumn result, BinaryOperator<Float> op) {
+        // THEN each slot should match the scalar Ops result.
+        for (int i = 0; i < left.length; i++) {
+            assertThat(result.get(i)).isEqualTo(op.apply(left[i], right[i]));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.BinaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link NullableLongVector}.
+ */
+public class NullableLongVectorTest {
+
+    private static final Long[] left = values(new Random(1), 0);
+    private static final Long[] right = values(new Random(2), 3);
+
+    @Test
+    void shouldMatchOpsSlotBySlot() {
+        // GIVEN two vectors spanning several bitmap words, with some words free of nulls.
+        NullableLongVector a = NullableLongVector.of(left);
+        NullableLongVector b = NullableLongVector.of(right);
+
+        // WHEN they are combined with each operator...
+        // THEN each slot should match the scalar Ops result, including overflow and integer division.
+        assertMatchesOps(Ops.plus(a, b), Ops::plus);
+        assertMatchesOps(Ops.minus(a, b), Ops::minus);
+        assertMatchesOps(Ops.times(a, b), Ops::times);
+        assertMatchesOps(Ops.div(a, b), Ops::div);
+        assertMatchesOps(Ops.scale(a, 0.3), (x, y) -> Ops.scale(x, 0.3));
+    }
+
+    @Test
+    void shouldSumAndDivideLikeOps() {
+        // GIVEN a vector with a null slot.
+        NullableLongVector vector = NullableLongVector.of(Long.MAX_VALUE, 1L, null);
+
+        // WHEN it is summed or divided by zero...
+        // THEN the sum should wrap, and division by a non-null zero should fail as it does for Long.
+        assertThat(vector.sum()).isEqualTo(Long.MIN_VALUE);
+        assertThat(new NullableLongVector(2).sum()).isNull();
+        assertThatThrownBy(() -> vector.div(NullableLongVector.of(0L, 0L, 0L)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    private static void assertMatchesOps(NullableLongVector result, BinaryOperator<Long> op) {
+        for (int i = 0; i < left.length; i++) {
+            assertThat(result.get(i)).isEqualTo(op.apply(left[i], right[i]));
+        }
+    }
+
+    private static Long[] values(Random random, int offset) {
+        Long[] values = new Long[150];
+        for (int i = 0; i < values.length; i++) {
+            long value = i % 10 == 0 ? random.nextLong() : random.nextInt(2_000) - 1_000;
+            values[i] = i >= 64 && (i + offset) % 4 == 0 ? null : value == 0 ? 1 : value;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,134 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.BinaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link OffHeapDoubleColumn}.
+ */
+public class OffHeapDoubleColumnTest {
+
+    private static final Double[] left = {null, 1.5, null, 4.0, -2.25};
+    private static final Double[] right = {null, null, 2.0, 0.5, 3.0};
+
+    @Test
+    void shouldAddColumnsLikeOps() {
+        assertMatchesOps(OffHeapDoubleColumn.of(left).plus(OffHeapDoubleColumn.of(right)), Ops::plus);
+    }
+
+    @Test
+    void shouldSubtractColumnsLikeOps() {
+        assertMatchesOps(OffHeapDoubleColumn.of(left).minus(OffHeapDoubleColumn.of(right)), Ops::minus);
+    }
+
+    @Test
+    void shouldMultiplyColumnsLikeOps() {
+        assertMatchesOps(OffHeapDoubleColumn.of(left).times(OffHeapDoubleColumn.of(right)), Ops::times);
+    }
+
+    @Test
+    void shouldDivideColumnsLikeOps() {
+        assertMatchesOps(OffHeapDoubleColumn.of(left).div(OffHeapDoubleColumn.of(right)), Ops::div);
+    }
+
+    @Test
+    void shouldScaleColumnLikeOps() {
+        // GIVEN a column with null and non-null slots.
+        // WHEN the column is scaled...
+        OffHeapDoubleColumn column = OffHeapDoubleColumn.of(left).scale(2.0);
+
+        // THEN each slot should match the scalar Ops result.
+        for (int i = 0; i < left.length; i++) {
+            assertThat(column.get(i)).isEqualTo(Ops.scale(left[i], 2.0));
+        }
+    }
+
+    @Test
+    void shouldSumNonNullSlots() {
+        // GIVEN a column with null and non-null slots, and a column of only nulls.
+        // WHEN each is summed...
+        // THEN nulls should be skipped, and an all-null column should sum to null.
+        assertThat(OffHeapDoubleColumn.of(left).sum()).isEqualTo(3.25);
+        assertThat(OffHeapDoubleColumn.of(left).exactSum()).isEqualTo(3.25);
+        assertThat(new OffHeapDoubleColumn(70).sum()).isNull();
+    }
+
+    @Test
+    void shouldCopyHeapColumn() {
+        // GIVEN a heap column.
+        NullableDoubleColumn heap = NullableDoubleColumn.of(left);
+
+        // WHEN it is copied off-heap...
+        OffHeapDoubleColumn column = OffHeapDoubleColumn.copyOf(heap);
+
+        // THEN every slot (including nulls) should be preserved.
+        assertThat(column.nullCount()).isEqualTo(heap.nullCount());
+        for (int i = 0; i < left.length; i++) {
+            assertThat(column.get(i)).isEqualTo(left[i]);
+        }
+    }
+
+    @Test
+    void shouldShareStateWithWrappedBuffers() {
+        // GIVEN buffers with a header before the column data.
+        ByteBuffer data = ByteBuffer.allocate(16 + 3 * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer validity = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        data.position(16);
+
+        // WHEN a column wrapping them is written...
+        OffHeapDoubleColumn column = OffHeapDoubleColumn.wrap(data, validity, 3);
+        column.setDouble(0, 1.25);
+        column.setDouble(2, -8.0);
+
+        // THEN the writes should land after the header, in the buffers' byte order.
+        assertThat(data.getDouble(16)).isEqualTo(1.25);
+        assertThat(data.getDouble(32)).isEqualTo(-8.0);
+        assertThat(validity.getLong(0)).isEqualTo(0b101L);
+        assertThat(OffHeapDoubleColumn.wrap(data, validity, 3).get(1)).isNull();
+    }
+
+    @Test
+    void shouldRejectUndersizedBuffers() {
+        // GIVEN a data buffer that is too small for the requested size.
+        // WHEN it is wrapped...
+        // THEN an IllegalArgumentException should be thrown.
+        assertThatThrownBy(() -> OffHeapDoubleColumn.wrap(ByteBuffer.allocate(8), ByteBuffer.allocate(8), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectSizesWhoseByteCountOverflows() {
+        // GIVEN sizes that are negative, or whose 8-byte slots would not fit in an int.
+        // WHEN columns of those sizes are allocated or wrapped...
+        // THEN an IllegalArgumentException should be thrown rather than allocating a truncated buffer.
+        assertThatThrownBy(() -> new OffHeapDoubleColumn(Integer.MAX_VALUE / 8 + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OffHeapDoubleColumn(0x2000_0000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OffHeapDoubleColumn(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OffHeapDoubleColumn.wrap(ByteBuffer.allocate(8), ByteBuffer.allocate(8), 0x2000_0001))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectMismatchedSizes() {
+        // GIVEN two columns with different sizes.
+        // WHEN they are added...
+        // THEN an IllegalArgumentException should be thrown.
+        assertThatThrownBy(() -> new OffHeapDoubleColumn(2).plus(new OffHeapDoubleColumn(3)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertMatchesOps(OffHeapDoubleColumn result, BinaryOperator<Double> op) {
+        // THEN each slot should match the scalar Ops result.
+        for (int i = 0; i < left.length; i++) {
+            assertThat(result.get(i)).isEqualTo(op.apply(left[i], right[i]));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.function.BinaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link OffHeapLongColumn}.
+ */
+public class OffHeapLongColumnTest {
+
+    private static final Long[] left = {null, 15L, null, 40L, -7L, Long.MAX_VALUE};
+    private static final Long[] right = {null, null, 2L, 3L, 2L, 1L};
+
+    @Test
+    void shouldAddColumnsLikeOps() {
+        assertMatchesOps(OffHeapLongColumn.of(left).plus(OffHeapLongColumn.of(right)), Ops::plus);
+    }
+
+    @Test
+    void shouldSubtractColumnsLikeOps() {
+        assertMatchesOps(OffHeapLongColumn.of(left).minus(OffHeapLongColumn.of(right)), Ops::minus);
+    }
+
+    @Test
+    void shouldMultiplyColumnsLikeOps() {
+        assertMatchesOps(OffHeapLongColumn.of(left).times(OffHeapLongColumn.of(right)), Ops::times);
+    }
+
+    @Test
+    void shouldDivideColumnsLikeOps() {
+        assertMatchesOps(OffHeapLongColumn.of(left).div(OffHeapLongColumn.of(right)), Ops::div);
+    }
+
+    @Test
+    void shouldScaleColumnLikeOps() {
+        // GIVEN a column with null and non-null slots.
+        // WHEN the column is scaled...
+        OffHeapLongColumn column = OffHeapLongColumn.of(left).scale(0.25);
+
+        // THEN each slot should match the scalar Ops result.
+        for (int i = 0; i < left.length; i++) {
+            assertThat(column.get(i)).isEqualTo(Ops.scale(left[i], 0.25));
+        }
+    }
+
+    @Test
+    void shouldSumNonNullSlots() {
+        // GIVEN a column with null and non-null slots, and a column of only nulls.
+        // WHEN each is summed...
+        // THEN nulls should be skipped, and an all-null column should sum to null.
+        assertThat(OffHeapLongColumn.of(15L, null, -7L).sum()).isEqualTo(8L);
+        assertThat(new OffHeapLongColumn(70).sum()).isNull();
+    }
+
+    @Test
+    void shouldRejectSizesWhoseByteCountOverflows() {
+        // GIVEN sizes that are negative, or whose 8-byte slots would not fit in an int.
+        // WHEN columns of those sizes are allocated or wrapped...
+        // THEN an IllegalArgumentException should be thrown rather than allocating a truncated buffer.
+        assertThatThrownBy(() -> new OffHeapLongColumn(Integer.MAX_VALUE / 8 + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OffHeapLongColumn(0x2000_0000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OffHeapLongColumn(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OffHeapLongColumn.wrap(ByteBuffer.allocate(8), ByteBuffer.allocate(8), 0x2000_0001))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectMismatchedSizes() {
+        // GIVEN two columns with different sizes.
+        // WHEN they are added...
+        // THEN an IllegalArgumentException should be thrown.
+        assertThatThrownBy(() -> new OffHeapLongColumn(2).plus(new OffHeapLongColumn(3)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertMatchesOps(OffHeapLongColumn result, BinaryOperator<Long> op) {
+        // THEN each slot should match the scalar Ops result.
+        for (int i = 0; i < left.length; i++) {
+            assertThat(result.get(i)).isEqualTo(op.apply(left[i], right[i]));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.io.FieldType;
+import net.bertag.operators.test.MyData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link RecordColumns}.
+ */
+public class RecordColumnsTest {
+
+    private static final RecordSchema<MyData> SCHEMA = RecordSchema.derive(MyData.class);
+
+    @Test
+    void shouldMatchRecordOperationsFieldByField() {
+        // GIVEN two lists of records with some null fields.
+        List<MyData> left = records(new Random(1), 1_000);
+        List<MyData> right = records(new Random(2), 1_000);
+
+        // WHEN they are combined column by column and rebuilt...
+        // THEN each record should equal the Ops result on its pair of records.
+        assertMatches(RecordColumns.of(SCHEMA, left).plus(RecordColumns.of(SCHEMA, right)), left, right, Ops::plus);
+        assertMatches(RecordColumns.of(SCHEMA, left).minus(RecordColumns.of(SCHEMA, right)), left, right, Ops::minus);
+        assertMatches(RecordColumns.of(SCHEMA, left).times(RecordColumns.of(SCHEMA, right)), left, right, Ops::times);
+        assertMatches(RecordColumns.of(SCHEMA, left).scale(0.37), left, left, (a, b) -> Ops.scale(a, 0.37));
+    }
+
+    @Test
+    void shouldDivideLikeOpsOnEachField() {
+        // GIVEN two records with nonzero integral fields.
+        MyData a = new MyData("a", 7, 7L, (short) 7, 7f, 7.0);
+        MyData b = new MyData("a", 2, null, (short) 2, 2f, null);
+
+        // WHEN they are divided as columns...
+        MyData result = RecordColumns.of(SCHEMA, Arrays.asList(a)).div(RecordColumns.of(SCHEMA, Arrays.asList(b)))
+                .get(0);
+
+        // THEN integral fields should use integer division, and null divisors should leave the dividend unchanged.
+        assertThat(result).isEqualTo(new MyData("a", 3, 7L, (short) 3, 3.5f, 7.0));
+    }
+
+    @Test
+    void shouldWrapIntegralOverflowAtFieldWidth() {
+        // GIVEN records whose int and short fields are at their maximum.
+        MyData max = new MyData("a", Integer.MAX_VALUE, Long.MAX_VALUE, Short.MAX_VALUE, null, null);
+        MyData one = new MyData("a", 1, 1L, (short) 1, null, null);
+
+        // WHEN they are added as columns...
+        MyData result = RecordColumns.of(SCHEMA, Arrays.asList(max)).plus(RecordColumns.of(SCHEMA, Arrays.asList(one)))
+                .get(0);
+
+        // THEN each field should wrap at its own width, exactly as Ops does.
+        assertThat(result).isEqualTo(Ops.plus(max, one));
+        assertThat(result.getSomeShort()).isEqualTo(Short.MIN_VALUE);
+    }
+
+    @Test
+    void shouldUseDeclaredSchemaAndKeepOtherFields() {
+        // GIVEN a declared schema over just the double field.
+        RecordSchema<MyData> schema = RecordSchema.<MyData>builder()
+                .field("someDouble", FieldType.DOUBLE, MyData::getSomeDouble)
+                .build((template, values) -> new MyData(template.getSomeKey(), template.getSomeInt(),
+                        template.getSomeLong(), template.getSomeShort(), template.getSomeFloat(), (Double) values[0]));
+        List<MyData> records = Arrays.asList(new MyData("a", 1.0), new MyData("b", null));
+
+        // WHEN the columns are scaled and read back...
+        RecordColumns<MyData> columns = RecordColumns.of(schema, records).scale(2);
+        columns.doubleColumn(0).setDouble(1, 5.0);
+
+        // THEN only the declared field should change, and direct column writes should be visible in the records.
+        assertThat(columns.toList()).containsExactly(new MyData("a", 1, 1L, (short) 1, 1f, 2.0),
+                new MyData("b", null, null, null, null, 5.0));
+        assertThat(columns.isNull(0, 0)).isFalse();
+        assertThat(columns.getDouble(0, 0)).isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldRejectMismatchedColumns() {
+        // GIVEN columns of different sizes.
+        RecordColumns<MyData> one = RecordColumns.of(SCHEMA, Arrays.asList(new MyData("a", 1.0)));
+        RecordColumns<MyData> two = RecordColumns.of(SCHEMA, Arrays.asList(new MyData("a", 1.0), new MyData("b", 1.0)));
+
+        // WHEN they are combined...
+        // THEN the operation should be rejected, as should reading a field as the wrong type.
+        assertThatThrownBy(() -> one.plus(two)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> one.floatColumn(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertMatches(RecordColumns<MyData> columns, List<MyData> left, List<MyData> right,
+            BinaryOperator<MyData> op) {
+        for (int i = 0; i < left.size(); i++) {
+            assertThat(columns.get(i)).isEqualTo(op.apply(left.get(i), right.get(i)));
+        }
+    }
+
+    private static List<MyData> records(Random random, int count) {
+        List<MyData> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add(new MyData("k" + i, random.nextInt(5) == 0 ? null : random.nextInt(),
+                    random.nextInt(5) == 0 ? null : random.nextLong(),
+                    random.nextInt(5) == 0 ? null : (short) random.nextInt(),
+                    random.nextInt(5) == 0 ? null : random.nextFloat() * 100,
+                    random.nextInt(5) == 0 ? null : random.nextDouble() * 100));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,114 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.io.FieldType;
+import net.bertag.operators.test.MyData;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link RecordSchema}.
+ */
+public class RecordSchemaTest {
+
+    @Test
+    void shouldDeriveNumericFieldsAndConstructor() {
+        // GIVEN a record class with numeric getters and a constructor taking every property.
+        // WHEN its schema is derived...
+        RecordSchema<MyData> schema = RecordSchema.derive(MyData.class);
+
+        // THEN the numeric getters should become fields in name order, and records should rebuild from the template.
+        assertThat(schema.fieldCount()).isEqualTo(5);
+        assertThat(schema.name(0)).isEqualTo("someDouble");
+        assertThat(schema.type(0)).isEqualTo(FieldType.DOUBLE);
+        assertThat(schema.type(schema.indexOf("someShort"))).isEqualTo(FieldType.SHORT);
+        MyData template = new MyData("key", 1.0);
+        assertThat(schema.create(template, new Number[] {2.0, 2f, 2, 2L, (short) 2})).isEqualTo(new MyData("key", 2.0));
+        assertThat(schema.read(template, schema.indexOf("someLong"))).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldRejectUnderivableClasses() {
+        // GIVEN classes without numeric getters, or whose constructor parameters cannot be told apart.
+        // WHEN their schemas are derived...
+        // THEN derivation should fail so that the schema is declared instead.
+        assertThatThrownBy(() -> RecordSchema.derive(Object.class)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecordSchema.derive(Pair.class)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecordSchema.derive(DefaultablePair.class))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldWrapNullsPassedToPrimitiveParameters() {
+        // GIVEN a record class whose constructor takes a primitive.
+        RecordSchema<Count> schema = RecordSchema.derive(Count.class);
+
+        // WHEN a record is rebuilt with a null value...
+        // THEN the reflection failure should be wrapped like any other.
+        assertThat(schema.create(new Count(1), new Number[] {2})).extracting(Count::getValue).isEqualTo(2);
+        assertThatThrownBy(() -> schema.create(new Count(1), new Number[] {null}))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldRejectDuplicateFieldNames() {
+        // GIVEN a builder with a field already declared.
+        RecordSchema.Builder<MyData> builder = RecordSchema.<MyData>builder()
+                .field("value", FieldType.INT, MyData::getSomeInt);
+
+        // WHEN a second field with the same name is declared...
+        // THEN it should be rejected.
+        assertThatThrownBy(() -> builder.field("value", FieldType.LONG, MyData::getSomeLong))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    public static final class Pair {
+
+        private final Integer first;
+        private final Integer second;
+
+        public Pair(Integer first, Integer second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        public Integer getFirst() {
+            return first;
+        }
+
+        public Integer getSecond() {
+            return second;
+        }
+    }
+
+    public static final class DefaultablePair {
+
+        public DefaultablePair() {
+        }
+
+        public DefaultablePair(Double first, Double second) {
+        }
+
+        public Double getFirst() {
+            return 1.0;
+        }
+
+        public Double getSecond() {
+            return 2.0;
+        }
+    }
+
+    public static final class Count {
+
+        private final int value;
+
+        public Count(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package net.bertag.operators.column;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link SparseDoubleVector}.
+ */
+public class SparseDoubleVectorTest {
+
+    @Test
+    void shouldMatchDenseVectorSlotBySlot() {
+        // GIVEN two mostly-null vectors (including signed zeros) whose non-null slots partly overlap, in both sparse
+        // and dense form.
+        NullableDoubleVector a = randomVector(new Random(1));
+        NullableDoubleVector b = randomVector(new Random(2));
+        SparseDoubleVector sparseA = SparseDoubleVector.copyOf(a);
+        SparseDoubleVector sparseB = SparseDoubleVector.copyOf(b);
+
+        // WHEN they are combined with each operator...
+        // THEN the sparse results should equal the dense results.
+        assertThat(Ops.plus(sparseA, sparseB).toDense()).isEqualTo(Ops.plus(a, b));
+        assertThat(Ops.minus(sparseA, sparseB).toDense()).isEqualTo(Ops.minus(a, b));
+        assertThat(Ops.times(sparseA, sparseB).toDense()).isEqualTo(Ops.times(a, b));
+        assertThat(Ops.div(sparseA, sparseB).toDense()).isEqualTo(Ops.div(a, b));
+        assertThat(Ops.scale(sparseA, -2.0).toDense()).isEqualTo(Ops.scale(a, -2.0));
+    }
+
+    @Test
+    void shouldCarryOverSlotsThatAreNullInOneInput() {
+        // GIVEN two vectors with one shared non-null slot.
+        SparseDoubleVector a = SparseDoubleVector.of(1_000_000, new int[] {3, 500_000}, new double[] {2.0, 4.0});
+        SparseDoubleVector b = SparseDoubleVector.of(1_000_000, new int[] {3, 999_999}, new double[] {8.0, 5.0});
+
+        // WHEN they are multiplied and divided...
+        SparseDoubleVector product = a.times(b);
+        SparseDoubleVector quotient = a.div(b);
+
+        // THEN only slots null in both should stay null, and the others should follow Ops' substitution rules.
+        assertThat(product).hasToString("{3=16.0, 500000=4.0, 999999=5.0} of 1000000");
+        assertThat(quotient.get(3)).isEqualTo(0.25);
+        assertThat(quotient.get(999_999)).isEqualTo(Ops.div(null, 5.0));
+        assertThat(quotient.isNull(4)).isTrue();
+        assertThat(quotient.getDouble(4)).isEqualTo(0.0);
+        assertThat(a.minus(b).get(999_999)).isEqualTo(-5.0);
+        assertThat(a.sum()).isEqualTo(6.0);
+        assertThat(new SparseDoubleVector(10).sum()).isNull();
+    }
+
+    @Test
+    void shouldRecommendTheCheaperRepresentation() {
+        // GIVEN a vector with 2 of 4 slots non-null, and one with 1 of 8.
+        NullableDoubleVector half = NullableDoubleVector.of(1.0, null, 2.0, null);
+        NullableDoubleVector eighth = NullableDoubleVector.of(null, null, null, 1.0, null, null, null, null);
+
+        // WHEN the density threshold is applied...
+        // THEN only the sparser vector should be kept sparse, and conversions should round-trip.
+        assertThat(SparseDoubleVector.prefersSparse(half)).isFalse();
+        assertThat(SparseDoubleVector.copyOf(half).prefersDense()).isTrue();
+        assertThat(SparseDoubleVector.prefersSparse(eighth)).isTrue();
+        assertThat(SparseDoubleVector.copyOf(eighth).prefersDense()).isFalse();
+        assertThat(SparseDoubleVector.copyOf(half).toDense()).isEqualTo(half);
+    }
+
+    @Test
+    void shouldRejectInvalidInput() {
+        // GIVEN unsorted indices, and vectors of different sizes.
+        // WHEN they are used...
+        // THEN an exception should be thrown.
+        assertThatThrownBy(() -> SparseDoubleVector.of(10, new int[] {4, 2}, new double[] {1.0, 2.0}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SparseDoubleVector(2).plus(new SparseDoubleVector(3)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SparseDoubleVector(2).get(2)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    private static NullableDoubleVector randomVector(Random random) {
+        Double[] values = new Double[500];
+        for (int i = 0; i < values.length; i++) {
+            if (random.nextInt(10) != 0) continue;
+            int kind = random.nextInt(4);
+            values[i] = kind == 0 ? 0d : kind == 1 ? -0d : random.nextDouble() * 10 - 5;
+        }
+        return NullableDoubleVector.of(values);
+    }
+}
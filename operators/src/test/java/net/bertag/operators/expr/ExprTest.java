@@ -0,0 +1,83 @@
+package net.bertag.operators.expr;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.column.NullableDoubleColumn;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link Expr} and {@link CompiledExpr}.
+ */
+public class ExprTest {
+
+    private static final Double[] SAMPLES = {null, 2.0, -3.5, 0.0};
+
+    @Test
+    void shouldMatchNestedOpsForEveryNullCombination() {
+        // GIVEN a compound expression over four variables.
+        CompiledExpr compiled = Expr.plus(Expr.times(Expr.var(0), Expr.var(1)),
+                Expr.div(Expr.var(2), Expr.minus(Expr.var(3), Expr.constant(1)))).compile();
+
+        // WHEN it is evaluated over every combination of null and non-null inputs...
+        // THEN each result should equal the nested Ops calls it replaces.
+        for (Double a : SAMPLES) {
+            for (Double b : SAMPLES) {
+                for (Double c : SAMPLES) {
+                    for (Double d : SAMPLES) {
+                        Double expected = Ops.plus(Ops.times(a, b), Ops.div(c, Ops.minus(d, 1.0)));
+                        assertThat(compiled.evaluate(a, b, c, d)).isEqualTo(expected);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldPropagateNullOnlyWhenEveryOperandIsNull() {
+        // GIVEN expressions that substitute for null operands at different levels.
+        CompiledExpr sum = Expr.plus(Expr.times(Expr.var(0), Expr.var(1)), Expr.var(2)).compile();
+        CompiledExpr scaled = Expr.scale(Expr.minus(Expr.var(0), Expr.var(1)), 2).compile();
+
+        // WHEN they are evaluated with some inputs null...
+        // THEN null subexpressions should take the identity of the enclosing operation, as with Ops.
+        assertThat(sum.evaluate(null, null, 5.0)).isEqualTo(5.0);
+        assertThat(sum.evaluate(null, 3.0, 5.0)).isEqualTo(8.0);
+        assertThat(sum.evaluate(null, null, null)).isNull();
+        assertThat(scaled.evaluate(null, 4.0)).isEqualTo(Ops.scale(Ops.minus(null, 4.0), 2.0));
+        assertThat(scaled.evaluate(null, null)).isNull();
+        assertThat(scaled.arity()).isEqualTo(2);
+        assertThat(scaled).hasToString("((x0 - x1) * 2.0)");
+    }
+
+    @Test
+    void shouldEvaluateInBulkOverColumns() {
+        // GIVEN columns with null slots.
+        NullableDoubleColumn x = NullableDoubleColumn.of(1.0, null, 3.0, null);
+        NullableDoubleColumn y = NullableDoubleColumn.of(10.0, 20.0, null, null);
+        CompiledExpr compiled = Expr.plus(Expr.scale(Expr.var(0), 2), Expr.var(1)).compile();
+
+        // WHEN the expression is evaluated over them...
+        NullableDoubleColumn result = compiled.evaluateColumns(x, y);
+
+        // THEN every slot should match the row-by-row result.
+        for (int i = 0; i < x.size(); i++) {
+            assertThat(result.get(i)).isEqualTo(compiled.evaluate(x.get(i), y.get(i)));
+        }
+        assertThat(result.get(0)).isEqualTo(12.0);
+        assertThat(result.isNull(3)).isTrue();
+    }
+
+    @Test
+    void shouldRejectMissingInputs() {
+        // GIVEN an expression over three variables.
+        CompiledExpr compiled = Expr.plus(Expr.var(0), Expr.var(2)).compile();
+
+        // WHEN it is evaluated with too few inputs, or a variable is out of range...
+        // THEN it should fail.
+        assertThatThrownBy(() -> compiled.evaluate(1.0, 2.0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Expr.var(64)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(Expr.constant(3).compile().evaluate()).isEqualTo(3.0);
+    }
+}
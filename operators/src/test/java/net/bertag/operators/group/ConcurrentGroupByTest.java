@@ -0,0 +1,125 @@
+package net.bertag.operators.group;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.sum.CompensatedSum;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ConcurrentGroupBy}.
+ */
+public class ConcurrentGroupByTest {
+
+    @Test
+    void shouldTotalConcurrentUpdatesExactly() throws InterruptedException {
+        // GIVEN an aggregator with few stripes and a low hot-key threshold, fed by many threads.
+        ConcurrentGroupBy<String, Long> groups = new ConcurrentGroupBy<>(Ops::plus, UnaryOperator.identity(), 2, 4, 1);
+
+        // WHEN each thread adds to one hot key and a spread of cold keys...
+        runConcurrently(8, t -> {
+            for (int i = 0; i < 20_000; i++) {
+                groups.add("hot", 1L);
+                groups.add("cold" + (i % 100), i % 3 == 0 ? null : 2L);
+            }
+        });
+
+        // THEN no update should be lost, whether or not the hot key was split.
+        assertThat(groups.get("hot")).isEqualTo(8 * 20_000L);
+        assertThat(groups.size()).isEqualTo(101);
+        long cold = 0;
+        for (Map.Entry<String, Long> entry : groups.toMap().entrySet()) {
+            if (!entry.getKey().equals("hot")) cold += entry.getValue();
+        }
+        assertThat(cold).isEqualTo(8 * 2L * (20_000 - 6667));
+    }
+
+    @Test
+    void shouldFoldSplitCellsOnRead() throws InterruptedException {
+        // GIVEN a key that has been split into cells.
+        ConcurrentGroupBy<Integer, CompensatedSum> groups =
+                new ConcurrentGroupBy<>(CompensatedSum::plus, ConcurrentGroupByTest::copy, 4, 4, 8);
+        groups.add(1, new CompensatedSum().add(0.5));
+        groups.splitKey(1);
+        assertThat(groups.isSplit(1)).isTrue();
+
+        // WHEN threads keep adding to it, with reads in between...
+        runConcurrently(4, t -> {
+            for (int i = 0; i < 1000; i++) {
+                groups.add(1, new CompensatedSum().add(1.0));
+                if (i % 100 == 0) groups.get(1);
+            }
+        });
+
+        // THEN the total should include the value from before the split and every later update.
+        assertThat(groups.get(1).count()).isEqualTo(4001);
+        assertThat(groups.get(1).sum()).isEqualTo(4000.5);
+    }
+
+    @Test
+    void shouldFollowOpsNullRules() {
+        // GIVEN an aggregator for Addable values.
+        ConcurrentGroupBy<String, CompensatedSum> groups = ConcurrentGroupBy.ofAddable(ConcurrentGroupByTest::copy);
+
+        // WHEN null values are added alone and alongside non-null values...
+        groups.add("nulls", null);
+        groups.add("nulls", null);
+        groups.add(null, null);
+        groups.add(null, new CompensatedSum().add(2.0));
+        groups.add(null, null);
+
+        // THEN all-null keys should total null, and null inputs should otherwise be ignored.
+        assertThat(groups.containsKey("nulls")).isTrue();
+        assertThat(groups.get("nulls")).isNull();
+        assertThat(groups.get(null).toDouble()).isEqualTo(2.0);
+        assertThat(groups.get("missing")).isNull();
+        assertThat(groups.containsKey("missing")).isFalse();
+    }
+
+    @Test
+    void shouldReturnCopiesOfMutableTotals() {
+        // GIVEN an aggregator of mutable accumulators, with one plain key and one split key.
+        ConcurrentGroupBy<String, CompensatedSum> groups = ConcurrentGroupBy.ofAddable(ConcurrentGroupByTest::copy);
+        groups.add("plain", new CompensatedSum().add(1.0));
+        groups.add("split", new CompensatedSum().add(1.0));
+        groups.splitKey("split");
+
+        // WHEN totals are read and then updated...
+        CompensatedSum plain = groups.get("plain");
+        CompensatedSum split = groups.get("split");
+        groups.add("plain", new CompensatedSum().add(1.0));
+        groups.add("split", new CompensatedSum().add(1.0));
+
+        // THEN the values already read should not change.
+        assertThat(plain.sum()).isEqualTo(1.0);
+        assertThat(split.sum()).isEqualTo(1.0);
+        assertThat(groups.get("split").sum()).isEqualTo(2.0);
+        assertThat(groups.toMap().get("plain").sum()).isEqualTo(2.0);
+    }
+
+    private static CompensatedSum copy(CompensatedSum sum) {
+        return new CompensatedSum().plus(sum);
+    }
+
+    private static void runConcurrently(int threads, ThreadBody body) throws InterruptedException {
+        List<Thread> started = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread thread = new Thread(() -> body.run(id));
+            thread.start();
+            started.add(thread);
+        }
+        for (Thread thread : started) {
+            thread.join();
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,141 @@
+package net.bertag.operators.group;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.sum.CompensatedSum;
+import net.bertag.operators.test.MyData;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link GroupingSets}.
+ */
+public class GroupingSetsTest {
+
+    private static final Function<MyData, Object> key = MyData::getSomeKey;
+    private static final Function<MyData, Object> parity = data -> data.getSomeLong() == null ? null
+            : data.getSomeLong() % 2;
+
+    @Test
+    void shouldMatchSeparatePassesForEveryGroupingSet() {
+        // GIVEN records over two dimensions, and a cube over them.
+        Random random = new Random(9);
+        MyData[] records = new MyData[5_000];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = new MyData("key" + random.nextInt(20), random.nextInt(10) == 0 ? null
+                    : (double) random.nextInt(1000));
+        }
+        GroupingSets<MyData, MyData> sets = GroupingSets.of(key, parity).cube();
+
+        // WHEN the records are added in one pass...
+        for (MyData record : records) {
+            sets.add(record);
+        }
+
+        // THEN each grouping set should match a separate pass that folds its own groups with Ops.plus.
+        // (someKey is ignored since MyData keeps the key of whichever record it was merged into first.)
+        assertSameTotals(sets.result(0, 1), separatePass(records, key, parity));
+        assertSameTotals(sets.result(0), separatePass(records, key));
+        assertSameTotals(sets.result(1), separatePass(records, parity));
+        assertSameTotals(sets.result(), separatePass(records));
+    }
+
+    @Test
+    void shouldNotAlterFinerSetsWhenDerivingFromMutableAggregates() {
+        // GIVEN a rollup of mutable accumulators.
+        GroupingSets<double[], CompensatedSum> sets = GroupingSets.of(
+                (double[] row) -> new CompensatedSum().add(row[2]), CompensatedSum::plus,
+                sum -> new CompensatedSum().plus(sum), row -> row[0], row -> row[1]).rollup();
+
+        // WHEN records are added and the coarser sets are read before the finer one...
+        sets.add(new double[] {1, 1, 0.5});
+        sets.add(new double[] {1, 2, 0.25});
+        sets.add(new double[] {2, 1, 4.0});
+        double total = sets.result().get(Collections.emptyList()).sum();
+        double first = sets.result(0).get(Collections.singletonList(1.0)).sum();
+
+        // THEN every level should be correct, including the finest.
+        assertThat(total).isEqualTo(4.75);
+        assertThat(first).isEqualTo(0.75);
+        assertThat(sets.result(0, 1).get(Arrays.asList(1.0, 1.0)).sum()).isEqualTo(0.5);
+    }
+
+    @Test
+    void shouldNotAlterTheCallersValues() {
+        // GIVEN mutable accumulators owned by the caller, aggregated as they are over two independent sets.
+        CompensatedSum first = new CompensatedSum().add(1.0);
+        CompensatedSum second = new CompensatedSum().add(2.0);
+        GroupingSets<CompensatedSum, CompensatedSum> sets = GroupingSets.of(Function.<CompensatedSum>identity(),
+                CompensatedSum::plus, sum -> new CompensatedSum().plus(sum), sum -> "all", sum -> sum.count())
+                .groupBy(0).groupBy(1);
+
+        // WHEN both are added to the same groups...
+        sets.add(first);
+        sets.add(second);
+
+        // THEN the groups should be totalled without modifying either accumulator.
+        assertThat(sets.result(0).get(Collections.singletonList("all")).sum()).isEqualTo(3.0);
+        assertThat(sets.result(1).get(Collections.singletonList(1L)).sum()).isEqualTo(3.0);
+        assertThat(first.sum()).isEqualTo(1.0);
+        assertThat(second.sum()).isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldKeepAllNullGroupsAsNull() {
+        // GIVEN an aggregator of nullable longs.
+        GroupingSets<Object[], Long> sets = GroupingSets.of((Object[] row) -> (Long) row[1], Ops::plus, v -> v,
+                row -> row[0]).groupBy(0).groupBy();
+
+        // WHEN records are added whose values are all null for one key...
+        sets.add(new Object[] {"x", null});
+        sets.add(new Object[] {"y", 2L});
+        sets.add(new Object[] {"x", null});
+
+        // THEN the all-null group should be present with a null aggregate, and ignored by the grand total.
+        assertThat(sets.result(0)).containsEntry(Collections.singletonList("x"), null);
+        assertThat(sets.result(0)).containsEntry(Collections.singletonList("y"), 2L);
+        assertThat(sets.result()).containsEntry(Collections.emptyList(), 2L);
+    }
+
+    @Test
+    void shouldRejectUnknownSetsAndLateDefinitions() {
+        // GIVEN an aggregator with one grouping set that has started receiving records.
+        GroupingSets<MyData, MyData> sets = GroupingSets.of(key, parity).groupBy(0);
+        sets.add(new MyData("a", 1.0));
+
+        // WHEN an unknown set is read or a new set is defined...
+        // THEN an exception should be thrown.
+        assertThatThrownBy(() -> sets.result(1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sets.groupBy(1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @SafeVarargs
+    private static Map<List<Object>, MyData> separatePass(MyData[] records, Function<MyData, Object>... dimensions) {
+        Map<List<Object>, MyData> result = new HashMap<>();
+        for (MyData record : records) {
+            Object[] k = new Object[dimensions.length];
+            for (int i = 0; i < k.length; i++) {
+                k[i] = dimensions[i].apply(record);
+            }
+            result.merge(Arrays.asList(k), record, Ops::plus);
+        }
+        return result;
+    }
+
+    private static void assertSameTotals(Map<List<Object>, MyData> actual, Map<List<Object>, MyData> expected) {
+        assertThat(actual.keySet()).isEqualTo(expected.keySet());
+        for (Map.Entry<List<Object>, MyData> entry : expected.entrySet()) {
+            assertThat(actual.get(entry.getKey())).usingRecursiveComparison().ignoringFields("someKey")
+                    .isEqualTo(entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package net.bertag.operators.group;
+
+import org.junit.jupiter.api.Test;
+
+import static net.bertag.operators.io.FieldType.DOUBLE;
+import static net.bertag.operators.io.FieldType.SHORT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link IntGroupBy}.
+ */
+public class IntGroupByTest {
+
+    @Test
+    void shouldGroupByIntKeys() {
+        // GIVEN an aggregator keyed by int.
+        IntGroupBy groups = new IntGroupBy(SHORT, DOUBLE);
+
+        // WHEN records are added under a few keys...
+        for (int i = 0; i < 1000; i++) {
+            groups.add(i % 3 - 1, (short) 1, i % 2 == 0 ? null : 0.5);
+        }
+
+        // THEN each group should total its own records.
+        assertThat(groups.size()).isEqualTo(3);
+        assertThat(groups.key(0)).isEqualTo(-1);
+        assertThat(groups.get(-1)).containsExactly((short) 334, 83.5);
+        assertThat(groups.get(1)).containsExactly((short) 333, 83.0);
+    }
+}
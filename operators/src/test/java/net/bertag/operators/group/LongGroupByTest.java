@@ -0,0 +1,102 @@
+package net.bertag.operators.group;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static net.bertag.operators.io.FieldType.DOUBLE;
+import static net.bertag.operators.io.FieldType.FLOAT;
+import static net.bertag.operators.io.FieldType.INT;
+import static net.bertag.operators.io.FieldType.LONG;
+import static net.bertag.operators.io.FieldType.SHORT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link LongGroupBy} and {@link GroupColumns}.
+ */
+public class LongGroupByTest {
+
+    @Test
+    void shouldMatchHashMapMergeWithOps() {
+        // GIVEN records with nullable fields spread over many keys (enough to grow the table several times).
+        Random random = new Random(3);
+        LongGroupBy groups = new LongGroupBy(INT, LONG, SHORT, FLOAT, DOUBLE);
+        Map<Long, Number[]> expected = new HashMap<>();
+
+        // WHEN they are grouped both ways...
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) * 0x1_0000_0000L - 7;
+            Number[] record = {
+                    random.nextInt(4) == 0 ? null : random.nextInt(),
+                    random.nextInt(4) == 0 ? null : random.nextLong(),
+                    random.nextInt(4) == 0 ? null : (short) random.nextInt(),
+                    random.nextInt(4) == 0 ? null : random.nextFloat() * 100,
+                    random.nextInt(4) == 0 ? null : random.nextGaussian()};
+            groups.add(key, record);
+            expected.merge(key, record, LongGroupByTest::plus);
+        }
+
+        // THEN every group's totals should be identical to folding its records with Ops.plus.
+        assertThat(groups.size()).isEqualTo(expected.size());
+        for (Map.Entry<Long, Number[]> entry : expected.entrySet()) {
+            assertThat(groups.get(entry.getKey())).containsExactly(entry.getValue());
+        }
+    }
+
+    @Test
+    void shouldNumberGroupsInOrderOfFirstAppearance() {
+        // GIVEN an aggregator with keys that include 0 and negative values.
+        LongGroupBy groups = new LongGroupBy(LONG);
+
+        // WHEN groups are added...
+        groups.add(0L, 1L);
+        groups.add(-1L, (Number) null);
+        groups.add(0L, 2L);
+
+        // THEN slots should follow first appearance, and a group with only nulls should total null.
+        assertThat(groups.slot(0L)).isZero();
+        assertThat(groups.key(1)).isEqualTo(-1L);
+        assertThat(groups.columns().get(0, 0)).isEqualTo(3L);
+        assertThat(groups.columns().get(1, 0)).isNull();
+        assertThat(groups.find(42L)).isEqualTo(-1);
+        assertThat(groups.get(42L)).isNull();
+    }
+
+    @Test
+    void shouldUpdateSlotsInPlaceWithoutBoxing() {
+        // GIVEN an aggregator and the slot of a group.
+        LongGroupBy groups = new LongGroupBy(INT, DOUBLE);
+        int slot = groups.slot(9L);
+
+        // WHEN primitive values are added to the slot directly...
+        groups.columns().addLong(slot, 0, Integer.MAX_VALUE);
+        groups.columns().addLong(slot, 0, 1);
+        groups.columns().addDouble(slot, 1, 0.5);
+
+        // THEN the totals should wrap and accumulate as with Ops.plus.
+        assertThat(groups.get(9L)).containsExactly(Integer.MIN_VALUE, 0.5);
+    }
+
+    @Test
+    void shouldRejectRecordsOfTheWrongLength() {
+        // GIVEN an aggregator with two fields.
+        LongGroupBy groups = new LongGroupBy(INT, DOUBLE);
+
+        // WHEN a record with one field is added...
+        // THEN an IllegalArgumentException should be thrown.
+        assertThatThrownBy(() -> groups.add(1L, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Number[] plus(Number[] a, Number[] b) {
+        return new Number[] {
+                Ops.plus((Integer) a[0], (Integer) b[0]),
+                Ops.plus((Long) a[1], (Long) b[1]),
+                Ops.plus((Short) a[2], (Short) b[2]),
+                Ops.plus((Float) a[3], (Float) b[3]),
+                Ops.plus((Double) a[4], (Double) b[4])};
+    }
+}
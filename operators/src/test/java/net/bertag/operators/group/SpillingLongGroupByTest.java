@@ -0,0 +1,115 @@
+package net.bertag.operators.group;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static net.bertag.operators.io.FieldType.DOUBLE;
+import static net.bertag.operators.io.FieldType.FLOAT;
+import static net.bertag.operators.io.FieldType.INT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for {@link SpillingLongGroupBy}.
+ */
+public class SpillingLongGroupByTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldMatchInMemoryTotalsAfterSpilling() throws IOException {
+        // GIVEN a spilling aggregator with room for only 500 groups in memory, and an in-memory one.
+        LongGroupBy expected = new LongGroupBy(INT, FLOAT, DOUBLE);
+        Random random = new Random(5);
+        try (SpillingLongGroupBy groups = new SpillingLongGroupBy(dir, 500, 8, INT, FLOAT, DOUBLE)) {
+            // WHEN both are fed the same records over 10,000 keys...
+            for (int i = 0; i < 100_000; i++) {
+                long key = random.nextInt(10_000) - 5_000;
+                Number[] record = {
+                        random.nextInt(3) == 0 ? null : random.nextInt(100),
+                        random.nextInt(3) == 0 ? null : random.nextFloat(),
+                        key % 7 == 0 ? null : random.nextDouble()};
+                groups.add(key, record);
+                expected.add(key, record);
+            }
+            assertThat(groups.spillCount()).isGreaterThan(1);
+
+            // THEN every group should appear exactly once with the same totals, up to the rounding of partial
+            // floating-point sums (and the spill files should be cleaned up).
+            int[] seen = {0};
+            groups.forEach((totals, key) -> {
+                Number[] other = expected.get(key);
+                assertThat(totals[0]).isEqualTo(other[0]);
+                assertCloseTo(totals[1], other[1], 1e-4);
+                assertCloseTo(totals[2], other[2], 1e-12);
+                seen[0]++;
+            });
+            assertThat(seen[0]).isEqualTo(expected.size());
+            try (Stream<Path> files = Files.list(dir)) {
+                assertThat(files.count()).isZero();
+            }
+        }
+    }
+
+    @Test
+    void shouldSplitPartitionsThatOutgrowTheBudget() throws IOException {
+        // GIVEN a spilling aggregator with room for 50 groups in memory but only 2 partitions, and an in-memory one.
+        LongGroupBy expected = new LongGroupBy(INT);
+        Random random = new Random(9);
+        try (SpillingLongGroupBy groups = new SpillingLongGroupBy(dir, 50, 2, INT)) {
+            // WHEN both are fed records over far more keys than 2 partitions of 50 groups can hold...
+            for (int i = 0; i < 20_000; i++) {
+                long key = random.nextInt(5_000);
+                groups.add(key, i);
+                expected.add(key, i);
+            }
+
+            // THEN the totals should still match, and no more than 50 groups should ever be merged in memory at once.
+            int[] seen = {0};
+            groups.forEach((totals, key) -> {
+                assertThat(totals).containsExactly(expected.get(key));
+                seen[0]++;
+            });
+            assertThat(seen[0]).isEqualTo(expected.size());
+            assertThat(groups.largestMerge()).isLessThanOrEqualTo(50);
+            try (Stream<Path> files = Files.list(dir)) {
+                assertThat(files.count()).isZero();
+            }
+        }
+    }
+
+    @Test
+    void shouldNotSpillWithinBudget() throws IOException {
+        // GIVEN an aggregator with a generous budget.
+        try (SpillingLongGroupBy groups = new SpillingLongGroupBy(dir, 1 << 20, INT)) {
+            // WHEN a few groups are added...
+            groups.add(1L, 1);
+            groups.add(2L, (Number) null);
+            groups.add(1L, 2);
+
+            // THEN nothing should be spilled, and the totals should follow the Ops null rules.
+            assertThat(groups.spillCount()).isZero();
+            LongGroupBy results = new LongGroupBy(INT);
+            groups.forEach((totals, key) -> results.add(key, totals));
+            assertThat(results.get(1L)).containsExactly(3);
+            assertThat(results.get(2L)).containsOnlyNulls();
+
+            // AND the results should only be readable once.
+            assertThatThrownBy(() -> groups.forEach((totals, key) -> { }))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    private static void assertCloseTo(Number actual, Number expected, double tolerance) {
+        if (expected == null) assertThat(actual).isNull();
+        else assertThat(actual.doubleValue()).isCloseTo(expected.doubleValue(), within(tolerance));
+    }
+}
@@ -0,0 +1,65 @@
+package net.bertag.operators.group;
+
+import org.junit.jupiter.api.Test;
+
+import static net.bertag.operators.io.FieldType.FLOAT;
+import static net.bertag.operators.io.FieldType.LONG;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link StringGroupBy}.
+ */
+public class StringGroupByTest {
+
+    @Test
+    void shouldSeparateKeysWithEqualHashCodes() {
+        // GIVEN keys whose hash codes collide ("Aa" and "BB").
+        StringGroupBy groups = new StringGroupBy(LONG);
+
+        // WHEN records are added under each...
+        groups.add("Aa", 1L);
+        groups.add("BB", 10L);
+        groups.add("Aa", 2L);
+
+        // THEN they should still be separate groups.
+        assertThat(groups.size()).isEqualTo(2);
+        assertThat(groups.get("Aa")).containsExactly(3L);
+        assertThat(groups.get("BB")).containsExactly(10L);
+    }
+
+    @Test
+    void shouldTreatNullAsAKey() {
+        // GIVEN records under a null key.
+        StringGroupBy groups = new StringGroupBy(FLOAT);
+
+        // WHEN they are added...
+        groups.add(null, 0.1f);
+        groups.add("x", 1f);
+        groups.add(null, 0.2f);
+
+        // THEN the null key should be its own group, totalled in float precision as with Ops.plus.
+        assertThat(groups.find(null)).isZero();
+        assertThat(groups.key(0)).isNull();
+        assertThat(groups.get(null)).containsExactly(0.1f + 0.2f);
+    }
+
+    @Test
+    void shouldGrowWithManyKeys() {
+        // GIVEN many distinct keys.
+        StringGroupBy groups = new StringGroupBy(LONG);
+
+        // WHEN each is added twice...
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 10_000; i++) {
+                groups.add("key" + i, (long) i);
+            }
+        }
+
+        // THEN every key should map to one group holding both records.
+        assertThat(groups.size()).isEqualTo(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(groups.key(groups.find("key" + i))).isEqualTo("key" + i);
+            assertThat(groups.get("key" + i)).containsExactly(2L * i);
+        }
+    }
+}
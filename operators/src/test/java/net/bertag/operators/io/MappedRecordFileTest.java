@@ -0,0 +1,99 @@
+package net.bertag.operators.io;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.sum.ExactSum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static net.bertag.operators.io.FieldType.DOUBLE;
+import static net.bertag.operators.io.FieldType.FLOAT;
+import static net.bertag.operators.io.FieldType.INT;
+import static net.bertag.operators.io.FieldType.LONG;
+import static net.bertag.operators.io.FieldType.SHORT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link MappedRecordFile}.
+ */
+public class MappedRecordFileTest {
+
+    private static final RecordLayout layout = RecordLayout.of(INT, LONG, SHORT, FLOAT, DOUBLE);
+    private static final int count = 50_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldSumFieldsLikeOps() throws IOException {
+        // GIVEN a file of records with null and non-null fields.
+        Path file = write(count);
+
+        // WHEN it is summed across many small segments...
+        Number[] totals;
+        try (MappedRecordFile records = MappedRecordFile.open(file, 4096)) {
+            assertThat(records.size()).isEqualTo(count);
+            totals = records.sum();
+        }
+
+        // THEN the integer fields should match folding with Ops, and the floating-point fields the exact sum.
+        Integer ints = null;
+        Long longs = null;
+        Short shorts = null;
+        ExactSum floats = new ExactSum();
+        ExactSum doubles = new ExactSum();
+        for (int i = 0; i < count; i++) {
+            Number[] record = RecordFileTest.record(i);
+            ints = Ops.plus(ints, (Integer) record[0]);
+            longs = Ops.plus(longs, (Long) record[1]);
+            shorts = Ops.plus(shorts, (Short) record[2]);
+            floats.add((Float) record[3]);
+            doubles.add((Double) record[4]);
+        }
+        assertThat(totals).containsExactly(ints, longs, shorts, floats.toFloat(), doubles.toDouble());
+    }
+
+    @Test
+    void shouldSumIdenticallyInParallel() throws IOException {
+        // GIVEN a file of records.
+        Path file = write(count);
+
+        // WHEN it is summed sequentially and in parallel...
+        // THEN the results should be identical.
+        try (MappedRecordFile records = MappedRecordFile.open(file, 1000)) {
+            assertThat(records.parallelSum()).containsExactly(records.sum());
+        }
+    }
+
+    @Test
+    void shouldSumToNullsWhenEmptyOrAllNull() throws IOException {
+        // GIVEN an empty file and a file whose records are entirely null.
+        Path empty = write(0);
+        Path nulls = dir.resolve("nulls.bin");
+        try (RecordWriter writer = RecordWriter.create(nulls, layout)) {
+            writer.write(null, null, null, null, null);
+            writer.write(null, null, null, null, null);
+        }
+
+        // WHEN each is summed...
+        // THEN every field should be null, as with Ops.plus(null, null).
+        try (MappedRecordFile records = MappedRecordFile.open(empty)) {
+            assertThat(records.sum()).containsOnlyNulls().hasSize(5);
+        }
+        try (MappedRecordFile records = MappedRecordFile.open(nulls)) {
+            assertThat(records.parallelSum()).containsOnlyNulls().hasSize(5);
+        }
+    }
+
+    private Path write(int records) throws IOException {
+        Path file = dir.resolve("records-" + records + ".bin");
+        try (RecordWriter writer = RecordWriter.create(file, layout)) {
+            for (int i = 0; i < records; i++) {
+                writer.write(RecordFileTest.record(i));
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,92 @@
+package net.bertag.operators.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static net.bertag.operators.io.FieldType.DOUBLE;
+import static net.bertag.operators.io.FieldType.FLOAT;
+import static net.bertag.operators.io.FieldType.INT;
+import static net.bertag.operators.io.FieldType.LONG;
+import static net.bertag.operators.io.FieldType.SHORT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link RecordWriter} and {@link RecordReader}.
+ */
+public class RecordFileTest {
+
+    private static final RecordLayout layout = RecordLayout.of(INT, LONG, SHORT, FLOAT, DOUBLE);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldPackRecordsWithNullBitmap() {
+        // GIVEN the layout of MyData's numeric fields.
+        // WHEN its size is computed...
+        // THEN each record should be one bitmap byte followed by the packed values.
+        assertThat(layout.recordSize()).isEqualTo(1 + 4 + 8 + 2 + 4 + 8);
+        assertThat(layout.headerSize()).isEqualTo(4 + 1 + 1 + 5);
+    }
+
+    @Test
+    void shouldRoundTripNullableRecords() throws IOException {
+        // GIVEN a file of records with null and non-null fields, spanning several writer buffers.
+        Path file = dir.resolve("records.bin");
+        try (RecordWriter writer = RecordWriter.create(file, layout)) {
+            for (int i = 0; i < 10_000; i++) {
+                writer.write(record(i));
+            }
+            assertThat(writer.count()).isEqualTo(10_000);
+        }
+
+        // WHEN the file is read back...
+        // THEN every record should match what was written, and the file should be exactly header plus records.
+        assertThat(Files.size(file)).isEqualTo(layout.headerSize() + 10_000L * layout.recordSize());
+        try (RecordReader reader = RecordReader.open(file)) {
+            assertThat(reader.layout()).isEqualTo(layout);
+            for (int i = 0; i < 10_000; i++) {
+                assertThat(reader.read()).containsExactly(record(i));
+            }
+            assertThat(reader.read()).isNull();
+        }
+    }
+
+    @Test
+    void shouldRejectValuesOfTheWrongType() throws IOException {
+        // GIVEN a writer.
+        try (RecordWriter writer = RecordWriter.create(dir.resolve("records.bin"), layout)) {
+            // WHEN a record with a mistyped or missing field is written...
+            // THEN an IllegalArgumentException should be thrown.
+            assertThatThrownBy(() -> writer.write(1L, 1L, (short) 1, 1f, 1d))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> writer.write(1, 1L))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void shouldRejectFilesThatAreNotRecordFiles() throws IOException {
+        // GIVEN a file with some other content.
+        Path file = dir.resolve("other.json");
+        Files.write(file, "{\"someInt\": 1}".getBytes("UTF-8"));
+
+        // WHEN it is opened...
+        // THEN an IOException should be thrown.
+        assertThatThrownBy(() -> RecordReader.open(file)).isInstanceOf(IOException.class);
+    }
+
+    static Number[] record(int i) {
+        return new Number[] {
+                i % 3 == 0 ? null : i,
+                i % 5 == 0 ? null : (long) i * 1_000_000_007L,
+                i % 7 == 0 ? null : (short) i,
+                i % 2 == 0 ? null : i / 8f,
+                i % 11 == 0 ? null : i * 0.1};
+    }
+}
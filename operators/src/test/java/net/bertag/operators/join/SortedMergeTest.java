@@ -0,0 +1,129 @@
+package net.bertag.operators.join;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.test.MyData;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link SortedMerge}.
+ */
+public class SortedMergeTest {
+
+    @Test
+    void shouldTreatMissingKeysAsNull() {
+        // GIVEN two sorted datasets that share only some keys.
+        List<MyData> left = Arrays.asList(new MyData("a", 1.0), new MyData("b", 2.0), new MyData("d", 4.0));
+        List<MyData> right = Arrays.asList(new MyData("b", 20.0), new MyData("c", 30.0), new MyData("d", 40.0));
+
+        // WHEN they are added and subtracted key by key...
+        List<MyData> sums = toList(SortedMerge.plus(left.iterator(), right.iterator(), MyData::getSomeKey));
+        List<MyData> differences = toList(SortedMerge.minus(right.iterator(), left.iterator(), MyData::getSomeKey));
+
+        // THEN every key should appear once, in order, with a missing record combined as null.
+        assertThat(sums).containsExactly(new MyData("a", 1.0), new MyData("b", 22.0), new MyData("c", 30.0),
+                new MyData("d", 44.0));
+        assertThat(differences).containsExactly(new MyData("a", 1.0), new MyData("b", 18.0), new MyData("c", 30.0),
+                new MyData("d", 36.0));
+    }
+
+    @Test
+    void shouldMatchOpsForEveryOperator() {
+        // GIVEN two sorted datasets with overlapping keys.
+        List<MyData> left = Arrays.asList(new MyData("a", 6.0), new MyData("b", 8.0));
+        List<MyData> right = Arrays.asList(new MyData("b", 2.0), new MyData("c", 3.0));
+
+        // WHEN they are multiplied and divided key by key...
+        List<MyData> products = toList(SortedMerge.times(left.iterator(), right.iterator(), MyData::getSomeKey));
+        List<MyData> quotients = toList(SortedMerge.div(left.iterator(), right.iterator(), MyData::getSomeKey));
+
+        // THEN each result should equal the corresponding Ops call on the matched pair.
+        assertThat(products).containsExactly(Ops.times(left.get(0), null), Ops.times(left.get(1), right.get(0)),
+                Ops.times(null, right.get(1)));
+        assertThat(quotients).containsExactly(Ops.div(left.get(0), null), Ops.div(left.get(1), right.get(0)),
+                Ops.div(null, right.get(1)));
+    }
+
+    @Test
+    void shouldScaleByMatchingFactors() {
+        // GIVEN sorted records and sorted factors with partially matching keys.
+        List<MyData> values = Arrays.asList(new MyData("a", 1.0), new MyData("b", 2.0));
+        List<Map.Entry<String, Double>> factors = Arrays.asList(new SimpleEntry<>("b", 10.0),
+                new SimpleEntry<>("z", 5.0));
+
+        // WHEN the records are scaled...
+        List<MyData> scaled = toList(SortedMerge.scale(values.iterator(), factors.iterator(), MyData::getSomeKey));
+
+        // THEN only matched records should be scaled, and unmatched factors should be dropped.
+        assertThat(scaled).containsExactly(new MyData("a", 1.0), new MyData("b", 20.0));
+    }
+
+    @Test
+    void shouldCombineDifferentTypesAndSkipNullResults() {
+        // GIVEN sorted records and sorted integer keys that mark which records to keep.
+        List<MyData> records = Arrays.asList(new MyData("a", 1.0), new MyData("b", 2.0), new MyData("c", 3.0));
+        List<String> keep = Arrays.asList("b", "c", "d");
+
+        // WHEN they are combined with an operator returning null for unmatched records...
+        Iterator<MyData> kept = SortedMerge.combine(records.iterator(), keep.iterator(), MyData::getSomeKey,
+                key -> key, (MyData record, String key) -> key == null ? null : record);
+
+        // THEN only the matched records should remain (a key without a record yields null and is skipped too).
+        assertThat(toList(kept)).containsExactly(records.get(1), records.get(2));
+    }
+
+    @Test
+    void shouldRejectUnsortedInput() {
+        // GIVEN a left input whose keys go backwards.
+        List<MyData> left = Arrays.asList(new MyData("b", 1.0), new MyData("a", 2.0));
+        Iterator<MyData> merged = SortedMerge.plus(left.iterator(), new ArrayList<MyData>().iterator(),
+                MyData::getSomeKey);
+
+        // WHEN the merge looks ahead to the out-of-order key...
+        // THEN it should fail rather than silently produce a wrong join.
+        assertThatThrownBy(merged::next).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldMergePartitionsInParallelAndInOrder() {
+        // GIVEN two large datasets, range-partitioned into four matching key ranges.
+        List<List<MyData>> left = new ArrayList<>();
+        List<List<MyData>> right = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            left.add(new ArrayList<>());
+            right.add(new ArrayList<>());
+            for (int i = 0; i < 5_000; i++) {
+                int key = p * 10_000 + i * 2;
+                left.get(p).add(new MyData(String.format("%06d", key), 1.0));
+                right.get(p).add(new MyData(String.format("%06d", key + i % 2), 2.0));
+            }
+        }
+
+        // WHEN they are merged in parallel...
+        List<MyData> parallel = SortedMerge.parallelCombine(left, right, MyData::getSomeKey, MyData::getSomeKey,
+                (MyData a, MyData b) -> Ops.plus(a, b)).collect(Collectors.toList());
+
+        // THEN the result should equal a sequential merge of the concatenated inputs.
+        List<MyData> sequential = toList(SortedMerge.plus(flatten(left).iterator(), flatten(right).iterator(),
+                MyData::getSomeKey));
+        assertThat(parallel).hasSize(30_000).isEqualTo(sequential);
+    }
+
+    private static <T> List<T> toList(Iterator<T> results) {
+        return SortedMerge.stream(results).collect(Collectors.toList());
+    }
+
+    private static <T> List<T> flatten(List<List<T>> partitions) {
+        return partitions.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,136 @@
+package net.bertag.operators.stats;
+
+import net.bertag.operators.Ops;
+import net.bertag.operators.column.NullableDoubleColumn;
+import net.bertag.operators.column.OffHeapLongColumn;
+import org.junit.jupiter.api.Test;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for {@link Histogram}.
+ */
+public class HistogramTest {
+
+    @Test
+    void shouldEstimateQuantilesWithinTheBucketPrecision() {
+        // GIVEN latencies spread over several orders of magnitude.
+        Random random = new Random(17);
+        long[] values = new long[200_000];
+        Histogram histogram = new Histogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        // WHEN quantiles are read...
+        // THEN each should be within the relative bucket width (1/64) of the exact quantile.
+        for (double q : new double[] {0.1, 0.5, 0.9, 0.99, 0.999}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            assertThat((double) histogram.valueAtQuantile(q)).isCloseTo(exact, within(exact / 64d + 1));
+        }
+        assertThat(histogram.valueAtQuantile(0)).isEqualTo(values[0]);
+        assertThat(histogram.valueAtQuantile(1)).isEqualTo(values[values.length - 1]);
+        assertThat(histogram.mean()).isCloseTo(Arrays.stream(values).average().getAsDouble(),
+                within(histogram.mean() / 64));
+    }
+
+    @Test
+    void shouldKeepSmallValuesExact() {
+        // GIVEN values below 2^precision, and values just past it.
+        Histogram histogram = new Histogram(1_000, 7);
+        for (long value = 0; value < 128; value++) {
+            histogram.record(value);
+        }
+        histogram.record(128).record(129).record(130, 3);
+
+        // WHEN buckets are read...
+        // THEN small values should be counted exactly, and larger values in buckets of width 2.
+        assertThat(histogram.countAt(127)).isEqualTo(1);
+        assertThat(histogram.countAt(128)).isEqualTo(2);
+        assertThat(histogram.countAt(131)).isEqualTo(3);
+        assertThat(histogram.count()).isEqualTo(133);
+        assertThat(histogram.bucketCount()).isLessThan(new Histogram().bucketCount());
+    }
+
+    @Test
+    void shouldMergeByAddingBuckets() {
+        // GIVEN per-thread histograms, one of them null.
+        Histogram a = new Histogram().record(5).record(1_000_000);
+        Histogram b = new Histogram().record(5).record(70);
+
+        // WHEN they are merged with Ops.plus...
+        Histogram merged = Ops.plus(Ops.plus(a, null), b);
+
+        // THEN counts, extremes and quantiles should cover both inputs.
+        assertThat(merged.count()).isEqualTo(4);
+        assertThat(merged.countAt(5)).isEqualTo(2);
+        assertThat(merged.min()).isEqualTo(5);
+        assertThat(merged.max()).isEqualTo(1_000_000);
+        assertThat(merged.valueAtQuantile(0.5)).isEqualTo(5);
+        assertThatThrownBy(() -> new Histogram(100, 7).plus(new Histogram()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRecordColumnsSkippingNulls() {
+        // GIVEN nullable long and double columns.
+        OffHeapLongColumn longs = OffHeapLongColumn.of(1L, null, 300L);
+        NullableDoubleColumn doubles = NullableDoubleColumn.of(null, 2.4, 299.6);
+
+        // WHEN they are recorded in bulk...
+        Histogram histogram = new Histogram().recordAll(longs).recordAll(doubles);
+
+        // THEN only the non-null slots should be counted, with doubles rounded.
+        assertThat(histogram.count()).isEqualTo(4);
+        assertThat(histogram.countAt(2)).isEqualTo(1);
+        assertThat(histogram.countAt(300)).isEqualTo(2);
+        assertThatThrownBy(() -> histogram.record(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldScaleCountsAndRoundTrip() {
+        // GIVEN a histogram with repeated values.
+        Histogram histogram = new Histogram().record(10, 4).record(2_000, 10);
+
+        // WHEN it is scaled and written and read back...
+        Ops.scale(histogram, 0.5);
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.serializedSize());
+        histogram.writeTo(buffer);
+        ((Buffer) buffer).flip();
+        Histogram copy = Histogram.readFrom(buffer);
+
+        // THEN the counts should be halved, and the copy should equal the original.
+        assertThat(histogram.countAt(10)).isEqualTo(2);
+        assertThat(histogram.count()).isEqualTo(7);
+        assertThat(buffer.remaining()).isZero();
+        assertThat(copy).isEqualTo(histogram);
+        assertThat(histogram.serializedSize()).isLessThan(histogram.bucketCount() * Long.BYTES / 4);
+    }
+
+    @Test
+    void shouldRejectNegativeCountsFactorsAndCorruptRanges() {
+        // GIVEN a histogram, and a serialized histogram whose bucket range is beyond its layout.
+        Histogram histogram = new Histogram().record(10, 4);
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.serializedSize());
+        histogram.writeTo(buffer);
+        buffer.putInt(Long.BYTES * 4 + Byte.BYTES + Integer.BYTES, Integer.MAX_VALUE);
+        ((Buffer) buffer).flip();
+
+        // WHEN a negative count or factor is applied, or the corrupt histogram is read...
+        // THEN an IllegalArgumentException should be thrown, leaving the histogram unchanged.
+        assertThatThrownBy(() -> histogram.record(10, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> histogram.scale(-0.5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> histogram.scale(Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Histogram.readFrom(buffer)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(histogram.count()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,111 @@
+package net.bertag.operators.stats;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for {@link HyperLogLog}.
+ */
+public class HyperLogLogTest {
+
+    @Test
+    void shouldEstimateAcrossTheWholeRange() {
+        // GIVEN sketches of various numbers of distinct values, each added several times.
+        for (int distinct : new int[] {0, 1, 10, 100, 1_000, 10_000, 100_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int repeat = 0; repeat < 3; repeat++) {
+                for (long i = 0; i < distinct; i++) {
+                    sketch.add(i * 31 + 7);
+                }
+            }
+
+            // WHEN the distinct count is estimated...
+            // THEN it should be within a few standard errors (about 1.1% each) and ignore the duplicates.
+            assertThat((double) sketch.estimate()).as("%d distinct", distinct).isCloseTo(distinct,
+                    within(Math.max(1, distinct * 0.035)));
+        }
+    }
+
+    @Test
+    void shouldStaySparseForSmallSetsAndSwitchToDense() {
+        // GIVEN a sketch with a few distinct strings.
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            sketch.add("user-" + i);
+        }
+
+        // WHEN more values are added...
+        // THEN it should stay small while sparse, then switch to the fixed-size dense form.
+        assertThat(sketch.isSparse()).isTrue();
+        assertThat(sketch.serializedSize()).isLessThan(1_000);
+        for (int i = 100; i < 10_000; i++) {
+            sketch.add("user-" + i);
+        }
+        assertThat(sketch.isSparse()).isFalse();
+        assertThat(sketch.serializedSize()).isEqualTo(2 + (1 << HyperLogLog.DEFAULT_PRECISION));
+        assertThat((double) sketch.estimate()).isCloseTo(10_000, within(350.0));
+    }
+
+    @Test
+    void shouldMergeLikeTheUnionOfTheInputs() {
+        // GIVEN overlapping sets sketched separately in every combination of sparse and dense forms.
+        HyperLogLog smallA = range(0, 300);
+        HyperLogLog smallB = range(200, 500);
+        HyperLogLog largeA = range(0, 60_000);
+        HyperLogLog largeB = range(40_000, 100_000);
+
+        // WHEN they are merged with Ops.plus...
+        // THEN each estimate should match a sketch of the union, and null should act as an empty sketch.
+        assertThat(Ops.plus(range(0, 300), smallB).estimate()).isEqualTo(range(0, 500).estimate());
+        assertThat(Ops.plus(range(0, 300), largeB).estimate()).isEqualTo(range(0, 300).plus(largeB).estimate());
+        assertThat(Ops.plus(range(0, 60_000), smallA).estimate()).isEqualTo(range(0, 60_000).estimate());
+        assertThat(Ops.plus(largeA, largeB).estimate()).isEqualTo(range(0, 100_000).estimate());
+        assertThat(Ops.plus(null, smallB)).isSameAs(smallB);
+        assertThatThrownBy(() -> new HyperLogLog(12).plus(new HyperLogLog(13)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRoundTripBothForms() {
+        // GIVEN a sparse and a dense sketch.
+        for (HyperLogLog sketch : new HyperLogLog[] {range(0, 50), range(0, 50_000)}) {
+            // WHEN each is written and read back...
+            ByteBuffer buffer = ByteBuffer.allocate(sketch.serializedSize());
+            sketch.writeTo(buffer);
+            ((Buffer) buffer).flip();
+            HyperLogLog copy = HyperLogLog.readFrom(buffer);
+
+            // THEN the copy should give the same estimate and keep merging correctly.
+            assertThat(buffer.remaining()).isZero();
+            assertThat(copy.isSparse()).isEqualTo(sketch.isSparse());
+            assertThat(copy.estimate()).isEqualTo(sketch.estimate());
+            assertThat(copy.add(-1L).estimate()).isEqualTo(sketch.add(-1L).estimate());
+        }
+    }
+
+    @Test
+    void shouldHashIntegralNumbersByValue() {
+        // GIVEN the same value added as different boxed types, plus null.
+        HyperLogLog sketch = new HyperLogLog().add((Object) 5).add((Object) 5L).add((Object) (short) 5)
+                .add((Object) null);
+
+        // WHEN the distinct count is estimated...
+        // THEN they should count as one value.
+        assertThat(sketch.estimate()).isEqualTo(1);
+    }
+
+    private static HyperLogLog range(long from, long to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long i = from; i < to; i++) {
+            sketch.add(i);
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,97 @@
+package net.bertag.operators.stats;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for {@link NullableStats}.
+ */
+public class NullableStatsTest {
+
+    @Test
+    void shouldExcludeNullsFromTheMean() {
+        // GIVEN a week of readings with one missing day.
+        NullableStats stats = NullableStats.of(50.0, 55.0, 50.0, 45.0, 60.0, 40.0, null);
+
+        // WHEN the statistics are read...
+        // THEN the null should be counted separately and left out of the mean's divisor.
+        assertThat(stats.count()).isEqualTo(6);
+        assertThat(stats.nullCount()).isEqualTo(1);
+        assertThat(stats.sum()).isEqualTo(300.0);
+        assertThat(stats.mean()).isEqualTo(50.0);
+        assertThat(stats.min()).isEqualTo(40.0);
+        assertThat(stats.max()).isEqualTo(60.0);
+        assertThat(stats.variance()).isCloseTo(250.0 / 6, within(1e-12));
+        assertThat(stats.sampleVariance()).isCloseTo(50.0, within(1e-12));
+    }
+
+    @Test
+    void shouldReturnNullWithoutNonNullValues() {
+        // GIVEN statistics of only nulls, and of a single value.
+        NullableStats nulls = NullableStats.of(null, null);
+        NullableStats single = NullableStats.of(3.0);
+
+        // WHEN the statistics are read...
+        // THEN they should be null where undefined, as with Ops.
+        assertThat(nulls.mean()).isNull();
+        assertThat(nulls.sum()).isNull();
+        assertThat(nulls.min()).isNull();
+        assertThat(nulls.variance()).isNull();
+        assertThat(single.variance()).isEqualTo(0.0);
+        assertThat(single.sampleVariance()).isNull();
+        assertThat(Ops.plus(nulls, single).nullCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldMergePartitionsLikeASinglePass() {
+        // GIVEN many values with a large offset (which defeats the naive sum-of-squares formula), split unevenly.
+        Random random = new Random(3);
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            values.add(i % 10 == 0 ? null : 1e9 + random.nextGaussian());
+        }
+        NullableStats single = NullableStats.of(values.stream());
+        NullableStats merged = NullableStats.of(values.subList(0, 7).stream())
+                .plus(NullableStats.of(values.subList(7, 60_000).stream()))
+                .plus(NullableStats.of(values.subList(60_000, values.size()).stream()));
+
+        // WHEN the statistics are computed sequentially, merged from partitions, and in parallel...
+        NullableStats parallel = NullableStats.of(values.parallelStream());
+
+        // THEN they should agree, and the variance should stay close to 1.
+        for (NullableStats stats : new NullableStats[] {merged, parallel}) {
+            assertThat(stats.count()).isEqualTo(single.count());
+            assertThat(stats.nullCount()).isEqualTo(10_000);
+            assertThat(stats.mean()).isCloseTo(single.mean(), within(1e-4));
+            assertThat(stats.variance()).isCloseTo(single.variance(), within(1e-6));
+            assertThat(stats.min()).isEqualTo(single.min());
+            assertThat(stats.max()).isEqualTo(single.max());
+        }
+        assertThat(single.variance()).isCloseTo(1.0, within(0.02));
+    }
+
+    @Test
+    void shouldScaleTheUnderlyingValues() {
+        // GIVEN statistics of some values.
+        NullableStats stats = NullableStats.of(1.0, 2.0, null, 6.0);
+
+        // WHEN they are scaled by a negative factor...
+        Ops.scale(stats, -2.0);
+
+        // THEN each statistic should match the statistics of the scaled values.
+        NullableStats expected = NullableStats.of(-2.0, -4.0, null, -12.0);
+        assertThat(stats.count()).isEqualTo(3);
+        assertThat(stats.sum()).isEqualTo(expected.sum());
+        assertThat(stats.min()).isEqualTo(-12.0);
+        assertThat(stats.max()).isEqualTo(-2.0);
+        assertThat(stats.mean()).isCloseTo(expected.mean(), within(1e-12));
+        assertThat(stats.variance()).isCloseTo(expected.variance(), within(1e-12));
+    }
+}
@@ -0,0 +1,138 @@
+package net.bertag.operators.stats;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for {@link QuantileSketch}.
+ */
+public class QuantileSketchTest {
+
+    @Test
+    void shouldEstimateQuantilesWithinTheRankError() {
+        // GIVEN a million shuffled values 0..999999.
+        double[] values = shuffledRange(1_000_000, new Random(5));
+
+        // WHEN they are sketched...
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+
+        // THEN each quantile should be within about 1% in rank, and memory should stay bounded.
+        for (double q : new double[] {0.01, 0.1, 0.5, 0.9, 0.99}) {
+            assertThat(sketch.quantile(q) / values.length).isCloseTo(q, within(0.01));
+            assertThat(sketch.rank(q * values.length)).isCloseTo(q, within(0.01));
+        }
+        assertThat(sketch.quantile(0)).isEqualTo(0.0);
+        assertThat(sketch.quantile(1)).isEqualTo(999_999.0);
+        assertThat(sketch.count()).isEqualTo(1_000_000);
+        assertThat(sketch.retained()).isLessThan(4 * QuantileSketch.DEFAULT_K);
+    }
+
+    @Test
+    void shouldMergeSketchesFromSeparatePartitions() {
+        // GIVEN values split across eight partitions, sketched separately.
+        double[] values = shuffledRange(400_000, new Random(9));
+        List<QuantileSketch> parts = new ArrayList<>();
+        for (int p = 0; p < 8; p++) {
+            QuantileSketch part = new QuantileSketch();
+            for (int i = p; i < values.length; i += 8) {
+                part.add(values[i]);
+            }
+            parts.add(part);
+        }
+
+        // WHEN they are merged with Ops.plus, with null standing for an empty sketch...
+        QuantileSketch merged = null;
+        for (QuantileSketch part : parts) {
+            merged = Ops.plus(Ops.plus(merged, null), part);
+        }
+
+        // THEN the merged sketch should describe the whole input.
+        assertThat(merged.count()).isEqualTo(values.length);
+        assertThat(merged.quantile(0.5) / values.length).isCloseTo(0.5, within(0.015));
+        assertThat(merged.quantile(0.99) / values.length).isCloseTo(0.99, within(0.015));
+        assertThat(merged.retained()).isLessThan(4 * QuantileSketch.DEFAULT_K);
+    }
+
+    @Test
+    void shouldMergeASketchIntoItself() {
+        // GIVEN a sketch of many values.
+        double[] values = shuffledRange(100_000, new Random(5));
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+
+        // WHEN it is merged into itself...
+        QuantileSketch doubled = Ops.plus(sketch, sketch);
+
+        // THEN it should describe every value twice, in bounded memory.
+        assertThat(doubled).isSameAs(sketch);
+        assertThat(doubled.count()).isEqualTo(2L * values.length);
+        assertThat(doubled.quantile(0.5) / values.length).isCloseTo(0.5, within(0.015));
+        assertThat(doubled.retained()).isLessThan(4 * QuantileSketch.DEFAULT_K);
+    }
+
+    @Test
+    void shouldRoundTripThroughBinaryForm() {
+        // GIVEN a sketch of some values.
+        QuantileSketch sketch = Arrays.stream(shuffledRange(50_000, new Random(1))).boxed()
+                .collect(QuantileSketch.toSketch());
+
+        // WHEN it is written and read back...
+        ByteBuffer buffer = ByteBuffer.allocate(sketch.serializedSize());
+        sketch.writeTo(buffer);
+        ((Buffer) buffer).flip();
+        QuantileSketch copy = QuantileSketch.readFrom(buffer);
+
+        // THEN the copy should answer every query the same way and use every byte written.
+        assertThat(buffer.remaining()).isZero();
+        assertThat(copy.count()).isEqualTo(sketch.count());
+        assertThat(copy.retained()).isEqualTo(sketch.retained());
+        for (double q = 0; q <= 1; q += 0.05) {
+            assertThat(copy.quantile(q)).isEqualTo(sketch.quantile(q));
+        }
+        assertThat(sketch.serializedSize()).isLessThan(8 * 4 * QuantileSketch.DEFAULT_K);
+    }
+
+    @Test
+    void shouldSkipNullsAndRejectBadQuantiles() {
+        // GIVEN a sketch of only null and NaN values.
+        QuantileSketch sketch = new QuantileSketch().add((Double) null).add(Double.NaN);
+
+        // WHEN it is queried...
+        // THEN it should be empty, and quantiles outside [0, 1] should be rejected.
+        assertThat(sketch.count()).isZero();
+        assertThat(sketch.quantile(0.5)).isNull();
+        assertThat(sketch.rank(1.0)).isNull();
+        assertThat(sketch.add(4.0).quantile(0.5)).isEqualTo(4.0);
+        assertThatThrownBy(() -> sketch.quantile(1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static double[] shuffledRange(int size, Random random) {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+}
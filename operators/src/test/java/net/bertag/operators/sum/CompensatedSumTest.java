@@ -0,0 +1,93 @@
+package net.bertag.operators.sum;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CompensatedSum}.
+ */
+public class CompensatedSumTest {
+
+    @Test
+    void shouldRecoverLowOrderBitsLostByNaiveSummation() {
+        // GIVEN values whose naive sum loses the small term entirely.
+        Double[] values = {1e16, 1.0, null, -1e16};
+
+        // WHEN they are summed naively and with compensation...
+        Double naive = Arrays.stream(values).reduce(null, Ops::plus);
+        Double compensated = CompensatedSum.sum(values);
+
+        // THEN only the compensated sum should be exact.
+        assertThat(naive).isEqualTo(0.0);
+        assertThat(compensated).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldMatchExactSumOfManySmallValues() {
+        // GIVEN a million copies of 0.1.
+        double[] values = new double[1_000_000];
+        Arrays.fill(values, 0.1);
+
+        // WHEN they are summed with compensation...
+        double result = CompensatedSum.sum(values);
+
+        // THEN the result should equal the exact sum rounded once to a double.
+        double exact = new BigDecimal(0.1).multiply(BigDecimal.valueOf(values.length)).doubleValue();
+        assertThat(result).isEqualTo(exact);
+    }
+
+    @Test
+    void shouldReturnNullWhenAllValuesAreNull() {
+        // GIVEN only null values.
+        // WHEN they are summed...
+        // THEN the result should be null, as with Ops.plus.
+        assertThat(CompensatedSum.sum(new Double[] {null, null})).isNull();
+        assertThat(CompensatedSum.sum(new Float[] {null})).isNull();
+        assertThat(CompensatedSum.sum(Stream.of((Double) null))).isNull();
+    }
+
+    @Test
+    void shouldMergeAcrossParallelStreams() {
+        // GIVEN many repetitions of values that cancel except for a small term.
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            values.addAll(Arrays.asList(1e16, 1.0, null, -1e16));
+        }
+
+        // WHEN they are summed with a parallel stream...
+        Double result = CompensatedSum.sum(values.parallelStream());
+
+        // THEN the compensation from every partial sum should be preserved.
+        assertThat(result).isEqualTo(10_000.0);
+    }
+
+    @Test
+    void shouldSumFloatsInDoublePrecision() {
+        // GIVEN floats whose float-precision sum loses the small term.
+        Float[] values = {1e8f, 1f, -1e8f};
+
+        // WHEN they are summed...
+        Float result = Stream.of(values).collect(CompensatedSum.toFloatSum());
+
+        // THEN the small term should survive.
+        assertThat(result).isEqualTo(1f);
+    }
+
+    @Test
+    void shouldReportOverflowAsInfinity() {
+        // GIVEN values whose sum overflows.
+        Double[] values = {Double.MAX_VALUE, Double.MAX_VALUE};
+
+        // WHEN they are summed...
+        // THEN the result should be infinite rather than NaN.
+        assertThat(CompensatedSum.sum(values)).isEqualTo(Double.POSITIVE_INFINITY);
+    }
+}
@@ -0,0 +1,126 @@
+package net.bertag.operators.sum;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ExactSum}.
+ */
+public class ExactSumTest {
+
+    @Test
+    void shouldMatchCorrectlyRoundedExactSum() {
+        // GIVEN values spanning many orders of magnitude (including subnormals) and both signs.
+        double[] values = randomValues(new Random(42), 10_000);
+
+        // WHEN they are summed...
+        double result = ExactSum.sum(values);
+
+        // THEN the result should equal the exact (BigDecimal) sum rounded once to a double.
+        BigDecimal exact = BigDecimal.ZERO;
+        for (double value : values) {
+            exact = exact.add(new BigDecimal(value));
+        }
+        assertThat(result).isEqualTo(exact.doubleValue());
+    }
+
+    @Test
+    void shouldBeIndependentOfOrderAndParallelism() {
+        // GIVEN values spanning many orders of magnitude.
+        double[] values = randomValues(new Random(7), 100_000);
+        List<Double> shuffled = new ArrayList<>();
+        for (double value : values) {
+            shuffled.add(value);
+        }
+        Collections.shuffle(shuffled, new Random(11));
+
+        // WHEN they are summed sequentially, in parallel, and in a different order...
+        double sequential = ExactSum.sum(values);
+        double parallel = ExactSum.parallelSum(values);
+        Double reordered = ExactSum.sum(shuffled.parallelStream());
+
+        // THEN every result should be bit-for-bit identical.
+        assertThat(Double.doubleToRawLongBits(parallel)).isEqualTo(Double.doubleToRawLongBits(sequential));
+        assertThat(Double.doubleToRawLongBits(reordered)).isEqualTo(Double.doubleToRawLongBits(sequential));
+    }
+
+    @Test
+    void shouldSurviveCatastrophicCancellation() {
+        // GIVEN huge values that cancel except for a small term.
+        double[] values = {1e308, 1e308, 1.0, -1e308, -1e308, 1e-300};
+
+        // WHEN they are summed...
+        // THEN the small terms should survive even though the running total would overflow a double.
+        assertThat(ExactSum.sum(values)).isEqualTo(1.0 + 1e-300);
+    }
+
+    @Test
+    void shouldRoundHalfEvenOnlyOnce() {
+        // GIVEN sums that land exactly halfway between two doubles, or just above halfway.
+        double half = Math.scalb(1.0, -53);
+
+        // WHEN they are summed...
+        // THEN an exact tie should round to even, and any extra bit (however small) should round up.
+        assertThat(ExactSum.sum(new double[] {1.0, half})).isEqualTo(1.0);
+        assertThat(ExactSum.sum(new double[] {1.0, half, Double.MIN_VALUE})).isEqualTo(Math.nextUp(1.0));
+    }
+
+    @Test
+    void shouldComputeTheExactRoundingErrorOfProducts() {
+        // GIVEN random operands, and operands too large to split.
+        Random random = new Random(3);
+
+        // WHEN the rounding error of each product is computed...
+        // THEN the rounded product plus the error should equal the exact product, and unsplittable operands give 0.
+        for (int i = 0; i < 1_000; i++) {
+            double a = random.nextGaussian() * 1e10;
+            double b = random.nextGaussian() * 1e-10;
+            BigDecimal exact = new BigDecimal(a).multiply(new BigDecimal(b));
+            BigDecimal split = new BigDecimal(a * b).add(new BigDecimal(ExactSum.productError(a, b)));
+            assertThat(split).isEqualByComparingTo(exact);
+        }
+        assertThat(ExactSum.productError(1e305, 1e-10)).isZero();
+        assertThat(ExactSum.productError(Double.MAX_VALUE, 2)).isZero();
+    }
+
+    @Test
+    void shouldReturnNullWhenAllValuesAreNull() {
+        // GIVEN only null values.
+        // WHEN they are summed...
+        // THEN the result should be null, as with Ops.plus.
+        assertThat(ExactSum.sum(new Double[] {null, null})).isNull();
+        assertThat(ExactSum.sum(new Float[] {null})).isNull();
+        assertThat(ExactSum.sum(Stream.of((Double) null))).isNull();
+        assertThat(ExactSum.sum(new Double[] {null, 2.5, -2.5})).isEqualTo(0.0);
+    }
+
+    @Test
+    void shouldPropagateNonFiniteValues() {
+        // GIVEN sets of values containing infinities and NaN.
+        // WHEN they are summed...
+        // THEN the result should match ordinary floating-point addition.
+        assertThat(ExactSum.sum(new double[] {1.0, Double.POSITIVE_INFINITY})).isEqualTo(Double.POSITIVE_INFINITY);
+        assertThat(ExactSum.sum(new double[] {Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY})).isNaN();
+        assertThat(ExactSum.sum(new double[] {1.0, Double.NaN})).isNaN();
+        assertThat(ExactSum.sum(new double[] {Double.MAX_VALUE, Double.MAX_VALUE})).isEqualTo(Double.POSITIVE_INFINITY);
+    }
+
+    private static double[] randomValues(Random random, int count) {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            double magnitude = Math.scalb(random.nextDouble(), random.nextInt(2000) - 1050);
+            values[i] = random.nextBoolean() ? magnitude : -magnitude;
+        }
+        values[0] = Double.MIN_VALUE;
+        values[1] = -Double.MIN_NORMAL;
+        return values;
+    }
+}
@@ -0,0 +1,135 @@
+package net.bertag.operators.time;
+
+import net.bertag.operators.test.MyData;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TimeBuckets}.
+ */
+public class TimeBucketsTest {
+
+    private static MyData empty() {
+        return new MyData("", (Double) null);
+    }
+
+    private static MyData data(double value) {
+        return new MyData("", value);
+    }
+
+    @Test
+    void shouldRollUpWeeksAndAverageThem() {
+        // GIVEN a weekly aggregator starting on Sundays.
+        List<Window<LocalDate, MyData>> weeks = new ArrayList<>();
+        TimeBuckets<LocalDate, MyData> buckets = TimeBuckets.weekly(DayOfWeek.SUNDAY, 0, TimeBucketsTest::empty,
+                weeks::add);
+
+        // WHEN a week of daily logs (one of them null) and the start of the next week are added...
+        LocalDate day = LocalDate.parse("2023-10-01");
+        double[] pages = {50, 55, 50, 45, 60, 40};
+        for (int i = 0; i < pages.length; i++) {
+            buckets.add(day.plusDays(i), data(pages[i]));
+        }
+        buckets.add(day.plusDays(6), null);
+        buckets.add(day.plusDays(7), data(10));
+
+        // THEN the first week should be emitted with its total and average, and the second only on flush.
+        assertThat(weeks).hasSize(1);
+        Window<LocalDate, MyData> week = weeks.get(0);
+        assertThat(week.start()).isEqualTo(day);
+        assertThat(week.end()).isEqualTo(day.plusDays(7));
+        assertThat(week.count()).isEqualTo(6);
+        assertThat(week.total().getSomeLong()).isEqualTo(300L);
+        assertThat(week.average().getSomeDouble()).isEqualTo(50.0);
+        assertThat(week.total().getSomeDouble()).isEqualTo(300.0);
+        buckets.flush();
+        assertThat(weeks).hasSize(2);
+        assertThat(weeks.get(1).total().getSomeLong()).isEqualTo(10L);
+    }
+
+    @Test
+    void shouldAcceptOutOfOrderRecordsWithinLateness() {
+        // GIVEN a daily aggregator allowing two days of lateness.
+        List<Window<LocalDate, MyData>> days = new ArrayList<>();
+        TimeBuckets<LocalDate, MyData> buckets = TimeBuckets.daily(2, TimeBucketsTest::empty, days::add);
+        LocalDate day = LocalDate.parse("2024-02-27");
+
+        // WHEN records arrive out of order, one of them later than allowed...
+        buckets.add(day.plusDays(1), data(1));
+        buckets.add(day, data(2));
+        buckets.add(day.plusDays(3), data(4));
+        buckets.add(day.plusDays(1), data(8));
+        buckets.add(day, data(16));
+        buckets.flush();
+
+        // THEN windows should be emitted in order, including the late-but-allowed record, and the too-late one dropped.
+        assertThat(days).extracting(Window::start).containsExactly(day, day.plusDays(1), day.plusDays(3));
+        assertThat(days).extracting(w -> w.total().getSomeLong()).containsExactly(2L, 9L, 4L);
+        assertThat(buckets.lateCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBucketByCalendarMonth() {
+        // GIVEN a monthly aggregator.
+        List<Window<LocalDate, MyData>> months = new ArrayList<>();
+        TimeBuckets<LocalDate, MyData> buckets = TimeBuckets.monthly(0, TimeBucketsTest::empty, months::add);
+
+        // WHEN records are added across a leap-year February...
+        buckets.add(LocalDate.parse("2024-01-31"), data(1));
+        buckets.add(LocalDate.parse("2024-02-01"), data(2));
+        buckets.add(LocalDate.parse("2024-02-29"), data(3));
+        buckets.add(LocalDate.parse("2024-03-01"), data(4));
+        buckets.flush();
+
+        // THEN each month should span exactly its own days.
+        assertThat(months).extracting(Window::start).containsExactly(LocalDate.parse("2024-01-01"),
+                LocalDate.parse("2024-02-01"), LocalDate.parse("2024-03-01"));
+        assertThat(months.get(1).end()).isEqualTo(LocalDate.parse("2024-03-01"));
+        assertThat(months).extracting(w -> w.total().getSomeLong()).containsExactly(1L, 5L, 4L);
+    }
+
+    @Test
+    void shouldPutRecordsInEveryOverlappingHoppingWindow() {
+        // GIVEN ten-minute windows starting every five minutes.
+        List<Window<Instant, MyData>> windows = new ArrayList<>();
+        TimeBuckets<Instant, MyData> buckets = TimeBuckets.hopping(Duration.ofMinutes(10), Duration.ofMinutes(5),
+                Duration.ZERO, TimeBucketsTest::empty, windows::add);
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+
+        // WHEN records are added at 2, 7 and 12 minutes...
+        buckets.add(start.plusSeconds(120), data(1));
+        buckets.add(start.plusSeconds(420), data(2));
+        buckets.add(start.plusSeconds(720), data(4));
+        buckets.flush();
+
+        // THEN each record should count toward both windows containing it.
+        assertThat(windows).extracting(Window::start).containsExactly(start.minusSeconds(300), start,
+                start.plusSeconds(300), start.plusSeconds(600));
+        assertThat(windows).extracting(w -> w.total().getSomeLong()).containsExactly(1L, 3L, 6L, 4L);
+    }
+
+    @Test
+    void shouldHandleLargeJumpsInTime() {
+        // GIVEN a one-second tumbling aggregator.
+        List<Window<Instant, MyData>> windows = new ArrayList<>();
+        TimeBuckets<Instant, MyData> buckets = TimeBuckets.tumbling(Duration.ofSeconds(1), Duration.ofSeconds(30),
+                TimeBucketsTest::empty, windows::add);
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+
+        // WHEN records are a year apart...
+        buckets.add(start, data(1));
+        buckets.add(start.plus(Duration.ofDays(365)), data(2));
+        buckets.flush();
+
+        // THEN both windows should be emitted without scanning the seconds in between.
+        assertThat(windows).extracting(w -> w.total().getSomeLong()).containsExactly(1L, 2L);
+    }
+}
@@ -0,0 +1,114 @@
+package net.bertag.operators.types;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link BigCount} and its {@link Ops} overloads.
+ */
+public class BigCountTest {
+
+    private static final String MAX = "9223372036854775807";
+    private static final String MIN = "-9223372036854775808";
+
+    @Nested
+    class OpsTest {
+
+        @ParameterizedTest
+        @CsvSource({", , ", "1, , 1", ", 2, 2", "1, 2, 3", MAX + ", 1, 9223372036854775808"})
+        void shouldAddNullableCounts(String a, String b, String expectedResult) {
+            // GIVEN two nullable counts `a` and `b`.
+            // WHEN plus(a, b) is called...
+            BigCount result = Ops.plus(count(a), count(b));
+
+            // THEN it should return the expected result without overflowing.
+            assertThat(result).isEqualTo(count(expectedResult));
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , ", "1, , 1", ", 2, -2", "1, 2, -1", MIN + ", 1, -9223372036854775809"})
+        void shouldSubtractNullableCounts(String a, String b, String expectedResult) {
+            // GIVEN two nullable counts `a` and `b`.
+            // WHEN minus(a, b) is called...
+            BigCount result = Ops.minus(count(a), count(b));
+
+            // THEN it should return the expected result without overflowing.
+            assertThat(result).isEqualTo(count(expectedResult));
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , ", "1, , 1", ", 2, 2", "3, 4, 12", "4294967296, 4294967296, 18446744073709551616"})
+        void shouldMultiplyNullableCounts(String a, String b, String expectedResult) {
+            // GIVEN two nullable counts `a` and `b`.
+            // WHEN times(a, b) is called...
+            BigCount result = Ops.times(count(a), count(b));
+
+            // THEN it should return the expected result without overflowing.
+            assertThat(result).isEqualTo(count(expectedResult));
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , ", "5, , 5", ", 2, 0", "5, 4, 1", MIN + ", -1, 9223372036854775808"})
+        void shouldDivideNullableCounts(String a, String b, String expectedResult) {
+            // GIVEN two nullable counts `a` and `b`.
+            // WHEN div(a, b) is called...
+            BigCount result = Ops.div(count(a), count(b));
+
+            // THEN it should return the expected result without overflowing.
+            assertThat(result).isEqualTo(count(expectedResult));
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , ", "3, , 3", ", 2.0, ", "3, 1.5, 5", MAX + ", 2.0, 18446744073709551614"})
+        void shouldScaleNullableCounts(String value, Double factor, String expectedResult) {
+            // GIVEN a nullable count and a nullable factor.
+            // WHEN scale(value, factor) is called...
+            BigCount result = Ops.scale(count(value), factor);
+
+            // THEN it should return the expected result without overflowing.
+            assertThat(result).isEqualTo(count(expectedResult));
+        }
+    }
+
+    @Nested
+    class RepresentationTest {
+
+        @Test
+        void shouldDemoteWhenResultFitsInLong() {
+            // GIVEN a count that has been promoted past the long range.
+            BigCount promoted = count(MAX).plus(BigCount.ONE);
+            assertThat(promoted.isLong()).isFalse();
+
+            // WHEN it is brought back into range...
+            BigCount demoted = promoted.minus(BigCount.valueOf(2));
+
+            // THEN it should use the compact form again and equal an equivalent compact count.
+            assertThat(demoted.isLong()).isTrue();
+            assertThat(demoted).isEqualTo(BigCount.valueOf(Long.MAX_VALUE - 1));
+            assertThat(demoted.longValueExact()).isEqualTo(Long.MAX_VALUE - 1);
+        }
+
+        @Test
+        void shouldRejectExactLongConversionWhenOutOfRange() {
+            // GIVEN a count outside the long range.
+            BigCount promoted = count(MAX).plus(BigCount.ONE);
+
+            // WHEN it is converted to an exact long...
+            // THEN an ArithmeticException should be thrown.
+            assertThatThrownBy(promoted::longValueExact).isInstanceOf(ArithmeticException.class);
+            assertThat(promoted.compareTo(count(MAX))).isPositive();
+        }
+    }
+
+    private static BigCount count(String value) {
+        return value != null ? BigCount.valueOf(new BigInteger(value)) : null;
+    }
+}
@@ -0,0 +1,155 @@
+package net.bertag.operators.types;
+
+import net.bertag.operators.Ops;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link Decimal64}.
+ */
+public class Decimal64Test {
+
+    @Nested
+    class ArithmeticTest {
+
+        @ParameterizedTest
+        @CsvSource({", , ", "1.25, , 1.25", ", 2.5, 2.5", "1.25, 2.5, 3.75", "0.1, 0.2, 0.3"})
+        void shouldAddNullableDecimals(String a, String b, String expectedResult) {
+            // GIVEN two nullable decimals `a` and `b`.
+            // WHEN Ops.plus(a, b) is called...
+            Decimal64 result = Ops.plus(parse(a), parse(b));
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(parse(expectedResult));
+        }
+
+        @ParameterizedTest
+        @CsvSource({", , ", "1.25, , 1.25", ", 5, -5", "1.25, 2.5, -1.25", "10, 0.01, 9.99"})
+        void shouldSubtractDecimals(String a, String b, String expectedResult) {
+            // GIVEN two nullable decimals `a` and `b` of possibly different scales.
+            // WHEN Ops.minus(a, b) is called...
+            Decimal64 result = Ops.minus(parse(a), parse(b));
+
+            // THEN it should return the expected result at the larger scale.
+            assertThat(result).isEqualTo(parse(expectedResult));
+        }
+
+        @ParameterizedTest
+        @CsvSource({
+                "1.25, 2.50, 3.12",
+                "1.15, 1.00, 1.15",
+                "-0.05, 0.50, -0.02",
+                "10000000000.00, 1000000.00, 10000000000000000"
+        })
+        void shouldMultiplyDecimalsRoundingHalfEven(String a, String b, String expectedResult) {
+            // GIVEN two decimals `a` and `b`.
+            // WHEN Ops.times(a, b) is called...
+            Decimal64 result = Ops.times(parse(a), parse(b));
+
+            // THEN it should return the product rounded half-even to the larger scale.
+            assertThat(result.toBigDecimal()).isEqualByComparingTo(expectedResult);
+        }
+
+        @ParameterizedTest
+        @CsvSource({
+                ", , ",
+                ", 8.00, 0.12",
+                "10.00, , 10.00",
+                "10.00, 3.00, 3.33",
+                "2.00, 3.00, 0.67",
+                "1.00, 8.00, 0.12",
+                "-1.00, 8.00, -0.12"
+        })
+        void shouldDivideDecimalsRoundingHalfEven(String a, String b, String expectedResult) {
+            // GIVEN two nullable decimals `a` and `b`.
+            // WHEN Ops.div(a, b) is called...
+            Decimal64 result = Ops.div(parse(a), parse(b));
+
+            // THEN it should return the quotient rounded half-even to the larger scale.
+            assertThat(result).isEqualTo(parse(expectedResult));
+        }
+
+        @ParameterizedTest
+        @CsvSource({"3.00, 1.5, 4.50", "1.00, 0.333, 0.33", "2.50, , 2.50"})
+        void shouldScaleDecimals(String value, Double factor, String expectedResult) {
+            // GIVEN a decimal and a nullable factor.
+            // WHEN Ops.scale(value, factor) is called...
+            Decimal64 result = Ops.scale(parse(value), factor);
+
+            // THEN it should return the expected result at the original scale.
+            assertThat(result).isEqualTo(parse(expectedResult));
+        }
+
+        @Test
+        void shouldThrowOnOverflow() {
+            // GIVEN the largest representable decimal.
+            Decimal64 max = Decimal64.of(Long.MAX_VALUE, 2);
+
+            // WHEN it is incremented...
+            // THEN an ArithmeticException should be thrown rather than wrapping.
+            assertThatThrownBy(() -> max.plus(Decimal64.of(1, 2))).isInstanceOf(ArithmeticException.class);
+        }
+
+        @Test
+        void shouldThrowOnDivisionOverflow() {
+            // GIVEN the smallest representable decimal.
+            Decimal64 min = Decimal64.of(Long.MIN_VALUE, 0);
+
+            // WHEN it is divided by -1...
+            // THEN an ArithmeticException should be thrown rather than returning the same value.
+            assertThatThrownBy(() -> min.div(Decimal64.of(-1, 0))).isInstanceOf(ArithmeticException.class);
+        }
+
+        @Test
+        void shouldThrowOnDivisionByZero() {
+            // GIVEN a decimal and zero.
+            // WHEN the decimal is divided by zero...
+            // THEN an ArithmeticException should be thrown.
+            assertThatThrownBy(() -> Decimal64.ONE.div(Decimal64.ZERO)).isInstanceOf(ArithmeticException.class);
+        }
+    }
+
+    @Nested
+    class ConversionTest {
+
+        @Test
+        void shouldRoundTripThroughBigDecimal() {
+            // GIVEN a BigDecimal.
+            BigDecimal source = new BigDecimal("-12345.6789");
+
+            // WHEN it is converted to a decimal and back...
+            Decimal64 decimal = Decimal64.valueOf(source);
+
+            // THEN nothing should be lost.
+            assertThat(decimal.unscaledValue()).isEqualTo(-123456789L);
+            assertThat(decimal.scale()).isEqualTo(4);
+            assertThat(decimal.toBigDecimal()).isEqualTo(source);
+            assertThat(decimal.toString()).isEqualTo("-12345.6789");
+            assertThat(decimal.doubleValue()).isEqualTo(-12345.6789);
+        }
+
+        @Test
+        void shouldCompareIgnoringScale() {
+            // GIVEN two equal values at different scales.
+            Decimal64 a = Decimal64.parse("1.5");
+            Decimal64 b = Decimal64.parse("1.50");
+
+            // WHEN they are compared...
+            // THEN they should compare as equal but not be equal (as with BigDecimal).
+            assertThat(a.compareTo(b)).isZero();
+            assertThat(a).isNotEqualTo(b);
+            assertThat(a.withScale(2)).isEqualTo(b);
+        }
+    }
+
+    private static Decimal64 parse(String value) {
+        return value != null ? Decimal64.parse(value) : null;
+    }
+}
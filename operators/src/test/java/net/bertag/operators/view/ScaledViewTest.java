@@ -0,0 +1,123 @@
+package net.bertag.operators.view;
+
+import net.bertag.operators.api.Addable;
+import net.bertag.operators.api.Scalable;
+import net.bertag.operators.test.MyData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * Unit tests for {@link ScaledView}.
+ */
+public class ScaledViewTest {
+
+    @BeforeEach
+    void resetCounts() {
+        Counter.copies = 0;
+        Counter.scales = 0;
+    }
+
+    @Test
+    void shouldComposeFactorsWithoutTouchingTheValue() {
+        // GIVEN a mutable value that counts how often it is copied and scaled.
+        Counter base = new Counter(70);
+
+        // WHEN a view of it is scaled repeatedly...
+        ScaledView<Counter> view = ScaledView.of(base, Counter::copy).scale(1d / 7).scale(10).scale(0.5);
+
+        // THEN nothing should be copied or scaled until the view is materialized, and then only once.
+        assertThat(view.factor()).isCloseTo(5d / 7, offset(1e-15));
+        assertThat(Counter.copies).isZero();
+        assertThat(Counter.scales).isZero();
+        Counter result = view.get();
+        assertThat(result.value).isCloseTo(50.0, offset(1e-12));
+        assertThat(Counter.copies).isEqualTo(1);
+        assertThat(Counter.scales).isEqualTo(1);
+        assertThat(base.value).isEqualTo(70.0);
+    }
+
+    @Test
+    void shouldMaterializeOnlyOncePerView() {
+        // GIVEN a scaled view of a mutable value.
+        ScaledView<Counter> view = ScaledView.of(new Counter(8), Counter::copy).scale(0.5);
+
+        // WHEN it is read repeatedly and combined...
+        Counter first = view.get();
+        double read = view.read(counter -> counter.value);
+        ScaledView<Counter> rescaled = view.scale(4);
+
+        // THEN it should be scaled only once, combining should copy the cached value without modifying it, and
+        // rescaling should give a new view that materializes afresh.
+        assertThat(view.get()).isSameAs(first);
+        assertThat(read).isEqualTo(4.0);
+        assertThat(Counter.scales).isEqualTo(1);
+        assertThat(ScaledView.plus(view, view).value).isEqualTo(8.0);
+        assertThat(first.value).isEqualTo(4.0);
+        assertThat(Counter.scales).isEqualTo(1);
+        assertThat(rescaled.get().value).isEqualTo(16.0);
+        assertThat(Counter.scales).isEqualTo(2);
+    }
+
+    @Test
+    void shouldMatchEagerScalingOfImmutableValues() {
+        // GIVEN an immutable value.
+        MyData data = new MyData("a", 12.0);
+
+        // WHEN a view of it is scaled and read...
+        ScaledView<MyData> view = ScaledView.of(data).scale(0.25).scale(2);
+
+        // THEN it should equal scaling by the combined factor, and an unscaled view should return the value itself.
+        assertThat(view.get()).isEqualTo(data.scale(0.5));
+        assertThat(view.read(MyData::getSomeDouble)).isEqualTo(6.0);
+        assertThat(ScaledView.of(data).get()).isSameAs(data);
+        assertThat(view.base()).isSameAs(data);
+    }
+
+    @Test
+    void shouldMaterializeForNonScaleOperations() {
+        // GIVEN two scaled views.
+        ScaledView<MyData> a = ScaledView.of(new MyData("a", 10.0)).scale(0.5);
+        ScaledView<MyData> b = ScaledView.of(new MyData("a", 4.0)).scale(2);
+
+        // WHEN they are combined...
+        // THEN each view should be materialized first, and null views should follow Ops semantics.
+        assertThat(ScaledView.plus(a, b)).isEqualTo(new MyData("a", 13.0));
+        assertThat(ScaledView.minus(a, b)).isEqualTo(new MyData("a", -3.0));
+        assertThat(ScaledView.times(a, b)).isEqualTo(new MyData("a", 40.0));
+        assertThat(ScaledView.div(b, null)).isEqualTo(new MyData("a", 8.0));
+        assertThat(ScaledView.<MyData>plus(null, null)).isNull();
+    }
+
+    private static final class Counter implements Scalable<Counter>, Addable<Counter> {
+
+        static int copies;
+        static int scales;
+
+        double value;
+
+        Counter(double value) {
+            this.value = value;
+        }
+
+        Counter copy() {
+            copies++;
+            return new Counter(value);
+        }
+
+        @Override
+        public Counter plus(Counter other) {
+            value += other.value;
+            return this;
+        }
+
+        @Override
+        public Counter scale(double factor) {
+            scales++;
+            value *= factor;
+            return this;
+        }
+    }
+}
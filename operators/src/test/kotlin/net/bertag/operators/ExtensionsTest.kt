@@ -1,15 +1,20 @@
 package net.bertag.operators
 
 import net.bertag.operators.test.MyData
+import net.bertag.operators.types.BigCount
+import net.bertag.operators.types.Decimal64
 import org.assertj.core.api.Assertions.assertThat
 import org.assertj.core.api.Assertions.within
 import org.junit.jupiter.api.Nested
+import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtensionContext
 import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.Arguments
 import org.junit.jupiter.params.provider.ArgumentsProvider
 import org.junit.jupiter.params.provider.ArgumentsSource
 import org.junit.jupiter.params.provider.CsvSource
+import java.math.BigDecimal
+import java.math.BigInteger
 import java.util.stream.Stream
 
 /**
@@ -94,6 +99,39 @@ class ExtensionsTest {
             }
         }
 
+        @ParameterizedTest
+        @CsvSource(", , , ", "1.1, , 1.1", ", 2.2, 2.2", "1.1, 2.2, 3.3")
+        fun shouldAddNullableBigDecimal(a: BigDecimal?, b: BigDecimal?, expectedResult: BigDecimal?) {
+            // GIVEN two nullable BigDecimals `a` and `b`.
+            // WHEN a.plus(b) is called...
+            val result = a + b
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult)
+        }
+
+        @ParameterizedTest
+        @CsvSource(", , , ", "1, , 1", ", 2, 2", "1, 2, 3")
+        fun shouldAddNullableBigInteger(a: BigInteger?, b: BigInteger?, expectedResult: BigInteger?) {
+            // GIVEN two nullable BigIntegers `a` and `b`.
+            // WHEN a.plus(b) is called...
+            val result = a + b
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult)
+        }
+
+        @ParameterizedTest
+        @CsvSource(", , ", "1, , 1", ", 2, 2", "9223372036854775807, 1, 9223372036854775808")
+        fun shouldAddNullableBigCount(a: String?, b: String?, expectedResult: String?) {
+            // GIVEN two nullable counts `a` and `b`.
+            // WHEN a.plus(b) is called...
+            val result = a?.toBigInteger()?.let(BigCount::valueOf) + b?.toBigInteger()?.let(BigCount::valueOf)
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult?.toBigInteger()?.let(BigCount::valueOf))
+        }
+
         @ParameterizedTest
         @ArgumentsSource(AddObjectArgProvider::class)
         fun shouldAddNullableObject(a: MyData?, b: MyData?, expectedResult: MyData?) {
@@ -177,6 +215,50 @@ class ExtensionsTest {
             }
         }
 
+        @ParameterizedTest
+        @CsvSource(", , , ", "1.1, , 1.1", ", 2.2, -2.2", "1.1, 2.2, -1.1")
+        fun shouldSubtractNullableBigDecimal(a: BigDecimal?, b: BigDecimal?, expectedResult: BigDecimal?) {
+            // GIVEN two nullable BigDecimals `a` and `b`.
+            // WHEN a.minus(b) is called...
+            val result = a - b
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult)
+        }
+
+        @ParameterizedTest
+        @CsvSource(", , , ", "1, , 1", ", 2, -2", "1, 2, -1")
+        fun shouldSubtractNullableBigInteger(a: BigInteger?, b: BigInteger?, expectedResult: BigInteger?) {
+            // GIVEN two nullable BigIntegers `a` and `b`.
+            // WHEN a.minus(b) is called...
+            val result = a - b
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult)
+        }
+
+        @ParameterizedTest
+        @CsvSource(", , ", "1, , 1", ", 2, -2", "-9223372036854775808, 1, -9223372036854775809")
+        fun shouldSubtractNullableBigCount(a: String?, b: String?, expectedResult: String?) {
+            // GIVEN two nullable counts `a` and `b`.
+            // WHEN a.minus(b) is called...
+            val result = a?.toBigInteger()?.let(BigCount::valueOf) - b?.toBigInteger()?.let(BigCount::valueOf)
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult?.toBigInteger()?.let(BigCount::valueOf))
+        }
+
+        @ParameterizedTest
+        @CsvSource(", , ", "1.25, , 1.25", ", 5, -5", "1.25, 2.5, -1.25")
+        fun shouldSubtractNullableDecimal64(a: String?, b: String?, expectedResult: String?) {
+            // GIVEN two nullable decimals `a` and `b`.
+            // WHEN a.minus(b) is called...
+            val result = a?.let(Decimal64::parse) - b?.let(Decimal64::parse)
+
+            // THEN it should return the expected result, treating a null `a` as 0.
+            assertThat(result).isEqualTo(expectedResult?.let(Decimal64::parse))
+        }
+
         @ParameterizedTest
         @ArgumentsSource(SubtractObjectArgProvider::class)
         fun shouldSubtractNullableObject(a: MyData?, b: MyData?, expectedResult: MyData?) {
@@ -260,6 +342,39 @@ class ExtensionsTest {
             }
         }
 
+        @ParameterizedTest
+        @CsvSource(", , , ", "1.5, , 1.5", ", 2.5, 2.5", "1.5, 2.5, 3.75")
+        fun shouldMultiplyNullableBigDecimal(a: BigDecimal?, b: BigDecimal?, expectedResult: BigDecimal?) {
+            // GIVEN two nullable BigDecimals `a` and `b`.
+            // WHEN a.times(b) is called...
+            val result = a * b
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult)
+        }
+
+        @ParameterizedTest
+        @CsvSource(", , , ", "1, , 1", ", 2, 2", "3, 4, 12")
+        fun shouldMultiplyNullableBigInteger(a: BigInteger?, b: BigInteger?, expectedResult: BigInteger?) {
+            // GIVEN two nullable BigIntegers `a` and `b`.
+            // WHEN a.times(b) is called...
+            val result = a * b
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult)
+        }
+
+        @ParameterizedTest
+        @CsvSource(", , ", "1, , 1", ", 2, 2", "4294967296, 4294967296, 18446744073709551616")
+        fun shouldMultiplyNullableBigCount(a: String?, b: String?, expectedResult: String?) {
+            // GIVEN two nullable counts `a` and `b`.
+            // WHEN a.times(b) is called...
+            val result = a?.toBigInteger()?.let(BigCount::valueOf) * b?.toBigInteger()?.let(BigCount::valueOf)
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult?.toBigInteger()?.let(BigCount::valueOf))
+        }
+
         @ParameterizedTest
         @ArgumentsSource(MultiplyObjectArgProvider::class)
         fun shouldMultiplyNullableObject(a: MyData?, b: MyData?, expectedResult: MyData?) {
@@ -343,6 +458,52 @@ class ExtensionsTest {
             }
         }
 
+        @ParameterizedTest
+        @CsvSource(", , , ", "1.5, , 1.5", ", 2.5, 0.4", "3.75, 2.5, 1.5")
+        fun shouldDivideNullableBigDecimal(a: BigDecimal?, b: BigDecimal?, expectedResult: BigDecimal?) {
+            // GIVEN two nullable BigDecimals `a` and `b`.
+            // WHEN a.divRounded(b) is called...
+            val result = a divRounded b
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult)
+        }
+
+        @Test
+        fun shouldKeepStandardDivForNonNullBigDecimal() {
+            // GIVEN two non-null BigDecimals whose quotient does not terminate.
+            val a = BigDecimal("1.0")
+            val b = BigDecimal("3")
+
+            // WHEN a / b is called...
+            val result = a / b
+
+            // THEN the standard library operator should be used, keeping the scale of `a`.
+            assertThat(result).isEqualTo(BigDecimal("0.3"))
+        }
+
+        @ParameterizedTest
+        @CsvSource(", , , ", "1, , 1", ", 2, 0", "5, 4, 1")
+        fun shouldDivideNullableBigInteger(a: BigInteger?, b: BigInteger?, expectedResult: BigInteger?) {
+            // GIVEN two nullable BigIntegers `a` and `b`.
+            // WHEN a.div(b) is called...
+            val result = a / b
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult)
+        }
+
+        @ParameterizedTest
+        @CsvSource(", , ", "5, , 5", ", 2, 0", "5, 4, 1")
+        fun shouldDivideNullableBigCount(a: String?, b: String?, expectedResult: String?) {
+            // GIVEN two nullable counts `a` and `b`.
+            // WHEN a.div(b) is called...
+            val result = a?.toBigInteger()?.let(BigCount::valueOf) / b?.toBigInteger()?.let(BigCount::valueOf)
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult?.toBigInteger()?.let(BigCount::valueOf))
+        }
+
         @ParameterizedTest
         @ArgumentsSource(DivideObjectArgProvider::class)
         fun shouldDivideNullableObject(a: MyData?, b: MyData?, expectedResult: MyData?) {
@@ -426,6 +587,28 @@ class ExtensionsTest {
             }
         }
 
+        @ParameterizedTest
+        @CsvSource(", , , ", "1.1, , 1.1", ", 2.0, ", "3.1, 1.5, 4.65")
+        fun shouldScaleNullableBigDecimal(obj: BigDecimal?, factor: Double?, expectedResult: BigDecimal?) {
+            // GIVEN a nullable object `obj` and a factor.
+            // WHEN obj.scale(factor) is called...
+            val result = obj.scale(factor)
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult)
+        }
+
+        @ParameterizedTest
+        @CsvSource(", , , ", "1, , 1", ", 2.0, ", "3, 1.5, 5")
+        fun shouldScaleNullableBigInteger(obj: BigInteger?, factor: Double?, expectedResult: BigInteger?) {
+            // GIVEN a nullable object `obj` and a factor.
+            // WHEN obj.scale(factor) is called...
+            val result = obj.scale(factor)
+
+            // THEN it should return the expected result.
+            assertThat(result).isEqualTo(expectedResult)
+        }
+
         @ParameterizedTest
         @ArgumentsSource(ScalableObjectArgProvider::class)
         fun shouldScaleNullableObject(obj: MyData?, factor: Double?, expectedResult: MyData?) {